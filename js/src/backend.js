@@ -1,6 +1,11 @@
 import {Task} from "./model/task";
 import {TaskId, TodoListId} from "./lib/identifiers";
 
+/**
+ * Number of tasks requested in one page.
+ */
+const TASKS_PAGE_SIZE = 500;
+
 /**
  * Service which sends requests to the server with given URL.
  *
@@ -23,6 +28,7 @@ export class Backend {
     constructor(url) {
         this.urlBuilder = new UrlBuilder(url);
         this.tokenHeader = "X-Todo-Token";
+        this.continuationTokenHeader = "X-Todo-Continuation-Token";
     }
 
     /**
@@ -107,12 +113,40 @@ export class Backend {
     /**
      * Sends read all tasks of to-do list request.
      *
+     * Server provides tasks page by page, so pages are requested one after another
+     * until the server sends no continuation token.
+     *
      * @param {TodoListId} todoListId ID of to-do list to read tasks from
      * @param token token of user session
      * @return {Promise} promise to process request result,
      * which contains array of {@link Task} if request was successful.
      */
     readTasksFrom(todoListId, token) {
+        const readRemainingPages = (tasks, continuationToken) => {
+            return this.readTasksPage(todoListId, token, continuationToken)
+                .then((page) => {
+                    const readTasks = tasks.concat(page.tasks);
+                    if (page.continuationToken === null) {
+                        return readTasks;
+                    }
+                    return readRemainingPages(readTasks, page.continuationToken);
+                });
+        };
+
+        return readRemainingPages([], null);
+    }
+
+    /**
+     * Sends read page of tasks of to-do list request.
+     *
+     * @param {TodoListId} todoListId ID of to-do list to read tasks from
+     * @param token token of user session
+     * @param {?string} continuationToken token of the previous page, `null` to read the first page
+     * @return {Promise} promise to process request result,
+     * which contains object with array of {@link Task} in `tasks` field and
+     * token of the next page in `continuationToken` field, `null` if the page is the last one.
+     */
+    readTasksPage(todoListId, token, continuationToken) {
         return new Promise((resolve, reject) => {
             const xmlHttpRequest = new XMLHttpRequest();
 
@@ -126,13 +160,16 @@ export class Backend {
                             el.completed,
                             new Date(el.lastUpdateDate))
                     });
-                    resolve(tasks);
+                    resolve({
+                        tasks: tasks,
+                        continuationToken: xmlHttpRequest.getResponseHeader(this.continuationTokenHeader)
+                    });
                 } else {
                     reject();
                 }
             };
 
-            xmlHttpRequest.open(HttpMethods.GET, this.urlBuilder.buildTodoListUrl(todoListId));
+            xmlHttpRequest.open(HttpMethods.GET, this.urlBuilder.buildTodoListPageUrl(todoListId, continuationToken));
             xmlHttpRequest.setRequestHeader(this.tokenHeader, token);
             xmlHttpRequest.send();
         });
@@ -297,6 +334,21 @@ class UrlBuilder {
         return `${this.getListsUrl()}/${todoListId.id}`
     }
 
+    /**
+     * Builds URL to read page of tasks of to-do list with given ID.
+     *
+     * @param {TodoListId} todoListId ID of desired to-do list
+     * @param {?string} continuationToken token of the previous page, `null` to read the first page
+     * @return {string} URL to desired page of to-do list
+     */
+    buildTodoListPageUrl(todoListId, continuationToken) {
+        const url = `${this.buildTodoListUrl(todoListId)}?pageSize=${TASKS_PAGE_SIZE}`;
+        if (continuationToken === null) {
+            return url;
+        }
+        return `${url}&continuationToken=${encodeURIComponent(continuationToken)}`;
+    }
+
     /**
      * Provides URL to authentication service.
      *
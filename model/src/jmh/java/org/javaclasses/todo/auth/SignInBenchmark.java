@@ -0,0 +1,75 @@
+package org.javaclasses.todo.auth;
+
+import org.javaclasses.todo.model.Password;
+import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.storage.impl.AuthSessionStorage;
+import org.javaclasses.todo.storage.impl.UserStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput of 32 concurrent sign ins, each of which generates salt of password hash
+ * and creates token of new session.
+ *
+ * <p>Password is hashed by one iteration of PBKDF2 by thread per benchmark thread, so throughput is bound
+ * by generation of random values and writing of sessions rather than by hashing.
+ * Each sign in is followed by sign out, so number of stored sessions stays constant.
+ *
+ * <p>Run with {@code ./gradlew :model:jmh}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(SignInBenchmark.THREADS)
+@Fork(1)
+public class SignInBenchmark {
+
+    static final int THREADS = 32;
+
+    private final Username username = new Username("benchmark@example.org");
+    private final Password password = new Password("benchmark password");
+
+    private Authentication authentication;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PasswordHashing hashing = PasswordHashing.newBuilder()
+                                                 .setIterations(1)
+                                                 .setThreads(THREADS)
+                                                 .setQueueCapacity(THREADS)
+                                                 .build();
+        authentication = new Authentication(new UserStorage(), new AuthSessionStorage(), SessionExpiry.defaults(),
+                                            null, hashing);
+        authentication.createUser(username, password);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        authentication.close();
+    }
+
+    @Benchmark
+    public Token signIn() {
+        Token token = authentication.signIn(username, password);
+        authentication.signOut(token);
+        return token;
+    }
+}
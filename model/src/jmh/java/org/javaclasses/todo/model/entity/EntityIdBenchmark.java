@@ -0,0 +1,96 @@
+package org.javaclasses.todo.model.entity;
+
+import org.javaclasses.todo.storage.StorageEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares lookup of maps keyed by IDs which keep UUID as two longs with lookup of maps keyed by UUID strings.
+ *
+ * <p>Probe keys are equal to keys of map but are other instances, as IDs parsed from requests are.
+ *
+ * <p>Run with {@code ./gradlew :model:jmh}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EntityIdBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int keyCount;
+
+    private Map<String, Object> stringMap;
+    private Map<TaskId, Object> idMap;
+    private TreeMap<String, Object> sortedStringMap;
+    private TreeMap<TaskId, Object> sortedIdMap;
+    private String[] stringProbes;
+    private TaskId[] idProbes;
+
+    @Setup
+    public void setUp() {
+        stringMap = new HashMap<>();
+        idMap = new HashMap<>();
+        sortedStringMap = new TreeMap<>();
+        sortedIdMap = new TreeMap<>(StorageEngine::compareOrderKeys);
+        stringProbes = new String[keyCount];
+        idProbes = new TaskId[keyCount];
+
+        for (int i = 0; i < keyCount; i++) {
+            String value = UUID.randomUUID()
+                               .toString();
+            stringMap.put(value, value);
+            idMap.put(new TaskId(value), value);
+            sortedStringMap.put(value, value);
+            sortedIdMap.put(new TaskId(value), value);
+
+            stringProbes[i] = new String(value.toCharArray());
+            idProbes[i] = new TaskId(value);
+        }
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current()
+                                .nextInt(keyCount);
+    }
+
+    @Benchmark
+    public Object stringKeyLookup() {
+        return stringMap.get(stringProbes[randomIndex()]);
+    }
+
+    @Benchmark
+    public Object idKeyLookup() {
+        return idMap.get(idProbes[randomIndex()]);
+    }
+
+    @Benchmark
+    public Object sortedStringKeyLookup() {
+        return sortedStringMap.get(stringProbes[randomIndex()]);
+    }
+
+    @Benchmark
+    public Object sortedIdKeyLookup() {
+        return sortedIdMap.get(idProbes[randomIndex()]);
+    }
+}
@@ -0,0 +1,53 @@
+package org.javaclasses.todo.model.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares throughput of {@link IdGenerator} with {@link UUID#randomUUID()} under 32 threads,
+ * as under 32 concurrent sign ins, each of which creates a token.
+ *
+ * <p>Whole sign in path under the same number of threads is measured by
+ * {@link org.javaclasses.todo.auth.SignInBenchmark}.
+ *
+ * <p>Run with {@code ./gradlew :model:jmh}.
+ *
+ * @author Oleg Barmin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(32)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Benchmark
+    public UUID sharedRandomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID threadRandomUuid() {
+        return IdGenerator.randomUuid();
+    }
+
+    @Benchmark
+    public UUID threadTimeOrderedUuid() {
+        return IdGenerator.timeOrderedUuid();
+    }
+
+    @Benchmark
+    public Token token() {
+        return new Token(IdGenerator.randomUuid());
+    }
+}
@@ -0,0 +1,94 @@
+package org.javaclasses.todo.storage.cdc;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.impl.TaskStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput of writes into {@link TaskStorage} depending on number of subscribers
+ * to its {@link ChangeFeed}, so cost of the feed without subscribers is compared with cost of delivery.
+ *
+ * <p>Run with {@code ./gradlew :model:jmh}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class ChangeFeedBenchmark {
+
+    private static final int TASKS_COUNT = 100_000;
+
+    @Param({"0", "1", "4"})
+    private int subscriberCount;
+
+    private final List<Subscription<TaskId, Task>> subscriptions = new ArrayList<>();
+    private TaskStorage taskStorage;
+    private TaskId[] taskIds;
+    private TodoListId todoListId;
+
+    private Task createTask(TaskId taskId) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription("benchmark change feed")
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskStorage = new TaskStorage();
+        todoListId = new TodoListId(UUID.randomUUID()
+                                        .toString());
+        taskIds = new TaskId[TASKS_COUNT];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = new TaskId(UUID.randomUUID()
+                                        .toString());
+        }
+
+        for (int i = 0; i < subscriberCount; i++) {
+            subscriptions.add(taskStorage.getChangeFeed()
+                                         .subscribe(changes -> {
+                                         }));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        subscriptions.forEach(Subscription::close);
+        subscriptions.clear();
+    }
+
+    @Benchmark
+    public void write() {
+        taskStorage.write(createTask(taskIds[ThreadLocalRandom.current()
+                                                             .nextInt(taskIds.length)]));
+    }
+}
@@ -0,0 +1,127 @@
+package org.javaclasses.todo.storage.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures encoding and decoding of tasks by {@link TaskCodec} compared with JSON written by Gson,
+ * configured as the web application configures it.
+ *
+ * <p>Size of encoded task is printed on setup, so space savings of each format can be compared as well.
+ *
+ * <p>Run with {@code ./gradlew :model:jmh}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EntityCodecBenchmark {
+
+    @Param({"binary", "lz4", "gson"})
+    private String format;
+
+    @Param({"20", "2000"})
+    private int descriptionLength;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private TaskCodec codec;
+    private Gson gson;
+    private Task task;
+    private byte[] encoded;
+
+    private static Task createTask(int descriptionLength) {
+        StringBuilder description = new StringBuilder();
+        while (description.length() < descriptionLength) {
+            description.append("benchmark codec of tasks ");
+        }
+        description.setLength(descriptionLength);
+
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(UUID.randomUUID()
+                                          .toString()))
+                .setTodoListId(new TodoListId(UUID.randomUUID()
+                                                  .toString()))
+                .setDescription(description.toString())
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = new TaskCodec("lz4".equals(format) ? Compression.LZ4 : Compression.NONE);
+        gson = new GsonBuilder().registerTypeAdapter(Date.class, new DateToLongAdapter())
+                                .create();
+        task = createTask(descriptionLength);
+        encoded = encode();
+
+        System.out.println("\nEncoded task takes " + encoded.length + " bytes.");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if ("gson".equals(format)) {
+            return gson.toJson(task)
+                       .getBytes(UTF_8);
+        }
+
+        buffer.reset();
+        codec.write(task, new DataOutputStream(buffer));
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public Task decode() throws IOException {
+        if ("gson".equals(format)) {
+            return gson.fromJson(new String(encoded, UTF_8), Task.class);
+        }
+        return codec.read(new DataInputStream(new ByteArrayInputStream(encoded)));
+    }
+
+    /**
+     * Writes dates as milliseconds, the same way as the web application does.
+     */
+    private static class DateToLongAdapter extends TypeAdapter<Date> {
+
+        @Override
+        public void write(JsonWriter out, Date value) throws IOException {
+            out.value(value.getTime());
+        }
+
+        @Override
+        public Date read(JsonReader in) throws IOException {
+            return new Date(in.nextLong());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.javaclasses.todo.storage.impl;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.jdbc.JdbcStorageEngine;
+import org.javaclasses.todo.storage.lsm.LsmStorageEngine;
+import org.javaclasses.todo.storage.wal.DurableStorageEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares import of many tasks into one to-do list by separate writes and by one batch.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BatchWriteBenchmark {
+
+    private static final int TASKS_COUNT = 10_000;
+
+    @Param({"memory", "wal", "lsm", "h2"})
+    private String engine;
+
+    private Path directory;
+    private TaskStorage taskStorage;
+    private List<Task> tasks;
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("batch-benchmark");
+
+        StorageEngineFactory factory;
+        if ("wal".equals(engine)) {
+            factory = DurableStorageEngine.factory(directory);
+        } else if ("lsm".equals(engine)) {
+            factory = LsmStorageEngine.factory(directory);
+        } else if ("h2".equals(engine)) {
+            factory = JdbcStorageEngine.factory(directory);
+        } else {
+            factory = ConcurrentStorageEngine.factory();
+        }
+        taskStorage = new TaskStorage(factory);
+
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        tasks = new ArrayList<>(TASKS_COUNT);
+        for (int i = 0; i < TASKS_COUNT; i++) {
+            tasks.add(new Task.TaskBuilder()
+                              .setTaskId(new TaskId(UUID.randomUUID()
+                                                        .toString()))
+                              .setTodoListId(todoListId)
+                              .setDescription("benchmark batch import " + i)
+                              .setCreationDate(new Date())
+                              .build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        taskStorage.close();
+        deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public TaskStorage separateWrites() {
+        for (Task task : tasks) {
+            taskStorage.write(task);
+        }
+        return taskStorage;
+    }
+
+    @Benchmark
+    public TaskStorage batchWrite() {
+        taskStorage.writeAll(tasks);
+        return taskStorage;
+    }
+}
@@ -0,0 +1,114 @@
+package org.javaclasses.todo.storage.impl;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput of mixed read/write workload on {@link TaskStorage}
+ * backed by {@link ConcurrentStorageEngine} compared with same storage guarded by one global lock.
+ *
+ * <p>Each operation is a read with 80% probability and a write otherwise.
+ *
+ * <p>Scaling with cores is measured by running benchmark with different number of threads,
+ * e.g. {@code java -jar model-jmh.jar ConcurrentStorageBenchmark -t 1,2,4,8}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentStorageBenchmark {
+
+    private static final int TASKS_COUNT = 100_000;
+    private static final int TODO_LISTS_COUNT = 1_000;
+    private static final int READ_PERCENTAGE = 80;
+
+    private final Object globalLock = new Object();
+
+    @Param({"concurrent", "globalLock"})
+    private String locking;
+
+    private TaskStorage taskStorage;
+    private TaskId[] taskIds;
+    private TodoListId[] todoListIds;
+
+    private static Task createTask(TaskId taskId, TodoListId todoListId) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription("benchmark concurrent storage")
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    @Setup
+    public void setUp() {
+        taskStorage = new TaskStorage();
+        taskIds = new TaskId[TASKS_COUNT];
+        todoListIds = new TodoListId[TODO_LISTS_COUNT];
+
+        for (int i = 0; i < todoListIds.length; i++) {
+            todoListIds[i] = new TodoListId(UUID.randomUUID()
+                                                .toString());
+        }
+
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = new TaskId(UUID.randomUUID()
+                                        .toString());
+            taskStorage.write(createTask(taskIds[i], todoListIds[i % todoListIds.length]));
+        }
+    }
+
+    @Benchmark
+    public Optional<Task> mixedReadWrite() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TaskId taskId = taskIds[random.nextInt(taskIds.length)];
+
+        if (random.nextInt(100) < READ_PERCENTAGE) {
+            return read(taskId);
+        }
+
+        write(createTask(taskId, todoListIds[random.nextInt(todoListIds.length)]));
+        return Optional.empty();
+    }
+
+    private Optional<Task> read(TaskId taskId) {
+        if ("globalLock".equals(locking)) {
+            synchronized (globalLock) {
+                return taskStorage.read(taskId);
+            }
+        }
+        return taskStorage.read(taskId);
+    }
+
+    private void write(Task task) {
+        if ("globalLock".equals(locking)) {
+            synchronized (globalLock) {
+                taskStorage.write(task);
+            }
+            return;
+        }
+        taskStorage.write(task);
+    }
+}
@@ -0,0 +1,85 @@
+package org.javaclasses.todo.storage.impl;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writes and reads of tasks of one to-do list which already has given number of tasks.
+ *
+ * <p>Each write replaces random task of the list, so size of the list stays the same.
+ * Cost of write should grow logarithmically with the size of the list.
+ *
+ * <p>Run with {@code ./gradlew :model:jmh}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ListWriteBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int tasksInList;
+
+    private TaskStorage taskStorage;
+    private TodoListId todoListId;
+    private TaskId[] taskIds;
+    private Date creationDate;
+
+    @Setup
+    public void setUp() {
+        taskStorage = new TaskStorage();
+        todoListId = new TodoListId(UUID.randomUUID()
+                                        .toString());
+        taskIds = new TaskId[tasksInList];
+        creationDate = new Date();
+
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = new TaskId(UUID.randomUUID()
+                                        .toString());
+            taskStorage.write(createTask(taskIds[i]));
+        }
+    }
+
+    private Task createTask(TaskId taskId) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription("benchmark writes into one to-do list")
+                .setCreationDate(creationDate)
+                .build();
+    }
+
+    @Benchmark
+    public void write() {
+        taskStorage.write(createTask(taskIds[ThreadLocalRandom.current()
+                                                              .nextInt(taskIds.length)]));
+    }
+
+    @Benchmark
+    public List<Task> writeAndRead() {
+        write();
+        return taskStorage.getAllTaskOfTodoList(todoListId);
+    }
+}
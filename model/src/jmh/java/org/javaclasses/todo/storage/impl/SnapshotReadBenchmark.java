@@ -0,0 +1,106 @@
+package org.javaclasses.todo.storage.impl;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures latency of reading tasks of to-do list while other threads update and remove tasks of the same list.
+ *
+ * <p>Compare {@code readWhileWriting:readTasks} with {@code readOnly}: since readers get immutable snapshot
+ * of the list, their latency should not depend on concurrent writers.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotReadBenchmark {
+
+    @Param({"10", "100"})
+    private int tasksCount;
+
+    private TaskStorage taskStorage;
+    private TodoListId todoListId;
+    private TaskId[] taskIds;
+
+    private Task createTask(TaskId taskId) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription("benchmark snapshot reads")
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    @Setup
+    public void setUp() {
+        taskStorage = new TaskStorage();
+        todoListId = new TodoListId(UUID.randomUUID()
+                                        .toString());
+        taskIds = new TaskId[tasksCount];
+
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = new TaskId(UUID.randomUUID()
+                                        .toString());
+            taskStorage.write(createTask(taskIds[i]));
+        }
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(3)
+    public List<Task> readAlone() {
+        return taskStorage.getAllTaskOfTodoList(todoListId);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public List<Task> readTasks() {
+        return taskStorage.getAllTaskOfTodoList(todoListId);
+    }
+
+    /**
+     * Updates random task of the list, or removes it and writes it again.
+     */
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public Optional<Task> writeTasks() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TaskId taskId = taskIds[random.nextInt(taskIds.length)];
+
+        if (random.nextBoolean()) {
+            taskStorage.write(createTask(taskId));
+            return Optional.empty();
+        }
+
+        Optional<Task> removed = taskStorage.remove(taskId);
+        taskStorage.write(createTask(taskId));
+        return removed;
+    }
+}
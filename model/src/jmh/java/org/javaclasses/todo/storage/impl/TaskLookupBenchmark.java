@@ -0,0 +1,87 @@
+package org.javaclasses.todo.storage.impl;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares lookup of tasks of to-do list by secondary index with reflective scan of all stored tasks.
+ *
+ * <p>Run with {@code ./gradlew :model:jmh}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TaskLookupBenchmark {
+
+    private static final int TASKS_PER_LIST = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    private TaskStorage taskStorage;
+    private TodoListId[] todoListIds;
+
+    private static TodoListId newTodoListId() {
+        return new TodoListId(UUID.randomUUID()
+                                  .toString());
+    }
+
+    @Setup
+    public void setUp() {
+        taskStorage = new TaskStorage();
+        todoListIds = new TodoListId[taskCount / TASKS_PER_LIST];
+
+        Date now = new Date();
+        for (int i = 0; i < todoListIds.length; i++) {
+            todoListIds[i] = newTodoListId();
+
+            for (int j = 0; j < TASKS_PER_LIST; j++) {
+                taskStorage.write(new Task.TaskBuilder()
+                                          .setTaskId(new TaskId(UUID.randomUUID()
+                                                                    .toString()))
+                                          .setTodoListId(todoListIds[i])
+                                          .setDescription("benchmark task lookup")
+                                          .setCreationDate(now)
+                                          .build());
+            }
+        }
+    }
+
+    private TodoListId randomTodoListId() {
+        return todoListIds[ThreadLocalRandom.current()
+                                            .nextInt(todoListIds.length)];
+    }
+
+    @Benchmark
+    public List<Task> indexLookup() {
+        return taskStorage.getAllTaskOfTodoList(randomTodoListId());
+    }
+
+    @Benchmark
+    public List<Task> reflectiveScan() {
+        return taskStorage.findByField("todoListId", randomTodoListId());
+    }
+}
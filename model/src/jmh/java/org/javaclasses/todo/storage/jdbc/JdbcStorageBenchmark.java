@@ -0,0 +1,144 @@
+package org.javaclasses.todo.storage.jdbc;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Measures throughput of writes, reads by ID and lookups by to-do list of {@link JdbcStorageEngine}
+ * on embedded H2 database compared with in-memory engine.
+ *
+ * <p>Run with {@code ./gradlew :model:jmh}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class JdbcStorageBenchmark {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), singletonList(TODO_LIST_INDEX), TODO_LIST_INDEX);
+    private static final int TASKS_PER_LIST = 20;
+
+    @Param({"h2", "memory"})
+    private String engineType;
+
+    @Param({"100000"})
+    private int taskCount;
+
+    private Path directory;
+    private StorageEngine<TaskId, Task> engine;
+    private TaskId[] taskIds;
+    private TodoListId[] todoListIds;
+
+    private static Task createTask(TaskId taskId, TodoListId todoListId) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription("benchmark embedded database")
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private static TodoListId newTodoListId() {
+        return new TodoListId(UUID.randomUUID()
+                                  .toString());
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void write(Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jdbc-benchmark");
+        StorageEngineFactory factory = "h2".equals(engineType)
+                ? JdbcStorageEngine.factory(directory)
+                : ConcurrentStorageEngine.factory();
+        engine = factory.create(SCHEMA);
+        taskIds = new TaskId[taskCount];
+        todoListIds = new TodoListId[taskCount / TASKS_PER_LIST];
+
+        for (int i = 0; i < taskIds.length; i++) {
+            if (i % TASKS_PER_LIST == 0) {
+                todoListIds[i / TASKS_PER_LIST] = newTodoListId();
+            }
+            taskIds[i] = new TaskId(UUID.randomUUID()
+                                        .toString());
+            write(createTask(taskIds[i], todoListIds[i / TASKS_PER_LIST]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        engine.close();
+        deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void write() {
+        write(createTask(new TaskId(UUID.randomUUID()
+                                        .toString()), newTodoListId()));
+    }
+
+    @Benchmark
+    public Optional<Task> randomRead() {
+        return engine.read(taskIds[ThreadLocalRandom.current()
+                                                    .nextInt(taskIds.length)]);
+    }
+
+    @Benchmark
+    public List<Task> findByTodoList() {
+        return engine.findBy(TODO_LIST_INDEX, todoListIds[ThreadLocalRandom.current()
+                                                                           .nextInt(todoListIds.length)]);
+    }
+}
@@ -0,0 +1,125 @@
+package org.javaclasses.todo.storage.lsm;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.javaclasses.todo.storage.wal.DurableStorageEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Measures write throughput and random reads of {@link LsmStorageEngine}
+ * compared with {@link DurableStorageEngine}, which keeps all entities in memory.
+ *
+ * <p>Both engines force each change to the log before acknowledging it. Reads are measured on data set which exceeds memtable many times, so most of them go to SSTables.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx512m")
+public class LsmStorageBenchmark {
+
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), emptyList());
+    private static final TodoListId TODO_LIST_ID = new TodoListId(UUID.randomUUID()
+                                                                      .toString());
+
+    @Param({"lsm", "wal"})
+    private String engineType;
+
+    @Param({"1000000"})
+    private int taskCount;
+
+    private Path directory;
+    private StorageEngine<TaskId, Task> engine;
+    private TaskId[] taskIds;
+
+    private static Task createTask(TaskId taskId) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(TODO_LIST_ID)
+                .setDescription("benchmark log-structured merge-tree")
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private void write(Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("lsm-benchmark");
+        StorageEngineFactory factory = "lsm".equals(engineType)
+                ? LsmStorageEngine.factory(directory)
+                : DurableStorageEngine.factory(directory);
+        engine = factory.create(SCHEMA);
+        taskIds = new TaskId[taskCount];
+
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = new TaskId(UUID.randomUUID()
+                                        .toString());
+            write(createTask(taskIds[i]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        engine.close();
+        deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void write() {
+        write(createTask(new TaskId(UUID.randomUUID()
+                                               .toString())));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Optional<Task> randomRead() {
+        return engine.read(taskIds[ThreadLocalRandom.current()
+                                                    .nextInt(taskIds.length)]);
+    }
+}
@@ -0,0 +1,115 @@
+package org.javaclasses.todo.storage.mapped;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.impl.TaskStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares random reads of tasks kept on heap with tasks kept in memory-mapped files
+ * and prints heap occupied after storage was filled.
+ *
+ * <p>GC pauses are reported by running benchmark with GC profiler,
+ * e.g. {@code java -jar model-jmh.jar MappedTaskStorageBenchmark -prof gc}.
+ *
+ * @author Oleg Barmin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class MappedTaskStorageBenchmark {
+
+    private static final int TASKS_PER_LIST = 10;
+    private static final int SAMPLED_IDS = 1 << 16;
+
+    @Param({"1000000", "10000000"})
+    private int taskCount;
+
+    @Param({"heap", "offHeap"})
+    private String storage;
+
+    private Path directory;
+    private TaskStorage taskStorage;
+    private TaskId[] sampledIds;
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean()
+                                .getHeapMemoryUsage()
+                                .getUsed();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        long heapBefore = usedHeap();
+
+        directory = Files.createTempDirectory("mapped-benchmark");
+        taskStorage = "offHeap".equals(storage) ? TaskStorage.offHeap(directory) : new TaskStorage();
+        sampledIds = new TaskId[SAMPLED_IDS];
+
+        Date now = new Date();
+        TodoListId todoListId = null;
+
+        for (int i = 0; i < taskCount; i++) {
+            if (i % TASKS_PER_LIST == 0) {
+                todoListId = new TodoListId(UUID.randomUUID()
+                                                .toString());
+            }
+
+            TaskId taskId = new TaskId(UUID.randomUUID()
+                                           .toString());
+            taskStorage.write(new Task.TaskBuilder()
+                                      .setTaskId(taskId)
+                                      .setTodoListId(todoListId)
+                                      .setDescription("benchmark off-heap task storage")
+                                      .setCreationDate(now)
+                                      .build());
+
+            if (i < SAMPLED_IDS) {
+                sampledIds[i] = taskId;
+            }
+        }
+
+        System.out.printf("%nHeap occupied by %d tasks in %s storage: %d MB%n",
+                          taskCount, storage, (usedHeap() - heapBefore) >> 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        taskStorage.close();
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Optional<Task> randomRead() {
+        TaskId taskId = sampledIds[ThreadLocalRandom.current()
+                                                    .nextInt(Math.min(taskCount, SAMPLED_IDS))];
+        return taskStorage.read(taskId);
+    }
+}
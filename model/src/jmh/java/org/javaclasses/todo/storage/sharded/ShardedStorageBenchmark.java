@@ -0,0 +1,150 @@
+package org.javaclasses.todo.storage.sharded;
+
+import org.javaclasses.todo.ServiceFactory;
+import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.Password;
+import org.javaclasses.todo.model.StorageFactory;
+import org.javaclasses.todo.model.TodoService;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.javaclasses.todo.storage.wal.DurableStorageEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures throughput of mixed workload of {@code TodoService}, where each thread adds tasks
+ * to its own to-do list and reads the first page of its tasks after every few additions.
+ *
+ * <p>Sharding pays off when threads write concurrently, so scaling curve should be measured
+ * with different number of threads, e.g. {@code java -jar model-jmh.jar ShardedStorageBenchmark -t 1,2,4,8}.
+ *
+ * @author Oleg Barmin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShardedStorageBenchmark {
+
+    private static final int ADDITIONS_PER_READ = 4;
+    private static final int PAGE_SIZE = 100;
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object mixed(Service service, Client client) {
+        if (++client.operations % (ADDITIONS_PER_READ + 1) == 0) {
+            return service.todoService.readTasksFrom(client.todoListId)
+                                      .authorizedWith(client.token)
+                                      .withPageSize(PAGE_SIZE)
+                                      .executePage();
+        }
+
+        service.todoService.addTask(new TaskId(UUID.randomUUID()
+                                                   .toString()))
+                           .authorizedWith(client.token)
+                           .withTodoListId(client.todoListId)
+                           .withDescription("benchmark sharded storage")
+                           .execute();
+        return client;
+    }
+
+    /**
+     * Service shared by all threads, which keeps entities in one engine or in shards.
+     */
+    @State(Scope.Benchmark)
+    public static class Service {
+
+        @Param({"single", "sharded"})
+        private String layout;
+
+        @Param({"memory", "wal"})
+        private String engine;
+
+        private Path directory;
+        private ServiceFactory serviceFactory;
+        private TodoService todoService;
+        private Authentication authentication;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("sharded-benchmark");
+
+            StorageEngineFactory engineFactory = "sharded".equals(layout)
+                                                 ? ShardedStorageEngine.factory(this::shardFactory)
+                                                 : shardFactory(0);
+
+            serviceFactory = new ServiceFactory(new StorageFactory(engineFactory));
+            todoService = serviceFactory.getTodoService();
+            authentication = serviceFactory.getAuthentication();
+        }
+
+        private StorageEngineFactory shardFactory(int shard) {
+            if ("wal".equals(engine)) {
+                return DurableStorageEngine.factory(directory.resolve("shard-" + shard));
+            }
+            return ConcurrentStorageEngine.factory();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            serviceFactory.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * User of the thread with its own to-do list.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private TodoListId todoListId;
+        private Token token;
+        private long operations;
+
+        @Setup(Level.Trial)
+        public void setUp(Service service) {
+            Username username = new Username(UUID.randomUUID() + "@mail.org");
+            Password password = new Password("qwerty12345");
+            service.authentication.createUser(username, password);
+            token = service.authentication.signIn(username, password);
+
+            todoListId = new TodoListId(UUID.randomUUID()
+                                            .toString());
+            service.todoService.createList(todoListId)
+                               .authorizedWith(token)
+                               .execute();
+        }
+    }
+}
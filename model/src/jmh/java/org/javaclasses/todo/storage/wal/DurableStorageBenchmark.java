@@ -0,0 +1,156 @@
+package org.javaclasses.todo.storage.wal;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Measures sustained write throughput of {@link DurableStorageEngine} with fsync on
+ * and time to restore storage on startup.
+ *
+ * <p>Group commit is effective when several threads write concurrently,
+ * so write throughput should be measured with different number of threads,
+ * e.g. {@code java -jar model-jmh.jar DurableStorageBenchmark.write -t 1,4,16}.
+ *
+ * @author Oleg Barmin
+ */
+@Fork(1)
+public class DurableStorageBenchmark {
+
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), emptyList());
+    private static final TodoListId TODO_LIST_ID = new TodoListId(UUID.randomUUID()
+                                                                      .toString());
+
+    private static Task createTask() {
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(UUID.randomUUID()
+                                          .toString()))
+                .setTodoListId(TODO_LIST_ID)
+                .setDescription("benchmark durable storage")
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private static void write(DurableStorageEngine<TaskId, Task> engine, Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void write(WriteState state) {
+        write(state.engine, createTask());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public DurableStorageEngine<TaskId, Task> replay(ReplayState state) {
+        state.restored = new DurableStorageEngine<>(state.directory, SCHEMA, true, state.taskCount);
+        return state.restored;
+    }
+
+    /**
+     * Engine shared by all writing threads.
+     */
+    @State(Scope.Benchmark)
+    public static class WriteState {
+
+        private Path directory;
+        private DurableStorageEngine<TaskId, Task> engine;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("wal-benchmark");
+            engine = new DurableStorageEngine<>(directory, SCHEMA, true,
+                                                DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            engine.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Directory with snapshot of half of tasks and log of another half.
+     */
+    @State(Scope.Benchmark)
+    public static class ReplayState {
+
+        @Param({"10000", "100000"})
+        private int taskCount;
+
+        private Path directory;
+        private DurableStorageEngine<TaskId, Task> restored;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("wal-benchmark");
+
+            DurableStorageEngine<TaskId, Task> engine =
+                    new DurableStorageEngine<>(directory, SCHEMA, false, taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                if (i == taskCount / 2) {
+                    engine.snapshot();
+                }
+                write(engine, createTask());
+            }
+            engine.close();
+        }
+
+        @TearDown(Level.Iteration)
+        public void closeRestored() {
+            if (restored != null) {
+                restored.close();
+                restored = null;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package org.javaclasses.todo;
 
 import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.auth.SessionExpiry;
+import org.javaclasses.todo.auth.SignedTokens;
 import org.javaclasses.todo.model.StorageFactory;
 import org.javaclasses.todo.model.TodoService;
+import org.javaclasses.todo.storage.metrics.StorageMetrics;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Provides services of TodoList application.
@@ -15,11 +23,38 @@ import org.javaclasses.todo.model.TodoService;
 public class ServiceFactory {
 
     private final StorageFactory storageFactory;
+    @Nullable
+    private final SignedTokens signedTokens;
     private Authentication authentication;
     private TodoService todoService;
 
+    /**
+     * Creates {@code ServiceFactory} instance which provides services with storages kept in memory.
+     */
     public ServiceFactory() {
-        storageFactory = new StorageFactory();
+        this(new StorageFactory());
+    }
+
+    /**
+     * Creates {@code ServiceFactory} instance which provides services with storages of given factory.
+     *
+     * @param storageFactory factory of storages for services
+     */
+    public ServiceFactory(StorageFactory storageFactory) {
+        this.storageFactory = checkNotNull(storageFactory);
+        this.signedTokens = null;
+    }
+
+    /**
+     * Creates {@code ServiceFactory} instance which provides services with storages of given factory
+     * and authentication which issues signed tokens.
+     *
+     * @param storageFactory factory of storages for services
+     * @param signedTokens   options of signed tokens
+     */
+    public ServiceFactory(StorageFactory storageFactory, SignedTokens signedTokens) {
+        this.storageFactory = checkNotNull(storageFactory);
+        this.signedTokens = checkNotNull(signedTokens);
     }
 
     /**
@@ -44,10 +79,34 @@ public class ServiceFactory {
      */
     public synchronized Authentication getAuthentication() {
         if (authentication == null) {
-            authentication =
-                    new Authentication(storageFactory.getUserStorage(),
-                                       storageFactory.getAuthSessionStorage());
+            authentication = signedTokens == null
+                             ? new Authentication(storageFactory.getUserStorage(),
+                                                  storageFactory.getAuthSessionStorage())
+                             : new Authentication(storageFactory.getUserStorage(),
+                                                  storageFactory.getAuthSessionStorage(),
+                                                  SessionExpiry.defaults(), signedTokens);
         }
         return authentication;
     }
-}
\ No newline at end of file
+
+    /**
+     * Provides metrics of storages of provided services.
+     *
+     * @return list of metrics of each storage
+     */
+    public List<StorageMetrics> getStorageMetrics() {
+        return storageFactory.getMetrics();
+    }
+
+    /**
+     * Closes provided services and their storages.
+     */
+    public void close() {
+        synchronized (this) {
+            if (authentication != null) {
+                authentication.close();
+            }
+        }
+        storageFactory.close();
+    }
+}
@@ -1,17 +1,35 @@
 package org.javaclasses.todo.auth;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.Password;
 import org.javaclasses.todo.model.entity.AuthSession;
+import org.javaclasses.todo.model.entity.IdGenerator;
 import org.javaclasses.todo.model.entity.Token;
 import org.javaclasses.todo.model.entity.User;
 import org.javaclasses.todo.model.entity.UserId;
 import org.javaclasses.todo.model.entity.Username;
 import org.javaclasses.todo.storage.Storage;
 import org.javaclasses.todo.storage.impl.UserStorage;
+import org.javaclasses.todo.storage.replication.ReadOnlyReplicaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 
 /**
  * Authenticates users and provides {@link Token} for each user session, which will expire with time.
@@ -20,18 +38,128 @@ import java.util.UUID;
  *
  * <p>User can sign out from application, so {@code Token} of the session will expire.
  *
+ * <p>Session also expires by {@link SessionExpiry}: some time after sign in or after the last validation
+ * of its {@code Token}. Expired session is invalid right away and is removed from storage by background thread
+ * within {@linkplain SessionExpiry.Builder#setPrecision(long, TimeUnit) precision} of expiry. Sessions stored
+ * without times of creation and access are expired.
+ *
+ * <p>If {@link SignedTokens} are given, user receives signed token, which carries ID of user and expires
+ * by absolute timeout of {@code SessionExpiry}. Such token is validated without storage, its session is not stored.
+ * Signed token revoked by sign out is kept in storage of sessions as session without user until it expires.
+ * Tokens of sessions stored before signed tokens were enabled remain valid.
+ *
+ * <p>Passwords of users are stored as salted hashes, see {@link PasswordHashing}.
+ *
  * <p>Unsigned user can create an account in application.
  *
  * @author Oleg Barmin
  */
-public class Authentication {
+public class Authentication implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Authentication.class);
 
     private final UserStorage userStorage;
     private final Storage<Token, AuthSession> authSessionStorage;
+    private final SessionExpiry expiry;
+    private final Clock clock;
+    private final SessionReaper reaper;
+    @Nullable
+    private final SignedTokens signedTokens;
+    @Nullable
+    private final RevocationSet revocations;
+    @Nullable
+    private final ScheduledExecutorService revocationRefresher;
+    private final PasswordHasher passwordHasher;
+    /* Hash which password of unknown user is checked against, so unknown user is not revealed by time of sign in. */
+    private final String unknownUserHash;
 
     public Authentication(UserStorage userStorage, Storage<Token, AuthSession> authSessionStorage) {
-        this.userStorage = userStorage;
-        this.authSessionStorage = authSessionStorage;
+        this(userStorage, authSessionStorage, SessionExpiry.defaults());
+    }
+
+    /**
+     * Creates {@code Authentication} instance which expires sessions by given options.
+     *
+     * @param userStorage        storage of users
+     * @param authSessionStorage storage of sessions
+     * @param expiry             options of expiry of sessions
+     */
+    public Authentication(UserStorage userStorage, Storage<Token, AuthSession> authSessionStorage,
+                          SessionExpiry expiry) {
+        this(userStorage, authSessionStorage, expiry, null, PasswordHashing.defaults());
+    }
+
+    /**
+     * Creates {@code Authentication} instance which issues signed tokens.
+     *
+     * @param userStorage        storage of users
+     * @param authSessionStorage storage of sessions and revoked tokens
+     * @param expiry             options of expiry of sessions and signed tokens
+     * @param signedTokens       options of signed tokens
+     */
+    public Authentication(UserStorage userStorage, Storage<Token, AuthSession> authSessionStorage,
+                          SessionExpiry expiry, SignedTokens signedTokens) {
+        this(userStorage, authSessionStorage, expiry, checkNotNull(signedTokens), PasswordHashing.defaults());
+    }
+
+    /**
+     * Creates {@code Authentication} instance which hashes passwords by given options.
+     *
+     * @param userStorage        storage of users
+     * @param authSessionStorage storage of sessions and revoked tokens
+     * @param expiry             options of expiry of sessions and signed tokens
+     * @param signedTokens       options of signed tokens, {@code null} to keep sessions in storage
+     * @param passwordHashing    options of hashing of passwords
+     */
+    public Authentication(UserStorage userStorage, Storage<Token, AuthSession> authSessionStorage,
+                          SessionExpiry expiry, @Nullable SignedTokens signedTokens,
+                          PasswordHashing passwordHashing) {
+        this(userStorage, authSessionStorage, expiry, signedTokens, passwordHashing, Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    Authentication(UserStorage userStorage, Storage<Token, AuthSession> authSessionStorage,
+                   SessionExpiry expiry, Clock clock) {
+        this(userStorage, authSessionStorage, expiry, null, PasswordHashing.defaults(), clock);
+    }
+
+    @VisibleForTesting
+    Authentication(UserStorage userStorage, Storage<Token, AuthSession> authSessionStorage,
+                   SessionExpiry expiry, @Nullable SignedTokens signedTokens, Clock clock) {
+        this(userStorage, authSessionStorage, expiry, signedTokens, PasswordHashing.defaults(), clock);
+    }
+
+    private Authentication(UserStorage userStorage, Storage<Token, AuthSession> authSessionStorage,
+                           SessionExpiry expiry, @Nullable SignedTokens signedTokens,
+                           PasswordHashing passwordHashing, Clock clock) {
+        this.userStorage = checkNotNull(userStorage);
+        this.authSessionStorage = checkNotNull(authSessionStorage);
+        this.expiry = checkNotNull(expiry);
+        this.clock = checkNotNull(clock);
+        this.reaper = new SessionReaper(expiry.getPrecisionMillis(), clock, this::expireIfDue);
+        this.signedTokens = signedTokens;
+        this.passwordHasher = new PasswordHasher(passwordHashing);
+        this.unknownUserHash = passwordHasher.hash(new Password(IdGenerator.randomUuid()
+                                                                    .toString()));
+
+        authSessionStorage.forEach(this::schedule);
+
+        if (signedTokens == null) {
+            this.revocations = null;
+            this.revocationRefresher = null;
+            return;
+        }
+
+        this.revocations = new RevocationSet(signedTokens.getExpectedRevocations());
+        refreshRevocations();
+        this.revocationRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long refresh = signedTokens.getRevocationRefreshMillis();
+        revocationRefresher.scheduleWithFixedDelay(this::refreshRevocationsQuietly, refresh, refresh,
+                                                   TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -51,70 +179,292 @@ public class Authentication {
 
     }
 
+    /**
+     * Provides statistics of hashing of passwords.
+     *
+     * @return current statistics
+     */
+    public PasswordHashingStats getPasswordHashingStats() {
+        return passwordHasher.getStats();
+    }
+
+    /**
+     * Waits for result of hashing of password and rethrows exception which occurred in it.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
     /**
      * Sign in user into the system by given {@link Username} and {@link Password} and
      * provides {@code Token} of the session.
      *
+     * <p>Waits until password is checked, see {@link #signInAsync(Username, Password)}.
+     *
      * @param username username of the user to sign in
      * @param password password of the user to sign in
      * @return {@code Token} of the session
      * @throws EmptyCredentialsException if username or password is empty
      * @throws InvalidCredentialsException if user with given username doesn't exist or given password is invalid.
+     * @throws PasswordHashingOverloadedException if too many passwords are being checked
      */
     public Token signIn(Username username, Password password) throws InvalidCredentialsException {
+        return await(signInAsync(username, password));
+    }
+
+    /**
+     * Sign in user into the system by given {@link Username} and {@link Password}.
+     *
+     * <p>Password is checked against its hash by thread which hashes passwords, so thread of caller is free
+     * while it is checked. Password hashed by other options, or stored in plain text, is hashed again.
+     *
+     * @param username username of the user to sign in
+     * @param password password of the user to sign in
+     * @return future {@code Token} of the session, which completes with {@link InvalidCredentialsException}
+     * if user with given username doesn't exist or given password is invalid
+     * @throws EmptyCredentialsException if username or password is empty
+     * @throws PasswordHashingOverloadedException if too many passwords are being checked
+     */
+    public CompletableFuture<Token> signInAsync(Username username, Password password) {
         validateCredentials(username, password);
 
         Optional<User> userByUsername = userStorage.findBy(username);
+        String storedPassword = userByUsername.map(User::getPassword)
+                                              .map(Password::getValue)
+                                              .orElse(unknownUserHash);
 
-        if (userByUsername.isPresent()) {
-            User user = userByUsername.get();
+        return passwordHasher.submit(() -> passwordHasher.matches(password, storedPassword))
+                             .thenApply(matches -> {
+                                 if (!matches || !userByUsername.isPresent()) {
+                                     throw new InvalidCredentialsException();
+                                 }
+                                 User user = userByUsername.get();
+                                 if (passwordHasher.needsRehash(storedPassword)) {
+                                     rehash(user, storedPassword, password);
+                                 }
+                                 return createToken(user);
+                             });
+    }
 
-            if (user.getPassword()
-                    .equals(password)) {
-                Token token = new Token(UUID.randomUUID()
-                                            .toString());
+    private Token createToken(User user) {
+        long now = clock.millis();
+        if (signedTokens != null) {
+            return signedTokens.issue(new TokenClaims(IdGenerator.randomUuid(), user.getId(), now,
+                                                      now + expiry.getAbsoluteTimeoutMillis()));
+        }
 
-                AuthSession authSession = new AuthSession(token);
-                authSession.setUserId(user.getId());
+        Token token = new Token(IdGenerator.randomUuid());
+        AuthSession authSession = new AuthSession(token);
+        authSession.setUserId(user.getId());
+        authSession.setCreationTime(now);
+        authSession.setLastAccessTime(now);
 
-                authSessionStorage.write(authSession);
+        authSessionStorage.write(authSession);
+        schedule(authSession);
 
-                return token;
-            }
-        }
+        return token;
+    }
 
-        throw new InvalidCredentialsException();
+    /**
+     * Replaces stored password of user by its hash, unless password was changed concurrently.
+     */
+    //user stays signed in without new hash, password is hashed again on the next sign in.
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void rehash(User user, String storedPassword, Password password) {
+        Password hashed = new Password(passwordHasher.hash(password));
+        try {
+            userStorage.compute(user.getId(), current -> {
+                if (current.isPresent() && current.get()
+                                                  .getPassword()
+                                                  .getValue()
+                                                  .equals(storedPassword)) {
+                    User rehashed = new User(user.getId());
+                    rehashed.setUsername(current.get()
+                                                .getUsername());
+                    rehashed.setPassword(hashed);
+                    return Optional.of(rehashed);
+                }
+                return current;
+            });
+        } catch (ReadOnlyReplicaException ignored) {
+            // follower checks passwords, but hashes are written only on leader.
+        }
     }
 
     /**
      * Closes users session in the system.
      *
+     * <p>Signed token is revoked until it expires.
+     *
      * @param token token of user session to close
      */
     //return values is not needed to sign out user
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public void signOut(Token token) {
+        if (signedTokens != null && SignedTokens.isSigned(token)) {
+            revoke(token);
+            return;
+        }
         authSessionStorage.remove(token);
     }
 
     /**
-     * Validates if session with given token exists.
+     * Keeps revoked signed token in storage as session without user, which expires with the token.
+     */
+    private void revoke(Token token) {
+        Optional<TokenClaims> verified = checkNotNull(signedTokens).verify(token);
+        if (!verified.isPresent() || verified.get()
+                                             .getExpiresAt() <= clock.millis()) {
+            return;
+        }
+
+        TokenClaims claims = verified.get();
+        AuthSession revoked = new AuthSession(new Token(claims.getTokenId()));
+        revoked.setCreationTime(claims.getIssuedAt());
+        revoked.setLastAccessTime(claims.getExpiresAt());
+
+        authSessionStorage.write(revoked);
+        schedule(revoked);
+        checkNotNull(revocations).revoke(claims.getTokenId(), claims.getExpiresAt());
+    }
+
+    /**
+     * Validates if session with given token exists and has not expired.
+     *
+     * <p>Time of access to session is updated, so session expires later by idle timeout.
      *
      * @param token token of the session to validate
      * @return {@code UserId} of user who created session
-     * @throws AuthorizationFailedException if session with given token doesn't exist
+     * @throws AuthorizationFailedException if session with given token doesn't exist or has expired
      */
     public UserId validate(Token token) throws AuthorizationFailedException {
+        if (signedTokens != null && SignedTokens.isSigned(token)) {
+            return validateSigned(token);
+        }
+
         Optional<AuthSession> authSessionOptional = authSessionStorage.read(token);
 
-        if (authSessionOptional.isPresent()) {
-            return authSessionOptional.get()
-                                      .getUserId();
+        /* Session without user keeps revoked signed token, its ID is not a token of session. */
+        if (authSessionOptional.isPresent() && authSessionOptional.get()
+                                                                  .getUserId() != null) {
+            AuthSession authSession = authSessionOptional.get();
+            long now = clock.millis();
+
+            if (expiry.expiresAt(authSession) > now) {
+                touch(authSession, now);
+                return authSession.getUserId();
+            }
+            expireIfDue(token);
+        }
+
+        throw new AuthorizationFailedException(token);
+    }
+
+    private UserId validateSigned(Token token) {
+        Optional<TokenClaims> verified = checkNotNull(signedTokens).verify(token);
+
+        if (verified.isPresent()) {
+            TokenClaims claims = verified.get();
+            if (claims.getExpiresAt() > clock.millis() && !checkNotNull(revocations).isRevoked(claims.getTokenId())) {
+                return claims.getUserId();
+            }
         }
 
         throw new AuthorizationFailedException(token);
     }
 
+    /**
+     * Reads tokens revoked by all nodes sharing storage of sessions.
+     */
+    private void refreshRevocations() {
+        Map<UUID, Long> revoked = new HashMap<>();
+        authSessionStorage.forEach(authSession -> {
+            Token id = authSession.getId();
+            if (authSession.getUserId() == null && id.isUuid()) {
+                revoked.put(new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits()),
+                            authSession.getLastAccessTime());
+            }
+        });
+        checkNotNull(revocations).refresh(revoked, clock.millis());
+    }
+
+    /*
+     * Scheduled refresh must not throw, otherwise next refreshes are cancelled.
+     * Revocations read before stay in effect until the next refresh.
+     */
+    @SuppressWarnings("OverlyBroadCatchBlock")
+    private void refreshRevocationsQuietly() {
+        try {
+            refreshRevocations();
+        } catch (RuntimeException e) {
+            logger.error("Failed to read revoked tokens, will retry.", e);
+        }
+    }
+
+    /**
+     * Writes time of access to session if it was written more than touch interval ago.
+     */
+    //session stays valid without written access, it only expires earlier.
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void touch(AuthSession authSession, long now) {
+        if (now - authSession.getLastAccessTime() < expiry.getTouchIntervalMillis()) {
+            return;
+        }
+
+        try {
+            authSessionStorage.compute(authSession.getId(), current -> {
+                if (current.isPresent() && current.get()
+                                                  .getLastAccessTime() < now) {
+                    AuthSession touched = copyOf(current.get());
+                    touched.setLastAccessTime(now);
+                    return Optional.of(touched);
+                }
+                return current;
+            });
+        } catch (ReadOnlyReplicaException ignored) {
+            // follower validates sessions, but access is written only on leader.
+        }
+    }
+
+    /**
+     * Removes session if it has expired, otherwise schedules its removal at its expiry.
+     *
+     * <p>Access to session does not reschedule it, so session which was accessed after scheduling
+     * is rescheduled here once its previous expiry passes.
+     */
+    //removed session is not needed.
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void expireIfDue(Token token) {
+        try {
+            authSessionStorage.compute(token, current -> {
+                if (current.isPresent() && expiry.expiresAt(current.get()) <= clock.millis()) {
+                    return Optional.empty();
+                }
+                current.ifPresent(this::schedule);
+                return current;
+            });
+        } catch (ReadOnlyReplicaException ignored) {
+            // expired sessions are removed on leader, follower receives removal by replication.
+        }
+    }
+
+    private void schedule(AuthSession authSession) {
+        reaper.schedule(authSession.getId(), expiry.expiresAt(authSession));
+    }
+
+    private static AuthSession copyOf(AuthSession authSession) {
+        AuthSession copy = new AuthSession(authSession.getId());
+        copy.setUserId(authSession.getUserId());
+        copy.setCreationTime(authSession.getCreationTime());
+        copy.setLastAccessTime(authSession.getLastAccessTime());
+        return copy;
+    }
+
     /**
      * Creates user in the system if user with given username hasn't exists yet.
      *
@@ -122,6 +472,7 @@ public class Authentication {
      * @param password password of new user
      * @throws EmptyCredentialsException  if username or password is empty
      * @throws UserAlreadyExistsException if user with given username already exists
+     * @throws PasswordHashingOverloadedException if too many passwords are being hashed
      */
     public void createUser(Username username, Password password) throws UserAlreadyExistsException {
         validateCredentials(username, password);
@@ -132,13 +483,25 @@ public class Authentication {
             throw new UserAlreadyExistsException(username);
         }
 
-        UserId userId = new UserId(UUID.randomUUID()
-                                       .toString());
+        UserId userId = new UserId(IdGenerator.timeOrderedUuid());
         User user = new User(userId);
 
         user.setUsername(username);
-        user.setPassword(password);
+        user.setPassword(new Password(await(passwordHasher.submit(() -> passwordHasher.hash(password)))));
 
         userStorage.write(user);
     }
+
+    /**
+     * Stops removal of expired sessions from storage, reading of revoked tokens and hashing of passwords,
+     * expired sessions are still invalid.
+     */
+    @Override
+    public void close() {
+        reaper.close();
+        passwordHasher.close();
+        if (revocationRefresher != null) {
+            revocationRefresher.shutdownNow();
+        }
+    }
 }
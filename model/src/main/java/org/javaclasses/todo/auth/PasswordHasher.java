@@ -0,0 +1,166 @@
+package org.javaclasses.todo.auth;
+
+import com.google.common.base.Ticker;
+import org.javaclasses.todo.model.Password;
+import org.javaclasses.todo.model.entity.IdGenerator;
+import org.javaclasses.todo.storage.metrics.Histogram;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.Closeable;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Hashes passwords by PBKDF2 with HMAC-SHA256 on bounded pool of threads.
+ *
+ * <p>Hash is kept in the form {@code $pbkdf2-sha256$i=<iterations>$<salt>$<hash>}, where salt and hash
+ * are base64-encoded, so hash carries everything needed to check password against it. Password kept
+ * in any other form is plain text, which was stored before passwords were hashed.
+ *
+ * @author Oleg Barmin
+ */
+final class PasswordHasher implements Closeable {
+
+    private static final String PREFIX = "$pbkdf2-sha256$i=";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder()
+                                                        .withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int iterations;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final Ticker ticker = Ticker.systemTicker();
+    private final Histogram latencies = new Histogram();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates {@code PasswordHasher} instance.
+     *
+     * @param options options of hashing
+     */
+    PasswordHasher(PasswordHashing options) {
+        this.iterations = options.getIterations();
+        this.queueCapacity = options.getQueueCapacity();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(options.getThreads(), options.getThreads(), 0, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Performs task on thread of the pool.
+     *
+     * @param task task which hashes passwords
+     * @param <T>  type of result of the task
+     * @return future result of the task
+     * @throws PasswordHashingOverloadedException if queue of the pool is full
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingOverloadedException();
+        }
+    }
+
+    /**
+     * Hashes password with new random salt.
+     *
+     * @param password password to hash
+     * @return hash in the form which {@link #matches} accepts
+     */
+    String hash(Password password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        IdGenerator.nextBytes(salt);
+        return PREFIX + iterations + '$' + ENCODER.encodeToString(salt) + '$'
+                + ENCODER.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * Checks password against stored hash in time which does not depend on position of the first mismatch.
+     *
+     * @param password password to check
+     * @param stored   hash of password, or password in plain text stored before hashing
+     * @return {@code true} if password matches
+     */
+    boolean matches(Password password, String stored) {
+        if (!stored.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(password.getValue()
+                                                 .getBytes(UTF_8), stored.getBytes(UTF_8));
+        }
+
+        String[] parts = stored.substring(PREFIX.length())
+                               .split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[0]);
+            byte[] salt = DECODER.decode(parts[1]);
+            byte[] hash = DECODER.decode(parts[2]);
+            return storedIterations > 0 && MessageDigest.isEqual(hash, derive(password, salt, storedIterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether stored password should be hashed again by current options.
+     */
+    boolean needsRehash(String stored) {
+        return !stored.startsWith(PREFIX + iterations + '$');
+    }
+
+    private byte[] derive(Password password, byte[] salt, int iterationCount) {
+        long start = ticker.read();
+        PBEKeySpec spec = new PBEKeySpec(password.getValue()
+                                                 .toCharArray(), salt, iterationCount, HASH_LENGTH * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM)
+                                   .generateSecret(spec)
+                                   .getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 with HMAC-SHA256 is not available.", e);
+        } finally {
+            spec.clearPassword();
+            latencies.record(ticker.read() - start);
+        }
+    }
+
+    /**
+     * Provides current statistics of hashing.
+     */
+    PasswordHashingStats getStats() {
+        return new PasswordHashingStats(executor.getQueue()
+                                                .size(), queueCapacity, rejected.sum(), latencies.snapshot());
+    }
+
+    /**
+     * Stops threads of the pool once queued hashings are performed.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
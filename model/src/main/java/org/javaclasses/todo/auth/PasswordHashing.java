@@ -0,0 +1,105 @@
+package org.javaclasses.todo.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Options of hashing of passwords of users.
+ *
+ * <p>Passwords are hashed by PBKDF2 with HMAC-SHA256 and random salt. Hashing is CPU-bound and takes
+ * tens of milliseconds with default number of iterations, so it is performed by bounded pool of threads.
+ * Hashing is rejected when queue of the pool is full, so storm of sign ins does not grow the queue
+ * beyond what the pool processes in reasonable time.
+ *
+ * @author Oleg Barmin
+ */
+public final class PasswordHashing {
+
+    private final int iterations;
+    private final int threads;
+    private final int queueCapacity;
+
+    private PasswordHashing(Builder builder) {
+        this.iterations = builder.iterations;
+        this.threads = builder.threads;
+        this.queueCapacity = builder.queueCapacity;
+    }
+
+    /**
+     * Creates builder of options.
+     *
+     * @return new builder with default options
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides options with 100 000 iterations, thread per processor and queue of 256 hashings.
+     *
+     * @return default options
+     */
+    public static PasswordHashing defaults() {
+        return newBuilder().build();
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Allows to build {@code PasswordHashing} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private int iterations = 100_000;
+        private int threads = Runtime.getRuntime()
+                                     .availableProcessors();
+        private int queueCapacity = 256;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets number of iterations of PBKDF2 for new hashes, which is the cost of hashing.
+         *
+         * <p>Passwords hashed with another number of iterations are rehashed on the next sign in.
+         */
+        public Builder setIterations(int iterations) {
+            checkArgument(iterations > 0, "Iterations must be positive, but was %s.", iterations);
+            this.iterations = iterations;
+            return this;
+        }
+
+        /**
+         * Sets number of threads which hash passwords.
+         */
+        public Builder setThreads(int threads) {
+            checkArgument(threads > 0, "Threads must be positive, but was %s.", threads);
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets number of hashings which wait for a free thread, before further ones are rejected.
+         */
+        public Builder setQueueCapacity(int queueCapacity) {
+            checkArgument(queueCapacity > 0, "Queue capacity must be positive, but was %s.", queueCapacity);
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public PasswordHashing build() {
+            return new PasswordHashing(this);
+        }
+    }
+}
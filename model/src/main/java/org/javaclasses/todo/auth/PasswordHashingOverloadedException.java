@@ -0,0 +1,19 @@
+package org.javaclasses.todo.auth;
+
+/**
+ * Occurs when password cannot be hashed, since all threads which hash passwords are busy
+ * and their queue is full.
+ *
+ * @author Oleg Barmin
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates {@code PasswordHashingOverloadedException} instance.
+     */
+    PasswordHashingOverloadedException() {
+        super("Too many passwords are being hashed, try again later.");
+    }
+}
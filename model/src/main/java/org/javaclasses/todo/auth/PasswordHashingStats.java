@@ -0,0 +1,48 @@
+package org.javaclasses.todo.auth;
+
+import org.javaclasses.todo.storage.metrics.HistogramSnapshot;
+
+/**
+ * Statistics of hashing of passwords.
+ *
+ * @author Oleg Barmin
+ */
+public final class PasswordHashingStats {
+
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long rejectedCount;
+    private final HistogramSnapshot latencyNanos;
+
+    PasswordHashingStats(int queueDepth, int queueCapacity, long rejectedCount, HistogramSnapshot latencyNanos) {
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.rejectedCount = rejectedCount;
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * Provides number of hashings waiting for a free thread.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Provides number of hashings rejected since queue was full.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Provides durations of hashing in nanoseconds, not including time spent in queue.
+     */
+    public HistogramSnapshot getLatencyNanos() {
+        return latencyNanos;
+    }
+}
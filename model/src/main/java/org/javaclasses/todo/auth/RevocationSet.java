@@ -0,0 +1,121 @@
+package org.javaclasses.todo.auth;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set of IDs of revoked {@linkplain SignedTokens signed tokens}.
+ *
+ * <p>Bloom filter answers for almost all tokens which are not revoked, so check of such token reads
+ * only bits of the filter. Tokens which filter reports as possibly revoked are checked by exact set.
+ *
+ * <p>Filter cannot forget revoked tokens, so it is rebuilt without expired ones on each {@link #refresh}
+ * and when it holds more tokens than it is sized for.
+ *
+ * @author Oleg Barmin
+ */
+final class RevocationSet {
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    private static final Funnel<UUID> UUID_FUNNEL = (uuid, into) -> into.putLong(uuid.getMostSignificantBits())
+                                                                        .putLong(uuid.getLeastSignificantBits());
+
+    private final int expectedRevocations;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates empty {@code RevocationSet} instance.
+     *
+     * @param expectedRevocations number of not expired revocations for which filter is sized
+     */
+    RevocationSet(int expectedRevocations) {
+        this.expectedRevocations = expectedRevocations;
+        this.snapshot = new Snapshot(expectedRevocations);
+    }
+
+    /**
+     * Checks whether token was revoked.
+     *
+     * @param tokenId ID of token to check
+     * @return {@code true} if token was revoked
+     */
+    boolean isRevoked(UUID tokenId) {
+        Snapshot current = snapshot;
+        return current.filter.mightContain(tokenId) && current.expiries.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes token until it expires.
+     *
+     * @param tokenId   ID of token to revoke
+     * @param expiresAt time when token expires in milliseconds since the epoch
+     */
+    synchronized void revoke(UUID tokenId, long expiresAt) {
+        Snapshot current = snapshot;
+        if (current.expiries.size() >= current.capacity) {
+            current = rebuild(current.expiries, Long.MIN_VALUE);
+        }
+        current.add(tokenId, expiresAt);
+    }
+
+    /**
+     * Adds revocations read from storage and forgets expired ones.
+     *
+     * @param stored expiry times of revoked tokens by their IDs
+     * @param now    current time in milliseconds since the epoch
+     */
+    synchronized void refresh(Map<UUID, Long> stored, long now) {
+        Snapshot current = snapshot;
+        Map<UUID, Long> expiries = new ConcurrentHashMap<>(current.expiries);
+        expiries.putAll(stored);
+        rebuild(expiries, now);
+    }
+
+    /**
+     * Provides number of revoked tokens, which were not expired at the last refresh.
+     */
+    int size() {
+        return snapshot.expiries.size();
+    }
+
+    private Snapshot rebuild(Map<UUID, Long> expiries, long now) {
+        int alive = (int) expiries.values()
+                                  .stream()
+                                  .filter(expiresAt -> expiresAt > now)
+                                  .count();
+        Snapshot rebuilt = new Snapshot(Math.max(expectedRevocations, alive * 2));
+        expiries.forEach((tokenId, expiresAt) -> {
+            if (expiresAt > now) {
+                rebuilt.add(tokenId, expiresAt);
+            }
+        });
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+
+    /**
+     * Filter and exact set of revocations, which are replaced together on rebuild.
+     */
+    private static final class Snapshot {
+
+        private final int capacity;
+        private final BloomFilter<UUID> filter;
+        private final Map<UUID, Long> expiries = new ConcurrentHashMap<>();
+
+        private Snapshot(int capacity) {
+            this.capacity = capacity;
+            this.filter = BloomFilter.create(UUID_FUNNEL, capacity, FALSE_POSITIVE_PROBABILITY);
+        }
+
+        /* Exact set is updated first, so token is reported as revoked only when it is in both. */
+        @SuppressWarnings("ResultOfMethodCallIgnored") // whether filter changed is not needed.
+        private void add(UUID tokenId, long expiresAt) {
+            expiries.put(tokenId, expiresAt);
+            filter.put(tokenId);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.javaclasses.todo.auth;
+
+import org.javaclasses.todo.model.entity.AuthSession;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Options of expiry of {@link AuthSession}s.
+ *
+ * <p>Session expires when either its absolute timeout passes since user signed in,
+ * or its idle timeout passes since session was last used.
+ *
+ * <p>Time of the last access is written to storage at most once per {@linkplain #getTouchIntervalMillis()
+ * touch interval}, so idle session may expire up to that interval earlier than its idle timeout.
+ *
+ * @author Oleg Barmin
+ */
+public final class SessionExpiry {
+
+    private static final int TOUCHES_PER_IDLE_TIMEOUT = 16;
+
+    private final long absoluteTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long precisionMillis;
+
+    private SessionExpiry(Builder builder) {
+        this.absoluteTimeoutMillis = builder.absoluteTimeoutMillis;
+        this.idleTimeoutMillis = builder.idleTimeoutMillis;
+        this.precisionMillis = builder.precisionMillis;
+    }
+
+    /**
+     * Creates builder of options.
+     *
+     * @return new builder with default options
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides options of sessions which live for at most thirty days and expire after a day of inactivity.
+     *
+     * @return default options
+     */
+    public static SessionExpiry defaults() {
+        return newBuilder().build();
+    }
+
+    /**
+     * Calculates time when given session expires.
+     *
+     * @param session session to calculate expiry of
+     * @return milliseconds since the epoch
+     */
+    long expiresAt(AuthSession session) {
+        long lastAccessTime = Math.max(session.getCreationTime(), session.getLastAccessTime());
+        return Math.min(saturatedAdd(session.getCreationTime(), absoluteTimeoutMillis),
+                        saturatedAdd(lastAccessTime, idleTimeoutMillis));
+    }
+
+    private static long saturatedAdd(long time, long timeout) {
+        long result = time + timeout;
+        return result < time ? Long.MAX_VALUE : result;
+    }
+
+    long getAbsoluteTimeoutMillis() {
+        return absoluteTimeoutMillis;
+    }
+
+    /**
+     * Provides interval after which access to session is written to storage again.
+     */
+    long getTouchIntervalMillis() {
+        return Math.max(1, idleTimeoutMillis / TOUCHES_PER_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Provides interval in which expired sessions are removed.
+     */
+    long getPrecisionMillis() {
+        return precisionMillis;
+    }
+
+    /**
+     * Allows to build {@code SessionExpiry} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private long absoluteTimeoutMillis = TimeUnit.DAYS.toMillis(30);
+        private long idleTimeoutMillis = TimeUnit.DAYS.toMillis(1);
+        private long precisionMillis = TimeUnit.SECONDS.toMillis(1);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets time after signing in when session expires regardless of its usage.
+         */
+        public Builder setAbsoluteTimeout(long timeout, TimeUnit unit) {
+            checkArgument(timeout > 0, "Absolute timeout must be positive, but was %s.", timeout);
+            this.absoluteTimeoutMillis = Math.max(1, unit.toMillis(timeout));
+            return this;
+        }
+
+        /**
+         * Sets time after the last usage of session when it expires.
+         */
+        public Builder setIdleTimeout(long timeout, TimeUnit unit) {
+            checkArgument(timeout > 0, "Idle timeout must be positive, but was %s.", timeout);
+            this.idleTimeoutMillis = Math.max(1, unit.toMillis(timeout));
+            return this;
+        }
+
+        /**
+         * Sets interval in which expired sessions are removed from storage.
+         *
+         * <p>Expired session is rejected as soon as it expires, regardless of the precision.
+         */
+        public Builder setPrecision(long precision, TimeUnit unit) {
+            checkArgument(precision > 0, "Precision must be positive, but was %s.", precision);
+            this.precisionMillis = Math.max(1, unit.toMillis(precision));
+            return this;
+        }
+
+        public SessionExpiry build() {
+            return new SessionExpiry(this);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.javaclasses.todo.auth;
+
+import org.javaclasses.todo.model.entity.Token;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.time.Clock;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Background thread which passes tokens of sessions to expire once their deadlines pass.
+ *
+ * <p>Deadlines are kept by {@link TimingWheel}, which thread advances once per tick of the wheel.
+ * Thread is started on the first scheduled session.
+ *
+ * @author Oleg Barmin
+ */
+final class SessionReaper implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionReaper.class);
+
+    private final Object lock = new Object();
+    private final TimingWheel<Token> wheel;
+    private final long tickMillis;
+    private final Clock clock;
+    private final Consumer<Token> expire;
+
+    private volatile boolean running = true;
+    @Nullable
+    private Thread thread;
+
+    /**
+     * Creates {@code SessionReaper} instance.
+     *
+     * @param tickMillis interval between checks of deadlines in milliseconds
+     * @param clock      clock to check deadlines by
+     * @param expire     callback which receives token of session which deadline has passed
+     */
+    SessionReaper(long tickMillis, Clock clock, Consumer<Token> expire) {
+        this.clock = checkNotNull(clock);
+        this.expire = checkNotNull(expire);
+        this.tickMillis = tickMillis;
+        this.wheel = new TimingWheel<>(tickMillis, clock.millis());
+    }
+
+    /**
+     * Schedules session to be passed to callback after given time.
+     *
+     * @param token          token of session
+     * @param deadlineMillis time in milliseconds since the epoch
+     */
+    void schedule(Token token, long deadlineMillis) {
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            wheel.schedule(token, deadlineMillis);
+            if (thread == null) {
+                thread = new Thread(this::run, "session-reaper");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Passes tokens of sessions which deadlines have passed to callback.
+     */
+    void expireDue() {
+        List<Token> due;
+        synchronized (lock) {
+            due = wheel.advance(clock.millis());
+        }
+        for (Token token : due) {
+            try {
+                expire.accept(token);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to expire session.", e);
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            synchronized (lock) {
+                try {
+                    lock.wait(tickMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            if (running) {
+                expireDue();
+            }
+        }
+    }
+
+    /**
+     * Stops the thread, scheduled sessions are not passed to callback anymore.
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+            current = thread;
+        }
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+}
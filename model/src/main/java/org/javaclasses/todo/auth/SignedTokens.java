@@ -0,0 +1,234 @@
+package org.javaclasses.todo.auth;
+
+import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.entity.UserId;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Options of tokens signed by application, which carry ID of user and time of expiry.
+ *
+ * <p>Signed token is validated without reading its session from storage. Token is signed
+ * by HMAC-SHA256 with secret key, so nodes of application which share the key accept tokens
+ * issued by each other.
+ *
+ * <p>Token consists of base64url-encoded content and its signature, separated by a dot:
+ * <ul>
+ *     <li>version of format, one byte;</li>
+ *     <li>unique ID of token, 16 bytes;</li>
+ *     <li>time of issue and time of expiry, 8 bytes each;</li>
+ *     <li>ID of user, as 16 bytes if it is UUID, or as UTF-8 string otherwise, after byte of its kind.</li>
+ * </ul>
+ *
+ * <p>Revoked tokens are kept by the storage of sessions until they expire. Each node reads them
+ * once per {@linkplain Builder#setRevocationRefresh(long, TimeUnit) refresh interval}, so token revoked
+ * on one node is rejected by other nodes within that interval.
+ *
+ * @author Oleg Barmin
+ */
+public final class SignedTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_LENGTH = 32;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte STRING_USER_ID = 0;
+    private static final byte UUID_USER_ID = 1;
+    private static final char SEPARATOR = '.';
+    private static final int HEADER_LENGTH = 1 + 16 + 8 + 8 + 1;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder()
+                                                        .withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long revocationRefreshMillis;
+    private final int expectedRevocations;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::createMac);
+
+    private SignedTokens(Builder builder) {
+        this.key = new SecretKeySpec(checkNotNull(builder.key), ALGORITHM);
+        this.revocationRefreshMillis = builder.revocationRefreshMillis;
+        this.expectedRevocations = builder.expectedRevocations;
+    }
+
+    /**
+     * Creates builder of options.
+     *
+     * @return new builder, which requires key to be set
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Checks whether given token has format of signed token, regardless of its signature.
+     */
+    static boolean isSigned(Token token) {
+        return !token.isUuid() && token.getValue()
+                                       .indexOf(SEPARATOR) >= 0;
+    }
+
+    /**
+     * Creates token with given content.
+     *
+     * @param claims content of token
+     * @return signed token
+     */
+    Token issue(TokenClaims claims) {
+        UserId userId = claims.getUserId();
+        byte[] userBytes = userId.isUuid() ? new byte[16] : userId.getValue()
+                                                                  .getBytes(UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(HEADER_LENGTH + userBytes.length)
+                                       .put(FORMAT_VERSION)
+                                       .putLong(claims.getTokenId()
+                                                      .getMostSignificantBits())
+                                       .putLong(claims.getTokenId()
+                                                      .getLeastSignificantBits())
+                                       .putLong(claims.getIssuedAt())
+                                       .putLong(claims.getExpiresAt());
+        if (userId.isUuid()) {
+            payload.put(UUID_USER_ID)
+                   .putLong(userId.getMostSignificantBits())
+                   .putLong(userId.getLeastSignificantBits());
+        } else {
+            payload.put(STRING_USER_ID)
+                   .put(userBytes);
+        }
+
+        String content = ENCODER.encodeToString(payload.array());
+        return new Token(content + SEPARATOR + ENCODER.encodeToString(sign(content)));
+    }
+
+    /**
+     * Reads content of token if its signature is valid.
+     *
+     * <p>Time of expiry is not checked.
+     *
+     * @param token token to read
+     * @return content of token, or {@code Optional.empty()} if token is not signed by the key
+     */
+    Optional<TokenClaims> verify(Token token) {
+        String value = token.getValue();
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return Optional.empty();
+        }
+
+        String content = value.substring(0, separator);
+        try {
+            byte[] signature = DECODER.decode(value.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(content))) {
+                return Optional.empty();
+            }
+            return Optional.of(readClaims(ByteBuffer.wrap(DECODER.decode(content))));
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static TokenClaims readClaims(ByteBuffer payload) {
+        checkArgument(payload.get() == FORMAT_VERSION, "Unknown version of token format.");
+        UUID tokenId = new UUID(payload.getLong(), payload.getLong());
+        long issuedAt = payload.getLong();
+        long expiresAt = payload.getLong();
+
+        UserId userId;
+        if (payload.get() == UUID_USER_ID) {
+            userId = new UserId(new UUID(payload.getLong(), payload.getLong()));
+        } else {
+            byte[] userBytes = Arrays.copyOfRange(payload.array(), payload.position(), payload.limit());
+            userId = new UserId(new String(userBytes, UTF_8));
+        }
+        return new TokenClaims(tokenId, userId, issuedAt, expiresAt);
+    }
+
+    private byte[] sign(String content) {
+        return macs.get()
+                   .doFinal(content.getBytes(US_ASCII));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available.", e);
+        }
+    }
+
+    long getRevocationRefreshMillis() {
+        return revocationRefreshMillis;
+    }
+
+    int getExpectedRevocations() {
+        return expectedRevocations;
+    }
+
+    /**
+     * Allows to build {@code SignedTokens} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private byte[] key;
+        private long revocationRefreshMillis = TimeUnit.SECONDS.toMillis(5);
+        private int expectedRevocations = 100_000;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets secret key to sign tokens with, which should be shared by all nodes of application.
+         *
+         * @param key key of at least 32 bytes
+         */
+        public Builder setKey(byte[] key) {
+            checkNotNull(key);
+            checkArgument(key.length >= MIN_KEY_LENGTH, "Key must have at least %s bytes.", MIN_KEY_LENGTH);
+            this.key = key.clone();
+            return this;
+        }
+
+        /**
+         * Sets interval in which tokens revoked by other nodes are read from storage.
+         */
+        public Builder setRevocationRefresh(long interval, TimeUnit unit) {
+            checkArgument(interval > 0, "Refresh interval must be positive, but was %s.", interval);
+            this.revocationRefreshMillis = Math.max(1, unit.toMillis(interval));
+            return this;
+        }
+
+        /**
+         * Sets number of revoked tokens which are not expired yet, for which filter of revoked tokens is sized.
+         */
+        public Builder setExpectedRevocations(int expectedRevocations) {
+            checkArgument(expectedRevocations > 0, "Expected revocations must be positive, but was %s.",
+                          expectedRevocations);
+            this.expectedRevocations = expectedRevocations;
+            return this;
+        }
+
+        public SignedTokens build() {
+            checkState(key != null, "Key of signed tokens must be set.");
+            return new SignedTokens(this);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.javaclasses.todo.auth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Hierarchical timing wheel, which schedules keys to be due at given time.
+ *
+ * <p>Wheel consists of levels of {@value #SLOTS} buckets. Bucket of the lowest level holds keys due in one tick,
+ * bucket of each next level holds keys due in {@value #SLOTS} times longer interval. When wheel reaches interval
+ * of bucket of higher level, keys of the bucket are moved to lower levels. So scheduling a key and making it due
+ * take constant time, regardless of number of scheduled keys. Keys due later than the wheel can hold are kept in the
+ * last bucket of the highest level and rescheduled when it is reached.
+ *
+ * <p>Key never becomes due before its deadline, but may become due up to one tick after it.
+ *
+ * <p>Scheduled keys cannot be cancelled, owner of the wheel should check whether due key is still relevant.
+ *
+ * <p>Wheel is not thread-safe.
+ *
+ * @param <K> type of scheduled keys
+ * @author Oleg Barmin
+ */
+final class TimingWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Timer<K>>> buckets = new ArrayList<>(LEVELS * SLOTS);
+    private final List<K> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates {@code TimingWheel} instance.
+     *
+     * @param tickMillis duration of one tick in milliseconds
+     * @param nowMillis  current time in milliseconds since the epoch
+     */
+    TimingWheel(long tickMillis, long nowMillis) {
+        checkArgument(tickMillis > 0, "Tick must be positive, but was %s.", tickMillis);
+
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules key to become due at given time.
+     *
+     * @param key            key to schedule
+     * @param deadlineMillis time in milliseconds since the epoch
+     */
+    void schedule(K key, long deadlineMillis) {
+        long deadlineTick = -Math.floorDiv(-deadlineMillis, tickMillis);
+        place(new Timer<>(key, deadlineTick), overdue);
+    }
+
+    /**
+     * Advances the wheel to given time.
+     *
+     * @param nowMillis current time in milliseconds since the epoch
+     * @return keys which became due
+     */
+    List<K> advance(long nowMillis) {
+        List<K> due = new ArrayList<>(overdue);
+        overdue.clear();
+
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                long lowerBits = currentTick & ((1L << (SLOT_BITS * level)) - 1);
+                if (lowerBits == 0) {
+                    for (Timer<K> timer : drain(level, currentTick >>> (SLOT_BITS * level))) {
+                        place(timer, due);
+                    }
+                }
+            }
+            for (Timer<K> timer : drain(0, currentTick)) {
+                due.add(timer.key);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Provides number of scheduled keys, which are not due yet.
+     */
+    int size() {
+        return size;
+    }
+
+    private void place(Timer<K> timer, List<K> due) {
+        if (timer.deadlineTick <= currentTick) {
+            due.add(timer.key);
+            return;
+        }
+
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            long slot = timer.deadlineTick >>> shift;
+            if (slot - (currentTick >>> shift) < SLOTS) {
+                bucket(level, slot).add(timer);
+                size++;
+                return;
+            }
+        }
+
+        int topShift = SLOT_BITS * (LEVELS - 1);
+        bucket(LEVELS - 1, (currentTick >>> topShift) + SLOT_MASK).add(timer);
+        size++;
+    }
+
+    private List<Timer<K>> bucket(int level, long slot) {
+        return buckets.get(level * SLOTS + (int) (slot & SLOT_MASK));
+    }
+
+    private List<Timer<K>> drain(int level, long slot) {
+        List<Timer<K>> bucket = bucket(level, slot);
+        if (bucket.isEmpty()) {
+            return bucket;
+        }
+
+        List<Timer<K>> timers = new ArrayList<>(bucket);
+        bucket.clear();
+        size -= timers.size();
+        return timers;
+    }
+
+    /**
+     * Key scheduled to the tick of its deadline.
+     */
+    private static final class Timer<K> {
+
+        private final K key;
+        private final long deadlineTick;
+
+        private Timer(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.javaclasses.todo.auth;
+
+import org.javaclasses.todo.model.entity.UserId;
+
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Content of token {@linkplain SignedTokens signed} by application.
+ *
+ * @author Oleg Barmin
+ */
+final class TokenClaims {
+
+    private final UUID tokenId;
+    private final UserId userId;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    /**
+     * Creates {@code TokenClaims} instance.
+     *
+     * @param tokenId   unique ID of token, by which token is revoked
+     * @param userId    ID of user who signed in
+     * @param issuedAt  time when token was issued in milliseconds since the epoch
+     * @param expiresAt time when token expires in milliseconds since the epoch
+     */
+    TokenClaims(UUID tokenId, UserId userId, long issuedAt, long expiresAt) {
+        this.tokenId = checkNotNull(tokenId);
+        this.userId = checkNotNull(userId);
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    UUID getTokenId() {
+        return tokenId;
+    }
+
+    UserId getUserId() {
+        return userId;
+    }
+
+    long getIssuedAt() {
+        return issuedAt;
+    }
+
+    long getExpiresAt() {
+        return expiresAt;
+    }
+}
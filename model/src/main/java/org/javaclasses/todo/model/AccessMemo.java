@@ -0,0 +1,85 @@
+package org.javaclasses.todo.model;
+
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.model.entity.UserId;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Memo of access checks of one operation: user whose token was validated and to-do lists which
+ * the user was already validated to access during the operation.
+ *
+ * <p>Memo starts empty, it does not load all to-do lists of the user, since most operations
+ * check one or few lists. Access to each to-do list is validated by {@link Authorization} when
+ * it is checked first time, further checks of that list within the operation are probes of set
+ * of remembered lists.
+ *
+ * <p>Memo lives as long as one operation, so access changed after it was remembered
+ * is seen by the next operation. Memo is not thread-safe.
+ *
+ * @author Oleg Barmin
+ */
+public final class AccessMemo {
+
+    private final UserId userId;
+    private final Authorization authorization;
+    private final Set<TodoListId> validatedLists = new HashSet<>();
+
+    /**
+     * Creates {@code AccessMemo} instance.
+     *
+     * @param userId        ID of user whose token was validated
+     * @param authorization service to validate access to to-do lists which are not remembered yet
+     */
+    AccessMemo(UserId userId, Authorization authorization) {
+        this.userId = checkNotNull(userId);
+        this.authorization = checkNotNull(authorization);
+    }
+
+    public UserId getUserId() {
+        return userId;
+    }
+
+    /**
+     * Validates if user of memo has access to {@code TodoList} with given ID.
+     *
+     * @param todoListId ID of {@code TodoList}
+     * @throws TodoListNotFoundException    if {@code TodoList} with given ID was not found
+     * @throws AuthorizationFailedException if user has no access to {@code TodoList} with given ID
+     */
+    public void validateAccess(TodoListId todoListId) {
+        checkNotNull(todoListId);
+
+        if (validatedLists.contains(todoListId)) {
+            return;
+        }
+        authorization.validateAccess(userId, todoListId);
+        validatedLists.add(todoListId);
+    }
+
+    /**
+     * Validates if user of memo has access to each {@code TodoList} with given IDs.
+     *
+     * @param todoListIds IDs of {@code TodoList}s
+     * @throws TodoListNotFoundException    if some {@code TodoList} with given ID was not found
+     * @throws AuthorizationFailedException if user has no access to some {@code TodoList}
+     */
+    public void validateAccess(Collection<TodoListId> todoListIds) {
+        checkNotNull(todoListIds);
+
+        List<TodoListId> unvalidated = todoListIds.stream()
+                                                  .filter(todoListId -> !validatedLists.contains(todoListId))
+                                                  .collect(Collectors.toList());
+        if (unvalidated.isEmpty()) {
+            return;
+        }
+        authorization.validateAccess(userId, unvalidated);
+        validatedLists.addAll(unvalidated);
+    }
+}
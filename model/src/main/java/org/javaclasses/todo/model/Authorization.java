@@ -1,22 +1,49 @@
 package org.javaclasses.todo.model;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.javaclasses.todo.model.entity.TodoList;
 import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.model.entity.UserId;
 import org.javaclasses.todo.storage.impl.TodoListStorage;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Validates if user has access to entity with given ID.
  *
+ * <p>Owner of to-do list never changes once list is created, so owners of checked lists are cached
+ * and access to them is validated without reading storage. Lists which were not found are cached
+ * for a second, so repeated requests to missing list do not read storage either, while list created
+ * by another application sharing storage becomes accessible in a second.
+ *
+ * <p>Cache keeps at most 100 000 lists. It is {@linkplain #invalidate(TodoListId) invalidated}
+ * when list is created by this application, and should be invalidated as well if list is removed
+ * or its access is changed.
+ *
  * @author Oleg Barmin
  */
 public class Authorization {
 
+    private static final int MAXIMUM_CACHED_LISTS = 100_000;
+    private static final long NOT_FOUND_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final TodoListStorage todoListStorage;
+    private final Cache<TodoListId, Owner> cachedOwners;
+    private final Ticker ticker;
 
     /**
      * Creates {@code Authorization} instance.
@@ -24,7 +51,16 @@ public class Authorization {
      * @param todoListStorage storage of to-do lists
      */
     Authorization(TodoListStorage todoListStorage) {
+        this(todoListStorage, MAXIMUM_CACHED_LISTS, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    Authorization(TodoListStorage todoListStorage, int maximumCachedLists, Ticker ticker) {
         this.todoListStorage = checkNotNull(todoListStorage);
+        this.ticker = checkNotNull(ticker);
+        this.cachedOwners = CacheBuilder.newBuilder()
+                                  .maximumSize(maximumCachedLists)
+                                  .build();
     }
 
     /**
@@ -39,17 +75,134 @@ public class Authorization {
         checkNotNull(userId);
         checkNotNull(todoListId);
 
-        Optional<TodoList> optionalTodoList = todoListStorage.read(todoListId);
+        Owner owner = cachedOwner(todoListId);
+        if (owner == null) {
+            Optional<TodoList> todoList = todoListStorage.read(todoListId);
+            owner = cache(todoListId, todoList.orElse(null));
+        }
 
-        if (!optionalTodoList.isPresent()) {
-            throw new TodoListNotFoundException(todoListId);
+        owner.validateAccess(userId, todoListId);
+    }
+
+    /**
+     * Validates if user with given ID has access to each {@code TodoList} with given IDs.
+     *
+     * <p>To-do lists which owners are not cached are read from storage at once and each of them is checked once,
+     * however many times its ID is given.
+     *
+     * @param userId      user which tries to access {@code TodoList}s
+     * @param todoListIds IDs of {@code TodoList}s
+     * @throws TodoListNotFoundException    if some {@code TodoList} with given ID was not found
+     * @throws AuthorizationFailedException if user with given ID has no access to some {@code TodoList}
+     */
+    public void validateAccess(UserId userId, Collection<TodoListId> todoListIds) {
+        checkNotNull(userId);
+        checkNotNull(todoListIds);
+
+        Set<TodoListId> distinctIds = new LinkedHashSet<>(todoListIds);
+        Map<TodoListId, Owner> owners = new HashMap<>();
+        List<TodoListId> uncachedIds = new ArrayList<>();
+        for (TodoListId todoListId : distinctIds) {
+            Owner owner = cachedOwner(todoListId);
+            if (owner == null) {
+                uncachedIds.add(todoListId);
+            } else {
+                owners.put(todoListId, owner);
+            }
+        }
+
+        if (!uncachedIds.isEmpty()) {
+            Map<TodoListId, TodoList> todoLists = todoListStorage.readAll(uncachedIds);
+            for (TodoListId todoListId : uncachedIds) {
+                owners.put(todoListId, cache(todoListId, todoLists.get(todoListId)));
+            }
         }
 
-        UserId owner = optionalTodoList.get()
-                                       .getOwner();
+        for (TodoListId todoListId : distinctIds) {
+            owners.get(todoListId)
+                  .validateAccess(userId, todoListId);
+        }
+    }
+
+    /**
+     * Creates access memo of one operation of user whose token was validated.
+     *
+     * @param userId ID of user whose token was validated
+     * @return new empty access memo of the user
+     */
+    public AccessMemo accessMemoOf(UserId userId) {
+        return new AccessMemo(userId, this);
+    }
+
+    /**
+     * Removes cached owner of to-do list, so the next access to it is validated by storage.
+     *
+     * <p>Should be called after to-do list is created, removed or its access is changed.
+     *
+     * @param todoListId ID of changed to-do list
+     */
+    public void invalidate(TodoListId todoListId) {
+        checkNotNull(todoListId);
+        cachedOwners.invalidate(todoListId);
+    }
+
+    /**
+     * Removes all cached owners, e.g. after all to-do lists are removed.
+     */
+    public void invalidateAll() {
+        cachedOwners.invalidateAll();
+    }
+
+    @Nullable
+    private Owner cachedOwner(TodoListId todoListId) {
+        Owner owner = cachedOwners.getIfPresent(todoListId);
+        if (owner != null && owner.isExpired(ticker.read())) {
+            cachedOwners.invalidate(todoListId);
+            return null;
+        }
+        return owner;
+    }
+
+    private Owner cache(TodoListId todoListId, @Nullable TodoList todoList) {
+        Owner owner = Owner.of(todoList, ticker.read() + NOT_FOUND_TTL_NANOS);
+        cachedOwners.put(todoListId, owner);
+        return owner;
+    }
+
+    /**
+     * Cached owner of to-do list, or absence of the list until given time.
+     */
+    private static final class Owner {
+
+        @Nullable
+        private final UserId userId;
+        private final long expiresAt;
+
+        private Owner(@Nullable UserId userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Creates owner of given list, which never expires, or absence of list, which expires at given time.
+         */
+        private static Owner of(@Nullable TodoList todoList, long notFoundExpiresAt) {
+            return todoList == null
+                   ? new Owner(null, notFoundExpiresAt)
+                   : new Owner(todoList.getOwner(), Long.MAX_VALUE);
+        }
+
+        private boolean isExpired(long now) {
+            return userId == null && now - expiresAt >= 0;
+        }
 
-        if (!owner.equals(userId)) {
-            throw new AuthorizationFailedException(userId, todoListId);
+        private void validateAccess(UserId user, TodoListId todoListId) {
+            if (userId == null) {
+                throw new TodoListNotFoundException(todoListId);
+            }
+            if (!userId.equals(user)) {
+                throw new AuthorizationFailedException(user, todoListId);
+            }
         }
     }
 }
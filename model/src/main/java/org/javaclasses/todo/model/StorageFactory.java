@@ -1,9 +1,17 @@
 package org.javaclasses.todo.model;
 
+import org.javaclasses.todo.storage.StorageEngineFactory;
 import org.javaclasses.todo.storage.impl.AuthSessionStorage;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 import org.javaclasses.todo.storage.impl.TodoListStorage;
 import org.javaclasses.todo.storage.impl.UserStorage;
+import org.javaclasses.todo.storage.metrics.StorageMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Provides storage for services of TodoList application.
@@ -15,11 +23,29 @@ import org.javaclasses.todo.storage.impl.UserStorage;
  */
 public class StorageFactory {
 
+    private final StorageEngineFactory engineFactory;
+
     private AuthSessionStorage authSessionStorage = null;
     private TaskStorage taskStorage = null;
     private TodoListStorage todoListStorage = null;
     private UserStorage userStorage = null;
 
+    /**
+     * Creates {@code StorageFactory} instance which provides storages kept in memory.
+     */
+    public StorageFactory() {
+        this(ConcurrentStorageEngine.factory());
+    }
+
+    /**
+     * Creates {@code StorageFactory} instance which provides storages backed by engines of given factory.
+     *
+     * @param engineFactory factory of engines to keep entities in
+     */
+    public StorageFactory(StorageEngineFactory engineFactory) {
+        this.engineFactory = checkNotNull(engineFactory);
+    }
+
     /**
      * Provides instance of {@link AuthSessionStorage}.
      *
@@ -27,7 +53,7 @@ public class StorageFactory {
      */
     public synchronized AuthSessionStorage getAuthSessionStorage() {
         if (authSessionStorage == null) {
-            authSessionStorage = new AuthSessionStorage();
+            authSessionStorage = new AuthSessionStorage(engineFactory);
         }
         return authSessionStorage;
     }
@@ -39,7 +65,7 @@ public class StorageFactory {
      */
     public synchronized TaskStorage getTaskStorage() {
         if (taskStorage == null) {
-            taskStorage = new TaskStorage();
+            taskStorage = new TaskStorage(engineFactory);
         }
         return taskStorage;
     }
@@ -51,7 +77,7 @@ public class StorageFactory {
      */
     public synchronized TodoListStorage getTodoListStorage() {
         if (todoListStorage == null) {
-            todoListStorage = new TodoListStorage();
+            todoListStorage = new TodoListStorage(engineFactory);
         }
         return todoListStorage;
     }
@@ -63,8 +89,48 @@ public class StorageFactory {
      */
     public synchronized UserStorage getUserStorage() {
         if (userStorage == null) {
-            userStorage = new UserStorage();
+            userStorage = new UserStorage(engineFactory);
         }
         return userStorage;
     }
+
+    /**
+     * Provides metrics of storages provided so far.
+     *
+     * @return list of metrics of each provided storage
+     */
+    public synchronized List<StorageMetrics> getMetrics() {
+        List<StorageMetrics> metrics = new ArrayList<>();
+        if (authSessionStorage != null) {
+            metrics.add(authSessionStorage.getMetrics());
+        }
+        if (taskStorage != null) {
+            metrics.add(taskStorage.getMetrics());
+        }
+        if (todoListStorage != null) {
+            metrics.add(todoListStorage.getMetrics());
+        }
+        if (userStorage != null) {
+            metrics.add(userStorage.getMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Closes all provided storages, releasing resources held by their engines.
+     */
+    public synchronized void close() {
+        if (authSessionStorage != null) {
+            authSessionStorage.close();
+        }
+        if (taskStorage != null) {
+            taskStorage.close();
+        }
+        if (todoListStorage != null) {
+            todoListStorage.close();
+        }
+        if (userStorage != null) {
+            userStorage.close();
+        }
+    }
 }
@@ -16,7 +16,7 @@ public class TaskAlreadyExistsException extends RuntimeException {
      *
      * @param taskId ID of the task which is already exists
      */
-    TaskAlreadyExistsException(TaskId taskId) {
+    public TaskAlreadyExistsException(TaskId taskId) {
         super(String.format("Task with ID: '%s' already exists.", taskId));
     }
 }
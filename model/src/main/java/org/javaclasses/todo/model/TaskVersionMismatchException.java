@@ -0,0 +1,33 @@
+package org.javaclasses.todo.model;
+
+import org.javaclasses.todo.model.entity.TaskId;
+
+/**
+ * Occurs when try to update task which was changed since the version expected by update.
+ *
+ * @author Oleg Barmin
+ */
+@SuppressWarnings("WeakerAccess") // part of Public API should be public
+public class TaskVersionMismatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long currentVersion;
+
+    /**
+     * Creates {@code TaskVersionMismatchException} instance.
+     *
+     * @param taskId          ID of the changed task
+     * @param expectedVersion version of task expected by update
+     * @param currentVersion  current version of task
+     */
+    public TaskVersionMismatchException(TaskId taskId, long expectedVersion, long currentVersion) {
+        super(String.format("Task with ID: '%s' has version %d, but version %d was expected.",
+                            taskId, currentVersion, expectedVersion));
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
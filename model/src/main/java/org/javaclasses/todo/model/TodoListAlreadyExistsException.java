@@ -16,7 +16,7 @@ public class TodoListAlreadyExistsException extends RuntimeException {
      *
      * @param todoListId ID of {@code TodoList} which already exists
      */
-    TodoListAlreadyExistsException(TodoListId todoListId) {
+    public TodoListAlreadyExistsException(TodoListId todoListId) {
         super(String.format("TodoList with ID: '%s' already exists.", todoListId));
     }
 }
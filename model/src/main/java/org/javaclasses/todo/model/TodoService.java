@@ -6,15 +6,20 @@ import org.javaclasses.todo.model.entity.TaskId;
 import org.javaclasses.todo.model.entity.TodoList;
 import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.model.operation.AddTask;
+import org.javaclasses.todo.model.operation.AddTasks;
 import org.javaclasses.todo.model.operation.CreateList;
 import org.javaclasses.todo.model.operation.FindTask;
+import org.javaclasses.todo.model.operation.FindTasks;
 import org.javaclasses.todo.model.operation.ReadTasks;
 import org.javaclasses.todo.model.operation.ReadTodoLists;
 import org.javaclasses.todo.model.operation.RemoveTask;
+import org.javaclasses.todo.model.operation.RemoveTasks;
 import org.javaclasses.todo.model.operation.UpdateTask;
+import org.javaclasses.todo.model.operation.UpdateTasks;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 import org.javaclasses.todo.storage.impl.TodoListStorage;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -28,6 +33,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * - Update already created tasks;
  * - Delete created tasks.
  *
+ * <p>Tasks may be found, added, updated and removed in batches,
+ * which validate user token and access to each affected to-do list once.
+ *
  * @author Oleg Barmin
  */
 public class TodoService {
@@ -60,7 +68,7 @@ public class TodoService {
             throw new TodoListAlreadyExistsException(todoListId);
         }
 
-        return new CreateList(todoListId, todoListStorage, authentication);
+        return new CreateList(todoListId, todoListStorage, authorization, authentication);
     }
 
     /**
@@ -111,6 +119,25 @@ public class TodoService {
         return new AddTask(taskId, taskStorage, authentication, authorization);
     }
 
+    /**
+     * Creates instance of {@link FindTasks} to find many tasks by IDs at once.
+     *
+     * @param taskIds IDs of the tasks to find
+     * @return {@code FindTasks} instance
+     */
+    public FindTasks findTasks(Collection<TaskId> taskIds) {
+        return new FindTasks(taskIds, taskStorage, authorization, authentication);
+    }
+
+    /**
+     * Creates instance of {@link AddTasks} to add many new tasks at once.
+     *
+     * @return {@code AddTasks} instance to build request to add new Tasks
+     */
+    public AddTasks addTasks() {
+        return new AddTasks(taskStorage, authentication, authorization);
+    }
+
     /**
      * Creates instance of {@link UpdateTask} to update task.
      *
@@ -133,4 +160,23 @@ public class TodoService {
         return new RemoveTask(taskId, taskStorage, authorization, authentication);
     }
 
+    /**
+     * Creates instance of {@link UpdateTasks} to update many tasks at once.
+     *
+     * @return {@code UpdateTasks} instance to build updates of tasks and upload them
+     */
+    public UpdateTasks updateTasks() {
+        return new UpdateTasks(taskStorage, authorization, authentication);
+    }
+
+    /**
+     * Creates instance of {@link RemoveTasks} to remove many tasks at once.
+     *
+     * @param taskIds IDs of the tasks to remove
+     * @return {@code RemoveTasks} instance
+     */
+    public RemoveTasks removeTasks(Collection<TaskId> taskIds) {
+        return new RemoveTasks(taskIds, taskStorage, authorization, authentication);
+    }
+
 }
@@ -9,11 +9,17 @@ package org.javaclasses.todo.model.entity;
  *
  * <p>Newly created {@code AuthSession} will be stored in the system to validate user actions.
  *
+ * <p>Session keeps time of its creation and time of the last access to it, so it expires
+ * some time after creation or after the last access. Times are milliseconds since the epoch,
+ * zero if unknown.
+ *
  * @author Oleg Barmin
  */
 public final class AuthSession extends Entity<Token> {
 
     private UserId userId;
+    private volatile long creationTime;
+    private volatile long lastAccessTime;
 
     public AuthSession(Token token) {
         super(token);
@@ -23,7 +29,39 @@ public final class AuthSession extends Entity<Token> {
         return userId;
     }
 
+    /**
+     * Sets ID of user of the session, which is {@link EntityId#intern(EntityId) interned},
+     * so sessions of one user share it.
+     *
+     * @param userId ID of user who signed in
+     */
     public void setUserId(UserId userId) {
-        this.userId = userId;
+        this.userId = userId == null ? null : EntityId.intern(userId);
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    /**
+     * Sets time when user signed in.
+     *
+     * @param creationTime milliseconds since the epoch
+     */
+    public void setCreationTime(long creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /**
+     * Sets time when session was last used to validate action of user.
+     *
+     * @param lastAccessTime milliseconds since the epoch
+     */
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
     }
 }
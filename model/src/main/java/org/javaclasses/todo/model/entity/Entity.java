@@ -7,6 +7,9 @@ import java.util.Objects;
  *
  * <p>Each entity has ID {@link EntityId} to ensure its uniques.
  *
+ * <p>Each entity has version, which storage increments on each write of entity,
+ * so writer may detect that entity was changed since it was read. Version is not a part of equality.
+ *
  * @param <I> ID of the entity
  * @author Oleg Barmin
  */
@@ -15,6 +18,7 @@ import java.util.Objects;
 public abstract class Entity<I extends EntityId> {
 
     private final I id;
+    private volatile long version;
 
     Entity(I i) {
         this.id = i;
@@ -24,6 +28,26 @@ public abstract class Entity<I extends EntityId> {
         return id;
     }
 
+    /**
+     * Provides version of entity assigned by storage.
+     *
+     * @return version of entity, zero if entity was never written
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets version of entity.
+     *
+     * <p>Should be called only by storage, when entity is written or read.
+     *
+     * @param version version of entity
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public final int hashCode() {
         return Objects.hash(getId());
@@ -1,10 +1,24 @@
 package org.javaclasses.todo.model.entity;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import javax.annotation.Nullable;
 import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Ensures {@code Entity} uniqueness.
  *
+ * <p>Value which is a UUID string in the form produced by {@link UUID#toString()} is kept as two longs,
+ * so ID does not hold the 36-char string and compares without reading it. String of such value is
+ * formatted on the first {@link #getValue()} and is kept by ID afterwards, so code which only compares
+ * or encodes IDs should use {@link #isUuid()}, bits of UUID and {@link #compareValueTo(String)} instead.
+ *
+ * <p>Hash code is computed once, when ID is created.
+ *
+ * <p>IDs of different classes are never equal, even if their values are.
+ *
  * @param <V> value of ID
  * @author Oleg Barmin
  */
@@ -12,24 +26,206 @@ import java.util.Objects;
 @SuppressWarnings("AbstractClassWithoutAbstractMethods")
 public abstract class EntityId<V> {
 
+    private static final Interner<EntityId<?>> INTERNER = Interners.newWeakInterner();
+    private static final int UUID_LENGTH = 36;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /* Null if value is kept as bits of UUID. */
+    @Nullable
     private final V value;
+    private final boolean uuid;
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final int hash;
+
+    /* Formatted lazily, racing readers format equal strings. Not a part of serialized form. */
+    @Nullable
+    private transient volatile String string;
 
     /**
      * Creates {@code EntityId} instance.
      *
      * @param value value of ID
      */
-    EntityId(V value) {
-        this.value = value;
+    EntityId(@Nullable V value) {
+        if (value instanceof String && isCanonicalUuid((String) value)) {
+            String string = (String) value;
+            this.value = null;
+            this.uuid = true;
+            this.mostSignificantBits = parseHex(string, 0, 8) << 32 | parseHex(string, 9, 13) << 16
+                    | parseHex(string, 14, 18);
+            this.leastSignificantBits = parseHex(string, 19, 23) << 48 | parseHex(string, 24, 36);
+            this.hash = Long.hashCode(mostSignificantBits ^ leastSignificantBits);
+        } else {
+            this.value = value;
+            this.uuid = false;
+            this.mostSignificantBits = 0;
+            this.leastSignificantBits = 0;
+            this.hash = Objects.hashCode(value);
+        }
+    }
+
+    /**
+     * Creates {@code EntityId} instance which value is string of given UUID.
+     *
+     * <p>Should be used only by IDs with string values.
+     *
+     * @param uuid UUID to keep
+     */
+    EntityId(UUID uuid) {
+        this.value = null;
+        this.uuid = true;
+        this.mostSignificantBits = uuid.getMostSignificantBits();
+        this.leastSignificantBits = uuid.getLeastSignificantBits();
+        this.hash = Long.hashCode(mostSignificantBits ^ leastSignificantBits);
+    }
+
+    /**
+     * Provides ID equal to given one, which is shared by all such IDs interned before.
+     *
+     * <p>Entities which refer to the same entity, e.g. tasks of one to-do list, keep one instance of its ID.
+     * Interned IDs are kept while they are referenced.
+     *
+     * @param id  ID to intern
+     * @param <I> type of ID
+     * @return interned ID equal to given one
+     */
+    // IDs of different classes are never equal, so interned ID has class of given ID.
+    @SuppressWarnings("unchecked")
+    public static <I extends EntityId<?>> I intern(I id) {
+        return (I) INTERNER.intern(id);
+    }
+
+    /**
+     * Checks whether given string is a UUID in the form produced by {@link UUID#toString()},
+     * so it is restored exactly from its bits.
+     */
+    private static boolean isCanonicalUuid(String value) {
+        if (value.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = value.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            boolean hexDigit = c >= '0' && c <= '9' || c >= 'a' && c <= 'f';
+            if (dash ? c != '-' : !hexDigit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = result << 4 | Character.digit(value.charAt(i), 16);
+        }
+        return result;
+    }
+
+    private static String formatUuid(long mostSignificantBits, long leastSignificantBits) {
+        char[] chars = new char[UUID_LENGTH];
+        formatHex(mostSignificantBits >>> 32, chars, 0, 8);
+        chars[8] = '-';
+        formatHex(mostSignificantBits >>> 16, chars, 9, 13);
+        chars[13] = '-';
+        formatHex(mostSignificantBits, chars, 14, 18);
+        chars[18] = '-';
+        formatHex(leastSignificantBits >>> 48, chars, 19, 23);
+        chars[23] = '-';
+        formatHex(leastSignificantBits, chars, 24, 36);
+        return new String(chars);
     }
 
+    private static void formatHex(long value, char[] chars, int from, int to) {
+        long remaining = value;
+        for (int i = to - 1; i >= from; i--) {
+            chars[i] = HEX_DIGITS[(int) (remaining & 0xF)];
+            remaining >>>= 4;
+        }
+    }
+
+    /* Returns hex digit or dash which is at given position of string of UUID value. */
+    private static char uuidCharAt(long mostSignificantBits, long leastSignificantBits, int index) {
+        if (index == 8 || index == 13 || index == 18 || index == 23) {
+            return '-';
+        }
+        if (index < 18) {
+            int digit = index < 8 ? index : index < 13 ? index - 1 : index - 2;
+            return HEX_DIGITS[(int) (mostSignificantBits >>> (60 - 4 * digit) & 0xF)];
+        }
+        int digit = index < 23 ? index - 19 : index - 20;
+        return HEX_DIGITS[(int) (leastSignificantBits >>> (60 - 4 * digit) & 0xF)];
+    }
+
+    // value kept as bits of UUID is always a string.
+    @SuppressWarnings("unchecked")
     public V getValue() {
-        return value;
+        if (!uuid) {
+            return value;
+        }
+        String result = string;
+        if (result == null) {
+            result = formatUuid(mostSignificantBits, leastSignificantBits);
+            string = result;
+        }
+        return (V) result;
+    }
+
+    /**
+     * Compares string of value of this ID with given string lexicographically.
+     *
+     * <p>Characters of {@link #isUuid() UUID} value are read from its bits, so string of value is not formatted.
+     *
+     * @param other string to compare with
+     * @return negative integer, zero or positive integer as string of value of this ID
+     * is less than, equal to or greater than given string
+     */
+    public int compareValueTo(String other) {
+        if (!uuid) {
+            return String.valueOf(value)
+                         .compareTo(other);
+        }
+        int length = Math.min(UUID_LENGTH, other.length());
+        for (int i = 0; i < length; i++) {
+            char c = uuidCharAt(mostSignificantBits, leastSignificantBits, i);
+            if (c != other.charAt(i)) {
+                return c - other.charAt(i);
+            }
+        }
+        return UUID_LENGTH - other.length();
+    }
+
+    /**
+     * Checks whether value of ID is a UUID string kept as bits of UUID.
+     *
+     * @return {@code true} if bits of UUID represent value of ID
+     */
+    public boolean isUuid() {
+        return uuid;
+    }
+
+    /**
+     * Provides the most significant bits of UUID of {@link #isUuid() UUID} value.
+     *
+     * @return the most significant 64 bits of UUID, zero if value is not UUID
+     */
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    /**
+     * Provides the least significant bits of UUID of {@link #isUuid() UUID} value.
+     *
+     * @return the least significant 64 bits of UUID, zero if value is not UUID
+     */
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return hash;
     }
 
     @Override
@@ -37,17 +233,21 @@ public abstract class EntityId<V> {
         if (this == o) {
             return true;
         }
-        if (!(o instanceof EntityId)) {
+        if (o == null || getClass() != o.getClass()) {
             return false;
         }
         EntityId<?> entityId = (EntityId<?>) o;
-        return Objects.equals(value, entityId.value);
+        return hash == entityId.hash &&
+                uuid == entityId.uuid &&
+                mostSignificantBits == entityId.mostSignificantBits &&
+                leastSignificantBits == entityId.leastSignificantBits &&
+                Objects.equals(value, entityId.value);
     }
 
     @Override
     public String toString() {
         return "EntityId{" +
-                "value=" + value +
+                "value=" + getValue() +
                 '}';
     }
 }
@@ -0,0 +1,127 @@
+package org.javaclasses.todo.model.entity;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates unguessable UUIDs and random bytes without contention between threads.
+ *
+ * <p>{@link UUID#randomUUID()} reads all its bytes from one shared {@code SecureRandom}, which serializes
+ * concurrent callers. Each thread here owns its own generator instead. Generator is seeded from
+ * the shared source of entropy of the platform when thread first uses it, and mixes in fresh seed
+ * after each {@value #RESEED_INTERVAL} bytes, so the shared source is read rarely.
+ *
+ * <p>Besides random UUIDs of version 4, generator provides time-ordered UUIDs of version 7, which start
+ * with milliseconds since the epoch. Such UUIDs are created in ascending order up to a millisecond, so IDs of
+ * new entities are appended to the end of sorted storages instead of being scattered over them.
+ *
+ * @author Oleg Barmin
+ */
+public final class IdGenerator {
+
+    private static final String ALGORITHM = "SHA1PRNG";
+    private static final int SEED_LENGTH = 32;
+    private static final long RESEED_INTERVAL = 1L << 20;
+    private static final int UUID_LENGTH = 16;
+
+    /* Shared source of entropy, which does not block, read only to seed generators of threads. */
+    private static final SecureRandom SEED_SOURCE = new SecureRandom();
+    private static final ThreadLocal<ThreadGenerator> GENERATORS = ThreadLocal.withInitial(ThreadGenerator::new);
+
+    private IdGenerator() {
+    }
+
+    /**
+     * Creates random UUID of version 4, which has 122 random bits.
+     *
+     * @return new random UUID
+     */
+    public static UUID randomUuid() {
+        byte[] bytes = GENERATORS.get()
+                                 .nextUuidBytes();
+        long mostSignificantBits = (toLong(bytes, 0) & ~0xF000L) | 0x4000L;
+        long leastSignificantBits = (toLong(bytes, 8) & ~(0xC0L << 56)) | (0x80L << 56);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Creates UUID of version 7, which has 48 bits of current time in milliseconds followed by 74 random bits.
+     *
+     * <p>UUID is as unguessable as its random bits are, so it should not be used as a secret.
+     *
+     * @return new time-ordered UUID
+     */
+    public static UUID timeOrderedUuid() {
+        return timeOrderedUuid(System.currentTimeMillis());
+    }
+
+    static UUID timeOrderedUuid(long millis) {
+        byte[] bytes = GENERATORS.get()
+                                 .nextUuidBytes();
+        long mostSignificantBits = ((millis & 0xFFFF_FFFF_FFFFL) << 16) | 0x7000L | (toLong(bytes, 0) & 0x0FFFL);
+        long leastSignificantBits = (toLong(bytes, 8) & ~(0xC0L << 56)) | (0x80L << 56);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Fills given array with random bytes, e.g. salt or key.
+     *
+     * @param bytes array to fill
+     */
+    public static void nextBytes(byte[] bytes) {
+        GENERATORS.get()
+                  .nextBytes(bytes);
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long result = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            result = (result << 8) | (bytes[i] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Generator owned by one thread.
+     */
+    private static final class ThreadGenerator {
+
+        private final SecureRandom random;
+        private final byte[] uuidBytes = new byte[UUID_LENGTH];
+        private long generatedSinceSeed;
+
+        private ThreadGenerator() {
+            try {
+                random = SecureRandom.getInstance(ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(ALGORITHM + " is not available.", e);
+            }
+            /* Seed set before the first output replaces self-seeding of the generator. */
+            random.setSeed(seed());
+        }
+
+        private static byte[] seed() {
+            byte[] seed = new byte[SEED_LENGTH];
+            SEED_SOURCE.nextBytes(seed);
+            return seed;
+        }
+
+        /**
+         * Provides random bytes of UUID in array, which is reused by the next call.
+         */
+        private byte[] nextUuidBytes() {
+            nextBytes(uuidBytes);
+            return uuidBytes;
+        }
+
+        private void nextBytes(byte[] bytes) {
+            if (generatedSinceSeed >= RESEED_INTERVAL) {
+                random.setSeed(seed());
+                generatedSinceSeed = 0;
+            }
+            random.nextBytes(bytes);
+            generatedSinceSeed += bytes.length;
+        }
+    }
+}
@@ -90,13 +90,15 @@ public final class Task extends Entity<TaskId> {
         /**
          * Sets ID of to-do list to which belongs task to build.
          *
+         * <p>ID is {@link EntityId#intern(EntityId) interned}, so tasks of one list share it.
+         *
          * @param todoListId ID of to-do list
          * @return this builder
          */
         public TaskBuilder setTodoListId(TodoListId todoListId) {
             checkNotNull(todoListId);
 
-            this.todoListId = todoListId;
+            this.todoListId = EntityId.intern(todoListId);
             return this;
         }
 
@@ -1,5 +1,7 @@
 package org.javaclasses.todo.model.entity;
 
+import java.util.UUID;
+
 /**
  * Unique ID of {@link Task}.
  *
@@ -16,4 +18,13 @@ public final class TaskId extends EntityId<String> {
     public TaskId(String value) {
         super(value);
     }
+
+    /**
+     * Creates {@code TaskId} instance which value is string of given UUID.
+     *
+     * @param uuid UUID of ID
+     */
+    public TaskId(UUID uuid) {
+        super(uuid);
+    }
 }
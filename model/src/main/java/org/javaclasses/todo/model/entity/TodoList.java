@@ -39,13 +39,15 @@ public final class TodoList extends Entity<TodoListId> {
         /**
          * Sets ID of owner of {@code TodoList} to build.
          *
+         * <p>ID is {@link EntityId#intern(EntityId) interned}, so lists of one user share it.
+         *
          * @param ownerId ID of user who owns {@code TodoList}
          * @return this builder
          */
         public TodoListBuilder setOwner(UserId ownerId) {
             checkNotNull(ownerId);
 
-            this.owner = ownerId;
+            this.owner = EntityId.intern(ownerId);
 
             return this;
         }
@@ -1,5 +1,7 @@
 package org.javaclasses.todo.model.entity;
 
+import java.util.UUID;
+
 /**
  * Unique ID of {@link TodoList}.
  *
@@ -16,4 +18,13 @@ public final class TodoListId extends EntityId<String> {
     public TodoListId(String value) {
         super(value);
     }
+
+    /**
+     * Creates {@code TodoListId} instance which value is string of given UUID.
+     *
+     * @param uuid UUID of ID
+     */
+    public TodoListId(UUID uuid) {
+        super(uuid);
+    }
 }
@@ -1,10 +1,12 @@
 package org.javaclasses.todo.model.entity;
 
+import java.util.UUID;
+
 /**
  * Unique identifier of {@code AuthSession}.
  *
  * @author Oleg Barmin
- * @implNote value of identifier should be a string with UUID.
+ * @implNote value of identifier should be a string with UUID, or a signed token.
  */
 public final class Token extends EntityId<String> {
 
@@ -16,4 +18,13 @@ public final class Token extends EntityId<String> {
     public Token(String value) {
         super(value);
     }
+
+    /**
+     * Creates {@code Token} instance which value is string of given UUID.
+     *
+     * @param uuid UUID of ID
+     */
+    public Token(UUID uuid) {
+        super(uuid);
+    }
 }
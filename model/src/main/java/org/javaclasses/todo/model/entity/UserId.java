@@ -1,5 +1,7 @@
 package org.javaclasses.todo.model.entity;
 
+import java.util.UUID;
+
 /**
  * Unique identifier of {@code User}.
  *
@@ -16,4 +18,13 @@ public final class UserId extends EntityId<String> {
     public UserId(String value) {
         super(value);
     }
+
+    /**
+     * Creates {@code UserId} instance which value is string of given UUID.
+     *
+     * @param uuid UUID of ID
+     */
+    public UserId(UUID uuid) {
+        super(uuid);
+    }
 }
@@ -4,12 +4,12 @@ import org.javaclasses.todo.auth.Authentication;
 import org.javaclasses.todo.model.Authorization;
 import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.EmptyTaskDescriptionException;
+import org.javaclasses.todo.model.TaskAlreadyExistsException;
 import org.javaclasses.todo.model.TodoListNotFoundException;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
 import org.javaclasses.todo.model.entity.TodoList;
 import org.javaclasses.todo.model.entity.TodoListId;
-import org.javaclasses.todo.model.entity.UserId;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 
 import java.util.Date;
@@ -80,15 +80,21 @@ public final class AddTask extends Operation<AddTask> {
     /**
      * Uploads task with previously set values.
      *
+     * <p>Task is added only if task with same ID doesn't exist at the moment of writing,
+     * so concurrent adds of task with same ID don't overwrite each other.
+     *
      * @throws AuthorizationFailedException if try to add task to {@link TodoList} of other user
      * @throws TodoListNotFoundException    if try to add task to non-existing {@code TodoList}
+     * @throws TaskAlreadyExistsException   if task with same ID was added concurrently
      */
     public void execute() throws AuthorizationFailedException {
         Task task = taskBuilder.build();
 
-        UserId userId = validateToken();
-        authorization.validateAccess(userId, task.getTodoListId());
+        accessMemo(authorization).validateAccess(task.getTodoListId());
 
-        taskStorage.write(task);
+        if (taskStorage.writeIfAbsent(task)
+                       .isPresent()) {
+            throw new TaskAlreadyExistsException(task.getId());
+        }
     }
 }
@@ -0,0 +1,105 @@
+package org.javaclasses.todo.model.operation;
+
+import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.Authorization;
+import org.javaclasses.todo.model.AuthorizationFailedException;
+import org.javaclasses.todo.model.EmptyTaskDescriptionException;
+import org.javaclasses.todo.model.TaskAlreadyExistsException;
+import org.javaclasses.todo.model.TodoListNotFoundException;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.storage.impl.TaskStorage;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
+import static org.javaclasses.todo.model.entity.Descriptions.validate;
+
+/**
+ * API which simplifies adding of many tasks at once.
+ *
+ * <p>User token is validated once and access to each affected {@code TodoList} is validated once
+ * for the whole batch. Tasks are added either all together or none of them if validation fails.
+ *
+ * @author Oleg Barmin
+ */
+@SuppressWarnings("WeakerAccess") // part of public API and its methods should be public.
+public final class AddTasks extends Operation<AddTasks> {
+
+    private final TaskStorage taskStorage;
+    private final Authorization authorization;
+    private final List<Task> tasks = new ArrayList<>();
+    private final Date creationDate = new Date();
+
+    /**
+     * Creates {@code AddTasks} instance.
+     *
+     * @param taskStorage    storage to store new {@code Task}s
+     * @param authentication to authenticate user token
+     * @param authorization  to validate task adding
+     */
+    public AddTasks(TaskStorage taskStorage, Authentication authentication, Authorization authorization) {
+        super(authentication);
+        this.taskStorage = checkNotNull(taskStorage);
+        this.authorization = checkNotNull(authorization);
+    }
+
+    /**
+     * Adds task to the batch.
+     *
+     * @param taskId      ID of the task to add
+     * @param todoListId  ID of {@code TodoList} to which belongs this task
+     * @param description description of task to add
+     * @return this {@code AddTasks} instance to continue request building
+     * @throws EmptyTaskDescriptionException if given task description is null or empty
+     */
+    public AddTasks withTask(TaskId taskId, TodoListId todoListId, String description)
+            throws EmptyTaskDescriptionException {
+        validate(description);
+        tasks.add(new Task.TaskBuilder()
+                          .setTaskId(checkNotNull(taskId))
+                          .setTodoListId(checkNotNull(todoListId))
+                          .setDescription(description.trim())
+                          .setCreationDate(creationDate)
+                          .build());
+        return this;
+    }
+
+    /**
+     * Uploads all tasks of the batch.
+     *
+     * @throws TaskAlreadyExistsException   if task with ID of some task of batch already exists
+     *                                      or batch contains several tasks with same ID
+     * @throws AuthorizationFailedException if try to add task to {@code TodoList} of other user
+     * @throws TodoListNotFoundException    if try to add task to non-existing {@code TodoList}
+     */
+    public void execute() throws AuthorizationFailedException {
+        UserId userId = validateToken();
+        authorization.validateAccess(userId, tasks.stream()
+                                                  .map(Task::getTodoListId)
+                                                  .collect(toList()));
+
+        Set<TaskId> taskIds = new HashSet<>();
+        for (Task task : tasks) {
+            if (!taskIds.add(task.getId())) {
+                throw new TaskAlreadyExistsException(task.getId());
+            }
+        }
+
+        Set<TaskId> existing = taskStorage.readAll(taskIds)
+                                          .keySet();
+        if (!existing.isEmpty()) {
+            throw new TaskAlreadyExistsException(existing.iterator()
+                                                         .next());
+        }
+
+        taskStorage.writeAll(tasks);
+    }
+}
@@ -1,7 +1,9 @@
 package org.javaclasses.todo.model.operation;
 
 import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.Authorization;
 import org.javaclasses.todo.model.AuthorizationFailedException;
+import org.javaclasses.todo.model.TodoListAlreadyExistsException;
 import org.javaclasses.todo.model.entity.TodoList;
 import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.model.entity.UserId;
@@ -22,6 +24,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public final class CreateList extends Operation<CreateList> {
 
     private final TodoListStorage todoListStorage;
+    private final Authorization authorization;
     private final TodoList.TodoListBuilder todoListBuilder;
 
     /**
@@ -29,11 +32,14 @@ public final class CreateList extends Operation<CreateList> {
      *
      * @param todoListId      ID of {@code TodoList} to create
      * @param todoListStorage to store newly created list
+     * @param authorization   service to invalidate cached absence of the list
+     * @param authentication  service to validate token of user
      */
-    public CreateList(TodoListId todoListId, TodoListStorage todoListStorage,
+    public CreateList(TodoListId todoListId, TodoListStorage todoListStorage, Authorization authorization,
                       Authentication authentication) {
         super(authentication);
         this.todoListStorage = todoListStorage;
+        this.authorization = checkNotNull(authorization);
         checkNotNull(todoListId);
 
         todoListBuilder = new TodoList.TodoListBuilder()
@@ -42,6 +48,11 @@ public final class CreateList extends Operation<CreateList> {
 
     /**
      * Creates new {@code TodoList} with given values in storage.
+     *
+     * <p>List is created only if list with same ID doesn't exist at the moment of writing,
+     * so concurrent creations of list with same ID don't overwrite each other.
+     *
+     * @throws TodoListAlreadyExistsException if list with same ID was created concurrently
      */
     public void execute() throws AuthorizationFailedException {
         UserId userId = validateToken();
@@ -50,6 +61,10 @@ public final class CreateList extends Operation<CreateList> {
                 .setOwner(userId)
                 .build();
 
-        todoListStorage.write(todoList);
+        if (todoListStorage.writeIfAbsent(todoList)
+                           .isPresent()) {
+            throw new TodoListAlreadyExistsException(todoList.getId());
+        }
+        authorization.invalidate(todoList.getId());
     }
 }
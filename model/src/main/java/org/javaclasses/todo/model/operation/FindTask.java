@@ -1,13 +1,13 @@
 package org.javaclasses.todo.model.operation;
 
 import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.AccessMemo;
 import org.javaclasses.todo.model.Authorization;
 import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.TaskNotFoundException;
 import org.javaclasses.todo.model.TodoListNotFoundException;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
-import org.javaclasses.todo.model.entity.UserId;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 
 import java.util.Optional;
@@ -50,7 +50,7 @@ public final class FindTask extends Operation<FindTask> {
      * @throws AuthorizationFailedException if user has no authority to read {@code Task} with given ID
      */
     public Task execute() {
-        UserId userId = validateToken();
+        AccessMemo memo = accessMemo(authorization);
 
         Optional<Task> optionalTask = taskStorage.read(taskId);
 
@@ -60,7 +60,7 @@ public final class FindTask extends Operation<FindTask> {
 
         Task task = optionalTask.get();
 
-        authorization.validateAccess(userId, task.getTodoListId());
+        memo.validateAccess(task.getTodoListId());
 
         return task;
     }
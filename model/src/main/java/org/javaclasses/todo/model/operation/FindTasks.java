@@ -0,0 +1,81 @@
+package org.javaclasses.todo.model.operation;
+
+import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.Authorization;
+import org.javaclasses.todo.model.AuthorizationFailedException;
+import org.javaclasses.todo.model.TaskNotFoundException;
+import org.javaclasses.todo.model.TodoListNotFoundException;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.storage.impl.TaskStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * API which simplifies finding of many tasks by their IDs at once.
+ *
+ * <p>User token is validated once and access to each affected {@code TodoList} is validated once
+ * for the whole batch.
+ *
+ * @author Oleg Barmin
+ */
+@SuppressWarnings("WeakerAccess") // part of public API and its methods should be public.
+public final class FindTasks extends Operation<FindTasks> {
+
+    private final List<TaskId> taskIds;
+    private final TaskStorage taskStorage;
+    private final Authorization authorization;
+
+    /**
+     * Creates {@code FindTasks} instance.
+     *
+     * @param taskIds        IDs of the {@code Task}s to find
+     * @param taskStorage    storage to get tasks from
+     * @param authorization  to validate if user has access to {@code Task}s with given IDs
+     * @param authentication to validate user token
+     */
+    public FindTasks(Collection<TaskId> taskIds, TaskStorage taskStorage,
+                     Authorization authorization, Authentication authentication) {
+        super(authentication);
+        this.taskIds = new ArrayList<>(checkNotNull(taskIds));
+        this.taskStorage = checkNotNull(taskStorage);
+        this.authorization = checkNotNull(authorization);
+    }
+
+    /**
+     * Finds tasks with given IDs.
+     *
+     * @return tasks in order of given IDs
+     * @throws TaskNotFoundException        if some task to find doesn't exist
+     * @throws TodoListNotFoundException    if {@code TodoList} with ID specified in some task doesn't exist.
+     * @throws AuthorizationFailedException if user has no authority to read some of {@code Task}s
+     */
+    public List<Task> execute() {
+        UserId userId = validateToken();
+
+        Map<TaskId, Task> found = taskStorage.readAll(taskIds);
+        List<Task> tasks = new ArrayList<>(taskIds.size());
+
+        for (TaskId taskId : taskIds) {
+            Task task = found.get(taskId);
+
+            if (task == null) {
+                throw new TaskNotFoundException(taskId);
+            }
+            tasks.add(task);
+        }
+
+        authorization.validateAccess(userId, tasks.stream()
+                                                  .map(Task::getTodoListId)
+                                                  .collect(toList()));
+
+        return tasks;
+    }
+}
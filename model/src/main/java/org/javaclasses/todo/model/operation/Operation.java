@@ -1,6 +1,8 @@
 package org.javaclasses.todo.model.operation;
 
 import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.AccessMemo;
+import org.javaclasses.todo.model.Authorization;
 import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.entity.Token;
 import org.javaclasses.todo.model.entity.UserId;
@@ -51,4 +53,15 @@ abstract class Operation<O extends Operation<O>> {
         checkNotNull(token);
         return authentication.validate(token);
     }
+
+    /**
+     * Validates stored user {@code token} once and creates access memo of its user for one operation.
+     *
+     * @param authorization service to validate access of the user
+     * @return access memo of user to which {@code token} relate
+     * @throws AuthorizationFailedException if given token is not valid
+     */
+    AccessMemo accessMemo(Authorization authorization) {
+        return authorization.accessMemoOf(validateToken());
+    }
 }
@@ -6,23 +6,33 @@ import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.TodoListNotFoundException;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.ContinuationToken;
+import org.javaclasses.todo.storage.Page;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * API which simplifies retrieving of all task which belongs to specified {@code TodoList} by its ID.
  *
+ * <p>Tasks of large {@code TodoList} should be read page by page with {@link #executePage()},
+ * so memory required to handle request is bounded by the page size rather than by the number of tasks.
+ *
  * @author Oleg Barmin
  */
 @SuppressWarnings("WeakerAccess") // part of public API and its methods should be public.
 public final class ReadTasks extends Operation<ReadTasks> {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final TodoListId todoListId;
     private final TaskStorage taskStorage;
     private final Authorization authorization;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private ContinuationToken continuationToken;
 
     /**
      * Creates {@code ReadTasks} instance.
@@ -48,7 +58,46 @@ public final class ReadTasks extends Operation<ReadTasks> {
      * @throws AuthorizationFailedException if user has no authority to read tasks from {@code TodoList} with given ID
      */
     public List<Task> execute() throws AuthorizationFailedException {
-        authorization.validateAccess(validateToken(), todoListId);
+        accessMemo(authorization).validateAccess(todoListId);
         return taskStorage.getAllTaskOfTodoList(todoListId);
     }
+
+    /**
+     * Sets maximum number of tasks of page read by {@link #executePage()}.
+     *
+     * @param pageSize maximum number of tasks of page
+     * @return this {@code ReadTasks} instance
+     * @throws IllegalArgumentException if given page size is not positive
+     */
+    public ReadTasks withPageSize(int pageSize) {
+        checkArgument(pageSize > 0, "Page size must be positive, but was %s.", pageSize);
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Sets token of the previous page to continue reading with the next page.
+     *
+     * @param continuationToken token of the previous page
+     * @return this {@code ReadTasks} instance
+     */
+    public ReadTasks continuingFrom(ContinuationToken continuationToken) {
+        this.continuationToken = checkNotNull(continuationToken);
+        return this;
+    }
+
+    /**
+     * Provides page of tasks which belongs to {@code TodoList} with given ID.
+     *
+     * <p>Tasks are ordered by their IDs. If {@code TodoList} has more tasks,
+     * page provides token to read the next page.
+     *
+     * @return page of tasks which belongs to specified {@code TodoList}
+     * @throws TodoListNotFoundException    if {@code TodoList} with given ID does not exist
+     * @throws AuthorizationFailedException if user has no authority to read tasks from {@code TodoList} with given ID
+     */
+    public Page<Task> executePage() throws AuthorizationFailedException {
+        accessMemo(authorization).validateAccess(todoListId);
+        return taskStorage.getTasksOfTodoList(todoListId, continuationToken, pageSize);
+    }
 }
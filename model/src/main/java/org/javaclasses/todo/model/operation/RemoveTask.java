@@ -1,16 +1,18 @@
 package org.javaclasses.todo.model.operation;
 
 import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.AccessMemo;
 import org.javaclasses.todo.model.Authorization;
 import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.TaskNotFoundException;
 import org.javaclasses.todo.model.TodoListNotFoundException;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
-import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -47,24 +49,44 @@ public final class RemoveTask extends Operation<RemoveTask> {
     /**
      * Removes task with given ID from storage.
      *
+     * <p>Access to to-do list of task is validated before task is removed, so no check runs
+     * while storage holds the task. Task is removed only if it still belongs to the validated to-do list,
+     * otherwise it is read and validated again.
+     *
      * @throws TaskNotFoundException        if task with given ID was not found
      * @throws TodoListNotFoundException    if try to remove task from list which doesn't exist
      * @throws AuthorizationFailedException if given user has no authority to remove task with given ID
      */
-    //return values is not needed to remove task
+    //return values is not needed to remove task, result of removal is kept by flag
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public void execute() throws TaskNotFoundException {
-        UserId userId = validateToken();
+        AccessMemo memo = accessMemo(authorization);
 
-        Optional<Task> optionalTask = taskStorage.read(taskId);
+        while (true) {
+            Optional<Task> optionalTask = taskStorage.read(taskId);
 
-        if (!optionalTask.isPresent()) {
-            throw new TaskNotFoundException(taskId);
-        }
+            if (!optionalTask.isPresent()) {
+                throw new TaskNotFoundException(taskId);
+            }
 
-        Task task = optionalTask.get();
+            TodoListId todoListId = optionalTask.get()
+                                                .getTodoListId();
+            memo.validateAccess(todoListId);
 
-        authorization.validateAccess(userId, task.getTodoListId());
-        taskStorage.remove(taskId);
+            AtomicBoolean removed = new AtomicBoolean();
+            taskStorage.compute(taskId, current -> {
+                if (!current.isPresent() || !current.get()
+                                                    .getTodoListId()
+                                                    .equals(todoListId)) {
+                    return current;
+                }
+                removed.set(true);
+                return Optional.empty();
+            });
+
+            if (removed.get()) {
+                return;
+            }
+        }
     }
 }
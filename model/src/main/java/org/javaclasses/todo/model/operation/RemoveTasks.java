@@ -0,0 +1,78 @@
+package org.javaclasses.todo.model.operation;
+
+import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.Authorization;
+import org.javaclasses.todo.model.AuthorizationFailedException;
+import org.javaclasses.todo.model.TaskNotFoundException;
+import org.javaclasses.todo.model.TodoListNotFoundException;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.storage.impl.TaskStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * API which simplifies removing of many tasks at once.
+ *
+ * <p>User token is validated once and access to each affected {@code TodoList} is validated once
+ * for the whole batch. Tasks are removed either all together or none of them if validation fails.
+ *
+ * @author Oleg Barmin
+ */
+@SuppressWarnings("WeakerAccess") // part of public API and its methods should be public.
+public final class RemoveTasks extends Operation<RemoveTasks> {
+
+    private final Set<TaskId> taskIds;
+    private final TaskStorage taskStorage;
+    private final Authorization authorization;
+
+    /**
+     * Creates {@code RemoveTasks} instance.
+     *
+     * @param taskIds        IDs of the {@code Task}s to remove
+     * @param taskStorage    storage to remove tasks from
+     * @param authorization  to validate access to {@code Task}s
+     * @param authentication to validate user token
+     */
+    public RemoveTasks(Collection<TaskId> taskIds, TaskStorage taskStorage,
+                       Authorization authorization, Authentication authentication) {
+        super(authentication);
+        this.taskIds = new LinkedHashSet<>(checkNotNull(taskIds));
+        this.taskStorage = checkNotNull(taskStorage);
+        this.authorization = checkNotNull(authorization);
+    }
+
+    /**
+     * Removes all tasks of the batch.
+     *
+     * @throws TaskNotFoundException        if some task to remove doesn't exist
+     * @throws TodoListNotFoundException    if to-do list of some task was not found
+     * @throws AuthorizationFailedException if user has no authority to remove some of tasks
+     */
+    public void execute() throws TaskNotFoundException {
+        UserId userId = validateToken();
+
+        Map<TaskId, Task> stored = taskStorage.readAll(taskIds);
+        Collection<TodoListId> todoListIds = new ArrayList<>(taskIds.size());
+
+        for (TaskId taskId : taskIds) {
+            Task task = stored.get(taskId);
+
+            if (task == null) {
+                throw new TaskNotFoundException(taskId);
+            }
+            todoListIds.add(task.getTodoListId());
+        }
+
+        authorization.validateAccess(userId, todoListIds);
+        taskStorage.removeAll(taskIds);
+    }
+}
@@ -1,17 +1,19 @@
 package org.javaclasses.todo.model.operation;
 
 import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.AccessMemo;
 import org.javaclasses.todo.model.Authorization;
 import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.EmptyTaskDescriptionException;
 import org.javaclasses.todo.model.TaskNotFoundException;
+import org.javaclasses.todo.model.TaskVersionMismatchException;
 import org.javaclasses.todo.model.TodoListNotFoundException;
 import org.javaclasses.todo.model.UpdateCompletedTaskException;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
-import org.javaclasses.todo.model.entity.UserId;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 
+import javax.annotation.Nullable;
 import java.util.Date;
 import java.util.Optional;
 
@@ -34,6 +36,10 @@ import static org.javaclasses.todo.model.entity.Descriptions.validate;
  *
  * <p>Other task values remains the same as in stored task.
  *
+ * <p>Task is written only if it wasn't changed since it was read, otherwise update is retried
+ * on the new version of task, so concurrent updates are never lost. If update should be applied
+ * only to a known version of task, the version is set by {@link #ifVersion(long)}.
+ *
  * @author Oleg Barmin
  */
 @SuppressWarnings("WeakerAccess") // part of public API and its methods should be public.
@@ -43,6 +49,8 @@ public final class UpdateTask extends Operation<UpdateTask> {
     private final Authorization authorization;
     private final TaskStorage taskStorage;
     private Task.TaskBuilder taskBuilder;
+    @Nullable
+    private Long expectedVersion;
 
     /**
      * Creates {@code UpdateTask} instance.
@@ -85,37 +93,61 @@ public final class UpdateTask extends Operation<UpdateTask> {
         return this;
     }
 
+    /**
+     * Sets version of task which update is based on.
+     *
+     * @param version {@link Task#getVersion() version} of task which update is based on
+     * @return this {@code UpdateTask} instance to continue request building
+     */
+    public UpdateTask ifVersion(long version) {
+        expectedVersion = version;
+        return this;
+    }
+
     /**
      * Uploads previously modified task to storage.
      *
+     * <p>Access to to-do list of task is validated before task is written, so no check runs
+     * while storage holds the task. Task is written only if its version is the one which was read,
+     * so its to-do list could not be changed since access was validated.
+     *
      * @throws TaskNotFoundException        if task to update was not found
      * @throws TodoListNotFoundException    if to-do list of task was not found
      * @throws UpdateCompletedTaskException if task to update is completed
      * @throws AuthorizationFailedException if user has no authority to update task with given ID.
+     * @throws TaskVersionMismatchException if task was changed since the {@link #ifVersion(long) expected version}
      */
     public void execute() throws AuthorizationFailedException, TaskNotFoundException {
-        UserId userId = validateToken();
+        AccessMemo memo = accessMemo(authorization);
 
-        Optional<Task> optionalTask = taskStorage.read(taskId);
+        while (true) {
+            Optional<Task> optionalTask = taskStorage.read(taskId);
 
-        if (!optionalTask.isPresent()) {
-            throw new TaskNotFoundException(taskId);
-        }
+            if (!optionalTask.isPresent()) {
+                throw new TaskNotFoundException(taskId);
+            }
 
-        Task taskToUpdate = optionalTask.get();
+            Task taskToUpdate = optionalTask.get();
+            long version = taskToUpdate.getVersion();
 
-        authorization.validateAccess(userId, taskToUpdate.getTodoListId());
+            memo.validateAccess(taskToUpdate.getTodoListId());
 
-        if (taskToUpdate.isCompleted()) {
-            throw new UpdateCompletedTaskException(taskToUpdate.getId());
-        }
+            if (expectedVersion != null && expectedVersion != version) {
+                throw new TaskVersionMismatchException(taskId, expectedVersion, version);
+            }
+            if (taskToUpdate.isCompleted()) {
+                throw new UpdateCompletedTaskException(taskToUpdate.getId());
+            }
 
-        Task build = taskBuilder.setTaskId(taskId)
-                                .setTodoListId(taskToUpdate.getTodoListId())
-                                .setCreationDate(taskToUpdate.getCreationDate())
-                                .setLastUpdateDate(new Date())
-                                .build();
+            Task build = taskBuilder.setTaskId(taskId)
+                                    .setTodoListId(taskToUpdate.getTodoListId())
+                                    .setCreationDate(taskToUpdate.getCreationDate())
+                                    .setLastUpdateDate(new Date())
+                                    .build();
 
-        taskStorage.write(build);
+            if (taskStorage.writeIfVersion(build, version)) {
+                return;
+            }
+        }
     }
 }
@@ -0,0 +1,119 @@
+package org.javaclasses.todo.model.operation;
+
+import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.model.Authorization;
+import org.javaclasses.todo.model.AuthorizationFailedException;
+import org.javaclasses.todo.model.EmptyTaskDescriptionException;
+import org.javaclasses.todo.model.TaskNotFoundException;
+import org.javaclasses.todo.model.TodoListNotFoundException;
+import org.javaclasses.todo.model.UpdateCompletedTaskException;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.storage.impl.TaskStorage;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
+import static org.javaclasses.todo.model.entity.Descriptions.validate;
+
+/**
+ * API which simplifies updating of many tasks at once.
+ *
+ * <p>Each task of the batch receives new description and status,
+ * last update date of all of them is set to current date.
+ *
+ * <p>User token is validated once and access to each affected {@code TodoList} is validated once
+ * for the whole batch. Tasks are updated either all together or none of them if validation fails.
+ *
+ * @author Oleg Barmin
+ */
+@SuppressWarnings("WeakerAccess") // part of public API and its methods should be public.
+public final class UpdateTasks extends Operation<UpdateTasks> {
+
+    private final TaskStorage taskStorage;
+    private final Authorization authorization;
+    private final Map<TaskId, Task.TaskBuilder> updates = new LinkedHashMap<>();
+
+    /**
+     * Creates {@code UpdateTasks} instance.
+     *
+     * @param taskStorage    storage to store {@code Task} changes
+     * @param authorization  to validate access to {@code Task}s
+     * @param authentication to authenticate token
+     */
+    public UpdateTasks(TaskStorage taskStorage, Authorization authorization, Authentication authentication) {
+        super(authentication);
+        this.taskStorage = checkNotNull(taskStorage);
+        this.authorization = checkNotNull(authorization);
+    }
+
+    /**
+     * Adds update of task to the batch.
+     *
+     * @param taskId      ID of the task to update
+     * @param description new description of the task
+     * @param completed   new status of the task
+     * @return this {@code UpdateTasks} instance to continue request building
+     * @throws EmptyTaskDescriptionException if given task description is null or empty
+     */
+    public UpdateTasks withTask(TaskId taskId, String description, boolean completed)
+            throws EmptyTaskDescriptionException {
+        validate(description);
+        updates.put(checkNotNull(taskId), new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setDescription(description)
+                .setStatus(completed));
+        return this;
+    }
+
+    /**
+     * Uploads all updates of the batch.
+     *
+     * @throws TaskNotFoundException        if some task to update was not found
+     * @throws TodoListNotFoundException    if to-do list of some task was not found
+     * @throws UpdateCompletedTaskException if some task to update is completed
+     * @throws AuthorizationFailedException if user has no authority to update some of tasks
+     */
+    public void execute() throws AuthorizationFailedException, TaskNotFoundException {
+        UserId userId = validateToken();
+
+        Map<TaskId, Task> stored = taskStorage.readAll(updates.keySet());
+        List<Task> tasksToUpdate = new ArrayList<>(updates.size());
+
+        for (TaskId taskId : updates.keySet()) {
+            Task task = stored.get(taskId);
+
+            if (task == null) {
+                throw new TaskNotFoundException(taskId);
+            }
+            tasksToUpdate.add(task);
+        }
+
+        authorization.validateAccess(userId, tasksToUpdate.stream()
+                                                          .map(Task::getTodoListId)
+                                                          .collect(toList()));
+
+        Date now = new Date();
+        List<Task> updated = new ArrayList<>(tasksToUpdate.size());
+
+        for (Task task : tasksToUpdate) {
+            if (task.isCompleted()) {
+                throw new UpdateCompletedTaskException(task.getId());
+            }
+
+            updated.add(updates.get(task.getId())
+                               .setTodoListId(task.getTodoListId())
+                               .setCreationDate(task.getCreationDate())
+                               .setLastUpdateDate(now)
+                               .build());
+        }
+
+        taskStorage.writeAll(updated);
+    }
+}
@@ -0,0 +1,104 @@
+package org.javaclasses.todo.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Options of {@link RateLimiter}.
+ *
+ * <p>Each key has bucket of {@linkplain Builder#setBurst(int) burst} permits, which is refilled
+ * at {@linkplain Builder#setRate(int, long, TimeUnit) rate} of permits per period. Buckets of at most
+ * {@linkplain Builder#setMaximumKeys(int) maximum number} of keys are kept at once.
+ *
+ * @author Oleg Barmin
+ */
+public final class RateLimit {
+
+    private final long emissionIntervalNanos;
+    private final int burst;
+    private final int maximumKeys;
+
+    private RateLimit(Builder builder) {
+        this.emissionIntervalNanos = Math.max(1, builder.periodNanos / builder.permits);
+        this.burst = builder.burst > 0 ? builder.burst : builder.permits;
+        this.maximumKeys = builder.maximumKeys;
+    }
+
+    /**
+     * Creates builder of options.
+     *
+     * @return new builder with default options
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides time in which bucket gains one permit.
+     */
+    long getEmissionIntervalNanos() {
+        return emissionIntervalNanos;
+    }
+
+    int getBurst() {
+        return burst;
+    }
+
+    int getMaximumKeys() {
+        return maximumKeys;
+    }
+
+    /**
+     * Allows to build {@code RateLimit} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private int permits = 1;
+        private long periodNanos = TimeUnit.SECONDS.toNanos(1);
+        private int burst;
+        private int maximumKeys = 100_000;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets number of permits which bucket gains per given period, one permit per second by default.
+         */
+        public Builder setRate(int permits, long period, TimeUnit unit) {
+            checkArgument(permits > 0, "Permits must be positive, but was %s.", permits);
+            checkArgument(period > 0, "Period must be positive, but was %s.", period);
+            checkNotNull(unit);
+            this.permits = permits;
+            this.periodNanos = unit.toNanos(period);
+            return this;
+        }
+
+        /**
+         * Sets number of permits which full bucket holds, so many requests are allowed at once.
+         *
+         * <p>By default bucket holds permits it gains in one period of {@link #setRate(int, long, TimeUnit) rate}.
+         */
+        public Builder setBurst(int burst) {
+            checkArgument(burst > 0, "Burst must be positive, but was %s.", burst);
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Sets number of keys which buckets are kept at once, 100 000 by default.
+         */
+        public Builder setMaximumKeys(int maximumKeys) {
+            checkArgument(maximumKeys > 0, "Maximum keys must be positive, but was %s.", maximumKeys);
+            this.maximumKeys = maximumKeys;
+            return this;
+        }
+
+        public RateLimit build() {
+            return new RateLimit(this);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.javaclasses.todo.ratelimit;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Limits rate of requests per key with token buckets.
+ *
+ * <p>Bucket is kept as a single time, when bucket becomes full again, so permit is acquired by one
+ * compare-and-set of that time and requests of different keys, as well as requests of one key, never wait
+ * for each other. Bucket gains one permit per emission interval, so it lacks permits while that time
+ * is further than burst of intervals from now.
+ *
+ * <p>Full bucket keeps nothing to remember, so buckets which became full are evicted, when new key arrives
+ * and at least a second has passed since the previous eviction. If buckets of maximum number of keys
+ * are still kept after that, e.g. while many addresses are used at once, new keys share one bucket until
+ * eviction frees room, so memory stays bounded at the cost of throttling such keys together.
+ *
+ * @param <K> type of key
+ * @author Oleg Barmin
+ */
+public final class RateLimiter<K> {
+
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /* Time of evicted bucket, so requests which still hold it take bucket from the map again. */
+    private static final long EVICTED = -1;
+
+    private final Map<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong sharedBucket;
+    private final AtomicLong lastEviction;
+    private final long emissionInterval;
+    private final long burstInterval;
+    private final int maximumKeys;
+    private final LongSupplier nanoTime;
+    private final long origin;
+
+    /**
+     * Creates {@code RateLimiter} instance.
+     *
+     * @param rateLimit options of rate limiting
+     */
+    public RateLimiter(RateLimit rateLimit) {
+        this(rateLimit, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    RateLimiter(RateLimit rateLimit, LongSupplier nanoTime) {
+        checkNotNull(rateLimit);
+        this.nanoTime = checkNotNull(nanoTime);
+        this.emissionInterval = rateLimit.getEmissionIntervalNanos();
+        this.burstInterval = emissionInterval * rateLimit.getBurst();
+        this.maximumKeys = rateLimit.getMaximumKeys();
+        /* Times are counted from creation of limiter, so they are never negative. */
+        this.origin = nanoTime.getAsLong();
+        this.sharedBucket = new AtomicLong(0);
+        this.lastEviction = new AtomicLong(0);
+    }
+
+    /**
+     * Acquires permit of given key, if its bucket has one.
+     *
+     * @param key key to acquire permit of
+     * @return zero if permit was acquired, otherwise time in nanoseconds after which bucket has permit
+     */
+    public long tryAcquire(K key) {
+        checkNotNull(key);
+        long now = nanoTime.getAsLong() - origin;
+
+        while (true) {
+            AtomicLong bucket = bucketOf(key, now);
+            long fullAt = bucket.get();
+            if (fullAt == EVICTED) {
+                buckets.remove(key, bucket);
+                continue;
+            }
+
+            long nextFullAt = Math.max(fullAt, now) + emissionInterval;
+            long wait = nextFullAt - now - burstInterval;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, nextFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Provides number of keys which buckets are kept.
+     *
+     * @return number of kept buckets
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketOf(K key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        evictFullBuckets(now);
+        if (buckets.size() >= maximumKeys) {
+            return sharedBucket;
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    /**
+     * Evicts buckets which are full at given time, if eviction was not run during the last second.
+     */
+    private void evictFullBuckets(long now) {
+        long last = lastEviction.get();
+        if (now - last < EVICTION_INTERVAL_NANOS || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+
+        buckets.forEach((key, bucket) -> {
+            long fullAt = bucket.get();
+            if (fullAt <= now && bucket.compareAndSet(fullAt, EVICTED)) {
+                buckets.remove(key, bucket);
+            }
+        });
+    }
+}
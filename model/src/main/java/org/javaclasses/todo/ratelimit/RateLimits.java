@@ -0,0 +1,97 @@
+package org.javaclasses.todo.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Limits of sign ins and of requests of signed in users.
+ *
+ * <p>Sign ins are limited both per username, so password of one user is not guessed, and per remote address,
+ * so one client does not try passwords of many users. Requests with token are limited per token.
+ *
+ * @author Oleg Barmin
+ */
+public final class RateLimits {
+
+    private final RateLimit signInsPerUsername;
+    private final RateLimit signInsPerAddress;
+    private final RateLimit requestsPerToken;
+
+    private RateLimits(Builder builder) {
+        this.signInsPerUsername = builder.signInsPerUsername;
+        this.signInsPerAddress = builder.signInsPerAddress;
+        this.requestsPerToken = builder.requestsPerToken;
+    }
+
+    /**
+     * Creates builder of limits.
+     *
+     * @return new builder with default limits
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides limits of 10 sign ins per minute per username, 30 sign ins per minute per address
+     * and 100 requests per second per token.
+     *
+     * @return default limits
+     */
+    public static RateLimits defaults() {
+        return newBuilder().build();
+    }
+
+    public RateLimit getSignInsPerUsername() {
+        return signInsPerUsername;
+    }
+
+    public RateLimit getSignInsPerAddress() {
+        return signInsPerAddress;
+    }
+
+    public RateLimit getRequestsPerToken() {
+        return requestsPerToken;
+    }
+
+    /**
+     * Allows to build {@code RateLimits} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private RateLimit signInsPerUsername = RateLimit.newBuilder()
+                                                        .setRate(10, 1, TimeUnit.MINUTES)
+                                                        .build();
+        private RateLimit signInsPerAddress = RateLimit.newBuilder()
+                                                       .setRate(30, 1, TimeUnit.MINUTES)
+                                                       .build();
+        private RateLimit requestsPerToken = RateLimit.newBuilder()
+                                                      .setRate(100, 1, TimeUnit.SECONDS)
+                                                      .build();
+
+        private Builder() {
+        }
+
+        public Builder setSignInsPerUsername(RateLimit signInsPerUsername) {
+            this.signInsPerUsername = checkNotNull(signInsPerUsername);
+            return this;
+        }
+
+        public Builder setSignInsPerAddress(RateLimit signInsPerAddress) {
+            this.signInsPerAddress = checkNotNull(signInsPerAddress);
+            return this;
+        }
+
+        public Builder setRequestsPerToken(RateLimit requestsPerToken) {
+            this.requestsPerToken = checkNotNull(requestsPerToken);
+            return this;
+        }
+
+        public RateLimits build() {
+            return new RateLimits(this);
+        }
+    }
+}
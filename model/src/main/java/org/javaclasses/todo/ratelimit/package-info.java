@@ -0,0 +1,11 @@
+/**
+ * Rate limiting of requests by token buckets, which are kept per key, e.g. per user or per address.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.ratelimit;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
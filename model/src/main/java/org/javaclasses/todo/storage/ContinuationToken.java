@@ -0,0 +1,95 @@
+package org.javaclasses.todo.storage;
+
+import java.util.Base64;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Opaque position in a scan of entities, which allows to resume scan from the next entity.
+ *
+ * <p>Token keeps no state on the server, it only refers to the last entity provided by scan,
+ * so it stays valid as long as storage is alive and survives changes made between requests.
+ * Entities added before referred position after token was issued are not provided by resumed scan.
+ *
+ * <p>Token is passed to clients as URL-safe string, see {@link #parse(String)} and {@link #toString()}.
+ *
+ * @author Oleg Barmin
+ */
+public final class ContinuationToken {
+
+    private static final char VERSION = '1';
+
+    private final String lastKey;
+
+    private ContinuationToken(String lastKey) {
+        this.lastKey = lastKey;
+    }
+
+    /**
+     * Creates token to resume scan after entity with given ordering key.
+     *
+     * @param lastKey {@link StorageEngine#orderKeyOf(org.javaclasses.todo.model.entity.EntityId) ordering key}
+     *                of the last provided entity
+     * @return new token
+     */
+    public static ContinuationToken after(String lastKey) {
+        return new ContinuationToken(checkNotNull(lastKey));
+    }
+
+    /**
+     * Restores token from its string representation.
+     *
+     * @param value string representation of token
+     * @return restored token
+     * @throws IllegalArgumentException if given string is not a token
+     */
+    public static ContinuationToken parse(String value) {
+        checkNotNull(value);
+        checkArgument(!value.isEmpty() && value.charAt(0) == VERSION, "Malformed continuation token: %s.", value);
+
+        byte[] decoded = Base64.getUrlDecoder()
+                               .decode(value.substring(1));
+        return new ContinuationToken(new String(decoded, UTF_8));
+    }
+
+    /**
+     * Provides ordering key of the last entity provided before this token was issued.
+     *
+     * @return ordering key of the last provided entity
+     */
+    public String getLastKey() {
+        return lastKey;
+    }
+
+    /**
+     * Provides URL-safe string representation of the token.
+     *
+     * @return string to restore token by {@link #parse(String)}
+     */
+    @Override
+    public String toString() {
+        return VERSION + Base64.getUrlEncoder()
+                               .withoutPadding()
+                               .encodeToString(lastKey.getBytes(UTF_8));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lastKey);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ContinuationToken)) {
+            return false;
+        }
+        ContinuationToken that = (ContinuationToken) o;
+        return lastKey.equals(that.lastKey);
+    }
+}
@@ -0,0 +1,45 @@
+package org.javaclasses.todo.storage;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Part of entities provided by one step of a scan.
+ *
+ * <p>If scan has more entities, page provides {@link ContinuationToken} to read the next page.
+ *
+ * @param <E> entity of the page
+ * @author Oleg Barmin
+ */
+public final class Page<E> {
+
+    private final List<E> items;
+    private final ContinuationToken continuationToken;
+
+    /**
+     * Creates {@code Page} instance.
+     *
+     * @param items             entities of the page
+     * @param continuationToken token to read the next page, {@code null} if page is the last one
+     */
+    public Page(List<E> items, @Nullable ContinuationToken continuationToken) {
+        this.items = ImmutableList.copyOf(items);
+        this.continuationToken = continuationToken;
+    }
+
+    public List<E> getItems() {
+        return items;
+    }
+
+    /**
+     * Provides token to read the next page.
+     *
+     * @return Optional with token, empty if this page is the last one
+     */
+    public Optional<ContinuationToken> getContinuationToken() {
+        return Optional.ofNullable(continuationToken);
+    }
+}
@@ -0,0 +1,68 @@
+package org.javaclasses.todo.storage;
+
+import org.javaclasses.todo.model.entity.Entity;
+
+import javax.annotation.Nullable;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Declaration of secondary index of entities by the value of one of their fields.
+ *
+ * <p>Storage which declares index keeps it up to date on each write and remove,
+ * so lookup of entities by value of indexed field costs proportionally to the size of result
+ * instead of the size of whole storage.
+ *
+ * <p>Entities which have {@code null} value of indexed field are not indexed.
+ *
+ * @param <K> type of the indexed field
+ * @param <E> type of indexed entity
+ * @author Oleg Barmin
+ */
+public final class SecondaryIndex<K, E extends Entity<?>> {
+
+    private final String name;
+    private final Function<? super E, K> keyExtractor;
+
+    private SecondaryIndex(String name, Function<? super E, K> keyExtractor) {
+        this.name = checkNotNull(name);
+        this.keyExtractor = checkNotNull(keyExtractor);
+    }
+
+    /**
+     * Declares index by field with given name.
+     *
+     * @param name         name of indexed field
+     * @param keyExtractor function which provides value of indexed field of entity
+     * @param <K>          type of the indexed field
+     * @param <E>          type of indexed entity
+     * @return declaration of index
+     */
+    public static <K, E extends Entity<?>> SecondaryIndex<K, E> on(String name,
+                                                                  Function<? super E, K> keyExtractor) {
+        return new SecondaryIndex<>(name, keyExtractor);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Provides value of indexed field of given entity.
+     *
+     * @param entity entity to get value of indexed field from
+     * @return value of indexed field, {@code null} if entity field has no value
+     */
+    @Nullable
+    public K keyOf(E entity) {
+        return keyExtractor.apply(entity);
+    }
+
+    @Override
+    public String toString() {
+        return "SecondaryIndex{" +
+                "name=" + name +
+                '}';
+    }
+}
@@ -3,11 +3,22 @@ package org.javaclasses.todo.storage;
 import org.javaclasses.todo.model.entity.Entity;
 import org.javaclasses.todo.model.entity.EntityId;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
  * Allows to access entity storage and read, create, update {@code Entity} in storage.
  *
+ * <p>Implementations are thread-safe. Each operation on entity is atomic.
+ *
+ * <p>Each write of entity sets its {@link Entity#getVersion() version} to the version of
+ * the entity it replaces incremented by one, so entity which is written first has version one.
+ * Writer which must not overwrite concurrent changes should write entity
+ * {@link #writeIfVersion(Entity, long) conditionally} on the version it has read.
+ *
  * @param <I> ID of the entity
  * @param <E> Entity to store
  * @author Oleg Barmin
@@ -22,6 +33,25 @@ public interface Storage<I extends EntityId, E extends Entity<I>> {
      */
     void write(E entity);
 
+    /**
+     * Atomically creates new entity if entity with same ID doesn't exist.
+     *
+     * @param entity entity to store
+     * @return Optional with entity which already exists with ID of given entity.
+     * If optional is empty, given entity was stored.
+     */
+    Optional<E> writeIfAbsent(E entity);
+
+    /**
+     * Atomically overwrites entity if stored entity with same ID has given version.
+     *
+     * @param entity          entity to store
+     * @param expectedVersion version of entity which was read before entity to store was built
+     * @return {@code true} if entity was stored, {@code false} if entity with ID of given entity
+     * doesn't exist or was changed since given version
+     */
+    boolean writeIfVersion(E entity, long expectedVersion);
+
     /**
      * Finds entity in storage.
      *
@@ -31,6 +61,23 @@ public interface Storage<I extends EntityId, E extends Entity<I>> {
      */
     Optional<E> read(I id);
 
+    /**
+     * Creates or overwrites all given entities at once.
+     *
+     * <p>Each entity is written atomically. If several given entities have same ID, the last of them is stored.
+     *
+     * @param entities entities to store
+     */
+    void writeAll(Collection<E> entities);
+
+    /**
+     * Finds entities with given IDs.
+     *
+     * @param ids IDs of entities to find
+     * @return map of found entities by their IDs. IDs of entities which don't exist in storage are omitted.
+     */
+    Map<I, E> readAll(Collection<I> ids);
+
     /**
      * Removes Entity with given ID from the storage .
      *
@@ -40,6 +87,38 @@ public interface Storage<I extends EntityId, E extends Entity<I>> {
      */
     Optional<E> remove(I id);
 
+    /**
+     * Removes entities with given IDs at once.
+     *
+     * @param ids IDs of entities to remove
+     * @return map of removed entities by their IDs. IDs of entities which don't exist in storage are omitted.
+     */
+    Map<I, E> removeAll(Collection<I> ids);
+
+    /**
+     * Atomically computes new state of entity with given ID.
+     *
+     * <p>No other changes of entity with given ID happen while computation is in progress,
+     * so computation should be short and must not access this storage.
+     *
+     * @param id        ID of entity to compute
+     * @param remapping function which receives Optional with current entity and
+     *                  returns Optional with entity to store or empty Optional to remove entity
+     * @return Optional with entity stored after computation.
+     * If optional is empty, entity with given ID doesn't exist in storage.
+     * @throws IllegalStateException if computed entity has ID other than given
+     */
+    Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping);
+
+    /**
+     * Performs given action for each stored entity.
+     *
+     * <p>Changes made concurrently with iteration may be not visible to the action.
+     *
+     * @param action action to perform
+     */
+    void forEach(Consumer<? super E> action);
+
     /**
      * Erases all data stored in storage.
      */
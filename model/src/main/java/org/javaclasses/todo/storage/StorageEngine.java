@@ -0,0 +1,214 @@
+package org.javaclasses.todo.storage;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Engine which physically keeps entities of a {@link Storage}.
+ *
+ * <p>Storage validates requests and delegates keeping of entities to its engine,
+ * so same storage may be backed by different engines.
+ *
+ * <p>Implementations must be thread-safe.
+ *
+ * <p>Engines which hold files or other resources release them on {@link #close()}.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public interface StorageEngine<I extends EntityId, E extends Entity<I>> extends Closeable {
+
+    /**
+     * Finds entity by ID.
+     *
+     * @param id ID of entity to find
+     * @return Optional with entity with given ID, empty if engine has no such entity
+     */
+    Optional<E> read(I id);
+
+    /**
+     * Finds entities by IDs.
+     *
+     * <p>Engines which take lock to read override this method to read whole batch under one lock.
+     *
+     * @param ids IDs of entities to find
+     * @return map of found entities by their IDs, IDs of absent entities are omitted
+     */
+    default Map<I, E> readAll(Collection<I> ids) {
+        Map<I, E> result = new HashMap<>();
+
+        for (I id : ids) {
+            read(id).ifPresent(entity -> result.put(id, entity));
+        }
+
+        return result;
+    }
+
+    /**
+     * Atomically computes new state of entity with given ID.
+     *
+     * <p>Given function is invoked exactly once, while no other computation of entity
+     * with same ID is in progress, so it may be used to publish changes in order they are applied.
+     *
+     * <p>If function returns the same Optional instance it received, entity is considered unchanged.
+     *
+     * @param id        ID of entity to compute
+     * @param remapping function which receives Optional with current entity and
+     *                  returns Optional with entity to keep or empty Optional to remove entity
+     * @return Optional with entity kept after computation
+     */
+    Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping);
+
+    /**
+     * Computes new state of each entity with given ID as {@link #compute(EntityId, UnaryOperator)} does.
+     *
+     * <p>Given function is invoked in the calling thread for each ID in order of given collection.
+     * Each entity is computed atomically, while concurrent readers may observe part of batch applied.
+     *
+     * <p>Engines override this method to apply whole batch at once, e.g. under one lock
+     * or with one log record, so it costs less than separate computations.
+     *
+     * @param ids       IDs of entities to compute
+     * @param remapping function which receives ID and Optional with current entity and
+     *                  returns Optional with entity to keep or empty Optional to remove entity
+     */
+    default void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        for (I id : ids) {
+            compute(id, current -> remapping.apply(id, current));
+        }
+    }
+
+    /**
+     * Finds all entities which have given value of field indexed by given index.
+     *
+     * @param index declared index to search by
+     * @param key   value of indexed field
+     * @param <K>   type of indexed field
+     * @return list of entities with field of desired value
+     * @throws IllegalArgumentException if given index was not declared in this engine
+     */
+    <K> List<E> findBy(SecondaryIndex<K, E> index, K key);
+
+    /**
+     * Provides key which orders entities in scans.
+     *
+     * @param id ID of entity
+     * @return ordering key of entity with given ID
+     */
+    static String orderKeyOf(EntityId<?> id) {
+        return String.valueOf(id.getValue());
+    }
+
+    /**
+     * Compares IDs by their {@link #orderKeyOf(EntityId) ordering keys}.
+     *
+     * <p>Strings of UUIDs are ordered as their bits, so IDs which values are kept as bits of UUID
+     * are compared without formatting their strings, even if only one of them is such ID.
+     *
+     * @param first  the first ID to compare
+     * @param second the second ID to compare
+     * @return negative integer, zero or positive integer as ordering key of the first ID
+     * is less than, equal to or greater than the key of the second one
+     */
+    static int compareOrderKeys(EntityId<?> first, EntityId<?> second) {
+        if (first.isUuid() && second.isUuid()) {
+            int result = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+            return result != 0
+                   ? result
+                   : Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits());
+        }
+        if (first.isUuid()) {
+            return first.compareValueTo(orderKeyOf(second));
+        }
+        return -second.compareValueTo(orderKeyOf(first));
+    }
+
+    /**
+     * Compares {@link #orderKeyOf(EntityId) ordering key} of given ID with given ordering key.
+     *
+     * <p>Key of ID which value is kept as bits of UUID is read from its bits, so it is not formatted.
+     *
+     * @param id  ID to compare
+     * @param key ordering key to compare with
+     * @return negative integer, zero or positive integer as ordering key of ID
+     * is less than, equal to or greater than given key
+     */
+    static int compareOrderKey(EntityId<?> id, String key) {
+        return id.compareValueTo(key);
+    }
+
+    /**
+     * Finds part of entities which have given value of indexed field.
+     *
+     * <p>Found entities are ordered by {@link #orderKeyOf(EntityId) ordering key} of their IDs,
+     * so scan is resumed by passing key of the last found entity.
+     *
+     * <p>Default implementation finds all entities of the group and sorts them,
+     * engines override it to provide page without copying whole group.
+     *
+     * @param index declared index to search by
+     * @param key   value of indexed field
+     * @param after ordering key of the last entity of previous page, {@code null} to find the first page
+     * @param limit maximum number of entities to find
+     * @param <K>   type of indexed field
+     * @return list of at most {@code limit} found entities which ordering keys follow given one
+     * @throws IllegalArgumentException if given index was not declared in this engine
+     */
+    default <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        return findBy(index, key).stream()
+                                 .filter(entity -> after == null || compareOrderKey(entity.getId(), after) > 0)
+                                 .sorted((first, second) -> compareOrderKeys(first.getId(), second.getId()))
+                                 .limit(limit)
+                                 .collect(toList());
+    }
+
+    /**
+     * Performs given action for each kept entity.
+     *
+     * <p>Changes made concurrently with iteration may be not visible to the action.
+     *
+     * @param action action to perform
+     */
+    void forEach(Consumer<? super E> action);
+
+    /**
+     * Counts kept entities.
+     *
+     * <p>Default implementation visits all entities, engines which track number of their entities override it.
+     *
+     * @return number of kept entities
+     */
+    default long count() {
+        long[] count = {0};
+        forEach(entity -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Removes all kept entities.
+     */
+    void clear();
+
+    /**
+     * Releases resources held by engine.
+     *
+     * <p>Engine must not be used after it was closed.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,24 @@
+package org.javaclasses.todo.storage;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+
+/**
+ * Creates {@link StorageEngine engines} for storages of TodoList application.
+ *
+ * <p>Allows to choose where all storages keep their entities in one place.
+ *
+ * @author Oleg Barmin
+ */
+public interface StorageEngineFactory {
+
+    /**
+     * Creates engine to keep entities described by given schema.
+     *
+     * @param schema schema of entities to keep
+     * @param <I>    ID of the entity
+     * @param <E>    entity to keep
+     * @return new engine
+     */
+    <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema);
+}
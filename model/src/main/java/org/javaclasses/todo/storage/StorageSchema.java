@@ -0,0 +1,92 @@
+package org.javaclasses.todo.storage;
+
+import com.google.common.collect.ImmutableList;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.codec.EntityCodec;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Description of entities kept by a storage which is required to create its {@link StorageEngine}.
+ *
+ * <p>Schema may declare one of its indexes as partition index. Engines which split entities
+ * into partitions keep entities with same value of partition index together,
+ * otherwise entities are partitioned by their IDs.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public final class StorageSchema<I extends EntityId, E extends Entity<I>> {
+
+    private final String name;
+    private final EntityCodec<I, E> codec;
+    private final List<SecondaryIndex<?, E>> indexes;
+    private final SecondaryIndex<?, E> partitionIndex;
+
+    /**
+     * Creates {@code StorageSchema} instance which entities are partitioned by their IDs.
+     *
+     * @param name    unique name of storage, used by engines to name their files
+     * @param codec   codec to convert entities to binary form
+     * @param indexes secondary indexes declared by storage
+     */
+    public StorageSchema(String name, EntityCodec<I, E> codec, Collection<SecondaryIndex<?, E>> indexes) {
+        this(name, codec, indexes, null);
+    }
+
+    /**
+     * Creates {@code StorageSchema} instance.
+     *
+     * @param name           unique name of storage, used by engines to name their files
+     * @param codec          codec to convert entities to binary form
+     * @param indexes        secondary indexes declared by storage
+     * @param partitionIndex one of declared indexes to partition entities by,
+     *                       {@code null} to partition entities by their IDs
+     * @throws IllegalArgumentException if partition index is not declared
+     */
+    public StorageSchema(String name, EntityCodec<I, E> codec, Collection<SecondaryIndex<?, E>> indexes,
+                         @Nullable SecondaryIndex<?, E> partitionIndex) {
+        this.name = checkNotNull(name);
+        this.codec = checkNotNull(codec);
+        this.indexes = ImmutableList.copyOf(indexes);
+        checkArgument(partitionIndex == null || this.indexes.contains(partitionIndex),
+                      "Partition index %s is not declared.", partitionIndex);
+        this.partitionIndex = partitionIndex;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public EntityCodec<I, E> getCodec() {
+        return codec;
+    }
+
+    public List<SecondaryIndex<?, E>> getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * Provides index to partition entities by.
+     *
+     * @return Optional with partition index, empty if entities are partitioned by their IDs
+     */
+    public Optional<SecondaryIndex<?, E>> getPartitionIndex() {
+        return Optional.ofNullable(partitionIndex);
+    }
+
+    @Override
+    public String toString() {
+        return "StorageSchema{" +
+                "name=" + name +
+                '}';
+    }
+}
@@ -0,0 +1,123 @@
+package org.javaclasses.todo.storage.cache;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe cache which keeps at most given number of entries chosen by {@link EvictionPolicy}.
+ *
+ * <p>Entries are kept in {@link ConcurrentHashMap}, so lookups take no locks.
+ * Policy is guarded by one lock: insertions wait for it, while lookups record access
+ * only if the lock is free, so hits never block and policy loses part of accesses under contention.
+ *
+ * @param <K> key of cache
+ * @param <V> cached value
+ * @author Oleg Barmin
+ */
+final class BoundedCache<K, V> {
+
+    private final ConcurrentMap<K, V> entries = new ConcurrentHashMap<>();
+    private final EvictionPolicy<K> policy;
+    private final Lock policyLock = new ReentrantLock();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates {@code BoundedCache} instance.
+     *
+     * @param maximumSize maximum number of cached entries
+     * @param eviction    policy of eviction
+     */
+    BoundedCache(int maximumSize, CacheOptions.Eviction eviction) {
+        this.policy = eviction == CacheOptions.Eviction.LRU
+                      ? new LruPolicy<>(maximumSize)
+                      : new TinyLfuPolicy<>(maximumSize);
+    }
+
+    /**
+     * Provides cached value.
+     *
+     * @param key key of value
+     * @return cached value or {@code null} if key is not cached
+     */
+    @Nullable
+    V getIfPresent(K key) {
+        V value = entries.get(key);
+
+        if (value != null && policyLock.tryLock()) {
+            try {
+                if (entries.containsKey(key)) {
+                    policy.recordAccess(key);
+                }
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Caches value, evicting other entries if cache is full.
+     *
+     * <p>Policy may reject new key, so value is not guaranteed to be cached.
+     *
+     * @param key   key of value
+     * @param value value to cache
+     */
+    void put(K key, V value) {
+        policyLock.lock();
+        try {
+            if (entries.put(key, value) != null) {
+                policy.recordAccess(key);
+                return;
+            }
+
+            policy.recordInsertion(key, evicted -> {
+                entries.remove(evicted);
+                evictions.increment();
+            });
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Removes cached value.
+     *
+     * @param key key of value
+     */
+    void invalidate(K key) {
+        policyLock.lock();
+        try {
+            if (entries.remove(key) != null) {
+                policy.recordRemoval(key);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all cached values.
+     */
+    void invalidateAll() {
+        policyLock.lock();
+        try {
+            entries.clear();
+            policy.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,143 @@
+package org.javaclasses.todo.storage.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Options of {@link CachingStorageEngine}.
+ *
+ * @author Oleg Barmin
+ */
+public final class CacheOptions {
+
+    private final int maximumSize;
+    private final Eviction eviction;
+    private final long writeBehindDelayMillis;
+    private final int maxPendingWrites;
+
+    private CacheOptions(Builder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.eviction = builder.eviction;
+        this.writeBehindDelayMillis = builder.writeBehindDelayMillis;
+        this.maxPendingWrites = builder.maxPendingWrites;
+    }
+
+    /**
+     * Creates builder of options.
+     *
+     * @return new builder with default options
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides options of write-through cache of ten thousand entities evicted by W-TinyLFU policy.
+     *
+     * @return default options
+     */
+    public static CacheOptions defaults() {
+        return newBuilder().build();
+    }
+
+    int getMaximumSize() {
+        return maximumSize;
+    }
+
+    Eviction getEviction() {
+        return eviction;
+    }
+
+    boolean isWriteBehind() {
+        return writeBehindDelayMillis > 0;
+    }
+
+    long getWriteBehindDelayMillis() {
+        return writeBehindDelayMillis;
+    }
+
+    int getMaxPendingWrites() {
+        return maxPendingWrites;
+    }
+
+    /**
+     * Policies of eviction of cached entities when cache is full.
+     */
+    public enum Eviction {
+
+        /**
+         * Evicts entity which was not used for the longest time.
+         */
+        LRU,
+
+        /**
+         * Admits new entity into cache only if it is used more frequently than entity it would evict.
+         *
+         * <p>Keeps frequently used entities, e.g. sessions of active users,
+         * cached while other entities are read once by a large scan.
+         */
+        W_TINY_LFU
+    }
+
+    /**
+     * Allows to build {@code CacheOptions} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private int maximumSize = 10_000;
+        private Eviction eviction = Eviction.W_TINY_LFU;
+        private long writeBehindDelayMillis = 0;
+        private int maxPendingWrites = 10_000;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets maximum number of cached entities.
+         */
+        public Builder setMaximumSize(int maximumSize) {
+            checkArgument(maximumSize > 0, "Maximum size of cache must be positive, but was %s.", maximumSize);
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets policy of eviction of cached entities.
+         */
+        public Builder setEviction(Eviction eviction) {
+            this.eviction = checkNotNull(eviction);
+            return this;
+        }
+
+        /**
+         * Enables write-behind: changes are acknowledged once cached and written into
+         * underlying engine with given delay, so repeated changes of same entity are written once.
+         *
+         * <p>Changes which were not written yet are lost if process crashes.
+         */
+        public Builder setWriteBehind(long delay, TimeUnit unit) {
+            checkArgument(delay > 0, "Delay of write-behind must be positive, but was %s.", delay);
+            this.writeBehindDelayMillis = Math.max(1, unit.toMillis(delay));
+            return this;
+        }
+
+        /**
+         * Sets number of pending changes after which writer writes them into underlying engine
+         * without waiting for the delay of write-behind.
+         */
+        public Builder setMaxPendingWrites(int maxPendingWrites) {
+            checkArgument(maxPendingWrites > 0, "Maximum of pending writes must be positive, but was %s.",
+                          maxPendingWrites);
+            this.maxPendingWrites = maxPendingWrites;
+            return this;
+        }
+
+        public CacheOptions build() {
+            return new CacheOptions(this);
+        }
+    }
+}
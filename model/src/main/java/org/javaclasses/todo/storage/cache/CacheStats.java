@@ -0,0 +1,89 @@
+package org.javaclasses.todo.storage.cache;
+
+/**
+ * Statistics of {@link CachingStorageEngine} since it was created.
+ *
+ * @author Oleg Barmin
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long coalescedWriteCount;
+    private final long flushCount;
+    private final int size;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, long coalescedWriteCount, long flushCount,
+               int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.coalescedWriteCount = coalescedWriteCount;
+        this.flushCount = flushCount;
+        this.size = size;
+    }
+
+    /**
+     * Provides number of reads of entities served from cache.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Provides number of reads of entities which were loaded from underlying engine.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Provides part of reads served from cache, {@code 1.0} if there were no reads.
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Provides number of entities evicted from cache because it was full.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Provides number of write-behind changes which replaced pending change of same entity,
+     * so they were not written into underlying engine separately.
+     */
+    public long getCoalescedWriteCount() {
+        return coalescedWriteCount;
+    }
+
+    /**
+     * Provides number of batches of write-behind changes written into underlying engine.
+     */
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Provides number of cached entities.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", coalescedWriteCount=" + coalescedWriteCount +
+                ", flushCount=" + flushCount +
+                ", size=" + size +
+                '}';
+    }
+}
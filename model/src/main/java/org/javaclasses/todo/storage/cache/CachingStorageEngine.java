@@ -0,0 +1,420 @@
+package org.javaclasses.todo.storage.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Engine which caches entities of slower underlying engine by their IDs.
+ *
+ * <p>Reads by ID are served from bounded cache, so sessions, to-do lists and tasks
+ * which are read on each request stop hitting disk. Absence of entity is cached as well.
+ * Lookups by secondary indexes are passed to the underlying engine.
+ *
+ * <p>Cache is filled and changed while entity is locked, so reader which loads entity
+ * never caches state older than the one written concurrently.
+ *
+ * <p>By default changes are written through into underlying engine before they are acknowledged.
+ * With {@link CacheOptions.Builder#setWriteBehind(long, TimeUnit) write-behind} changes are kept
+ * pending and written periodically in one batch, so repeated changes of same entity are written once.
+ * Pending changes are written before lookups by index and on {@link #close()}.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public final class CachingStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingStorageEngine.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final StorageEngine<I, E> delegate;
+    private final BoundedCache<I, Optional<E>> cache;
+    private final Striped<Lock> entityLocks = Striped.lock(LOCK_STRIPES);
+
+    /**
+     * Latest changes of entities not written into underlying engine yet, {@code null} if changes are written through.
+     */
+    private final ConcurrentMap<I, Optional<E>> pendingWrites;
+    private final int maxPendingWrites;
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalescedWrites = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    /**
+     * Creates {@code CachingStorageEngine} instance.
+     *
+     * @param delegate engine to cache entities of
+     * @param name     name of storage, which names flushing thread
+     * @param options  options of cache
+     */
+    @VisibleForTesting
+    CachingStorageEngine(StorageEngine<I, E> delegate, String name, CacheOptions options) {
+        this.delegate = checkNotNull(delegate);
+        this.cache = new BoundedCache<>(options.getMaximumSize(), options.getEviction());
+        this.maxPendingWrites = options.getMaxPendingWrites();
+
+        if (!options.isWriteBehind()) {
+            this.pendingWrites = null;
+            this.flusher = null;
+            return;
+        }
+
+        this.pendingWrites = new ConcurrentHashMap<>();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long delay = options.getWriteBehindDelayMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Provides factory of engines which cache entities of engines created by given factory.
+     *
+     * @param delegate factory of underlying engines
+     * @param options  options of cache
+     * @return factory of {@code CachingStorageEngine}s
+     */
+    public static StorageEngineFactory factory(StorageEngineFactory delegate, CacheOptions options) {
+        return new Factory(checkNotNull(delegate), checkNotNull(options));
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        Optional<E> cached = cache.getIfPresent(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        Lock lock = entityLocks.get(id);
+        lock.lock();
+        try {
+            cached = cache.getIfPresent(id);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+
+            misses.increment();
+            Optional<E> loaded = load(id);
+            cache.put(id, loaded);
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads cached entities from cache and loads the rest from underlying engine in one batch.
+     */
+    @Override
+    public Map<I, E> readAll(Collection<I> ids) {
+        Map<I, E> result = new HashMap<>();
+        List<I> missed = new ArrayList<>();
+
+        for (I id : ids) {
+            Optional<E> cached = cache.getIfPresent(id);
+            if (cached == null) {
+                missed.add(id);
+            } else {
+                hits.increment();
+                cached.ifPresent(entity -> result.put(id, entity));
+            }
+        }
+
+        if (missed.isEmpty()) {
+            return result;
+        }
+
+        Iterable<Lock> locks = entityLocks.bulkGet(missed);
+        locks.forEach(Lock::lock);
+        try {
+            List<I> toLoad = new ArrayList<>();
+            for (I id : missed) {
+                Optional<E> cached = cache.getIfPresent(id);
+                if (cached != null) {
+                    hits.increment();
+                    cached.ifPresent(entity -> result.put(id, entity));
+                    continue;
+                }
+
+                misses.increment();
+                Optional<E> pending = pendingWrites == null ? null : pendingWrites.get(id);
+                if (pending == null) {
+                    toLoad.add(id);
+                } else {
+                    pending.ifPresent(entity -> result.put(id, entity));
+                }
+            }
+
+            Map<I, E> loaded = delegate.readAll(toLoad);
+            for (I id : toLoad) {
+                Optional<E> entity = Optional.ofNullable(loaded.get(id));
+                cache.put(id, entity);
+                entity.ifPresent(value -> result.put(id, value));
+            }
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+        return result;
+    }
+
+    /**
+     * Loads entity which is not cached, entity must be locked.
+     */
+    private Optional<E> load(I id) {
+        if (pendingWrites != null) {
+            Optional<E> pending = pendingWrites.get(id);
+            if (pending != null) {
+                return pending;
+            }
+        }
+        return delegate.read(id);
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        Optional<E> computed;
+
+        Lock lock = entityLocks.get(id);
+        lock.lock();
+        try {
+            computed = pendingWrites == null ? computeThrough(id, remapping) : computeBehind(id, remapping);
+        } finally {
+            lock.unlock();
+        }
+
+        flushIfTooManyPending();
+        return computed;
+    }
+
+    private Optional<E> computeThrough(I id, UnaryOperator<Optional<E>> remapping) {
+        boolean written = false;
+        try {
+            Optional<E> computed = delegate.compute(id, remapping);
+            cache.put(id, computed);
+            written = true;
+            return computed;
+        } finally {
+            if (!written) {
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    private Optional<E> computeBehind(I id, UnaryOperator<Optional<E>> remapping) {
+        Optional<E> current = cache.getIfPresent(id);
+        if (current == null) {
+            current = load(id);
+        }
+
+        Optional<E> next = remapping.apply(current);
+        if (next == current) {
+            return current;
+        }
+
+        if (pendingWrites.put(id, next) != null) {
+            coalescedWrites.increment();
+        }
+        cache.put(id, next);
+        return next;
+    }
+
+    /**
+     * Applies batch to underlying engine at once while all entities of batch are locked.
+     *
+     * <p>With write-behind changes of batch are kept pending as separate changes are.
+     */
+    @Override
+    public void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        if (pendingWrites != null) {
+            StorageEngine.super.computeAll(ids, remapping);
+            return;
+        }
+
+        Map<I, Optional<E>> computed = new HashMap<>();
+        Iterable<Lock> locks = entityLocks.bulkGet(ids);
+        locks.forEach(Lock::lock);
+        try {
+            delegate.computeAll(ids, (id, current) -> {
+                Optional<E> next = remapping.apply(id, current);
+                computed.put(id, next);
+                return next;
+            });
+        } finally {
+            for (I id : ids) {
+                Optional<E> entity = computed.get(id);
+                if (entity == null) {
+                    cache.invalidate(id);
+                } else {
+                    cache.put(id, entity);
+                }
+            }
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        flush();
+        return delegate.findBy(index, key);
+    }
+
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        flush();
+        return delegate.scan(index, key, after, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        flush();
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long count() {
+        flush();
+        return delegate.count();
+    }
+
+    @Override
+    public void clear() {
+        if (pendingWrites != null) {
+            synchronized (flushLock) {
+                pendingWrites.clear();
+            }
+        }
+        delegate.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Writes pending changes and closes underlying engine.
+     */
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+            }
+        }
+
+        try {
+            flush();
+        } finally {
+            delegate.close();
+        }
+    }
+
+    /**
+     * Writes pending changes into underlying engine in one batch.
+     *
+     * <p>Change remains pending until it is written, so it is never lost if writing fails.
+     * Change made while batch is written remains pending for the next batch.
+     */
+    @VisibleForTesting
+    void flush() {
+        if (pendingWrites == null) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+
+            Map<I, Optional<E>> batch = new HashMap<>(pendingWrites);
+            delegate.computeAll(batch.keySet(), (id, current) -> batch.get(id));
+            batch.forEach(pendingWrites::remove);
+            flushes.increment();
+        }
+    }
+
+    /*
+     * Scheduled flush must not throw, otherwise next flushes are cancelled.
+     * Failed changes stay pending and are retried by the next flush.
+     */
+    @SuppressWarnings("OverlyBroadCatchBlock")
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to write pending changes, will retry.", e);
+        }
+    }
+
+    private void flushIfTooManyPending() {
+        if (pendingWrites != null && pendingWrites.size() >= maxPendingWrites) {
+            flush();
+        }
+    }
+
+    /**
+     * Provides statistics of cache.
+     *
+     * @return snapshot of statistics
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), cache.evictionCount(), coalescedWrites.sum(),
+                              flushes.sum(), cache.size());
+    }
+
+    /**
+     * Creates {@code CachingStorageEngine}s for storages.
+     */
+    private static class Factory implements StorageEngineFactory {
+
+        private final StorageEngineFactory delegate;
+        private final CacheOptions options;
+
+        private Factory(StorageEngineFactory delegate, CacheOptions options) {
+            this.delegate = delegate;
+            this.options = options;
+        }
+
+        @Override
+        public <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema) {
+            return new CachingStorageEngine<>(delegate.create(schema), schema.getName(), options);
+        }
+    }
+}
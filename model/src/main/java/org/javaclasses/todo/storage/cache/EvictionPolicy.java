@@ -0,0 +1,41 @@
+package org.javaclasses.todo.storage.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Decides which keys of bounded cache should be evicted.
+ *
+ * <p>Implementations are not thread-safe, cache serializes calls of its policy.
+ *
+ * @param <K> key of cache
+ * @author Oleg Barmin
+ */
+interface EvictionPolicy<K> {
+
+    /**
+     * Records that cached key was read or overwritten.
+     *
+     * @param key cached key
+     */
+    void recordAccess(K key);
+
+    /**
+     * Records that key was added into cache.
+     *
+     * @param key     added key
+     * @param evicted receives keys which should be evicted, may receive added key itself if it is rejected
+     */
+    void recordInsertion(K key, Consumer<? super K> evicted);
+
+    /**
+     * Records that key was removed from cache.
+     *
+     * @param key removed key
+     */
+    void recordRemoval(K key);
+
+    /**
+     * Forgets all cached keys.
+     */
+    void clear();
+}
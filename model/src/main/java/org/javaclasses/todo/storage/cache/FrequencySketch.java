@@ -0,0 +1,98 @@
+package org.javaclasses.todo.storage.cache;
+
+import com.google.common.math.IntMath;
+
+/**
+ * Approximate counter of recent accesses of keys, based on
+ * <a href="https://en.wikipedia.org/wiki/Count%E2%80%93min_sketch">count-min sketch</a>.
+ *
+ * <p>Each key is counted by four 4-bit counters chosen by different hashes, and its frequency
+ * is the least of them, so collisions only overestimate it. When number of recorded accesses
+ * reaches ten times the size of cache, all counters are halved, so frequencies reflect recent accesses.
+ *
+ * <p>Sketch takes eight bytes per cached key regardless of the number of counted keys.
+ *
+ * @author Oleg Barmin
+ */
+final class FrequencySketch {
+
+    private static final int[] SEEDS = {0x97CB3127, 0xAB4F6D1B, 0x5C8A2E3F, 0xC2B2AE35};
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * Sixteen 4-bit counters per element.
+     */
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        int size = IntMath.ceilingPowerOfTwo(Math.max(maximumSize, 16));
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(maximumSize, 16);
+    }
+
+    private static int spread(int hash) {
+        int spread = hash ^ (hash >>> 16);
+        spread *= 0x45D9F3B;
+        return spread ^ (spread >>> 16);
+    }
+
+    private static int hashOf(int spread, int depth) {
+        int hash = (spread + SEEDS[depth]) * SEEDS[depth];
+        return hash ^ (hash >>> 15);
+    }
+
+    /**
+     * Provides estimated number of recent accesses of key.
+     *
+     * @param key key of cache
+     * @return frequency from zero to fifteen
+     */
+    int frequency(Object key) {
+        int spread = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            int hash = hashOf(spread, depth);
+            long element = table[(hash >>> 4) & tableMask];
+            frequency = Math.min(frequency, (int) ((element >>> ((hash & 15) << 2)) & MAX_COUNT));
+        }
+        return frequency;
+    }
+
+    /**
+     * Records access of key.
+     *
+     * @param key key of cache
+     */
+    void increment(Object key) {
+        int spread = spread(key.hashCode());
+        boolean added = false;
+
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            int hash = hashOf(spread, depth);
+            int index = (hash >>> 4) & tableMask;
+            int shift = (hash & 15) << 2;
+
+            if (((table[index] >>> shift) & MAX_COUNT) < MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+}
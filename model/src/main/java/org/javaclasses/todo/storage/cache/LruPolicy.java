@@ -0,0 +1,52 @@
+package org.javaclasses.todo.storage.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Evicts key which was not accessed for the longest time.
+ *
+ * @param <K> key of cache
+ * @author Oleg Barmin
+ */
+final class LruPolicy<K> implements EvictionPolicy<K> {
+
+    private final int maximumSize;
+
+    /**
+     * Cached keys from least to most recently accessed.
+     */
+    private final LinkedHashMap<K, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true);
+
+    LruPolicy(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        keys.get(key);
+    }
+
+    @Override
+    public void recordInsertion(K key, Consumer<? super K> evicted) {
+        keys.put(key, Boolean.TRUE);
+
+        if (keys.size() > maximumSize) {
+            Iterator<K> eldest = keys.keySet()
+                                     .iterator();
+            evicted.accept(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    @Override
+    public void recordRemoval(K key) {
+        keys.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+    }
+}
@@ -0,0 +1,121 @@
+package org.javaclasses.todo.storage.cache;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Window TinyLFU policy, which admits key into cache only if it is accessed more frequently than key it evicts.
+ *
+ * <p>New keys enter small LRU window, which takes one percent of cache.
+ * Key pushed out of the window competes with the eldest key of the main space,
+ * and the one with lower {@link FrequencySketch estimated frequency} is evicted.
+ * Main space is split into probation and protected segments: key accessed while
+ * it is on probation is promoted to the protected segment, which takes eighty percent of main space.
+ *
+ * <p>So entities read once by a scan pass through the window without evicting frequently used ones.
+ *
+ * @param <K> key of cache
+ * @author Oleg Barmin
+ * @see <a href="https://arxiv.org/abs/1512.00727">TinyLFU: A Highly Efficient Cache Admission Policy</a>
+ */
+final class TinyLfuPolicy<K> implements EvictionPolicy<K> {
+
+    private final FrequencySketch sketch;
+
+    private final int windowSize;
+    private final int mainSize;
+    private final int protectedSize;
+
+    private final LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    TinyLfuPolicy(int maximumSize) {
+        this.sketch = new FrequencySketch(maximumSize);
+        this.windowSize = Math.max(1, maximumSize / 100);
+        this.mainSize = maximumSize - windowSize;
+        this.protectedSize = mainSize * 4 / 5;
+    }
+
+    @Nullable
+    private static <K> K removeEldest(LinkedHashMap<K, Boolean> segment) {
+        Iterator<K> keys = segment.keySet()
+                                  .iterator();
+        if (!keys.hasNext()) {
+            return null;
+        }
+
+        K eldest = keys.next();
+        keys.remove();
+        return eldest;
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        sketch.increment(key);
+
+        if (window.get(key) != null || protectedSegment.get(key) != null) {
+            return;
+        }
+        if (probation.remove(key) != null) {
+            protectedSegment.put(key, Boolean.TRUE);
+
+            if (protectedSegment.size() > protectedSize) {
+                probation.put(removeEldest(protectedSegment), Boolean.TRUE);
+            }
+        }
+    }
+
+    @Override
+    public void recordInsertion(K key, Consumer<? super K> evicted) {
+        sketch.increment(key);
+        window.put(key, Boolean.TRUE);
+
+        if (window.size() > windowSize) {
+            admit(removeEldest(window), evicted);
+        }
+    }
+
+    /**
+     * Moves candidate pushed out of the window into main space if it is more frequent than the eldest key of main space.
+     */
+    private void admit(K candidate, Consumer<? super K> evicted) {
+        if (probation.size() + protectedSegment.size() < mainSize) {
+            probation.put(candidate, Boolean.TRUE);
+            return;
+        }
+
+        LinkedHashMap<K, Boolean> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        if (victimSegment.isEmpty()) {
+            evicted.accept(candidate);
+            return;
+        }
+
+        K victim = victimSegment.keySet()
+                                .iterator()
+                                .next();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            victimSegment.remove(victim);
+            evicted.accept(victim);
+            probation.put(candidate, Boolean.TRUE);
+        } else {
+            evicted.accept(candidate);
+        }
+    }
+
+    @Override
+    public void recordRemoval(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+}
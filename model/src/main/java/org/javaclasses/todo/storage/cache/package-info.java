@@ -0,0 +1,11 @@
+/**
+ * Caching decorator of storage engines.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.storage.cache;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
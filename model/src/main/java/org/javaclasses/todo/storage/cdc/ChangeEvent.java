@@ -0,0 +1,131 @@
+package org.javaclasses.todo.storage.cdc;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Change of one entity of storage.
+ *
+ * <p>Entity was created if it is absent before change, removed if it is absent after change
+ * and updated otherwise.
+ *
+ * @param <I> ID of the entity
+ * @param <E> changed entity
+ * @author Oleg Barmin
+ */
+public final class ChangeEvent<I extends EntityId, E extends Entity<I>> {
+
+    private final long sequence;
+    @Nullable
+    private final I id;
+    @Nullable
+    private final E before;
+    @Nullable
+    private final E after;
+
+    private ChangeEvent(long sequence, @Nullable I id, @Nullable E before, @Nullable E after) {
+        this.sequence = sequence;
+        this.id = id;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Creates event of change of entity.
+     *
+     * @param sequence sequence number of change in the feed
+     * @param id       ID of changed entity
+     * @param before   entity before change
+     * @param after    entity after change
+     * @param <I>      ID of the entity
+     * @param <E>      changed entity
+     * @return new event
+     */
+    static <I extends EntityId, E extends Entity<I>> ChangeEvent<I, E> of(long sequence, I id, Optional<E> before,
+                                                                           Optional<E> after) {
+        return new ChangeEvent<>(sequence, checkNotNull(id), before.orElse(null), after.orElse(null));
+    }
+
+    /**
+     * Creates marker of removal of all entities of storage.
+     *
+     * @param sequence sequence number of change in the feed
+     * @param <I>      ID of the entity
+     * @param <E>      changed entity
+     * @return new marker, which is delivered by {@link ChangeListener#onClear(long)}
+     */
+    static <I extends EntityId, E extends Entity<I>> ChangeEvent<I, E> clear(long sequence) {
+        return new ChangeEvent<>(sequence, null, null, null);
+    }
+
+    boolean isClear() {
+        return id == null;
+    }
+
+    /**
+     * Provides sequence number of change, which grows by one with each change of storage.
+     *
+     * @return sequence number of change
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public I getId() {
+        return checkNotNull(id);
+    }
+
+    /**
+     * Provides entity before change.
+     *
+     * @return Optional with entity before change, empty if entity was created
+     */
+    public Optional<E> getBefore() {
+        return Optional.ofNullable(before);
+    }
+
+    /**
+     * Provides entity after change.
+     *
+     * @return Optional with entity after change, empty if entity was removed
+     */
+    public Optional<E> getAfter() {
+        return Optional.ofNullable(after);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChangeEvent)) {
+            return false;
+        }
+        ChangeEvent<?, ?> that = (ChangeEvent<?, ?>) o;
+        return sequence == that.sequence &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(before, that.before) &&
+                Objects.equals(after, that.after);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, id, before, after);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "sequence=" + sequence +
+                ", id=" + id +
+                ", before=" + before +
+                ", after=" + after +
+                '}';
+    }
+}
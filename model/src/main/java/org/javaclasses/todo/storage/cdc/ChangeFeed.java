@@ -0,0 +1,119 @@
+package org.javaclasses.todo.storage.cdc;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.StorageEngine;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Ordered feed of changes of one storage.
+ *
+ * <p>Changes are published by engine {@link #observe(StorageEngine) observed} by the feed. Each change gets
+ * the next sequence number and is buffered by each {@link Subscription} in order of sequence numbers.
+ *
+ * <p>While feed has no subscribers, observed engine only checks that list of subscribers is empty,
+ * so writes do not pay for the feed until somebody subscribes. Subscriber receives changes
+ * published after it subscribed.
+ *
+ * @param <I> ID of the entity
+ * @param <E> changed entity
+ * @author Oleg Barmin
+ */
+public final class ChangeFeed<I extends EntityId, E extends Entity<I>> {
+
+    private final String storageName;
+    private final List<Subscription<I, E>> subscriptions = new CopyOnWriteArrayList<>();
+
+    /* Guarded by this. */
+    private long sequence;
+
+    /**
+     * Creates {@code ChangeFeed} instance without subscribers.
+     *
+     * @param storageName name of storage which changes are published
+     */
+    public ChangeFeed(String storageName) {
+        this.storageName = checkNotNull(storageName);
+    }
+
+    /**
+     * Wraps engine, so its changes are published to this feed.
+     *
+     * @param engine engine to observe
+     * @return engine which publishes changes made through it
+     */
+    public StorageEngine<I, E> observe(StorageEngine<I, E> engine) {
+        return new ObservedStorageEngine<>(engine, this);
+    }
+
+    /**
+     * Subscribes listener with {@link SubscriptionOptions#defaults() default} options.
+     *
+     * @param listener listener to deliver changes to
+     * @return subscription which should be closed when listener no longer needs changes
+     */
+    public Subscription<I, E> subscribe(ChangeListener<I, E> listener) {
+        return subscribe(listener, SubscriptionOptions.defaults());
+    }
+
+    /**
+     * Subscribes listener to changes published after this call.
+     *
+     * @param listener listener to deliver changes to
+     * @param options  options of subscription
+     * @return subscription which should be closed when listener no longer needs changes
+     */
+    public Subscription<I, E> subscribe(ChangeListener<I, E> listener, SubscriptionOptions options) {
+        checkNotNull(listener);
+        checkNotNull(options);
+
+        Subscription<I, E> subscription = new Subscription<>(this, listener, options);
+        subscription.start();
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(Subscription<I, E> subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    String getStorageName() {
+        return storageName;
+    }
+
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Publishes change of entity.
+     *
+     * <p>Sequence number is taken and change is buffered by subscriptions at once,
+     * so each subscription buffers changes in order of their sequence numbers.
+     *
+     * @param id     ID of changed entity
+     * @param before entity before change
+     * @param after  entity after change
+     */
+    synchronized void publish(I id, Optional<E> before, Optional<E> after) {
+        publish(ChangeEvent.of(++sequence, id, before, after));
+    }
+
+    /**
+     * Publishes removal of all entities.
+     */
+    synchronized void publishClear() {
+        publish(ChangeEvent.clear(++sequence));
+    }
+
+    private void publish(ChangeEvent<I, E> event) {
+        for (Subscription<I, E> subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.javaclasses.todo.storage.cdc;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+
+import java.util.List;
+
+/**
+ * Receives changes of storage from {@link ChangeFeed}.
+ *
+ * <p>Listener is invoked by thread of its subscription, one batch at a time, in order of sequence numbers
+ * of changes. Listener must not change storage it listens to, since writers of the storage may wait
+ * until listener consumes changes.
+ *
+ * @param <I> ID of the entity
+ * @param <E> changed entity
+ * @author Oleg Barmin
+ */
+@FunctionalInterface
+public interface ChangeListener<I extends EntityId, E extends Entity<I>> {
+
+    /**
+     * Receives changes of entities.
+     *
+     * @param changes non-empty list of changes in order of their sequence numbers
+     */
+    void onChanges(List<ChangeEvent<I, E>> changes);
+
+    /**
+     * Receives removal of all entities of storage, which follows previously received changes.
+     *
+     * @param sequence sequence number of removal
+     */
+    default void onClear(long sequence) {
+        // most listeners observe entities one by one, so they ignore removal of all entities by default
+    }
+}
@@ -0,0 +1,123 @@
+package org.javaclasses.todo.storage.cdc;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Engine which publishes changes of entities to {@link ChangeFeed}.
+ *
+ * <p>Change is published by function of {@link #compute(EntityId, UnaryOperator)} of delegate, which is invoked
+ * while no other change of same entity is in progress, so changes of each entity are published in order
+ * they are applied.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ * @implNote change is published before delegate applies it, so change which delegate fails
+ * to apply after computation, e.g. on failure of database, is published anyway.
+ */
+final class ObservedStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    private final StorageEngine<I, E> delegate;
+    private final ChangeFeed<I, E> feed;
+
+    /**
+     * Creates {@code ObservedStorageEngine} instance.
+     *
+     * @param delegate engine to keep entities in
+     * @param feed     feed to publish changes to
+     */
+    ObservedStorageEngine(StorageEngine<I, E> delegate, ChangeFeed<I, E> feed) {
+        this.delegate = checkNotNull(delegate);
+        this.feed = checkNotNull(feed);
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        return delegate.read(id);
+    }
+
+    @Override
+    public Map<I, E> readAll(Collection<I> ids) {
+        return delegate.readAll(ids);
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        if (!feed.hasSubscribers()) {
+            return delegate.compute(id, remapping);
+        }
+
+        return delegate.compute(id, current -> {
+            Optional<E> next = remapping.apply(current);
+            publish(id, current, next);
+            return next;
+        });
+    }
+
+    @Override
+    public void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        if (!feed.hasSubscribers()) {
+            delegate.computeAll(ids, remapping);
+            return;
+        }
+
+        delegate.computeAll(ids, (id, current) -> {
+            Optional<E> next = remapping.apply(id, current);
+            publish(id, current, next);
+            return next;
+        });
+    }
+
+    private void publish(I id, Optional<E> current, Optional<E> next) {
+        if (next != current && (next.isPresent() || current.isPresent())) {
+            feed.publish(id, current, next);
+        }
+    }
+
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        return delegate.findBy(index, key);
+    }
+
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        return delegate.scan(index, key, after, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        if (feed.hasSubscribers()) {
+            feed.publishClear();
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,165 @@
+package org.javaclasses.todo.storage.cdc;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscription of listener to {@link ChangeFeed}.
+ *
+ * <p>Changes published to the feed are buffered by subscription and delivered to listener by its own thread,
+ * so slow listener does not delay writers until its buffer is full. Policy of full buffer is set by
+ * {@link SubscriptionOptions.Overflow}.
+ *
+ * @param <I> ID of the entity
+ * @param <E> changed entity
+ * @author Oleg Barmin
+ */
+public final class Subscription<I extends EntityId, E extends Entity<I>> implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Subscription.class);
+
+    private final ChangeFeed<I, E> feed;
+    private final ChangeListener<I, E> listener;
+    private final BlockingQueue<ChangeEvent<I, E>> buffer;
+    private final int maxBatchSize;
+    private final SubscriptionOptions.Overflow overflow;
+    private final Thread thread;
+    private volatile boolean active = true;
+
+    /**
+     * Creates {@code Subscription} instance, which delivers changes once {@link #start() started}.
+     *
+     * @param feed     feed to receive changes of
+     * @param listener listener to deliver changes to
+     * @param options  options of subscription
+     */
+    Subscription(ChangeFeed<I, E> feed, ChangeListener<I, E> listener, SubscriptionOptions options) {
+        this.feed = feed;
+        this.listener = listener;
+        this.buffer = new ArrayBlockingQueue<>(options.getBufferSize());
+        this.maxBatchSize = options.getMaxBatchSize();
+        this.overflow = options.getOverflow();
+        this.thread = new Thread(this::deliver, "cdc-" + feed.getStorageName());
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Checks whether subscription still receives changes.
+     *
+     * @return {@code false} if subscription was closed or cancelled on overflow
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Buffers change for delivery, applying overflow policy if buffer is full.
+     *
+     * @param event change to deliver
+     */
+    void offer(ChangeEvent<I, E> event) {
+        if (!active || buffer.offer(event)) {
+            return;
+        }
+
+        if (overflow == SubscriptionOptions.Overflow.CANCEL) {
+            logger.warn("Cancelling subscription to changes of `{}`, since its buffer of {} changes is full.",
+                        feed.getStorageName(), buffer.size());
+            close();
+            return;
+        }
+
+        try {
+            while (active && !buffer.offer(event, 100, TimeUnit.MILLISECONDS)) {
+                // waiting until subscriber consumes buffered changes or subscription is closed
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            logger.warn("Cancelling subscription to changes of `{}`, since writer was interrupted.",
+                        feed.getStorageName());
+            close();
+        }
+    }
+
+    private void deliver() {
+        List<ChangeEvent<I, E>> drained = new ArrayList<>(maxBatchSize);
+
+        while (active) {
+            try {
+                drained.add(buffer.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            buffer.drainTo(drained, maxBatchSize - 1);
+
+            int start = 0;
+            for (int i = 0; i < drained.size() && active; i++) {
+                ChangeEvent<I, E> event = drained.get(i);
+                if (event.isClear()) {
+                    notifyListener(drained.subList(start, i));
+                    notifyClear(event.getSequence());
+                    start = i + 1;
+                }
+            }
+            if (active) {
+                notifyListener(drained.subList(start, drained.size()));
+            }
+            drained.clear();
+        }
+    }
+
+    private void notifyListener(List<ChangeEvent<I, E>> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        try {
+            listener.onChanges(new ArrayList<>(changes));
+        } catch (RuntimeException e) {
+            logger.error("Listener of changes of `{}` failed to receive {} changes.", feed.getStorageName(),
+                         changes.size(), e);
+        }
+    }
+
+    private void notifyClear(long sequence) {
+        try {
+            listener.onClear(sequence);
+        } catch (RuntimeException e) {
+            logger.error("Listener of changes of `{}` failed to receive removal of all entities.",
+                         feed.getStorageName(), e);
+        }
+    }
+
+    /**
+     * Stops delivery of changes, changes which were not delivered yet are discarded.
+     *
+     * <p>May be called by listener itself.
+     */
+    @Override
+    public void close() {
+        if (!active) {
+            return;
+        }
+
+        active = false;
+        feed.unsubscribe(this);
+        buffer.clear();
+        if (Thread.currentThread() != thread) {
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.javaclasses.todo.storage.cdc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Options of subscription to {@link ChangeFeed}.
+ *
+ * @author Oleg Barmin
+ */
+public final class SubscriptionOptions {
+
+    private final int bufferSize;
+    private final int maxBatchSize;
+    private final Overflow overflow;
+
+    private SubscriptionOptions(Builder builder) {
+        this.bufferSize = builder.bufferSize;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.overflow = builder.overflow;
+    }
+
+    /**
+     * Creates builder of options.
+     *
+     * @return new builder with default options
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides options of subscription which buffers up to a thousand changes, receives them in batches
+     * of up to 256 changes and blocks writers while its buffer is full.
+     *
+     * @return default options
+     */
+    public static SubscriptionOptions defaults() {
+        return newBuilder().build();
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    Overflow getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Policies of handling changes which do not fit into full buffer of slow subscriber.
+     */
+    public enum Overflow {
+
+        /**
+         * Writers of storage wait until subscriber consumes buffered changes,
+         * so storage is changed no faster than the slowest such subscriber consumes changes.
+         */
+        BLOCK,
+
+        /**
+         * Subscription is cancelled, so subscriber which can rebuild its state, e.g. a cache,
+         * does not slow down writers.
+         */
+        CANCEL
+    }
+
+    /**
+     * Allows to build {@code SubscriptionOptions} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private int bufferSize = 1024;
+        private int maxBatchSize = 256;
+        private Overflow overflow = Overflow.BLOCK;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets number of changes buffered until subscriber receives them.
+         */
+        public Builder setBufferSize(int bufferSize) {
+            checkArgument(bufferSize > 0, "Buffer size must be positive, but was %s.", bufferSize);
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Sets maximal number of changes received by subscriber at once.
+         */
+        public Builder setMaxBatchSize(int maxBatchSize) {
+            checkArgument(maxBatchSize > 0, "Batch size must be positive, but was %s.", maxBatchSize);
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets policy of handling changes which do not fit into full buffer.
+         */
+        public Builder setOverflow(Overflow overflow) {
+            this.overflow = checkNotNull(overflow);
+            return this;
+        }
+
+        public SubscriptionOptions build() {
+            return new SubscriptionOptions(this);
+        }
+    }
+}
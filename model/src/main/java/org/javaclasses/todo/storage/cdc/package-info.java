@@ -0,0 +1,11 @@
+/**
+ * Change-data-capture: ordered feed of changes of storages, which subscribers receive in batches.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.storage.cdc;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
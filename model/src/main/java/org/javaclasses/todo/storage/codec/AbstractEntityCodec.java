@@ -0,0 +1,214 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.javaclasses.todo.storage.codec.Fields.readLegacyString;
+import static org.javaclasses.todo.storage.codec.Fields.readSignedVarLong;
+import static org.javaclasses.todo.storage.codec.Fields.readVarInt;
+import static org.javaclasses.todo.storage.codec.Fields.writeSignedVarLong;
+import static org.javaclasses.todo.storage.codec.Fields.writeVarInt;
+
+/**
+ * Codec which writes entities in compact form prefixed by version of their schema.
+ *
+ * <p>Entity starts with header byte, which holds version of its schema, flag of compression
+ * and flag of {@link Entity#getVersion() version of entity}.
+ * Entity written by the first version of codecs has no header and starts with zero byte,
+ * so codec reads entities written by any previous version.
+ *
+ * <p>When schema of entity changes, codec increments its version and reads fields of
+ * entities of each previous version in {@link #readFields(DataInput, int)}.
+ *
+ * <p>Fields of entity which was written to storage are followed by its version,
+ * while entity without header or flag of version is read with zero version.
+ *
+ * <p>Compressed entity is encoded into buffer of the writing thread first,
+ * while uncompressed entity is written directly into output.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to convert
+ * @author Oleg Barmin
+ */
+abstract class AbstractEntityCodec<I extends EntityId<String>, E extends Entity<I>> implements EntityCodec<I, E> {
+
+    /**
+     * Version of the first schema with header, entities written before it have no header.
+     */
+    static final int FIRST_VERSION = 2;
+
+    private static final int COMPRESSED = 0x80;
+    private static final int VERSIONED = 0x40;
+    private static final int MIN_COMPRESSED_LENGTH = 100;
+
+    private static final ThreadLocal<EncodingBuffer> BUFFERS = ThreadLocal.withInitial(EncodingBuffer::new);
+
+    private final int version;
+    private final Compression compression;
+
+    /**
+     * Creates {@code AbstractEntityCodec} instance.
+     *
+     * @param version     version of schema of written entities
+     * @param compression compression of written entities
+     */
+    AbstractEntityCodec(int version, Compression compression) {
+        checkArgument(version >= FIRST_VERSION && version < VERSIONED, "Unsupported version %s.", version);
+        this.version = version;
+        this.compression = checkNotNull(compression);
+    }
+
+    /**
+     * Creates ID of entity with given value.
+     */
+    abstract I idOf(String value);
+
+    /**
+     * Creates ID of entity with value of given UUID.
+     */
+    abstract I idOf(UUID uuid);
+
+    /**
+     * Writes fields of entity, including its ID, in the current version of schema.
+     */
+    abstract void writeFields(E entity, DataOutput out) throws IOException;
+
+    /**
+     * Reads fields of entity written in given version of schema.
+     */
+    abstract E readFields(DataInput in, int fieldsVersion) throws IOException;
+
+    /**
+     * Reads the rest of entity written by the first version of codecs.
+     *
+     * @param id ID of entity, which is written first
+     * @param in input positioned after ID
+     */
+    abstract E readLegacyFields(I id, DataInput in) throws IOException;
+
+    @Override
+    public void writeId(I id, DataOutput out) throws IOException {
+        Fields.writeId(id, out);
+    }
+
+    @Override
+    public I readId(DataInput in) throws IOException {
+        return Fields.readId(in, this::idOf, this::idOf);
+    }
+
+    @Override
+    public void write(E entity, DataOutput out) throws IOException {
+        long entityVersion = entity.getVersion();
+        int header = entityVersion == 0 ? version : version | VERSIONED;
+
+        if (compression == Compression.NONE) {
+            out.writeByte(header);
+            writeVersionedFields(entity, entityVersion, out);
+            return;
+        }
+
+        EncodingBuffer buffer = BUFFERS.get();
+        buffer.reset();
+        writeVersionedFields(entity, entityVersion, buffer.out);
+
+        int length = buffer.bytes.size();
+        byte[] fields = buffer.bytes.array();
+        if (length >= MIN_COMPRESSED_LENGTH) {
+            byte[] compressed = buffer.compressed(Lz4.maxCompressedLength(length));
+            int compressedLength = Lz4.compress(fields, 0, length, compressed, 0);
+
+            if (compressedLength < length) {
+                out.writeByte(header | COMPRESSED);
+                writeVarInt(length, out);
+                writeVarInt(compressedLength, out);
+                out.write(compressed, 0, compressedLength);
+                return;
+            }
+        }
+
+        out.writeByte(header);
+        out.write(fields, 0, length);
+    }
+
+    @Override
+    public E read(DataInput in) throws IOException {
+        int header = in.readUnsignedByte();
+        if (header == 0) {
+            return readLegacyFields(idOf(readLegacyString(in, header)), in);
+        }
+
+        int fieldsVersion = header & ~(COMPRESSED | VERSIONED);
+        boolean versioned = (header & VERSIONED) != 0;
+        if (fieldsVersion < FIRST_VERSION || fieldsVersion > version) {
+            throw new IOException("Unsupported version of entity: " + fieldsVersion);
+        }
+        if ((header & COMPRESSED) == 0) {
+            return readVersionedFields(in, fieldsVersion, versioned);
+        }
+
+        int length = readVarInt(in);
+        byte[] compressed = new byte[readVarInt(in)];
+        in.readFully(compressed);
+
+        byte[] fields = new byte[length];
+        Lz4.decompress(compressed, 0, compressed.length, fields, 0, length);
+        return readVersionedFields(new DataInputStream(new ByteArrayInputStream(fields)), fieldsVersion, versioned);
+    }
+
+    private void writeVersionedFields(E entity, long entityVersion, DataOutput out) throws IOException {
+        writeFields(entity, out);
+        if (entityVersion != 0) {
+            writeSignedVarLong(entityVersion, out);
+        }
+    }
+
+    private E readVersionedFields(DataInput in, int fieldsVersion, boolean versioned) throws IOException {
+        E entity = readFields(in, fieldsVersion);
+        if (versioned) {
+            entity.setVersion(readSignedVarLong(in));
+        }
+        return entity;
+    }
+
+    /**
+     * Buffers reused by writes of each thread.
+     */
+    private static final class EncodingBuffer {
+
+        private final ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private byte[] compressed = new byte[0];
+
+        private void reset() {
+            bytes.reset();
+        }
+
+        private byte[] compressed(int capacity) {
+            if (compressed.length < capacity) {
+                compressed = new byte[capacity];
+            }
+            return compressed;
+        }
+    }
+
+    /**
+     * Byte stream which exposes its buffer, so buffered bytes are not copied.
+     */
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+        private byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.javaclasses.todo.model.entity.AuthSession;
+import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.entity.UserId;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.javaclasses.todo.storage.codec.Fields.readLegacyNullableString;
+import static org.javaclasses.todo.storage.codec.Fields.readSignedVarLong;
+import static org.javaclasses.todo.storage.codec.Fields.writeSignedVarLong;
+
+/**
+ * Codec of {@link AuthSession} entity.
+ *
+ * <p>Time of the last access is written as milliseconds passed since creation of session.
+ *
+ * @author Oleg Barmin
+ */
+public final class AuthSessionCodec extends AbstractEntityCodec<Token, AuthSession> {
+
+    private static final int VERSION = FIRST_VERSION;
+    private static final int HAS_USER_ID = 1;
+    private static final int HAS_TIMES = 2;
+
+    /**
+     * Creates {@code AuthSessionCodec} instance which writes uncompressed sessions.
+     */
+    public AuthSessionCodec() {
+        this(Compression.NONE);
+    }
+
+    /**
+     * Creates {@code AuthSessionCodec} instance.
+     *
+     * @param compression compression of written sessions
+     */
+    public AuthSessionCodec(Compression compression) {
+        super(VERSION, compression);
+    }
+
+    @Override
+    Token idOf(String value) {
+        return new Token(value);
+    }
+
+    @Override
+    Token idOf(UUID uuid) {
+        return new Token(uuid);
+    }
+
+    @Override
+    void writeFields(AuthSession authSession, DataOutput out) throws IOException {
+        UserId userId = authSession.getUserId();
+
+        long creationTime = authSession.getCreationTime();
+        long lastAccessTime = authSession.getLastAccessTime();
+        boolean hasTimes = creationTime != 0 || lastAccessTime != 0;
+
+        writeId(authSession.getId(), out);
+        out.writeByte((userId == null ? 0 : HAS_USER_ID) | (hasTimes ? HAS_TIMES : 0));
+        if (userId != null) {
+            Fields.writeId(userId, out);
+        }
+        if (hasTimes) {
+            writeSignedVarLong(creationTime, out);
+            writeSignedVarLong(lastAccessTime - creationTime, out);
+        }
+    }
+
+    @Override
+    AuthSession readFields(DataInput in, int fieldsVersion) throws IOException {
+        AuthSession authSession = new AuthSession(readId(in));
+        int flags = in.readUnsignedByte();
+        if ((flags & HAS_USER_ID) != 0) {
+            authSession.setUserId(Fields.readId(in, UserId::new, UserId::new));
+        }
+        if ((flags & HAS_TIMES) != 0) {
+            long creationTime = readSignedVarLong(in);
+            authSession.setCreationTime(creationTime);
+            authSession.setLastAccessTime(creationTime + readSignedVarLong(in));
+        }
+        return authSession;
+    }
+
+    @Override
+    AuthSession readLegacyFields(Token id, DataInput in) throws IOException {
+        AuthSession authSession = new AuthSession(id);
+        String userId = readLegacyNullableString(in);
+        if (userId != null) {
+            authSession.setUserId(new UserId(userId));
+        }
+        return authSession;
+    }
+}
@@ -0,0 +1,22 @@
+package org.javaclasses.todo.storage.codec;
+
+/**
+ * Compression of entities written by codecs.
+ *
+ * <p>Codecs read entities written with any compression regardless of their own one.
+ *
+ * @author Oleg Barmin
+ */
+public enum Compression {
+
+    /**
+     * Entities are written as is.
+     */
+    NONE,
+
+    /**
+     * Entities which take at least a hundred bytes are compressed by LZ4 block compression
+     * if it makes them shorter, e.g. tasks with long descriptions.
+     */
+    LZ4
+}
@@ -0,0 +1,59 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts entity and its ID to binary form and back.
+ *
+ * <p>Codec writes only values of entity fields, so entity written by codec
+ * can be read only by codec of same entity type.
+ *
+ * <p>Implementations must be stateless and thread-safe.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to convert
+ * @author Oleg Barmin
+ */
+public interface EntityCodec<I extends EntityId, E extends Entity<I>> {
+
+    /**
+     * Writes given ID into given output.
+     *
+     * @param id  ID to write
+     * @param out output to write ID into
+     * @throws IOException if writing to output failed
+     */
+    void writeId(I id, DataOutput out) throws IOException;
+
+    /**
+     * Reads ID previously written by {@link #writeId(EntityId, DataOutput)}.
+     *
+     * @param in input to read ID from
+     * @return read ID
+     * @throws IOException if reading from input failed
+     */
+    I readId(DataInput in) throws IOException;
+
+    /**
+     * Writes given entity, including its ID, into given output.
+     *
+     * @param entity entity to write
+     * @param out    output to write entity into
+     * @throws IOException if writing to output failed
+     */
+    void write(E entity, DataOutput out) throws IOException;
+
+    /**
+     * Reads entity previously written by {@link #write(Entity, DataOutput)}.
+     *
+     * @param in input to read entity from
+     * @return read entity
+     * @throws IOException if reading from input failed
+     */
+    E read(DataInput in) throws IOException;
+}
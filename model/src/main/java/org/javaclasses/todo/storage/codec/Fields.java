@@ -0,0 +1,219 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.javaclasses.todo.model.entity.EntityId;
+
+import javax.annotation.Nullable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Utilities to write and read values of entity fields.
+ *
+ * <p>Lengths are written as variable-length integers, so short strings take one byte of length.
+ * IDs which values are kept as bits of UUID are written as 16 bytes instead of 36 characters.
+ *
+ * <p>Methods with {@code legacy} prefix read fields of entities written by the first version of codecs,
+ * which wrote lengths as four-byte integers.
+ *
+ * @author Oleg Barmin
+ */
+final class Fields {
+
+    /**
+     * Tag of ID written as two longs of UUID.
+     */
+    private static final int UUID_ID = 1;
+
+    /**
+     * Tag of ID written as string.
+     */
+    private static final int STRING_ID = 2;
+
+    private Fields() {
+    }
+
+    /**
+     * Writes non-negative integer in 7-bit groups, lowest group first.
+     *
+     * @param value non-negative integer to write
+     * @param out   output to write into
+     * @throws IOException if writing to output failed
+     */
+    static void writeVarInt(int value, DataOutput out) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    /**
+     * Reads integer written by {@link #writeVarInt(int, DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read integer
+     * @throws IOException if reading from input failed or integer is malformed
+     */
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int group = in.readUnsignedByte();
+            value |= (group & 0x7F) << shift;
+            if ((group & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer.");
+    }
+
+    /**
+     * Writes signed long in 7-bit groups, so values close to zero take few bytes regardless of sign.
+     *
+     * @param value long to write
+     * @param out   output to write into
+     * @throws IOException if writing to output failed
+     */
+    static void writeSignedVarLong(long value, DataOutput out) throws IOException {
+        long remaining = (value << 1) ^ (value >> 63);
+        while ((remaining & ~0x7FL) != 0) {
+            out.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    /**
+     * Reads long written by {@link #writeSignedVarLong(long, DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read long
+     * @throws IOException if reading from input failed or long is malformed
+     */
+    static long readSignedVarLong(DataInput in) throws IOException {
+        long encoded = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int group = in.readUnsignedByte();
+            encoded |= (long) (group & 0x7F) << shift;
+            if ((group & 0x80) == 0) {
+                return (encoded >>> 1) ^ -(encoded & 1);
+            }
+        }
+        throw new IOException("Malformed variable-length long.");
+    }
+
+    /**
+     * Writes given string prefixed by the length of its UTF-8 bytes.
+     *
+     * <p>Unlike {@link DataOutput#writeUTF(String)} string length is not limited.
+     *
+     * @param value string to write
+     * @param out   output to write into
+     * @throws IOException if writing to output failed
+     */
+    static void writeString(String value, DataOutput out) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarInt(bytes.length, out);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads string written by {@link #writeString(String, DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read string
+     * @throws IOException if reading from input failed
+     */
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Writes ID, as 16 bytes if its value is kept as bits of UUID.
+     *
+     * @param id  ID to write
+     * @param out output to write into
+     * @throws IOException if writing to output failed
+     */
+    static void writeId(EntityId<String> id, DataOutput out) throws IOException {
+        if (!id.isUuid()) {
+            out.writeByte(STRING_ID);
+            writeString(id.getValue(), out);
+            return;
+        }
+
+        out.writeByte(UUID_ID);
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    /**
+     * Reads ID written by {@link #writeId(EntityId, DataOutput)} or by the first version of codecs.
+     *
+     * @param in         input to read from
+     * @param fromString creates ID with string value
+     * @param fromUuid   creates ID with value of UUID
+     * @param <I>        type of ID
+     * @return read ID
+     * @throws IOException if reading from input failed or ID has unknown tag
+     */
+    static <I extends EntityId<String>> I readId(DataInput in, Function<String, I> fromString,
+                                                 Function<UUID, I> fromUuid) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case UUID_ID:
+                return fromUuid.apply(new UUID(in.readLong(), in.readLong()));
+            case STRING_ID:
+                return fromString.apply(readString(in));
+            case 0:
+                return fromString.apply(readLegacyString(in, tag));
+            default:
+                throw new IOException("Unknown tag of ID: " + tag);
+        }
+    }
+
+    /**
+     * Reads string written by the first version of codecs, which prefixed it by four-byte length.
+     *
+     * @param in        input to read from
+     * @param firstByte the highest byte of length, which was already read
+     * @return read string
+     * @throws IOException if reading from input failed
+     */
+    static String readLegacyString(DataInput in, int firstByte) throws IOException {
+        int length = firstByte << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort();
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Reads string written by the first version of codecs.
+     *
+     * @param in input to read from
+     * @return read string
+     * @throws IOException if reading from input failed
+     */
+    static String readLegacyString(DataInput in) throws IOException {
+        return readLegacyString(in, in.readUnsignedByte());
+    }
+
+    /**
+     * Reads string which may be absent written by the first version of codecs.
+     *
+     * @param in input to read from
+     * @return read string or {@code null} if absent string was written
+     * @throws IOException if reading from input failed
+     */
+    @Nullable
+    static String readLegacyNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? readLegacyString(in) : null;
+    }
+}
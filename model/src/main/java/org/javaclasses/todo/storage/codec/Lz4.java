@@ -0,0 +1,223 @@
+package org.javaclasses.todo.storage.codec;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compressor of byte arrays in <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4
+ * block format</a>.
+ *
+ * <p>Compressor greedily takes the first match found by hash of four bytes, which favours speed
+ * over ratio, as the reference "fast" compressor does. Decompressor validates every length and offset,
+ * so malformed input causes {@code IOException} instead of reading outside of arrays.
+ *
+ * @author Oleg Barmin
+ */
+final class Lz4 {
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int RUN_MASK = 0xF;
+
+    private static final int MIN_HASH_LOG = 8;
+    private static final int MAX_HASH_LOG = 12;
+
+    /**
+     * Hash tables reused by compressions of each thread, which hold positions of sequences plus one.
+     */
+    private static final ThreadLocal<int[]> HASH_TABLES = ThreadLocal.withInitial(() -> new int[1 << MAX_HASH_LOG]);
+
+    private Lz4() {
+    }
+
+    /**
+     * Provides size of array which fits compressed form of input of given length.
+     *
+     * @param length length of input
+     * @return maximum length of compressed input
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses part of source array into destination array.
+     *
+     * @param src    array to compress
+     * @param srcOff offset of compressed part
+     * @param srcLen length of compressed part
+     * @param dst    array to write compressed bytes into, has at least
+     *               {@link #maxCompressedLength(int)} bytes after offset
+     * @param dstOff offset to write compressed bytes from
+     * @return number of written bytes
+     */
+    static int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+        int srcEnd = srcOff + srcLen;
+        int anchor = srcOff;
+        int dp = dstOff;
+
+        if (srcLen > MATCH_FIND_LIMIT) {
+            int hashLog = Math.max(MIN_HASH_LOG, Math.min(MAX_HASH_LOG, 32 - Integer.numberOfLeadingZeros(srcLen)));
+            int[] table = HASH_TABLES.get();
+            Arrays.fill(table, 0, 1 << hashLog, 0);
+
+            int matchLimit = srcEnd - LAST_LITERALS;
+            int findLimit = srcEnd - MATCH_FIND_LIMIT;
+            int sp = srcOff;
+
+            while (sp <= findLimit) {
+                int sequence = readInt(src, sp);
+                int hash = (sequence * -1640531535) >>> (32 - hashLog);
+                int ref = table[hash] - 1 + srcOff;
+                table[hash] = sp - srcOff + 1;
+
+                if (ref < srcOff || sp - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    sp++;
+                    continue;
+                }
+
+                int matchLength = MIN_MATCH;
+                while (sp + matchLength < matchLimit && src[sp + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+
+                dp = writeSequence(src, anchor, sp - anchor, sp - ref, matchLength, dst, dp);
+                sp += matchLength;
+                anchor = sp;
+            }
+        }
+
+        int literalLength = srcEnd - anchor;
+        int token = dp++;
+        dst[token] = (byte) (Math.min(literalLength, RUN_MASK) << 4);
+        dp = writeLength(literalLength, dst, dp);
+        System.arraycopy(src, anchor, dst, dp, literalLength);
+        return dp + literalLength - dstOff;
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literalLength, int offset, int matchLength,
+                                     byte[] dst, int dstPosition) {
+        int dp = dstPosition;
+        int token = dp++;
+        int matchRun = matchLength - MIN_MATCH;
+        dst[token] = (byte) (Math.min(literalLength, RUN_MASK) << 4 | Math.min(matchRun, RUN_MASK));
+
+        dp = writeLength(literalLength, dst, dp);
+        System.arraycopy(src, literalStart, dst, dp, literalLength);
+        dp += literalLength;
+
+        dst[dp++] = (byte) offset;
+        dst[dp++] = (byte) (offset >>> 8);
+        return writeLength(matchRun, dst, dp);
+    }
+
+    /**
+     * Writes part of length which does not fit into four bits of token.
+     */
+    private static int writeLength(int length, byte[] dst, int dstPosition) {
+        int dp = dstPosition;
+        if (length < RUN_MASK) {
+            return dp;
+        }
+
+        int remaining = length - RUN_MASK;
+        while (remaining >= 0xFF) {
+            dst[dp++] = (byte) 0xFF;
+            remaining -= 0xFF;
+        }
+        dst[dp++] = (byte) remaining;
+        return dp;
+    }
+
+    private static int readInt(byte[] array, int position) {
+        return array[position] & 0xFF
+                | (array[position + 1] & 0xFF) << 8
+                | (array[position + 2] & 0xFF) << 16
+                | (array[position + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Decompresses bytes written by {@link #compress(byte[], int, int, byte[], int)}.
+     *
+     * @param src    array with compressed bytes
+     * @param srcOff offset of compressed bytes
+     * @param srcLen number of compressed bytes
+     * @param dst    array to decompress into
+     * @param dstOff offset to decompress from
+     * @param dstLen length of decompressed bytes
+     * @throws IOException if compressed bytes are malformed or don't decompress into exactly given length
+     */
+    static void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen)
+            throws IOException {
+        int sp = srcOff;
+        int srcEnd = srcOff + srcLen;
+        int dp = dstOff;
+        int dstEnd = dstOff + dstLen;
+
+        while (true) {
+            if (sp >= srcEnd) {
+                throw new IOException("Compressed block ends without literals.");
+            }
+            int token = src[sp++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int extension;
+                do {
+                    if (sp >= srcEnd) {
+                        throw new IOException("Compressed block ends in length of literals.");
+                    }
+                    extension = src[sp++] & 0xFF;
+                    literalLength += extension;
+                } while (extension == 0xFF);
+            }
+            if (literalLength < 0 || literalLength > srcEnd - sp || literalLength > dstEnd - dp) {
+                throw new IOException("Literals exceed compressed block.");
+            }
+            System.arraycopy(src, sp, dst, dp, literalLength);
+            sp += literalLength;
+            dp += literalLength;
+
+            if (sp == srcEnd) {
+                break;
+            }
+
+            if (srcEnd - sp < 2) {
+                throw new IOException("Compressed block ends in offset of match.");
+            }
+            int offset = src[sp] & 0xFF | (src[sp + 1] & 0xFF) << 8;
+            sp += 2;
+            if (offset == 0 || offset > dp - dstOff) {
+                throw new IOException("Offset of match is out of decompressed bytes: " + offset);
+            }
+
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int extension;
+                do {
+                    if (sp >= srcEnd) {
+                        throw new IOException("Compressed block ends in length of match.");
+                    }
+                    extension = src[sp++] & 0xFF;
+                    matchLength += extension;
+                } while (extension == 0xFF);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength < MIN_MATCH || matchLength > dstEnd - dp) {
+                throw new IOException("Match exceeds decompressed length.");
+            }
+
+            int ref = dp - offset;
+            for (int i = 0; i < matchLength; i++) {
+                dst[dp + i] = dst[ref + i];
+            }
+            dp += matchLength;
+        }
+
+        if (dp != dstEnd) {
+            throw new IOException("Decompressed " + (dp - dstOff) + " bytes instead of " + dstLen + '.');
+        }
+    }
+}
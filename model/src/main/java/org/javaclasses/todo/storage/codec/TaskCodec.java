@@ -0,0 +1,102 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.javaclasses.todo.storage.codec.Fields.readLegacyString;
+import static org.javaclasses.todo.storage.codec.Fields.readSignedVarLong;
+import static org.javaclasses.todo.storage.codec.Fields.readString;
+import static org.javaclasses.todo.storage.codec.Fields.writeSignedVarLong;
+import static org.javaclasses.todo.storage.codec.Fields.writeString;
+
+/**
+ * Codec of {@link Task} entity.
+ *
+ * <p>Date of the last update is written as milliseconds passed since creation,
+ * which usually takes a few bytes.
+ *
+ * @author Oleg Barmin
+ */
+public final class TaskCodec extends AbstractEntityCodec<TaskId, Task> {
+
+    private static final int VERSION = FIRST_VERSION;
+    private static final int COMPLETED = 1;
+
+    /**
+     * Creates {@code TaskCodec} instance which writes uncompressed tasks.
+     */
+    public TaskCodec() {
+        this(Compression.NONE);
+    }
+
+    /**
+     * Creates {@code TaskCodec} instance.
+     *
+     * @param compression compression of written tasks
+     */
+    public TaskCodec(Compression compression) {
+        super(VERSION, compression);
+    }
+
+    @Override
+    TaskId idOf(String value) {
+        return new TaskId(value);
+    }
+
+    @Override
+    TaskId idOf(UUID uuid) {
+        return new TaskId(uuid);
+    }
+
+    @Override
+    void writeFields(Task task, DataOutput out) throws IOException {
+        writeId(task.getId(), out);
+        Fields.writeId(task.getTodoListId(), out);
+        out.writeByte(task.isCompleted() ? COMPLETED : 0);
+        writeString(task.getDescription(), out);
+
+        long creationDate = task.getCreationDate()
+                                .getTime();
+        writeSignedVarLong(creationDate, out);
+        writeSignedVarLong(task.getLastUpdateDate()
+                               .getTime() - creationDate, out);
+    }
+
+    @Override
+    Task readFields(DataInput in, int fieldsVersion) throws IOException {
+        TaskId taskId = readId(in);
+        TodoListId todoListId = Fields.readId(in, TodoListId::new, TodoListId::new);
+        int flags = in.readUnsignedByte();
+        String description = readString(in);
+        long creationDate = readSignedVarLong(in);
+        long lastUpdateDate = creationDate + readSignedVarLong(in);
+
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setStatus((flags & COMPLETED) != 0)
+                .setCreationDate(new Date(creationDate))
+                .setLastUpdateDate(new Date(lastUpdateDate))
+                .build();
+    }
+
+    @Override
+    Task readLegacyFields(TaskId id, DataInput in) throws IOException {
+        return new Task.TaskBuilder()
+                .setTaskId(id)
+                .setTodoListId(new TodoListId(readLegacyString(in)))
+                .setDescription(readLegacyString(in))
+                .setStatus(in.readBoolean())
+                .setCreationDate(new Date(in.readLong()))
+                .setLastUpdateDate(new Date(in.readLong()))
+                .build();
+    }
+}
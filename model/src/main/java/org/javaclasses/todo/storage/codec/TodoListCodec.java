@@ -0,0 +1,71 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.javaclasses.todo.model.entity.TodoList;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.model.entity.UserId;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.javaclasses.todo.storage.codec.Fields.readLegacyString;
+
+/**
+ * Codec of {@link TodoList} entity.
+ *
+ * @author Oleg Barmin
+ */
+public final class TodoListCodec extends AbstractEntityCodec<TodoListId, TodoList> {
+
+    private static final int VERSION = FIRST_VERSION;
+
+    /**
+     * Creates {@code TodoListCodec} instance which writes uncompressed to-do lists.
+     */
+    public TodoListCodec() {
+        this(Compression.NONE);
+    }
+
+    /**
+     * Creates {@code TodoListCodec} instance.
+     *
+     * @param compression compression of written to-do lists
+     */
+    public TodoListCodec(Compression compression) {
+        super(VERSION, compression);
+    }
+
+    @Override
+    TodoListId idOf(String value) {
+        return new TodoListId(value);
+    }
+
+    @Override
+    TodoListId idOf(UUID uuid) {
+        return new TodoListId(uuid);
+    }
+
+    @Override
+    void writeFields(TodoList todoList, DataOutput out) throws IOException {
+        writeId(todoList.getId(), out);
+        Fields.writeId(todoList.getOwner(), out);
+    }
+
+    @Override
+    TodoList readFields(DataInput in, int fieldsVersion) throws IOException {
+        TodoListId todoListId = readId(in);
+        return new TodoList.TodoListBuilder()
+                .setTodoListId(todoListId)
+                .setOwner(Fields.readId(in, UserId::new, UserId::new))
+                .build();
+    }
+
+    @Override
+    TodoList readLegacyFields(TodoListId id, DataInput in) throws IOException {
+        return new TodoList.TodoListBuilder()
+                .setTodoListId(id)
+                .setOwner(new UserId(readLegacyString(in)))
+                .build();
+    }
+}
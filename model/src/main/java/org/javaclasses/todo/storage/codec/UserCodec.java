@@ -0,0 +1,102 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.javaclasses.todo.model.Password;
+import org.javaclasses.todo.model.entity.User;
+import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.model.entity.Username;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.javaclasses.todo.storage.codec.Fields.readLegacyNullableString;
+import static org.javaclasses.todo.storage.codec.Fields.readString;
+import static org.javaclasses.todo.storage.codec.Fields.writeString;
+
+/**
+ * Codec of {@link User} entity.
+ *
+ * <p>Presence of username and password is written as bits of a single byte.
+ *
+ * @author Oleg Barmin
+ */
+public final class UserCodec extends AbstractEntityCodec<UserId, User> {
+
+    private static final int VERSION = FIRST_VERSION;
+    private static final int HAS_USERNAME = 1;
+    private static final int HAS_PASSWORD = 1 << 1;
+
+    /**
+     * Creates {@code UserCodec} instance which writes uncompressed users.
+     */
+    public UserCodec() {
+        this(Compression.NONE);
+    }
+
+    /**
+     * Creates {@code UserCodec} instance.
+     *
+     * @param compression compression of written users
+     */
+    public UserCodec(Compression compression) {
+        super(VERSION, compression);
+    }
+
+    @Override
+    UserId idOf(String value) {
+        return new UserId(value);
+    }
+
+    @Override
+    UserId idOf(UUID uuid) {
+        return new UserId(uuid);
+    }
+
+    @Override
+    void writeFields(User user, DataOutput out) throws IOException {
+        Username username = user.getUsername();
+        Password password = user.getPassword();
+
+        writeId(user.getId(), out);
+        out.writeByte((username == null ? 0 : HAS_USERNAME) | (password == null ? 0 : HAS_PASSWORD));
+        if (username != null) {
+            writeString(username.getValue(), out);
+        }
+        if (password != null) {
+            writeString(password.getValue(), out);
+        }
+    }
+
+    @Override
+    User readFields(DataInput in, int fieldsVersion) throws IOException {
+        User user = new User(readId(in));
+        int flags = in.readUnsignedByte();
+
+        if ((flags & HAS_USERNAME) != 0) {
+            user.setUsername(new Username(readString(in)));
+        }
+        if ((flags & HAS_PASSWORD) != 0) {
+            user.setPassword(new Password(readString(in)));
+        }
+
+        return user;
+    }
+
+    @Override
+    User readLegacyFields(UserId id, DataInput in) throws IOException {
+        User user = new User(id);
+
+        String username = readLegacyNullableString(in);
+        if (username != null) {
+            user.setUsername(new Username(username));
+        }
+
+        String password = readLegacyNullableString(in);
+        if (password != null) {
+            user.setPassword(new Password(password));
+        }
+
+        return user;
+    }
+}
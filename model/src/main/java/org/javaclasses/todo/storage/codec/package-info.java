@@ -0,0 +1,16 @@
+/**
+ * Binary codecs which convert entities of TodoList application to bytes and back.
+ *
+ * <p>Used by storage engines which keep entities outside of Java heap.
+ *
+ * <p>Entities are written in compact form prefixed by version of their schema, so codecs read
+ * entities written by previous versions, and optionally compressed by LZ4.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.storage.codec;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
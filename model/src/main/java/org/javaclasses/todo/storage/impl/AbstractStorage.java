@@ -0,0 +1,446 @@
+package org.javaclasses.todo.storage.impl;
+
+import com.google.common.base.Preconditions;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.ContinuationToken;
+import org.javaclasses.todo.storage.Page;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.Storage;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.cdc.ChangeFeed;
+import org.javaclasses.todo.storage.metrics.StorageMetrics;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.javaclasses.todo.storage.metrics.StorageOperation.CLEAR;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.COMPUTE;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.FIND_BY_FIELD;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.FIND_BY_INDEX;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.FIND_PAGE_BY_INDEX;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.FOR_EACH;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.READ;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.READ_ALL;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.REMOVE;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.REMOVE_ALL;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.WRITE;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.WRITE_ALL;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.WRITE_IF_ABSENT;
+import static org.javaclasses.todo.storage.metrics.StorageOperation.WRITE_IF_VERSION;
+
+/**
+ * Storage of Entities by their ID.
+ *
+ * <p>Validates requests and delegates keeping of entities to the {@link StorageEngine}.
+ *
+ * <p>Sub-classes may declare {@link SecondaryIndex secondary indexes} to find entities by value of their fields.
+ * Declared indexes are updated on each write and remove.
+ * Entities found by index may be read page by page, so memory used to read them is bounded by the page size.
+ *
+ * <p>Latency of each operation is recorded into {@link StorageMetrics metrics} of the storage.
+ *
+ * <p>Each change of entity is published to {@link ChangeFeed change feed} of the storage.
+ *
+ * <p>Storage sets version of written entity while entity is locked by engine,
+ * so concurrent writes of entity always produce distinct versions.
+ *
+ * @param <I> ID of Entity
+ * @param <E> Entity to store
+ * @author Oleg Barmin
+ */
+/*
+ * Sub-classes of AbstractStorage must work only with entity of TodoList application,
+ * so AbstractStorage with generics should be abstract.
+ */
+@SuppressWarnings("AbstractClassWithoutAbstractMethods")
+abstract class AbstractStorage<I extends EntityId, E extends Entity<I>> implements Storage<I, E>, Closeable {
+
+    private final StorageEngine<I, E> engine;
+    private final StorageMetrics metrics;
+    private final ChangeFeed<I, E> changeFeed;
+
+    /**
+     * Creates {@code AbstractStorage} instance.
+     *
+     * @param name   name of the storage
+     * @param engine engine to keep entities in
+     */
+    AbstractStorage(String name, StorageEngine<I, E> engine) {
+        this.changeFeed = new ChangeFeed<>(name);
+        this.engine = changeFeed.observe(Preconditions.checkNotNull(engine));
+        this.metrics = new StorageMetrics(name, engine::count);
+    }
+
+    /**
+     * Provides counters and latencies of operations of the storage.
+     *
+     * @return metrics of the storage
+     */
+    public StorageMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Provides feed of changes of entities of the storage.
+     *
+     * @return change feed of the storage
+     */
+    public ChangeFeed<I, E> getChangeFeed() {
+        return changeFeed;
+    }
+
+    @Override
+    public void write(E entity) {
+        Preconditions.checkNotNull(entity);
+        Preconditions.checkNotNull(entity.getId(), "To write Entity it must have not null ID.");
+
+        metrics.measure(WRITE, () -> engine.compute(entity.getId(), current -> nextVersion(current, entity)));
+    }
+
+    @Override
+    public Optional<E> writeIfAbsent(E entity) {
+        Preconditions.checkNotNull(entity);
+        Preconditions.checkNotNull(entity.getId(), "To write Entity it must have not null ID.");
+
+        AtomicReference<E> existing = new AtomicReference<>();
+
+        metrics.measure(WRITE_IF_ABSENT, () -> engine.compute(entity.getId(), current -> {
+            if (current.isPresent()) {
+                existing.set(current.get());
+                return current;
+            }
+            return nextVersion(current, entity);
+        }));
+
+        return Optional.ofNullable(existing.get());
+    }
+
+    @Override
+    public boolean writeIfVersion(E entity, long expectedVersion) {
+        Preconditions.checkNotNull(entity);
+        Preconditions.checkNotNull(entity.getId(), "To write Entity it must have not null ID.");
+
+        AtomicBoolean written = new AtomicBoolean();
+
+        metrics.measure(WRITE_IF_VERSION, () -> engine.compute(entity.getId(), current -> {
+            if (!current.isPresent() || current.get()
+                                               .getVersion() != expectedVersion) {
+                return current;
+            }
+            written.set(true);
+            return nextVersion(current, entity);
+        }));
+
+        return written.get();
+    }
+
+    /**
+     * Sets version of entity which replaces current one.
+     *
+     * @param current Optional with current entity, empty if entity doesn't exist
+     * @param next    entity which replaces current one
+     * @return Optional with given entity
+     */
+    private static <E extends Entity<?>> Optional<E> nextVersion(Optional<E> current, E next) {
+        long currentVersion = current.map(Entity::getVersion)
+                                     .orElse(0L);
+        next.setVersion(currentVersion + 1);
+        return Optional.of(next);
+    }
+
+    @Override
+    public void writeAll(Collection<E> entities) {
+        Preconditions.checkNotNull(entities);
+
+        Map<I, E> entitiesById = new LinkedHashMap<>();
+        for (E entity : entities) {
+            Preconditions.checkNotNull(entity);
+            Preconditions.checkNotNull(entity.getId(), "To write Entity it must have not null ID.");
+
+            entitiesById.put(entity.getId(), entity);
+        }
+
+        metrics.measure(WRITE_ALL, () -> engine.computeAll(entitiesById.keySet(),
+                                                          (id, current) -> nextVersion(current,
+                                                                                       entitiesById.get(id))));
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        Preconditions.checkNotNull(id, "ID of Entity cannot be null");
+
+        return metrics.measure(READ, () -> engine.read(id));
+    }
+
+    @Override
+    public Map<I, E> readAll(Collection<I> ids) {
+        checkIds(ids);
+
+        return metrics.measure(READ_ALL, () -> engine.readAll(ids));
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        Preconditions.checkNotNull(id, "ID of Entity cannot be null");
+        Preconditions.checkNotNull(remapping);
+
+        return metrics.measure(COMPUTE, () -> engine.compute(id, current -> {
+            Optional<E> computed = remapping.apply(current);
+
+            Preconditions.checkState(computed.map(entity -> id.equals(entity.getId()))
+                                             .orElse(true),
+                                     "Computed entity must have ID: %s.", id);
+            if (computed == current || !computed.isPresent()) {
+                return computed;
+            }
+            return nextVersion(current, computed.get());
+        }));
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Preconditions.checkNotNull(action);
+
+        metrics.measure(FOR_EACH, () -> engine.forEach(action));
+    }
+
+    @Override
+    public Optional<E> remove(I id) {
+        Preconditions.checkNotNull(id, "Cannot remove entity with null ID.");
+
+        AtomicReference<E> removed = new AtomicReference<>();
+
+        metrics.measure(REMOVE, () -> engine.compute(id, current -> {
+            current.ifPresent(removed::set);
+            return Optional.empty();
+        }));
+
+        return Optional.ofNullable(removed.get());
+    }
+
+    @Override
+    public Map<I, E> removeAll(Collection<I> ids) {
+        checkIds(ids);
+
+        Map<I, E> removed = new LinkedHashMap<>();
+
+        metrics.measure(REMOVE_ALL, () -> engine.computeAll(ids, (id, current) -> {
+            current.ifPresent(entity -> removed.put(id, entity));
+            return Optional.empty();
+        }));
+
+        return removed;
+    }
+
+    private static void checkIds(Collection<?> ids) {
+        Preconditions.checkNotNull(ids);
+
+        for (Object id : ids) {
+            Preconditions.checkNotNull(id, "ID of Entity cannot be null");
+        }
+    }
+
+    @Override
+    public void clear() {
+        metrics.measure(CLEAR, engine::clear);
+    }
+
+    /**
+     * Releases resources held by engine of the storage.
+     */
+    @Override
+    public void close() {
+        engine.close();
+    }
+
+    /**
+     * Finds all entities which have given value of field indexed by given index.
+     *
+     * <p>Lookup costs proportionally to the number of found entities.
+     *
+     * @param index      declared index to search by
+     * @param fieldValue value of indexed field
+     * @param <K>        type of indexed field
+     * @return list of entities with field of desired value
+     * @throws IllegalArgumentException if given index was not declared by this storage
+     * @implNote mutable entities changed without being written again may be indexed by previous value,
+     * so value of indexed field of each found entity is verified.
+     */
+    <K> List<E> findByIndex(SecondaryIndex<K, E> index, K fieldValue) {
+        Preconditions.checkNotNull(index);
+        Preconditions.checkNotNull(fieldValue);
+
+        return metrics.measure(FIND_BY_INDEX, () -> engine.findBy(index, fieldValue));
+    }
+
+    /**
+     * Finds page of entities which have given value of field indexed by given index.
+     *
+     * <p>Entities are ordered by their IDs. To read the next page, continuation token of the page is passed.
+     *
+     * @param index      declared index to search by
+     * @param fieldValue value of indexed field
+     * @param token      token of the previous page, {@code null} to read the first page
+     * @param pageSize   maximum number of entities of page
+     * @param <K>        type of indexed field
+     * @return page of entities with field of desired value
+     * @throws IllegalArgumentException if given index was not declared by this storage or page size is not positive
+     */
+    <K> Page<E> findPageByIndex(SecondaryIndex<K, E> index, K fieldValue, @Nullable ContinuationToken token,
+                                int pageSize) {
+        Preconditions.checkNotNull(index);
+        Preconditions.checkNotNull(fieldValue);
+        Preconditions.checkArgument(pageSize > 0, "Page size must be positive, but was %s.", pageSize);
+
+        String after = token == null ? null : token.getLastKey();
+        List<E> found = metrics.measure(FIND_PAGE_BY_INDEX,
+                                        () -> engine.scan(index, fieldValue, after, pageSize + 1));
+
+        if (found.size() <= pageSize) {
+            return new Page<>(found, null);
+        }
+
+        List<E> items = found.subList(0, pageSize);
+        E last = items.get(pageSize - 1);
+        return new Page<>(items, ContinuationToken.after(StorageEngine.orderKeyOf(last.getId())));
+    }
+
+    /**
+     * Streams entities which have given value of field indexed by given index.
+     *
+     * <p>Stream reads pages of entities lazily as they are consumed, so it holds at most one page at a time.
+     * Each page is read at the moment it is needed, so stream reflects changes made while it is consumed.
+     *
+     * @param index      declared index to search by
+     * @param fieldValue value of indexed field
+     * @param pageSize   number of entities to read at once
+     * @param <K>        type of indexed field
+     * @return ordered stream of entities with field of desired value
+     * @throws IllegalArgumentException if given index was not declared by this storage or page size is not positive
+     */
+    <K> Stream<E> streamByIndex(SecondaryIndex<K, E> index, K fieldValue, int pageSize) {
+        Page<E> first = findPageByIndex(index, fieldValue, null, pageSize);
+        PageSpliterator<E> spliterator =
+                new PageSpliterator<>(first, token -> findPageByIndex(index, fieldValue, token, pageSize));
+
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Finds all entity which field with given name, has given value.
+     *
+     * <p>Scans all stored entities, so {@link #findByIndex(SecondaryIndex, Object)} should be preferred
+     * to find entities by frequently used fields.
+     *
+     * @param fieldName  name of {@code Entity} field
+     * @param fieldValue value of desired field
+     * @return list of entity with field of desired value
+     * @throws SearchByFieldException if field with given name doesn't exists in entity.
+     */
+    /* reflect API converted to SearchByFieldException, because in this case it marks about programming error. */
+    @SuppressWarnings("ThrowInsideCatchBlockWhichIgnoresCaughtException")
+    List<E> findByField(String fieldName, Object fieldValue) throws SearchByFieldException {
+        List<E> result = new ArrayList<>();
+        long[] scanned = {0};
+
+        try {
+            metrics.measure(FIND_BY_FIELD, () -> engine.forEach(entity -> {
+                scanned[0]++;
+                Class<? extends Entity> aClass = entity.getClass();
+
+                Field declaredField;
+
+                try {
+                    declaredField = aClass.getDeclaredField(fieldName);
+                } catch (NoSuchFieldException e) {
+                    throw new SearchByFieldException(fieldName);
+                }
+
+                try {
+
+                    declaredField.setAccessible(true);
+                    Object value = declaredField.get(entity);
+                    if (value.equals(fieldValue)) {
+                        result.add(entity);
+                    }
+
+                } catch (IllegalAccessException e) {
+                    throw new SearchByFieldException(fieldName);
+                } finally {
+                    declaredField.setAccessible(false);
+                }
+            }));
+        } finally {
+            metrics.recordScan(scanned[0]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Provides entities of pages, reading the next page when entities of the current one are consumed.
+     *
+     * @param <E> entity of pages
+     */
+    private static class PageSpliterator<E> extends Spliterators.AbstractSpliterator<E> {
+
+        private final PageReader<E> reader;
+        private Iterator<E> items;
+        private ContinuationToken token;
+
+        private PageSpliterator(Page<E> first, PageReader<E> reader) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+            this.reader = reader;
+            this.items = first.getItems()
+                              .iterator();
+            this.token = first.getContinuationToken()
+                              .orElse(null);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            while (!items.hasNext()) {
+                if (token == null) {
+                    return false;
+                }
+
+                Page<E> next = reader.read(token);
+                items = next.getItems()
+                            .iterator();
+                token = next.getContinuationToken()
+                            .orElse(null);
+            }
+
+            action.accept(items.next());
+            return true;
+        }
+    }
+
+    /**
+     * Reads page which follows given token.
+     *
+     * @param <E> entity of page
+     */
+    @FunctionalInterface
+    private interface PageReader<E> {
+
+        Page<E> read(ContinuationToken token);
+    }
+}
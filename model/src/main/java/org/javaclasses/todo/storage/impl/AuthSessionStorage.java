@@ -3,21 +3,42 @@ package org.javaclasses.todo.storage.impl;
 import com.google.common.annotations.VisibleForTesting;
 import org.javaclasses.todo.model.entity.AuthSession;
 import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.AuthSessionCodec;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.emptyList;
 
 /**
  * Storage of {@code AuthSession} entity by their {@code Token}.
  *
  * @author Oleg Barmin
  */
-public class AuthSessionStorage extends InMemoryStorage<Token, AuthSession> {
+public class AuthSessionStorage extends AbstractStorage<Token, AuthSession> {
+
+    private static final StorageSchema<Token, AuthSession> SCHEMA =
+            new StorageSchema<>("auth-sessions", new AuthSessionCodec(), emptyList());
 
+    /**
+     * Creates {@code AuthSessionStorage} instance which keeps entities in memory.
+     */
     public AuthSessionStorage() {
+        this(ConcurrentStorageEngine.factory());
+    }
+
+    /**
+     * Creates {@code AuthSessionStorage} instance with engine created by given factory.
+     *
+     * @param engineFactory factory of engine to keep entities in
+     */
+    public AuthSessionStorage(StorageEngineFactory engineFactory) {
+        super(SCHEMA.getName(), engineFactory.create(SCHEMA));
     }
 
     @VisibleForTesting
-    AuthSessionStorage(Map<Token, AuthSession> map) {
-        super(map);
+    AuthSessionStorage(ConcurrentMap<Token, AuthSession> map) {
+        super(SCHEMA.getName(), new ConcurrentStorageEngine<>(map, SCHEMA.getIndexes()));
     }
 }
@@ -0,0 +1,179 @@
+package org.javaclasses.todo.storage.impl;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Engine which keeps entities in memory in {@link ConcurrentHashMap}.
+ *
+ * <p>Reads never take locks. Writes lock only the bin of map which contains entity to write,
+ * so writes of entities with different IDs proceed in parallel.
+ *
+ * <p>Secondary indexes are updated while entity bin is locked,
+ * so index of entity always corresponds to its latest version.
+ * Each update installs new immutable version of indexed group of entities,
+ * so lookups by secondary index read consistent snapshot without locking.
+ * Scans page through the snapshot, which is kept sorted by ordering key of entity IDs.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public class ConcurrentStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    private final ConcurrentMap<I, E> entities;
+    private final VersionedIndexes<I, E> indexes;
+
+    /**
+     * Provides factory of engines which keep entities in memory.
+     *
+     * @return factory of {@code ConcurrentStorageEngine}s
+     */
+    public static StorageEngineFactory factory() {
+        return new Factory();
+    }
+
+    /**
+     * Creates {@code ConcurrentStorageEngine} instance.
+     *
+     * @param indexes secondary indexes to maintain
+     */
+    public ConcurrentStorageEngine(Collection<SecondaryIndex<?, E>> indexes) {
+        this(new ConcurrentHashMap<>(), indexes);
+    }
+
+    @VisibleForTesting
+    /* For test needs given map should be same object. */
+    @SuppressWarnings("AssignmentOrReturnOfFieldWithMutableType")
+    ConcurrentStorageEngine(ConcurrentMap<I, E> map, Collection<SecondaryIndex<?, E>> indexes) {
+        this.entities = checkNotNull(map);
+        this.indexes = new VersionedIndexes<>(indexes);
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        return Optional.ofNullable(entities.get(id));
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        E computed = entities.compute(id, (key, current) -> {
+            Optional<E> currentValue = Optional.ofNullable(current);
+            Optional<E> nextValue = remapping.apply(currentValue);
+
+            if (nextValue == currentValue) {
+                return current;
+            }
+
+            E next = nextValue.orElse(null);
+            indexes.update(current, next);
+
+            return next;
+        });
+
+        return Optional.ofNullable(computed);
+    }
+
+    /**
+     * Computes each entity of batch in its map bin, then installs one new version
+     * of each affected index group instead of a version per entity.
+     */
+    @Override
+    public void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        List<E> changed = new ArrayList<>();
+
+        for (I id : ids) {
+            entities.compute(id, (key, current) -> {
+                Optional<E> currentValue = Optional.ofNullable(current);
+                Optional<E> nextValue = remapping.apply(key, currentValue);
+
+                if (nextValue == currentValue) {
+                    return current;
+                }
+
+                E next = nextValue.orElse(null);
+                if (current != null) {
+                    changed.add(current);
+                }
+                if (next != null) {
+                    changed.add(next);
+                }
+
+                return next;
+            });
+        }
+
+        indexes.updateAll(changed, entities::get);
+    }
+
+    /**
+     * Provides consistent point-in-time snapshot of entities with given value of indexed field.
+     *
+     * <p>Lookup takes no locks and costs the same regardless of concurrent changes of found entities.
+     *
+     * @return immutable list of found entities
+     */
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        return indexes.snapshotOf(index, key);
+    }
+
+    /**
+     * Provides page of consistent point-in-time snapshot of entities with given value of indexed field.
+     *
+     * <p>Page is read from snapshot, so it costs proportionally to the page size
+     * and logarithmically to the number of entities in the group.
+     *
+     * @return immutable list of found entities
+     */
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        return indexes.pageOf(index, key, after, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        entities.values()
+                .forEach(action);
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public void clear() {
+        entities.clear();
+        indexes.clear();
+    }
+
+    /**
+     * Creates {@code ConcurrentStorageEngine}s for storages.
+     */
+    private static class Factory implements StorageEngineFactory {
+
+        @Override
+        public <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema) {
+            return new ConcurrentStorageEngine<>(schema.getIndexes());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.javaclasses.todo.storage.impl;
+
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.StorageEngine;
+
+import java.util.Comparator;
+
+/**
+ * Order of IDs by their {@link StorageEngine#orderKeyOf(EntityId) ordering keys}.
+ *
+ * <p>Sorted maps of indexes are keyed by IDs themselves, so they do not keep strings of IDs.
+ * Ordering key passed to resume page is compared to IDs of such map as a string
+ * read from bits of their UUIDs, so it may be used as a bound of its views without formatting keys of IDs.
+ *
+ * @author Oleg Barmin
+ */
+final class OrderKeys {
+
+    /**
+     * Compares {@link EntityId}s and ordering keys represented by {@code String}s.
+     */
+    static final Comparator<Object> ORDER = OrderKeys::compare;
+
+    private OrderKeys() {
+    }
+
+    private static int compare(Object first, Object second) {
+        if (first instanceof EntityId) {
+            return second instanceof EntityId
+                   ? StorageEngine.compareOrderKeys((EntityId<?>) first, (EntityId<?>) second)
+                   : StorageEngine.compareOrderKey((EntityId<?>) first, (String) second);
+        }
+        return second instanceof EntityId
+               ? -StorageEngine.compareOrderKey((EntityId<?>) second, (String) first)
+               : ((String) first).compareTo((String) second);
+    }
+}
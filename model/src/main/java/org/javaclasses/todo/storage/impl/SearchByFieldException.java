@@ -1,7 +1,7 @@
 package org.javaclasses.todo.storage.impl;
 
 /**
- * Occurs on programming error, when sub-classes of {@code InMemoryStorage}
+ * Occurs on programming error, when sub-classes of {@code AbstractStorage}
  * try to find field which does not exists in stored entity or access to this field was denied.
  *
  * @author Oleg Barmin
@@ -0,0 +1,176 @@
+package org.javaclasses.todo.storage.impl;
+
+import com.google.common.collect.ImmutableMap;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * In-memory secondary indexes of entities kept by an engine.
+ *
+ * <p>Each index maps value of indexed field to IDs of entities which have it,
+ * sorted by {@link StorageEngine#orderKeyOf(EntityId) ordering key}, so IDs may be read page by page.
+ * Maps of IDs are keyed by IDs themselves rather than by strings of their ordering keys.
+ * Engine should {@link #update(Entity, Entity) update} indexes while entity is locked,
+ * so index of entity always corresponds to its latest version.
+ *
+ * <p>Indexes are thread-safe.
+ *
+ * @param <I> ID of the entity
+ * @param <E> indexed entity
+ * @author Oleg Barmin
+ */
+public final class SecondaryIndexes<I extends EntityId, E extends Entity<I>> {
+
+    private final Map<SecondaryIndex<?, E>, ConcurrentMap<Object, ConcurrentNavigableMap<Object, I>>> indexes;
+
+    /**
+     * Creates {@code SecondaryIndexes} instance.
+     *
+     * @param indexes declarations of indexes to maintain
+     */
+    public SecondaryIndexes(Collection<SecondaryIndex<?, E>> indexes) {
+        ImmutableMap.Builder<SecondaryIndex<?, E>, ConcurrentMap<Object, ConcurrentNavigableMap<Object, I>>> builder =
+                ImmutableMap.builder();
+        for (SecondaryIndex<?, E> index : indexes) {
+            builder.put(index, new ConcurrentHashMap<>());
+        }
+        this.indexes = builder.build();
+    }
+
+    /**
+     * Replaces index entries of previous version of entity by entries of its next version.
+     *
+     * @param previous previous version of entity, {@code null} if entity is created
+     * @param next     next version of entity, {@code null} if entity is removed
+     */
+    public void update(@Nullable E previous, @Nullable E next) {
+        if (previous != null) {
+            unindex(previous);
+        }
+        if (next != null) {
+            index(next);
+        }
+    }
+
+    /**
+     * Provides IDs of entities which had given value of indexed field when they were last updated.
+     *
+     * <p>Mutable entities may be changed without update of index, so caller should verify
+     * value of indexed field of entities with returned IDs.
+     *
+     * @param index declared index to search by
+     * @param key   value of indexed field
+     * @return IDs of found entities
+     * @throws IllegalArgumentException if given index was not declared
+     */
+    public Collection<I> idsOf(SecondaryIndex<?, E> index, Object key) {
+        NavigableMap<Object, I> ids = entriesOf(index).get(key);
+        return ids == null ? Collections.emptyList() : Collections.unmodifiableCollection(ids.values());
+    }
+
+    /**
+     * Provides page of IDs of entities which had given value of indexed field when they were last updated.
+     *
+     * <p>Mutable entities may be changed without update of index, so caller should verify
+     * value of indexed field of entities with returned IDs.
+     *
+     * @param index declared index to search by
+     * @param key   value of indexed field
+     * @param after ordering key of the last ID of previous page, {@code null} to provide the first page
+     * @param limit maximum number of IDs to provide
+     * @return IDs of found entities in order of their ordering keys
+     * @throws IllegalArgumentException if given index was not declared
+     */
+    public List<I> idsAfter(SecondaryIndex<?, E> index, Object key, @Nullable String after, int limit) {
+        NavigableMap<Object, I> ids = entriesOf(index).get(key);
+
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+
+        NavigableMap<Object, I> tail = after == null ? ids : ids.tailMap(after, false);
+        List<I> result = new ArrayList<>(Math.min(limit, 16));
+        Iterator<I> iterator = tail.values()
+                                   .iterator();
+
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether any index is declared.
+     *
+     * @return {@code true} if no index is declared
+     */
+    public boolean isEmpty() {
+        return indexes.isEmpty();
+    }
+
+    /**
+     * Removes all index entries.
+     */
+    public void clear() {
+        indexes.values()
+               .forEach(Map::clear);
+    }
+
+    private Map<Object, ConcurrentNavigableMap<Object, I>> entriesOf(SecondaryIndex<?, E> index) {
+        Map<Object, ConcurrentNavigableMap<Object, I>> entries = indexes.get(index);
+        checkArgument(entries != null, "Index %s is not declared in storage.", index);
+
+        return entries;
+    }
+
+    private void index(E entity) {
+        indexes.forEach((index, entries) -> {
+            Object key = index.keyOf(entity);
+
+            if (key == null) {
+                return;
+            }
+
+            entries.compute(key, (k, ids) -> {
+                ConcurrentNavigableMap<Object, I> result = ids == null
+                                                          ? new ConcurrentSkipListMap<>(OrderKeys.ORDER)
+                                                          : ids;
+                result.put(entity.getId(), entity.getId());
+                return result;
+            });
+        });
+    }
+
+    private void unindex(E entity) {
+        indexes.forEach((index, entries) -> {
+            Object key = index.keyOf(entity);
+
+            if (key == null) {
+                return;
+            }
+
+            entries.computeIfPresent(key, (k, ids) -> {
+                ids.remove(entity.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        });
+    }
+}
@@ -4,23 +4,73 @@ import com.google.common.annotations.VisibleForTesting;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
 import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.ContinuationToken;
+import org.javaclasses.todo.storage.Page;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.Compression;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.javaclasses.todo.storage.mapped.MappedTaskStorageEngine;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
 
 /**
  * Storage of {@code Task} entity by their {@code TaskId}.
  *
  * @author Oleg Barmin
  */
-public class TaskStorage extends InMemoryStorage<TaskId, Task> {
+public class TaskStorage extends AbstractStorage<TaskId, Task> {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    /* Descriptions of tasks are free text, which may be long and compress well. */
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(Compression.LZ4), singletonList(TODO_LIST_INDEX),
+                                TODO_LIST_INDEX);
 
+    /**
+     * Creates {@code TaskStorage} instance which keeps entities in memory.
+     */
     public TaskStorage() {
+        this(ConcurrentStorageEngine.factory());
+    }
+
+    /**
+     * Creates {@code TaskStorage} instance with engine created by given factory.
+     *
+     * @param engineFactory factory of engine to keep entities in
+     */
+    public TaskStorage(StorageEngineFactory engineFactory) {
+        super(SCHEMA.getName(), engineFactory.create(SCHEMA));
+    }
+
+    private TaskStorage(MappedTaskStorageEngine engine) {
+        super(SCHEMA.getName(), engine);
+    }
+
+    /**
+     * Creates {@code TaskStorage} instance which keeps tasks outside of Java heap
+     * in memory-mapped files, so heap footprint of storage doesn't grow with the number of tasks.
+     *
+     * <p>Files are created in given directory and deleted when storage is closed.
+     *
+     * @param directory directory to create files of storage in
+     * @return new storage
+     */
+    public static TaskStorage offHeap(Path directory) {
+        return new TaskStorage(new MappedTaskStorageEngine(directory, TODO_LIST_INDEX));
     }
 
     @VisibleForTesting
-    TaskStorage(Map<TaskId, Task> map) {
-        super(map);
+    TaskStorage(ConcurrentMap<TaskId, Task> map) {
+        super(SCHEMA.getName(), new ConcurrentStorageEngine<>(map, SCHEMA.getIndexes()));
     }
 
     /**
@@ -30,6 +80,33 @@ public class TaskStorage extends InMemoryStorage<TaskId, Task> {
      * @return list of {@code Task}s of {@code TodoList}
      */
     public List<Task> getAllTaskOfTodoList(TodoListId todoListId) {
-        return findByField("todoListId", todoListId);
+        return findByIndex(TODO_LIST_INDEX, todoListId);
+    }
+
+    /**
+     * Provides page of tasks of {@code TodoList} with given ID.
+     *
+     * <p>Tasks are ordered by their IDs.
+     *
+     * @param todoListId ID of {@code TodoList} which {@code Task}s required
+     * @param token      token of the previous page, {@code null} to read the first page
+     * @param pageSize   maximum number of tasks of page
+     * @return page of {@code Task}s of {@code TodoList}
+     * @throws IllegalArgumentException if page size is not positive
+     */
+    public Page<Task> getTasksOfTodoList(TodoListId todoListId, @Nullable ContinuationToken token, int pageSize) {
+        return findPageByIndex(TODO_LIST_INDEX, todoListId, token, pageSize);
+    }
+
+    /**
+     * Streams tasks of {@code TodoList} with given ID, reading them page by page.
+     *
+     * @param todoListId ID of {@code TodoList} which {@code Task}s required
+     * @param pageSize   number of tasks to read at once
+     * @return stream of {@code Task}s of {@code TodoList} ordered by their IDs
+     * @throws IllegalArgumentException if page size is not positive
+     */
+    public Stream<Task> streamTasksOfTodoList(TodoListId todoListId, int pageSize) {
+        return streamByIndex(TODO_LIST_INDEX, todoListId, pageSize);
     }
 }
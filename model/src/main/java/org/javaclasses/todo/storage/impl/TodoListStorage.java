@@ -4,23 +4,47 @@ import com.google.common.annotations.VisibleForTesting;
 import org.javaclasses.todo.model.entity.TodoList;
 import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TodoListCodec;
 
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.singletonList;
 
 /**
  * Storage of {@code TodoList} entity by {@code TodoListId}.
  *
  * @author Oleg Barmin
  */
-public class TodoListStorage extends InMemoryStorage<TodoListId, TodoList> {
+public class TodoListStorage extends AbstractStorage<TodoListId, TodoList> {
+
+    private static final SecondaryIndex<UserId, TodoList> OWNER_INDEX =
+            SecondaryIndex.on("owner", TodoList::getOwner);
+    private static final StorageSchema<TodoListId, TodoList> SCHEMA =
+            new StorageSchema<>("todo-lists", new TodoListCodec(), singletonList(OWNER_INDEX), OWNER_INDEX);
 
+    /**
+     * Creates {@code TodoListStorage} instance which keeps entities in memory.
+     */
     public TodoListStorage() {
+        this(ConcurrentStorageEngine.factory());
+    }
+
+    /**
+     * Creates {@code TodoListStorage} instance with engine created by given factory.
+     *
+     * @param engineFactory factory of engine to keep entities in
+     */
+    public TodoListStorage(StorageEngineFactory engineFactory) {
+        super(SCHEMA.getName(), engineFactory.create(SCHEMA));
     }
 
     @VisibleForTesting
-    TodoListStorage(Map<TodoListId, TodoList> map) {
-        super(map);
+    TodoListStorage(ConcurrentMap<TodoListId, TodoList> map) {
+        super(SCHEMA.getName(), new ConcurrentStorageEngine<>(map, SCHEMA.getIndexes()));
     }
 
     /**
@@ -32,6 +56,6 @@ public class TodoListStorage extends InMemoryStorage<TodoListId, TodoList> {
      * @return list of {@link TodoList}s of user with given ID
      */
     public List<TodoList> readTodoListsOf(UserId userId) {
-        return findByField("owner", userId);
+        return findByIndex(OWNER_INDEX, userId);
     }
 }
@@ -4,24 +4,48 @@ import com.google.common.annotations.VisibleForTesting;
 import org.javaclasses.todo.model.entity.User;
 import org.javaclasses.todo.model.entity.UserId;
 import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.UserCodec;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.singletonList;
 
 /**
  * Storage of {@code User} entity by their {@code UserId}.
  *
  * @author Oleg Barmin
  */
-public class UserStorage extends InMemoryStorage<UserId, User> {
+public class UserStorage extends AbstractStorage<UserId, User> {
+
+    private static final SecondaryIndex<Username, User> USERNAME_INDEX =
+            SecondaryIndex.on("username", User::getUsername);
+    private static final StorageSchema<UserId, User> SCHEMA =
+            new StorageSchema<>("users", new UserCodec(), singletonList(USERNAME_INDEX));
 
+    /**
+     * Creates {@code UserStorage} instance which keeps entities in memory.
+     */
     public UserStorage() {
+        this(ConcurrentStorageEngine.factory());
+    }
+
+    /**
+     * Creates {@code UserStorage} instance with engine created by given factory.
+     *
+     * @param engineFactory factory of engine to keep entities in
+     */
+    public UserStorage(StorageEngineFactory engineFactory) {
+        super(SCHEMA.getName(), engineFactory.create(SCHEMA));
     }
 
     @VisibleForTesting
-    UserStorage(Map<UserId, User> map) {
-        super(map);
+    UserStorage(ConcurrentMap<UserId, User> map) {
+        super(SCHEMA.getName(), new ConcurrentStorageEngine<>(map, SCHEMA.getIndexes()));
     }
 
     /**
@@ -31,7 +55,7 @@ public class UserStorage extends InMemoryStorage<UserId, User> {
      * If optional is empty means that user with given {@code Username} doesn't exists in storage.
      */
     public Optional<User> findBy(Username username) {
-        List<User> users = findByField("username", username);
+        List<User> users = findByIndex(USERNAME_INDEX, username);
 
         if (users.isEmpty()) {
             return Optional.empty();
@@ -0,0 +1,222 @@
+package org.javaclasses.todo.storage.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.javaclasses.todo.model.entity.Entity;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable version of group of entities sorted by {@link OrderKeys#ORDER order} of their IDs.
+ *
+ * <p>Group is kept by persistent treap: change of group copies only the path from root to changed entity
+ * and shares all other nodes with previous version, so it costs logarithmically to the size of group
+ * and leaves previous version unchanged for its readers.
+ *
+ * <p>List of all entities of version is built on the first read and is kept by the version,
+ * so repeated reads of unchanged group do not traverse it.
+ *
+ * @param <E> type of entities of group
+ * @author Oleg Barmin
+ */
+final class VersionedGroup<E extends Entity<?>> {
+
+    private final Node<E> root;
+
+    /* Built lazily, racing readers build equal lists. */
+    @Nullable
+    private volatile ImmutableList<E> members;
+
+    private VersionedGroup(Node<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * Creates group of given entity.
+     *
+     * @param entity the only entity of group
+     * @param <E>    type of entity
+     * @return new version of group
+     */
+    static <E extends Entity<?>> VersionedGroup<E> of(E entity) {
+        return new VersionedGroup<>(new Node<>(entity, randomPriority(), null, null));
+    }
+
+    private static int randomPriority() {
+        return ThreadLocalRandom.current()
+                                .nextInt();
+    }
+
+    private static int compare(Object first, Object second) {
+        return OrderKeys.ORDER.compare(first, second);
+    }
+
+    private static int sizeOf(@Nullable Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <E extends Entity<?>> Node<E> insert(@Nullable Node<E> node, E entity) {
+        if (node == null) {
+            return new Node<>(entity, randomPriority(), null, null);
+        }
+
+        int comparison = compare(entity.getId(), node.entity.getId());
+        if (comparison == 0) {
+            return new Node<>(entity, node.priority, node.left, node.right);
+        }
+
+        if (comparison < 0) {
+            Node<E> left = insert(node.left, entity);
+            if (left.priority > node.priority) {
+                return new Node<>(left.entity, left.priority, left.left,
+                                  new Node<>(node.entity, node.priority, left.right, node.right));
+            }
+            return new Node<>(node.entity, node.priority, left, node.right);
+        }
+
+        Node<E> right = insert(node.right, entity);
+        if (right.priority > node.priority) {
+            return new Node<>(right.entity, right.priority,
+                              new Node<>(node.entity, node.priority, node.left, right.left), right.right);
+        }
+        return new Node<>(node.entity, node.priority, node.left, right);
+    }
+
+    /* Returns given node itself if it has no entity with given ID. */
+    @Nullable
+    private static <E extends Entity<?>> Node<E> delete(@Nullable Node<E> node, Object id) {
+        if (node == null) {
+            return null;
+        }
+
+        int comparison = compare(id, node.entity.getId());
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+
+        if (comparison < 0) {
+            Node<E> left = delete(node.left, id);
+            return left == node.left ? node : new Node<>(node.entity, node.priority, left, node.right);
+        }
+
+        Node<E> right = delete(node.right, id);
+        return right == node.right ? node : new Node<>(node.entity, node.priority, node.left, right);
+    }
+
+    /* All entities of the first node precede entities of the second one. */
+    @Nullable
+    private static <E extends Entity<?>> Node<E> merge(@Nullable Node<E> first, @Nullable Node<E> second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            return new Node<>(first.entity, first.priority, first.left, merge(first.right, second));
+        }
+        return new Node<>(second.entity, second.priority, merge(first, second.left), second.right);
+    }
+
+    /**
+     * Creates version of group which contains given entity instead of entity with the same ID.
+     *
+     * @param entity entity to add or replace
+     * @return new version of group
+     */
+    VersionedGroup<E> with(E entity) {
+        return new VersionedGroup<>(insert(root, entity));
+    }
+
+    /**
+     * Creates version of group without entity with given ID.
+     *
+     * @param id ID of entity to remove
+     * @return new version of group, this version if group has no such entity,
+     * {@code null} if removed entity was the only one
+     */
+    @Nullable
+    VersionedGroup<E> without(Object id) {
+        Node<E> next = delete(root, id);
+
+        if (next == root) {
+            return this;
+        }
+        return next == null ? null : new VersionedGroup<>(next);
+    }
+
+    /**
+     * Provides all entities of this version.
+     *
+     * @return immutable list of entities in order of their IDs
+     */
+    ImmutableList<E> members() {
+        ImmutableList<E> result = members;
+        if (result == null) {
+            result = pageAfter(null, root.size);
+            members = result;
+        }
+        return result;
+    }
+
+    /**
+     * Provides entities of this version which follow given ordering key.
+     *
+     * <p>Page costs logarithmically to the size of group and proportionally to the page size.
+     *
+     * @param after ordering key of the last entity of previous page, {@code null} to provide the first page
+     * @param limit maximum number of entities of page
+     * @return immutable list of entities in order of their IDs
+     */
+    ImmutableList<E> pageAfter(@Nullable String after, int limit) {
+        ImmutableList.Builder<E> page = ImmutableList.builderWithExpectedSize(Math.min(limit, root.size));
+        Deque<Node<E>> path = new ArrayDeque<>();
+
+        Node<E> node = root;
+        while (node != null) {
+            if (after == null || compare(node.entity.getId(), after) > 0) {
+                path.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        int count = 0;
+        while (count < limit && !path.isEmpty()) {
+            Node<E> next = path.pop();
+            page.add(next.entity);
+            count++;
+
+            for (Node<E> child = next.right; child != null; child = child.left) {
+                path.push(child);
+            }
+        }
+        return page.build();
+    }
+
+    /**
+     * Node of treap: binary search tree by IDs of entities and heap by random priorities,
+     * so its depth is logarithmic to its size with high probability.
+     */
+    private static final class Node<E extends Entity<?>> {
+
+        private final E entity;
+        private final int priority;
+        @Nullable
+        private final Node<E> left;
+        @Nullable
+        private final Node<E> right;
+        private final int size;
+
+        private Node(E entity, int priority, @Nullable Node<E> left, @Nullable Node<E> right) {
+            this.entity = entity;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + sizeOf(left) + sizeOf(right);
+        }
+    }
+}
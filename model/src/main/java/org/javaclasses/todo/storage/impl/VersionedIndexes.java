@@ -0,0 +1,171 @@
+package org.javaclasses.todo.storage.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Secondary indexes which keep immutable versions of groups of entities with same value of indexed field.
+ *
+ * <p>Each change of entity installs new version of groups it leaves and joins,
+ * while previous versions stay unchanged. Reader gets current version of group
+ * without taking any lock, so it sees consistent point-in-time state of the group
+ * regardless of concurrent writers. Previous version is reclaimed by garbage collector
+ * as soon as the last reader which holds it drops it.
+ *
+ * <p>Changes of same group are serialized. Each of them copies only the path to changed entity
+ * in the {@link VersionedGroup persistent tree} of the group and shares the rest with previous version,
+ * so change costs logarithmically to the size of group, even for large groups such as big to-do lists.
+ *
+ * <p>Entities of group are sorted by {@link StorageEngine#orderKeyOf(EntityId) ordering key} of their IDs,
+ * so a page of group costs logarithmically to the size of group and proportionally to the page size.
+ *
+ * @param <I> ID of the entity
+ * @param <E> indexed entity
+ * @author Oleg Barmin
+ */
+final class VersionedIndexes<I extends EntityId, E extends Entity<I>> {
+
+    private final Map<SecondaryIndex<?, E>, ConcurrentMap<Object, VersionedGroup<E>>> indexes;
+
+    /**
+     * Creates {@code VersionedIndexes} instance.
+     *
+     * @param indexes declarations of indexes to maintain
+     */
+    VersionedIndexes(Collection<SecondaryIndex<?, E>> indexes) {
+        ImmutableMap.Builder<SecondaryIndex<?, E>, ConcurrentMap<Object, VersionedGroup<E>>> builder =
+                ImmutableMap.builder();
+        for (SecondaryIndex<?, E> index : indexes) {
+            builder.put(index, new ConcurrentHashMap<>());
+        }
+        this.indexes = builder.build();
+    }
+
+    private static <E extends Entity<?>> VersionedGroup<E> with(@Nullable VersionedGroup<E> group, E entity) {
+        return group == null ? VersionedGroup.of(entity) : group.with(entity);
+    }
+
+    /**
+     * Installs new versions of groups which given entity leaves or joins.
+     *
+     * <p>Changes of same entity must not be performed concurrently.
+     *
+     * @param previous previous version of entity, {@code null} if entity is created
+     * @param next     next version of entity, {@code null} if entity is removed
+     */
+    void update(@Nullable E previous, @Nullable E next) {
+        indexes.forEach((index, groups) -> {
+            Object previousKey = previous == null ? null : index.keyOf(previous);
+            Object nextKey = next == null ? null : index.keyOf(next);
+
+            if (previousKey != null && !Objects.equals(previousKey, nextKey)) {
+                groups.computeIfPresent(previousKey, (key, group) -> group.without(previous.getId()));
+            }
+            if (nextKey != null) {
+                groups.compute(nextKey, (key, group) -> with(group, next));
+            }
+        });
+    }
+
+    /**
+     * Installs one new version of each group which entities of batch leave or join.
+     *
+     * <p>Entities are not locked while batch is indexed, so membership of each changed entity
+     * is taken from its current state rather than from given versions.
+     * Concurrent change of same entity either is indexed after it or is visible to it,
+     * so index always converges to the latest state of entity.
+     *
+     * @param changed previous and next versions of changed entities
+     * @param current function which provides current state of entity by its ID, {@code null} if entity is absent
+     */
+    void updateAll(Collection<E> changed, Function<I, E> current) {
+        indexes.forEach((index, groups) -> {
+            Map<Object, Set<I>> affected = new HashMap<>();
+
+            for (E entity : changed) {
+                Object key = index.keyOf(entity);
+
+                if (key != null) {
+                    affected.computeIfAbsent(key, k -> new HashSet<>())
+                            .add(entity.getId());
+                }
+            }
+
+            affected.forEach((key, ids) -> groups.compute(key, (k, group) -> {
+                VersionedGroup<E> next = group;
+
+                for (I id : ids) {
+                    E entity = current.apply(id);
+
+                    if (entity != null && key.equals(index.keyOf(entity))) {
+                        next = with(next, entity);
+                    } else if (next != null) {
+                        next = next.without(id);
+                    }
+                }
+                return next;
+            }));
+        });
+    }
+
+    /**
+     * Provides current version of group of entities which have given value of indexed field.
+     *
+     * @param index declared index to search by
+     * @param key   value of indexed field
+     * @return immutable list of entities of the group
+     * @throws IllegalArgumentException if given index was not declared
+     */
+    <K> ImmutableList<E> snapshotOf(SecondaryIndex<K, E> index, K key) {
+        VersionedGroup<E> group = groupOf(index, key);
+        return group == null ? ImmutableList.of() : group.members();
+    }
+
+    /**
+     * Provides page of current version of group of entities which have given value of indexed field.
+     *
+     * @param index declared index to search by
+     * @param key   value of indexed field
+     * @param after ordering key of the last entity of previous page, {@code null} to provide the first page
+     * @param limit maximum number of entities of page
+     * @return immutable list of entities of page
+     * @throws IllegalArgumentException if given index was not declared
+     */
+    <K> ImmutableList<E> pageOf(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        VersionedGroup<E> group = groupOf(index, key);
+        return group == null ? ImmutableList.of() : group.pageAfter(after, limit);
+    }
+
+    @Nullable
+    private VersionedGroup<E> groupOf(SecondaryIndex<?, E> index, Object key) {
+        Map<Object, VersionedGroup<E>> groups = indexes.get(index);
+        checkArgument(groups != null, "Index %s is not declared in storage.", index);
+
+        return groups.get(key);
+    }
+
+    /**
+     * Removes all groups.
+     */
+    void clear() {
+        indexes.values()
+               .forEach(Map::clear);
+    }
+}
@@ -1,5 +1,5 @@
 /**
- * Implementations of {@code Storage} based on {@code InMemoryStorage}.
+ * Implementations of {@code Storage} based on {@code AbstractStorage} and their engines.
  *
  * @author Oleg Barmin
  */
@@ -0,0 +1,220 @@
+package org.javaclasses.todo.storage.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Pool of connections to database with cache of prepared statements of each connection.
+ *
+ * <p>Connections are opened on demand up to size of the pool and stay open until pool is closed,
+ * so each statement is prepared once per connection and reused by all following operations.
+ *
+ * <p>Connection is returned to pool by {@link PooledConnection#close()}, so it is used
+ * in try-with-resources block. Connections are returned with auto-commit enabled.
+ *
+ * @author Oleg Barmin
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final long acquireTimeoutMillis;
+    private final Semaphore permits;
+    private final BlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates {@code ConnectionPool} instance, which opens no connection until it is acquired.
+     *
+     * @param url     JDBC URL of database
+     * @param options options of pool
+     */
+    ConnectionPool(String url, JdbcOptions options) {
+        this.url = checkNotNull(url);
+        this.acquireTimeoutMillis = options.getAcquireTimeoutMillis();
+        this.permits = new Semaphore(options.getPoolSize(), true);
+    }
+
+    /**
+     * Takes idle connection or opens new one if pool is not full.
+     *
+     * @return connection which is returned to pool on close
+     * @throws JdbcStorageException if connection cannot be opened or no connection is released in time
+     */
+    PooledConnection acquire() {
+        checkState(!closed, "Connection pool of %s is closed.", url);
+
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new JdbcStorageException("No connection to " + url + " was released in "
+                                                       + acquireTimeoutMillis + " ms.",
+                                               new SQLException("Connection pool is exhausted."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new JdbcStorageException("Interrupted while waiting for connection to " + url,
+                                           new SQLException(e));
+        }
+
+        PooledConnection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+
+        try {
+            return new PooledConnection(DriverManager.getConnection(url));
+        } catch (SQLException e) {
+            permits.release();
+            throw new JdbcStorageException("Failed to connect to " + url, e);
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        try {
+            if (closed || !connection.restoreAutoCommit()) {
+                connection.closeQuietly();
+            } else {
+                idle.add(connection);
+                if (closed) {
+                    close();
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes idle connections, connections in use are closed once they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.closeQuietly();
+        }
+    }
+
+    /**
+     * Connection taken from the pool.
+     *
+     * <p>Connection is used by one thread at a time, so its statements are cached without synchronization.
+     */
+    final class PooledConnection implements AutoCloseable {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Provides statement prepared by this connection for given SQL.
+         *
+         * <p>Statement must not be closed, it is closed together with connection.
+         *
+         * @param sql SQL of statement
+         * @return prepared statement
+         * @throws SQLException if statement cannot be prepared
+         */
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        /**
+         * Executes statement which is run once, e.g. definition of table, without caching it.
+         *
+         * @param sql SQL of statement
+         * @throws SQLException if statement fails
+         */
+        void execute(String sql) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+        }
+
+        /**
+         * Starts transaction, which lasts until {@link #commit()} or {@link #rollback()}.
+         *
+         * @throws SQLException if transaction cannot be started
+         */
+        void begin() throws SQLException {
+            connection.setAutoCommit(false);
+        }
+
+        void commit() throws SQLException {
+            connection.commit();
+        }
+
+        /**
+         * Rolls back transaction in progress, failure of rollback is only logged,
+         * since it happens after failure of the transaction itself.
+         */
+        void rollback() {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                logger.warn("Failed to roll back transaction of {}.", url, e);
+            }
+        }
+
+        /**
+         * Restores auto-commit mode, so the next user of connection does not inherit transaction.
+         *
+         * @return {@code true} if connection can be reused
+         */
+        private boolean restoreAutoCommit() {
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException e) {
+                logger.warn("Dropping broken connection to {}.", url, e);
+                return false;
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Failed to close connection to {}.", url, e);
+            }
+        }
+
+        /**
+         * Returns connection to the pool.
+         */
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
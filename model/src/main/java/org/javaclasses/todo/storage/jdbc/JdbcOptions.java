@@ -0,0 +1,83 @@
+package org.javaclasses.todo.storage.jdbc;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Options of {@link JdbcStorageEngine}.
+ *
+ * @author Oleg Barmin
+ */
+public final class JdbcOptions {
+
+    private final int poolSize;
+    private final long acquireTimeoutMillis;
+
+    private JdbcOptions(Builder builder) {
+        this.poolSize = builder.poolSize;
+        this.acquireTimeoutMillis = builder.acquireTimeoutMillis;
+    }
+
+    /**
+     * Creates builder of options.
+     *
+     * @return new builder with default options
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides options with pool of four connections, which are waited for at most five seconds.
+     *
+     * @return default options
+     */
+    public static JdbcOptions defaults() {
+        return newBuilder().build();
+    }
+
+    int getPoolSize() {
+        return poolSize;
+    }
+
+    long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    /**
+     * Allows to build {@code JdbcOptions} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private int poolSize = 4;
+        private long acquireTimeoutMillis = TimeUnit.SECONDS.toMillis(5);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets maximal number of connections opened by each engine.
+         */
+        public Builder setPoolSize(int poolSize) {
+            checkArgument(poolSize > 0, "Pool size must be positive, but was %s.", poolSize);
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Sets time to wait for a free connection when all connections of pool are in use.
+         */
+        public Builder setAcquireTimeout(long timeout, TimeUnit unit) {
+            checkArgument(timeout >= 0, "Acquire timeout must not be negative, but was %s.", timeout);
+            this.acquireTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public JdbcOptions build() {
+            return new JdbcOptions(this);
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package org.javaclasses.todo.storage.jdbc;
+
+import com.google.common.util.concurrent.Striped;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.EntityCodec;
+import org.javaclasses.todo.storage.jdbc.ConnectionPool.PooledConnection;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.joining;
+import static org.javaclasses.todo.storage.StorageEngine.orderKeyOf;
+
+/**
+ * Engine which keeps entities in a table of SQL database accessed by JDBC.
+ *
+ * <p>Table of storage has the ID of entity as primary key, a column with value of each secondary index
+ * and the entity written by codec of the schema. Each index column is covered by database index
+ * together with ID, so {@link #findBy(SecondaryIndex, Object)} and {@link #scan(SecondaryIndex, Object,
+ * String, int)} are served by the database index instead of reading whole table.
+ *
+ * <p>Changes of same entity are serialized by striped locks, so function of {@link #compute(EntityId,
+ * UnaryOperator)} observes the latest state of entity. Batch is applied in one transaction
+ * with one JDBC batch of upserts and one of deletes.
+ *
+ * <p>Each engine has its own {@link ConnectionPool}, which connections cache prepared statements.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public final class JdbcStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    private static final int LOCK_STRIPES = 256;
+
+    private static final String ID_COLUMN = "ID";
+    private static final String ENTITY_COLUMN = "ENTITY";
+
+    private final String table;
+    private final EntityCodec<I, E> codec;
+    private final List<SecondaryIndex<?, E>> indexes;
+    private final Map<SecondaryIndex<?, E>, String> columns = new HashMap<>();
+    private final ConnectionPool pool;
+    private final Striped<Lock> entityLocks = Striped.lock(LOCK_STRIPES);
+
+    private final String selectSql;
+    private final String upsertSql;
+    private final String deleteSql;
+
+    /**
+     * Creates engine which keeps entities in database with given URL with default options.
+     *
+     * @param url    JDBC URL of database
+     * @param schema schema of entities to keep
+     * @throws JdbcStorageException if table of entities cannot be created
+     */
+    public JdbcStorageEngine(String url, StorageSchema<I, E> schema) {
+        this(url, schema, JdbcOptions.defaults());
+    }
+
+    /**
+     * Creates engine which keeps entities in database with given URL,
+     * creating table of entities if database has none.
+     *
+     * @param url     JDBC URL of database
+     * @param schema  schema of entities to keep
+     * @param options options of connection pool
+     * @throws JdbcStorageException if table of entities cannot be created
+     */
+    public JdbcStorageEngine(String url, StorageSchema<I, E> schema, JdbcOptions options) {
+        this.table = identifierOf(schema.getName());
+        this.codec = schema.getCodec();
+        this.indexes = schema.getIndexes();
+        this.pool = new ConnectionPool(url, checkNotNull(options));
+
+        List<String> insertedColumns = new ArrayList<>();
+        insertedColumns.add(ID_COLUMN);
+        for (SecondaryIndex<?, E> index : indexes) {
+            String column = identifierOf(index.getName());
+            columns.put(index, column);
+            insertedColumns.add(column);
+        }
+        insertedColumns.add(ENTITY_COLUMN);
+
+        this.selectSql = "SELECT " + ENTITY_COLUMN + " FROM " + table + " WHERE " + ID_COLUMN + " = ?";
+        this.upsertSql = "MERGE INTO " + table + " (" + String.join(", ", insertedColumns) + ") KEY ("
+                + ID_COLUMN + ") VALUES (" + insertedColumns.stream()
+                                                            .map(column -> "?")
+                                                            .collect(joining(", ")) + ')';
+        this.deleteSql = "DELETE FROM " + table + " WHERE " + ID_COLUMN + " = ?";
+
+        createTable();
+    }
+
+    /**
+     * Provides factory of engines which keep each storage in a table of database with given URL.
+     *
+     * @param url     JDBC URL of database
+     * @param options options of connection pool of each engine
+     * @return factory of {@code JdbcStorageEngine}s
+     */
+    public static StorageEngineFactory factory(String url, JdbcOptions options) {
+        return new Factory(checkNotNull(url), checkNotNull(options));
+    }
+
+    /**
+     * Provides factory of engines which keep storages in embedded H2 database in given directory.
+     *
+     * @param directory directory to keep database files in
+     * @return factory of {@code JdbcStorageEngine}s
+     */
+    public static StorageEngineFactory factory(Path directory) {
+        /* Engines close their connections on shutdown themselves, so H2 must not close database earlier. */
+        String url = "jdbc:h2:file:" + directory.resolve("todo")
+                                                .toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE";
+        return factory(url, JdbcOptions.defaults());
+    }
+
+    /**
+     * Converts name of storage or index to SQL identifier, e.g. {@code todoListId} to {@code TODO_LIST_ID}.
+     */
+    private static String identifierOf(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2")
+                   .replaceAll("[^A-Za-z0-9]", "_")
+                   .toUpperCase(Locale.ROOT);
+    }
+
+    private void createTable() {
+        StringBuilder definition = new StringBuilder();
+        definition.append("CREATE TABLE IF NOT EXISTS ")
+                  .append(table)
+                  .append(" (" + ID_COLUMN + " VARCHAR PRIMARY KEY");
+        for (SecondaryIndex<?, E> index : indexes) {
+            definition.append(", ")
+                      .append(columns.get(index))
+                      .append(" VARCHAR");
+        }
+        definition.append(", " + ENTITY_COLUMN + " VARBINARY NOT NULL)");
+
+        try (PooledConnection connection = pool.acquire()) {
+            connection.execute(definition.toString());
+
+            for (SecondaryIndex<?, E> index : indexes) {
+                String column = columns.get(index);
+                connection.execute("CREATE INDEX IF NOT EXISTS " + table + '_' + column + " ON " + table
+                                           + " (" + column + ", " + ID_COLUMN + ')');
+            }
+        } catch (SQLException e) {
+            pool.close();
+            throw new JdbcStorageException("Failed to create table " + table, e);
+        }
+    }
+
+    /**
+     * Provides value of index column for given value of indexed field.
+     */
+    @Nullable
+    private static String columnValueOf(@Nullable Object key) {
+        if (key == null) {
+            return null;
+        }
+        if (key instanceof EntityId) {
+            return orderKeyOf((EntityId<?>) key);
+        }
+        if (key instanceof Username) {
+            return ((Username) key).getValue();
+        }
+        return String.valueOf(key);
+    }
+
+    private String columnOf(SecondaryIndex<?, E> index) {
+        String column = columns.get(index);
+        checkArgument(column != null, "Index %s is not declared in storage.", index);
+        return column;
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        try (PooledConnection connection = pool.acquire()) {
+            return select(connection, id);
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to read entity from " + table, e);
+        }
+    }
+
+    /**
+     * Reads whole batch by one connection.
+     */
+    @Override
+    public Map<I, E> readAll(Collection<I> ids) {
+        Map<I, E> result = new HashMap<>();
+
+        try (PooledConnection connection = pool.acquire()) {
+            for (I id : ids) {
+                select(connection, id).ifPresent(entity -> result.put(id, entity));
+            }
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to read entities from " + table, e);
+        }
+
+        return result;
+    }
+
+    private Optional<E> select(PooledConnection connection, I id) throws SQLException {
+        PreparedStatement statement = connection.prepare(selectSql);
+        statement.setString(1, orderKeyOf(id));
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? Optional.of(decode(resultSet.getBytes(1))) : Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        Lock entityLock = entityLocks.get(id);
+        entityLock.lock();
+        try (PooledConnection connection = pool.acquire()) {
+            Optional<E> current = select(connection, id);
+            Optional<E> next = remapping.apply(current);
+
+            if (next == current || !(next.isPresent() || current.isPresent())) {
+                return next;
+            }
+
+            if (next.isPresent()) {
+                bindUpsert(connection.prepare(upsertSql), next.get()).executeUpdate();
+            } else {
+                bindDelete(connection.prepare(deleteSql), id).executeUpdate();
+            }
+            return next;
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to write entity into " + table, e);
+        } finally {
+            entityLock.unlock();
+        }
+    }
+
+    /**
+     * Applies batch in one transaction, sending upserts and deletes to database as two JDBC batches.
+     */
+    @Override
+    public void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        Iterable<Lock> locks = entityLocks.bulkGet(ids);
+        locks.forEach(Lock::lock);
+        try (PooledConnection connection = pool.acquire()) {
+            connection.begin();
+            try {
+                Map<I, Optional<E>> changed = new LinkedHashMap<>();
+
+                for (I id : ids) {
+                    Optional<E> current = changed.containsKey(id) ? changed.get(id) : select(connection, id);
+                    Optional<E> next = remapping.apply(id, current);
+
+                    if (next != current && (next.isPresent() || current.isPresent())) {
+                        changed.put(id, next);
+                    }
+                }
+
+                writeBatch(connection, changed);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to write batch into " + table, e);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Writes the last state of each changed entity, so each entity gets single statement of batch.
+     */
+    private void writeBatch(PooledConnection connection, Map<I, Optional<E>> changed) throws SQLException {
+        PreparedStatement upsert = connection.prepare(upsertSql);
+        PreparedStatement delete = connection.prepare(deleteSql);
+        boolean upserted = false;
+        boolean deleted = false;
+
+        for (Map.Entry<I, Optional<E>> change : changed.entrySet()) {
+            Optional<E> entity = change.getValue();
+            if (entity.isPresent()) {
+                bindUpsert(upsert, entity.get()).addBatch();
+                upserted = true;
+            } else {
+                bindDelete(delete, change.getKey()).addBatch();
+                deleted = true;
+            }
+        }
+
+        if (upserted) {
+            upsert.executeBatch();
+        }
+        if (deleted) {
+            delete.executeBatch();
+        }
+    }
+
+    private PreparedStatement bindUpsert(PreparedStatement statement, E entity) throws SQLException {
+        int parameter = 1;
+        statement.setString(parameter++, orderKeyOf(entity.getId()));
+        for (SecondaryIndex<?, E> index : indexes) {
+            statement.setString(parameter++, columnValueOf(index.keyOf(entity)));
+        }
+        statement.setBytes(parameter, encode(entity));
+        return statement;
+    }
+
+    private PreparedStatement bindDelete(PreparedStatement statement, I id) throws SQLException {
+        statement.setString(1, orderKeyOf(id));
+        return statement;
+    }
+
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        String sql = "SELECT " + ENTITY_COLUMN + " FROM " + table + " WHERE " + columnOf(index) + " = ?";
+
+        try (PooledConnection connection = pool.acquire()) {
+            PreparedStatement statement = connection.prepare(sql);
+            statement.setString(1, columnValueOf(key));
+            return query(statement, index, key);
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to find entities in " + table + " by " + index, e);
+        }
+    }
+
+    /**
+     * Reads page ordered by ID column, which is ordered by ordering key of entity.
+     */
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        String column = columnOf(index);
+        String sql = "SELECT " + ENTITY_COLUMN + " FROM " + table + " WHERE " + column + " = ?"
+                + (after == null ? "" : " AND " + ID_COLUMN + " > ?")
+                + " ORDER BY " + ID_COLUMN + " LIMIT ?";
+
+        try (PooledConnection connection = pool.acquire()) {
+            PreparedStatement statement = connection.prepare(sql);
+            int parameter = 1;
+            statement.setString(parameter++, columnValueOf(key));
+            if (after != null) {
+                statement.setString(parameter++, after);
+            }
+            statement.setInt(parameter, limit);
+            return query(statement, index, key);
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to scan entities in " + table + " by " + index, e);
+        }
+    }
+
+    /**
+     * Reads entities found by statement which have exactly given value of indexed field,
+     * since different values may have same value of index column.
+     */
+    private <K> List<E> query(PreparedStatement statement, SecondaryIndex<K, E> index, K key) throws SQLException {
+        List<E> result = new ArrayList<>();
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                E entity = decode(resultSet.getBytes(1));
+                if (key.equals(index.keyOf(entity))) {
+                    result.add(entity);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        try (PooledConnection connection = pool.acquire()) {
+            PreparedStatement statement = connection.prepare("SELECT " + ENTITY_COLUMN + " FROM " + table);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    action.accept(decode(resultSet.getBytes(1)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to read entities from " + table, e);
+        }
+    }
+
+    @Override
+    public long count() {
+        try (PooledConnection connection = pool.acquire()) {
+            PreparedStatement statement = connection.prepare("SELECT COUNT(*) FROM " + table);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to count entities in " + table, e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        try (PooledConnection connection = pool.acquire()) {
+            connection.prepare("DELETE FROM " + table)
+                      .executeUpdate();
+        } catch (SQLException e) {
+            throw new JdbcStorageException("Failed to clear " + table, e);
+        }
+    }
+
+    /**
+     * Closes connections of the engine, database keeps all written entities.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private byte[] encode(E entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(entity, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode entity.", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private E decode(byte[] value) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode entity.", e);
+        }
+    }
+
+    private static class Factory implements StorageEngineFactory {
+
+        private final String url;
+        private final JdbcOptions options;
+
+        private Factory(String url, JdbcOptions options) {
+            this.url = url;
+            this.options = options;
+        }
+
+        @Override
+        public <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema) {
+            return new JdbcStorageEngine<>(url, schema, options);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.javaclasses.todo.storage.jdbc;
+
+import java.sql.SQLException;
+
+/**
+ * Occurs when database of {@link JdbcStorageEngine} fails to execute statement.
+ *
+ * @author Oleg Barmin
+ */
+@SuppressWarnings("WeakerAccess") // part of Public API should be public
+public class JdbcStorageException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates {@code JdbcStorageException} instance.
+     *
+     * @param message description of failed operation
+     * @param cause   failure reported by database
+     */
+    public JdbcStorageException(String message, SQLException cause) {
+        super(message, cause);
+    }
+}
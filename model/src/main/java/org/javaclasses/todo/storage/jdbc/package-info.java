@@ -0,0 +1,11 @@
+/**
+ * Storage engine which keeps entities in an embedded SQL database.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.storage.jdbc;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
@@ -0,0 +1,40 @@
+package org.javaclasses.todo.storage.lsm;
+
+import com.google.common.primitives.UnsignedBytes;
+
+import java.util.Comparator;
+
+/**
+ * Conventions of key-value entries kept by the tree.
+ *
+ * <p>Keys are encoded IDs of entities ordered lexicographically as unsigned bytes.
+ * Values are encoded entities, removed entity is marked by empty value called tombstone,
+ * which shadows older values of the key until compaction drops it.
+ *
+ * @author Oleg Barmin
+ */
+final class Entries {
+
+    /**
+     * Order of keys in memtables and SSTables.
+     */
+    static final Comparator<byte[]> KEY_ORDER = UnsignedBytes.lexicographicalComparator();
+
+    /**
+     * Value which marks removed entity.
+     */
+    static final byte[] TOMBSTONE = new byte[0];
+
+    private Entries() {
+    }
+
+    /**
+     * Checks whether given value marks removed entity.
+     *
+     * @param value value of entry
+     * @return {@code true} if value is a tombstone
+     */
+    static boolean isTombstone(byte[] value) {
+        return value.length == 0;
+    }
+}
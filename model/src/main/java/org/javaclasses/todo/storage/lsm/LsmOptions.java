@@ -0,0 +1,141 @@
+package org.javaclasses.todo.storage.lsm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Tuning options of {@link LsmStorageEngine}.
+ *
+ * @author Oleg Barmin
+ */
+final class LsmOptions {
+
+    private final long memtableSize;
+    private final int blockSize;
+    private final long targetFileSize;
+    private final int level0CompactionTrigger;
+    private final long levelBaseSize;
+    private final boolean fsync;
+
+    private LsmOptions(Builder builder) {
+        this.memtableSize = builder.memtableSize;
+        this.blockSize = builder.blockSize;
+        this.targetFileSize = builder.targetFileSize;
+        this.level0CompactionTrigger = builder.level0CompactionTrigger;
+        this.levelBaseSize = builder.levelBaseSize;
+        this.fsync = builder.fsync;
+    }
+
+    static Builder newBuilder() {
+        return new Builder();
+    }
+
+    static LsmOptions defaults() {
+        return newBuilder().build();
+    }
+
+    long getMemtableSize() {
+        return memtableSize;
+    }
+
+    int getBlockSize() {
+        return blockSize;
+    }
+
+    long getTargetFileSize() {
+        return targetFileSize;
+    }
+
+    int getLevel0CompactionTrigger() {
+        return level0CompactionTrigger;
+    }
+
+    /**
+     * Provides maximal size of tables of given level, each next level is ten times larger than previous.
+     *
+     * @param level level starting from one
+     * @return size limit of level in bytes
+     */
+    long maxLevelSize(int level) {
+        long size = levelBaseSize;
+        for (int i = 1; i < level; i++) {
+            size *= 10;
+        }
+        return size;
+    }
+
+    boolean isFsync() {
+        return fsync;
+    }
+
+    /**
+     * Allows to build {@code LsmOptions} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    static final class Builder {
+
+        private long memtableSize = 4 << 20;
+        private int blockSize = 4 << 10;
+        private long targetFileSize = 2 << 20;
+        private int level0CompactionTrigger = 4;
+        private long levelBaseSize = 10 << 20;
+        private boolean fsync = true;
+
+        /**
+         * Sets size of memtable after which it is flushed into SSTable.
+         */
+        Builder setMemtableSize(long memtableSize) {
+            checkArgument(memtableSize > 0);
+            this.memtableSize = memtableSize;
+            return this;
+        }
+
+        /**
+         * Sets size of SSTable data block, which is a unit of reading from disk.
+         */
+        Builder setBlockSize(int blockSize) {
+            checkArgument(blockSize > 0);
+            this.blockSize = blockSize;
+            return this;
+        }
+
+        /**
+         * Sets size of SSTable after which compaction starts writing next one.
+         */
+        Builder setTargetFileSize(long targetFileSize) {
+            checkArgument(targetFileSize > 0);
+            this.targetFileSize = targetFileSize;
+            return this;
+        }
+
+        /**
+         * Sets number of SSTables of level zero which triggers their compaction into level one.
+         */
+        Builder setLevel0CompactionTrigger(int level0CompactionTrigger) {
+            checkArgument(level0CompactionTrigger > 0);
+            this.level0CompactionTrigger = level0CompactionTrigger;
+            return this;
+        }
+
+        /**
+         * Sets size limit of level one.
+         */
+        Builder setLevelBaseSize(long levelBaseSize) {
+            checkArgument(levelBaseSize > 0);
+            this.levelBaseSize = levelBaseSize;
+            return this;
+        }
+
+        /**
+         * Sets whether changes should be forced to storage device before they are acknowledged.
+         */
+        Builder setFsync(boolean fsync) {
+            this.fsync = fsync;
+            return this;
+        }
+
+        LsmOptions build() {
+            return new LsmOptions(this);
+        }
+    }
+}
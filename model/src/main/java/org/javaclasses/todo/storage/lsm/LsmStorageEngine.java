@@ -0,0 +1,1023 @@
+package org.javaclasses.todo.storage.lsm;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.Striped;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.EntityCodec;
+import org.javaclasses.todo.storage.impl.SecondaryIndexes;
+import org.javaclasses.todo.storage.wal.WriteAheadLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.javaclasses.todo.storage.lsm.Entries.KEY_ORDER;
+import static org.javaclasses.todo.storage.lsm.Entries.TOMBSTONE;
+import static org.javaclasses.todo.storage.lsm.Entries.isTombstone;
+
+/**
+ * Engine which keeps entities in log-structured merge-tree on disk.
+ *
+ * <p>Changes are appended to the {@link WriteAheadLog} and put into sorted in-memory memtable.
+ * Full memtable is flushed in background into immutable SSTable file of level zero,
+ * so writes cost sequential disk I/O only. Tables of level zero are merged into level one
+ * when there are enough of them, and each next level is merged into the following one when it outgrows
+ * its size limit, which is ten times larger than limit of previous level.
+ *
+ * <p>Entity is read from the newest source which contains its ID: active memtable, memtables
+ * waiting for flush, tables of level zero from the newest, then one table of each next level.
+ * Tables which cannot contain ID are skipped by their bloom filters without reading from disk.
+ *
+ * <p>Changes of different entities are applied in parallel, changes of same entity are serialized
+ * by striped locks. Only IDs of entities are kept in memory by secondary indexes,
+ * which are rebuilt from the tree on opening.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public final class LsmStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LsmStorageEngine.class);
+
+    private static final String TABLE_SUFFIX = ".sst";
+    private static final int MAX_IMMUTABLE_MEMTABLES = 2;
+    private static final int LOCK_STRIPES = 256;
+
+    private static final byte PUT = 1;
+    private static final byte CLEAR = 2;
+    private static final byte BATCH = 3;
+
+    private final Path directory;
+    private final EntityCodec<I, E> codec;
+    private final LsmOptions options;
+    private final SecondaryIndexes<I, E> indexes;
+    private final WriteAheadLog log;
+    private final Striped<Lock> entityLocks = Striped.lock(LOCK_STRIPES);
+
+    /*
+     * Changes hold shared lock while they are applied, switch of memtable and clear hold exclusive lock,
+     * so each change is logged into segments of the memtable which received it.
+     */
+    private final ReadWriteLock switchLock = new ReentrantReadWriteLock();
+
+    /* Guards changes of version and manifest. */
+    private final Object versionLock = new Object();
+    private volatile Version version;
+    private long nextFileNumber;
+    private final byte[][] compactionPointers = new byte[Version.LEVEL_COUNT][];
+
+    private final ExecutorService background;
+    private volatile boolean closed;
+    private volatile Throwable backgroundFailure;
+
+    /**
+     * Opens tree kept in given directory, creating empty tree if directory has none.
+     *
+     * @param directory directory to keep tree in
+     * @param schema    schema of entities to keep
+     * @throws UncheckedIOException if tree cannot be opened
+     */
+    public LsmStorageEngine(Path directory, StorageSchema<I, E> schema) {
+        this(directory, schema, LsmOptions.defaults());
+    }
+
+    @VisibleForTesting
+    LsmStorageEngine(Path directory, StorageSchema<I, E> schema, LsmOptions options) {
+        this.directory = checkNotNull(directory);
+        this.codec = schema.getCodec();
+        this.options = checkNotNull(options);
+        this.indexes = new SecondaryIndexes<>(schema.getIndexes());
+
+        try {
+            Files.createDirectories(directory);
+
+            Manifest manifest = Manifest.read(directory);
+            List<List<SSTable>> levels = openTables(manifest);
+            this.nextFileNumber = manifest.getNextFileNumber();
+
+            this.log = new WriteAheadLog(directory.resolve("wal"), options.isFsync());
+            Memtable[] replayed = {new Memtable(0)};
+
+            log.replay(record -> {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                byte type = buffer.get();
+
+                if (type == CLEAR) {
+                    replayed[0] = new Memtable(0);
+                    levels.forEach(level -> {
+                        level.forEach(SSTable::retire);
+                        level.clear();
+                    });
+                    return;
+                }
+
+                int count = type == BATCH ? buffer.getInt() : 1;
+                for (int i = 0; i < count; i++) {
+                    byte[] key = new byte[buffer.getInt()];
+                    buffer.get(key);
+                    byte[] value = new byte[type == BATCH ? buffer.getInt() : buffer.remaining()];
+                    buffer.get(value);
+                    replayed[0].put(key, value);
+                }
+            });
+
+            this.version = new Version(replayed[0], Collections.emptyList(), levels);
+            synchronized (versionLock) {
+                writeManifest();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open tree in " + directory, e);
+        }
+
+        if (!indexes.isEmpty()) {
+            forEach(entity -> indexes.update(null, entity));
+        }
+
+        this.background = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lsm-" + schema.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.execute(this::compactWhileNeeded);
+    }
+
+    /**
+     * Provides factory of engines which keep each storage in subdirectory of given directory.
+     *
+     * @param directory directory to keep storages in
+     * @return factory of {@code LsmStorageEngine}s
+     */
+    public static StorageEngineFactory factory(Path directory) {
+        return new Factory(checkNotNull(directory));
+    }
+
+    private List<List<SSTable>> openTables(Manifest manifest) throws IOException {
+        List<List<SSTable>> levels = new ArrayList<>();
+        Set<String> live = new HashSet<>();
+
+        for (List<String> names : manifest.getLevels()) {
+            List<SSTable> level = new ArrayList<>();
+
+            for (String name : names) {
+                level.add(SSTable.open(directory.resolve(name)));
+                live.add(name);
+            }
+            levels.add(level);
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TABLE_SUFFIX)) {
+            for (Path file : files) {
+                if (!live.contains(file.getFileName()
+                                       .toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        return levels;
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        return decode(lookup(encodeId(id)));
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        checkOpen();
+
+        byte[] key = encodeId(id);
+        long lsn = 0;
+        Optional<E> next;
+
+        Lock entityLock = entityLocks.get(id);
+        Lock shared = switchLock.readLock();
+        entityLock.lock();
+        shared.lock();
+        try {
+            Optional<E> current = decode(lookup(key));
+            next = remapping.apply(current);
+
+            if (next == current || !(next.isPresent() || current.isPresent())) {
+                return next;
+            }
+
+            byte[] value = next.isPresent() ? encode(next.get()) : TOMBSTONE;
+            lsn = log.append(putRecord(key, value));
+            version.getActive()
+                   .put(key, value);
+
+            indexes.update(current.orElse(null), next.orElse(null));
+        } finally {
+            shared.unlock();
+            entityLock.unlock();
+        }
+
+        log.sync(lsn);
+        switchMemtableIfFull();
+
+        return next;
+    }
+
+    /**
+     * Applies batch while no other change is in progress and appends it to the log as one record,
+     * so whole batch is forced to storage device at once and is restored either entirely or not at all.
+     */
+    @Override
+    public void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        checkOpen();
+
+        List<byte[]> keys = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+        long lsn = 0;
+
+        Lock exclusive = switchLock.writeLock();
+        exclusive.lock();
+        try {
+            Memtable active = version.getActive();
+
+            for (I id : ids) {
+                byte[] key = encodeId(id);
+                Optional<E> current = decode(lookup(key));
+                Optional<E> next = remapping.apply(id, current);
+
+                if (next == current || !(next.isPresent() || current.isPresent())) {
+                    continue;
+                }
+
+                byte[] value = next.isPresent() ? encode(next.get()) : TOMBSTONE;
+                active.put(key, value);
+                keys.add(key);
+                values.add(value);
+
+                indexes.update(current.orElse(null), next.orElse(null));
+            }
+
+            if (!keys.isEmpty()) {
+                lsn = log.append(batchRecord(keys, values));
+            }
+        } finally {
+            exclusive.unlock();
+        }
+
+        log.sync(lsn);
+        switchMemtableIfFull();
+    }
+
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        List<E> result = new ArrayList<>();
+
+        for (I id : indexes.idsOf(index, key)) {
+            read(id).filter(entity -> key.equals(index.keyOf(entity)))
+                    .ifPresent(result::add);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads only entities of the page, which IDs are taken from in-memory index sorted by ordering key.
+     */
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        List<E> result = new ArrayList<>(Math.min(limit, 16));
+        String position = after;
+
+        while (result.size() < limit) {
+            List<I> ids = indexes.idsAfter(index, key, position, limit - result.size());
+
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            for (I id : ids) {
+                read(id).filter(entity -> key.equals(index.keyOf(entity)))
+                        .ifPresent(result::add);
+            }
+            position = StorageEngine.orderKeyOf(ids.get(ids.size() - 1));
+        }
+
+        return result;
+    }
+
+    /**
+     * Performs given action for each entity, merging all sources of the tree in order of encoded IDs.
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Version current;
+        List<SSTable> tables;
+
+        do {
+            current = version;
+            tables = retainAll(current.allTables());
+        } while (tables == null);
+
+        try {
+            List<Iterator<Map.Entry<byte[], byte[]>>> sources = new ArrayList<>();
+            sources.add(current.getActive()
+                               .iterator());
+            current.getImmutables()
+                   .forEach(memtable -> sources.add(memtable.iterator()));
+            current.getLevel(0)
+                   .forEach(table -> sources.add(table.iterator()));
+
+            for (int level = 1; level < Version.LEVEL_COUNT; level++) {
+                List<Iterator<Map.Entry<byte[], byte[]>>> levelSources = new ArrayList<>();
+                current.getLevel(level)
+                       .forEach(table -> levelSources.add(table.iterator()));
+                sources.add(Iterators.concat(levelSources.iterator()));
+            }
+
+            Iterator<Map.Entry<byte[], byte[]>> entries = new MergingIterator(sources);
+            while (entries.hasNext()) {
+                byte[] value = entries.next()
+                                      .getValue();
+
+                if (!isTombstone(value)) {
+                    action.accept(decodeEntity(value));
+                }
+            }
+        } finally {
+            tables.forEach(SSTable::release);
+        }
+    }
+
+    @Override
+    public void clear() {
+        checkOpen();
+
+        Version cleared;
+        long lsn;
+        long segment;
+
+        Lock exclusive = switchLock.writeLock();
+        exclusive.lock();
+        try {
+            synchronized (versionLock) {
+                cleared = version;
+                segment = log.rotate();
+                lsn = log.append(new byte[]{CLEAR});
+
+                version = new Version(new Memtable(segment), Collections.emptyList(), Collections.emptyList());
+                writeManifest();
+                indexes.clear();
+                versionLock.notifyAll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear tree in " + directory, e);
+        } finally {
+            exclusive.unlock();
+        }
+
+        log.sync(lsn);
+        deleteSegmentsBefore(segment);
+        cleared.allTables()
+               .forEach(SSTable::retire);
+    }
+
+    /**
+     * Waits for background flush or compaction in progress and closes files of the tree.
+     *
+     * <p>Memtables which were not flushed are restored from write-ahead log on next opening.
+     *
+     * @throws UncheckedIOException if log cannot be closed
+     */
+    @Override
+    public void close() {
+        closed = true;
+        background.shutdown();
+
+        try {
+            background.awaitTermination(1, TimeUnit.MINUTES);
+            log.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close log.", e);
+        } finally {
+            synchronized (versionLock) {
+                version.allTables()
+                       .forEach(SSTable::close);
+                versionLock.notifyAll();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    Version getVersion() {
+        return version;
+    }
+
+    /**
+     * Waits until memtables waiting for flush are flushed and compaction scheduled so far is finished.
+     */
+    @VisibleForTesting
+    void awaitBackgroundWork() throws InterruptedException, ExecutionException {
+        do {
+            background.submit(() -> {
+            })
+                      .get();
+        } while (!version.getImmutables()
+                         .isEmpty());
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Engine is closed.");
+        }
+        if (backgroundFailure != null) {
+            throw new IllegalStateException("Background flush or compaction failed.", backgroundFailure);
+        }
+    }
+
+    /**
+     * Finds the newest value of given key.
+     *
+     * @return value or {@code null} if key is absent or removed
+     */
+    @Nullable
+    private byte[] lookup(byte[] key) {
+        while (true) {
+            Version current = version;
+
+            byte[] value = current.getActive()
+                                  .get(key);
+            for (Iterator<Memtable> waiting = current.getImmutables()
+                                                     .iterator(); value == null && waiting.hasNext(); ) {
+                value = waiting.next()
+                               .get(key);
+            }
+
+            if (value == null) {
+                try {
+                    value = lookupTables(current, key);
+                } catch (StaleVersionException e) {
+                    continue;
+                }
+            }
+
+            return value == null || isTombstone(value) ? null : value;
+        }
+    }
+
+    @Nullable
+    private static byte[] lookupTables(Version version, byte[] key) throws StaleVersionException {
+        for (SSTable table : version.getLevel(0)) {
+            byte[] value = get(table, key);
+
+            if (value != null) {
+                return value;
+            }
+        }
+
+        for (int level = 1; level < Version.LEVEL_COUNT; level++) {
+            List<SSTable> tables = version.getLevel(level);
+            int low = 0;
+            int high = tables.size() - 1;
+
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                SSTable table = tables.get(middle);
+
+                if (KEY_ORDER.compare(table.getLastKey(), key) < 0) {
+                    low = middle + 1;
+                } else if (KEY_ORDER.compare(table.getFirstKey(), key) > 0) {
+                    high = middle - 1;
+                } else {
+                    byte[] value = get(table, key);
+
+                    if (value != null) {
+                        return value;
+                    }
+                    break;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private static byte[] get(SSTable table, byte[] key) throws StaleVersionException {
+        if (!table.mightContain(key)) {
+            return null;
+        }
+        if (!table.retain()) {
+            throw new StaleVersionException();
+        }
+
+        try {
+            return table.get(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read SSTable " + table.getFile(), e);
+        } finally {
+            table.release();
+        }
+    }
+
+    /**
+     * Retains all given tables.
+     *
+     * @return retained tables or {@code null} if some table was already retired and released
+     */
+    @Nullable
+    private static List<SSTable> retainAll(List<SSTable> tables) {
+        List<SSTable> retained = new ArrayList<>(tables.size());
+
+        for (SSTable table : tables) {
+            if (!table.retain()) {
+                retained.forEach(SSTable::release);
+                return null;
+            }
+            retained.add(table);
+        }
+
+        return retained;
+    }
+
+    private void switchMemtableIfFull() {
+        if (version.getActive()
+                   .sizeInBytes() < options.getMemtableSize()) {
+            return;
+        }
+
+        synchronized (versionLock) {
+            while (version.getImmutables()
+                          .size() >= MAX_IMMUTABLE_MEMTABLES && !closed && backgroundFailure == null) {
+                try {
+                    versionLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                    return;
+                }
+            }
+        }
+
+        Lock exclusive = switchLock.writeLock();
+        exclusive.lock();
+        try {
+            synchronized (versionLock) {
+                if (closed || version.getActive()
+                                     .sizeInBytes() < options.getMemtableSize()) {
+                    return;
+                }
+
+                version = version.withActive(new Memtable(log.rotate()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate log in " + directory, e);
+        } finally {
+            exclusive.unlock();
+        }
+
+        background.execute(this::flushOldest);
+    }
+
+    private void flushOldest() {
+        try {
+            Memtable memtable;
+            long fileNumber;
+
+            synchronized (versionLock) {
+                List<Memtable> waiting = version.getImmutables();
+                if (waiting.isEmpty()) {
+                    return;
+                }
+                memtable = waiting.get(waiting.size() - 1);
+                fileNumber = nextFileNumber++;
+            }
+
+            SSTable table = memtable.entryCount() == 0 ? null : writeTable(fileNumber, memtable);
+            long firstSegmentToKeep;
+
+            synchronized (versionLock) {
+                Version current = version;
+                List<Memtable> waiting = current.getImmutables();
+                int position = waiting.indexOf(memtable);
+
+                if (position < 0) {
+                    if (table != null) {
+                        table.retire();
+                    }
+                    return;
+                }
+
+                firstSegmentToKeep = position == 0
+                        ? current.getActive()
+                                 .getFirstSegment()
+                        : waiting.get(position - 1)
+                                 .getFirstSegment();
+
+                version = table == null
+                        ? new Version(current.getActive(), withoutMemtable(waiting, memtable), current.getLevels())
+                        : current.withFlushed(memtable, table);
+                writeManifest();
+                versionLock.notifyAll();
+            }
+
+            deleteSegmentsBefore(firstSegmentToKeep);
+            compactWhileNeeded();
+        } catch (IOException | RuntimeException e) {
+            failBackground(e);
+        }
+    }
+
+    private static List<Memtable> withoutMemtable(List<Memtable> memtables, Memtable memtable) {
+        List<Memtable> result = new ArrayList<>(memtables);
+        result.remove(memtable);
+        return result;
+    }
+
+    private SSTable writeTable(long fileNumber, Memtable memtable) throws IOException {
+        SSTableWriter writer = new SSTableWriter(tablePath(fileNumber), options.getBlockSize(),
+                                                 memtable.entryCount());
+        Iterator<Map.Entry<byte[], byte[]>> entries = memtable.iterator();
+
+        try {
+            while (entries.hasNext()) {
+                Map.Entry<byte[], byte[]> entry = entries.next();
+                writer.add(entry.getKey(), entry.getValue());
+            }
+            return writer.finish();
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+
+    private Path tablePath(long fileNumber) {
+        return directory.resolve(String.format("%06d%s", fileNumber, TABLE_SUFFIX));
+    }
+
+    private void compactWhileNeeded() {
+        try {
+            while (!closed) {
+                Compaction compaction;
+
+                synchronized (versionLock) {
+                    compaction = pickCompaction(version);
+                    if (compaction == null) {
+                        return;
+                    }
+                }
+
+                compact(compaction);
+            }
+        } catch (IOException | RuntimeException e) {
+            failBackground(e);
+        }
+    }
+
+    /**
+     * Picks tables to merge: all tables of level zero if there are enough of them,
+     * otherwise next table of the first level which exceeds its size limit.
+     * Overlapping tables of the next level are merged too.
+     */
+    @Nullable
+    private Compaction pickCompaction(Version current) {
+        List<SSTable> level0 = current.getLevel(0);
+
+        if (level0.size() >= options.getLevel0CompactionTrigger()) {
+            return compactionInto(current, 1, level0);
+        }
+
+        for (int level = 1; level < Version.LEVEL_COUNT - 1; level++) {
+            if (current.levelSize(level) <= options.maxLevelSize(level)) {
+                continue;
+            }
+
+            List<SSTable> tables = current.getLevel(level);
+            SSTable picked = tables.get(0);
+            byte[] pointer = compactionPointers[level];
+
+            if (pointer != null) {
+                for (SSTable table : tables) {
+                    if (KEY_ORDER.compare(table.getFirstKey(), pointer) > 0) {
+                        picked = table;
+                        break;
+                    }
+                }
+            }
+
+            compactionPointers[level] = picked.getLastKey();
+            return compactionInto(current, level + 1, Collections.singletonList(picked));
+        }
+
+        return null;
+    }
+
+    private static Compaction compactionInto(Version current, int outputLevel, List<SSTable> upper) {
+        byte[] first = upper.get(0)
+                            .getFirstKey();
+        byte[] last = upper.get(0)
+                           .getLastKey();
+
+        for (SSTable table : upper) {
+            first = KEY_ORDER.compare(table.getFirstKey(), first) < 0 ? table.getFirstKey() : first;
+            last = KEY_ORDER.compare(table.getLastKey(), last) > 0 ? table.getLastKey() : last;
+        }
+
+        List<SSTable> lower = new ArrayList<>();
+        for (SSTable table : current.getLevel(outputLevel)) {
+            if (table.overlaps(first, last)) {
+                lower.add(table);
+            }
+        }
+
+        boolean bottom = true;
+        for (int level = outputLevel + 1; level < Version.LEVEL_COUNT; level++) {
+            bottom &= current.getLevel(level)
+                             .isEmpty();
+        }
+
+        return new Compaction(upper, lower, outputLevel, bottom);
+    }
+
+    private void compact(Compaction compaction) throws IOException {
+        List<SSTable> inputs = compaction.inputs();
+
+        if (compaction.isTrivialMove()) {
+            synchronized (versionLock) {
+                SSTable table = inputs.get(0);
+                version = version.withCompacted(inputs, compaction.outputLevel, Collections.singletonList(table));
+                writeManifest();
+            }
+            return;
+        }
+
+        List<SSTable> retained = retainAll(inputs);
+        if (retained == null) {
+            return;
+        }
+
+        List<SSTable> outputs = new ArrayList<>();
+        try {
+            writeMerged(compaction, outputs);
+        } finally {
+            retained.forEach(SSTable::release);
+        }
+
+        synchronized (versionLock) {
+            if (!version.containsAll(inputs)) {
+                outputs.forEach(SSTable::retire);
+                return;
+            }
+
+            version = version.withCompacted(inputs, compaction.outputLevel, outputs);
+            writeManifest();
+        }
+
+        inputs.forEach(SSTable::retire);
+    }
+
+    private void writeMerged(Compaction compaction, List<SSTable> outputs) throws IOException {
+        List<Iterator<Map.Entry<byte[], byte[]>>> sources = new ArrayList<>();
+        compaction.upper.forEach(table -> sources.add(table.iterator()));
+        List<Iterator<Map.Entry<byte[], byte[]>>> lowerSources = new ArrayList<>();
+        compaction.lower.forEach(table -> lowerSources.add(table.iterator()));
+        sources.add(Iterators.concat(lowerSources.iterator()));
+
+        long expectedEntries = compaction.inputs()
+                                         .stream()
+                                         .mapToLong(SSTable::getEntryCount)
+                                         .sum();
+        Iterator<Map.Entry<byte[], byte[]>> entries = new MergingIterator(sources);
+        SSTableWriter writer = null;
+
+        try {
+            while (entries.hasNext()) {
+                Map.Entry<byte[], byte[]> entry = entries.next();
+
+                if (compaction.bottom && isTombstone(entry.getValue())) {
+                    continue;
+                }
+
+                if (writer == null) {
+                    writer = new SSTableWriter(tablePath(reserveFileNumber()), options.getBlockSize(),
+                                               Math.min(expectedEntries, options.getTargetFileSize()));
+                }
+                writer.add(entry.getKey(), entry.getValue());
+
+                if (writer.size() >= options.getTargetFileSize()) {
+                    outputs.add(writer.finish());
+                    writer = null;
+                }
+            }
+
+            if (writer != null) {
+                outputs.add(writer.finish());
+                writer = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            if (writer != null) {
+                writer.abort();
+            }
+            outputs.forEach(SSTable::retire);
+            outputs.clear();
+            throw e;
+        }
+    }
+
+    private long reserveFileNumber() {
+        synchronized (versionLock) {
+            return nextFileNumber++;
+        }
+    }
+
+    /* Must be called under versionLock. */
+    private void writeManifest() throws IOException {
+        List<List<String>> levels = new ArrayList<>();
+
+        for (List<SSTable> level : version.getLevels()) {
+            List<String> names = new ArrayList<>();
+            level.forEach(table -> names.add(table.getFile()
+                                                  .getFileName()
+                                                  .toString()));
+            levels.add(names);
+        }
+
+        new Manifest(nextFileNumber, levels).write(directory);
+    }
+
+    private void deleteSegmentsBefore(long segment) {
+        try {
+            log.deleteSegmentsBefore(segment);
+        } catch (IOException e) {
+            logger.warn("Failed to delete obsolete log segments in {}.", directory, e);
+        }
+    }
+
+    private void failBackground(Exception e) {
+        logger.error("Background work of tree in {} failed.", directory, e);
+
+        synchronized (versionLock) {
+            backgroundFailure = e;
+            versionLock.notifyAll();
+        }
+    }
+
+    private byte[] encodeId(I id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.writeId(id, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode ID.", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private byte[] encode(E entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(entity, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode entity.", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private Optional<E> decode(@Nullable byte[] value) {
+        return value == null ? Optional.empty() : Optional.of(decodeEntity(value));
+    }
+
+    private E decodeEntity(byte[] value) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode entity.", e);
+        }
+    }
+
+    private static byte[] putRecord(byte[] key, byte[] value) {
+        return ByteBuffer.allocate(1 + Integer.BYTES + key.length + value.length)
+                         .put(PUT)
+                         .putInt(key.length)
+                         .put(key)
+                         .put(value)
+                         .array();
+    }
+
+    private static byte[] batchRecord(List<byte[]> keys, List<byte[]> values) {
+        int size = 1 + Integer.BYTES;
+        for (int i = 0; i < keys.size(); i++) {
+            size += 2 * Integer.BYTES + keys.get(i).length + values.get(i).length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                                      .put(BATCH)
+                                      .putInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            buffer.putInt(keys.get(i).length)
+                  .put(keys.get(i))
+                  .putInt(values.get(i).length)
+                  .put(values.get(i));
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Signals that table used by lookup was replaced by compaction, so lookup should use newer version.
+     */
+    private static final class StaleVersionException extends Exception {
+
+        private static final long serialVersionUID = 0L;
+
+        private StaleVersionException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Tables of two adjacent levels to merge into the lower one.
+     */
+    private static final class Compaction {
+
+        private final List<SSTable> upper;
+        private final List<SSTable> lower;
+        private final int outputLevel;
+        private final boolean bottom;
+
+        private Compaction(List<SSTable> upper, List<SSTable> lower, int outputLevel, boolean bottom) {
+            this.upper = upper;
+            this.lower = lower;
+            this.outputLevel = outputLevel;
+            this.bottom = bottom;
+        }
+
+        private List<SSTable> inputs() {
+            List<SSTable> inputs = new ArrayList<>(upper);
+            inputs.addAll(lower);
+            return inputs;
+        }
+
+        /**
+         * Single table of non-zero level without overlapping tables below may be moved without rewriting.
+         */
+        private boolean isTrivialMove() {
+            return outputLevel > 1 && upper.size() == 1 && lower.isEmpty();
+        }
+    }
+
+    /**
+     * Creates {@code LsmStorageEngine}s in subdirectories named after storages.
+     */
+    private static class Factory implements StorageEngineFactory {
+
+        private final Path directory;
+
+        private Factory(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema) {
+            return new LsmStorageEngine<>(directory.resolve(schema.getName()), schema);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.javaclasses.todo.storage.lsm;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * List of live SSTables of each level of the tree, persisted on each change of the tree structure.
+ *
+ * <p>Manifest is a text file rewritten atomically, so after crash it lists either previous or next
+ * set of tables. SSTable files which are not listed are left by interrupted flush or compaction.
+ *
+ * @author Oleg Barmin
+ */
+final class Manifest {
+
+    private static final String FILE_NAME = "MANIFEST";
+    private static final String NEXT_FILE = "next-file";
+    private static final String TABLE = "table";
+
+    private final long nextFileNumber;
+    private final List<List<String>> levels;
+
+    /**
+     * Creates {@code Manifest} instance.
+     *
+     * @param nextFileNumber number of the next SSTable file to create
+     * @param levels         names of SSTable files of each level in order they are kept in the level
+     */
+    Manifest(long nextFileNumber, List<List<String>> levels) {
+        this.nextFileNumber = nextFileNumber;
+        this.levels = levels;
+    }
+
+    /**
+     * Reads manifest from given directory.
+     *
+     * @param directory directory of the tree
+     * @return read manifest or empty manifest if directory has none
+     * @throws IOException if manifest cannot be read
+     */
+    static Manifest read(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        long nextFileNumber = 1;
+        List<List<String>> levels = new ArrayList<>();
+
+        if (!Files.exists(file)) {
+            return new Manifest(nextFileNumber, levels);
+        }
+
+        for (String line : Files.readAllLines(file, UTF_8)) {
+            String[] parts = line.split(" ");
+
+            if (NEXT_FILE.equals(parts[0])) {
+                nextFileNumber = Long.parseLong(parts[1]);
+            } else if (TABLE.equals(parts[0])) {
+                int level = Integer.parseInt(parts[1]);
+                while (levels.size() <= level) {
+                    levels.add(new ArrayList<>());
+                }
+                levels.get(level)
+                      .add(parts[2]);
+            } else {
+                throw new IOException("Unexpected line of manifest: " + line);
+            }
+        }
+
+        return new Manifest(nextFileNumber, levels);
+    }
+
+    /**
+     * Atomically replaces manifest in given directory by this one.
+     *
+     * @param directory directory of the tree
+     * @throws IOException if manifest cannot be written
+     */
+    void write(Path directory) throws IOException {
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, UTF_8)) {
+            writer.write(NEXT_FILE + ' ' + nextFileNumber);
+            writer.newLine();
+
+            for (int level = 0; level < levels.size(); level++) {
+                for (String table : levels.get(level)) {
+                    writer.write(TABLE + ' ' + level + ' ' + table);
+                    writer.newLine();
+                }
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(temporary, WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    long getNextFileNumber() {
+        return nextFileNumber;
+    }
+
+    List<List<String>> getLevels() {
+        return levels;
+    }
+}
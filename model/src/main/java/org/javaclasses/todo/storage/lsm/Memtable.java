@@ -0,0 +1,82 @@
+package org.javaclasses.todo.storage.lsm;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.javaclasses.todo.storage.lsm.Entries.KEY_ORDER;
+
+/**
+ * Sorted in-memory table which accumulates latest changes before they are flushed into SSTable.
+ *
+ * <p>Memtable is thread-safe.
+ *
+ * @author Oleg Barmin
+ */
+final class Memtable {
+
+    /* Approximate memory taken by skip list node and entry apart of key and value. */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final ConcurrentSkipListMap<byte[], byte[]> entries = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final AtomicLong size = new AtomicLong();
+    private final long firstSegment;
+
+    /**
+     * Creates empty {@code Memtable} instance.
+     *
+     * @param firstSegment number of the write-ahead log segment which keeps first changes of memtable
+     */
+    Memtable(long firstSegment) {
+        this.firstSegment = firstSegment;
+    }
+
+    /**
+     * Puts value of given key, replacing the previous one.
+     *
+     * @param key   key to put
+     * @param value value or tombstone
+     */
+    void put(byte[] key, byte[] value) {
+        byte[] previous = entries.put(key, value);
+
+        if (previous == null) {
+            size.addAndGet(key.length + value.length + ENTRY_OVERHEAD);
+        } else {
+            size.addAndGet(value.length - previous.length);
+        }
+    }
+
+    /**
+     * Finds value of given key.
+     *
+     * @param key key to find
+     * @return value or tombstone, {@code null} if memtable has no entry of key
+     */
+    @Nullable
+    byte[] get(byte[] key) {
+        return entries.get(key);
+    }
+
+    long getFirstSegment() {
+        return firstSegment;
+    }
+
+    long sizeInBytes() {
+        return size.get();
+    }
+
+    int entryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Provides iterator over entries in key order.
+     */
+    Iterator<Map.Entry<byte[], byte[]>> iterator() {
+        return entries.entrySet()
+                      .iterator();
+    }
+}
@@ -0,0 +1,91 @@
+package org.javaclasses.todo.storage.lsm;
+
+import com.google.common.collect.AbstractIterator;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static org.javaclasses.todo.storage.lsm.Entries.KEY_ORDER;
+
+/**
+ * Merges iterators over sorted entries into one sorted iterator.
+ *
+ * <p>If several sources contain entry with same key, only entry of the newest source is returned,
+ * sources are ordered from the newest to the oldest. Tombstones are returned as any other value.
+ *
+ * @author Oleg Barmin
+ */
+final class MergingIterator extends AbstractIterator<Map.Entry<byte[], byte[]>> {
+
+    private final PriorityQueue<Source> heads = new PriorityQueue<>();
+
+    /**
+     * Creates {@code MergingIterator} instance.
+     *
+     * @param sources iterators over sorted entries ordered from the newest to the oldest
+     */
+    MergingIterator(List<Iterator<Map.Entry<byte[], byte[]>>> sources) {
+        for (int i = 0; i < sources.size(); i++) {
+            Source source = new Source(sources.get(i), i);
+
+            if (source.advance()) {
+                heads.add(source);
+            }
+        }
+    }
+
+    @Override
+    protected Map.Entry<byte[], byte[]> computeNext() {
+        Source newest = heads.poll();
+
+        if (newest == null) {
+            return endOfData();
+        }
+
+        Map.Entry<byte[], byte[]> result = newest.current;
+        advance(newest);
+
+        while (!heads.isEmpty() && KEY_ORDER.compare(heads.peek().current.getKey(), result.getKey()) == 0) {
+            advance(heads.poll());
+        }
+
+        return result;
+    }
+
+    private void advance(Source source) {
+        if (source.advance()) {
+            heads.add(source);
+        }
+    }
+
+    /**
+     * Iterator with its current entry and priority.
+     */
+    private static final class Source implements Comparable<Source> {
+
+        private final Iterator<Map.Entry<byte[], byte[]>> iterator;
+        private final int priority;
+        private Map.Entry<byte[], byte[]> current;
+
+        private Source(Iterator<Map.Entry<byte[], byte[]>> iterator, int priority) {
+            this.iterator = iterator;
+            this.priority = priority;
+        }
+
+        private boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(Source other) {
+            int comparison = KEY_ORDER.compare(current.getKey(), other.current.getKey());
+            return comparison != 0 ? comparison : Integer.compare(priority, other.priority);
+        }
+    }
+}
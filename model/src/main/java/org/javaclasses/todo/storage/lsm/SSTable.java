@@ -0,0 +1,306 @@
+package org.javaclasses.todo.storage.lsm;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static org.javaclasses.todo.storage.lsm.Entries.KEY_ORDER;
+import static org.javaclasses.todo.storage.lsm.SSTableWriter.FOOTER_SIZE;
+import static org.javaclasses.todo.storage.lsm.SSTableWriter.MAGIC;
+
+/**
+ * Immutable file with entries sorted by key, written by {@link SSTableWriter}.
+ *
+ * <p>Block index and bloom filter are kept in memory, so lookup of absent key usually doesn't touch disk
+ * and lookup of present key reads one data block.
+ *
+ * <p>Table is shared by readers and compaction and is closed when the last of them
+ * {@link #release() releases} it. Table {@link #retire() retired} by compaction is deleted after it is closed.
+ *
+ * @author Oleg Barmin
+ */
+final class SSTable implements Closeable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long entryCount;
+
+    private final byte[][] blockKeys;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final byte[] lastKey;
+    private final BloomFilter<byte[]> bloom;
+
+    /* Table is referenced by version which contains it, plus by each reader which retained it. */
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile boolean retired;
+
+    private SSTable(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.fileSize = channel.size();
+
+        ByteBuffer footer = read(fileSize - FOOTER_SIZE, FOOTER_SIZE);
+        long indexOffset = footer.getLong();
+        int indexLength = footer.getInt();
+        long bloomOffset = footer.getLong();
+        int bloomLength = footer.getInt();
+        this.entryCount = footer.getLong();
+
+        if (footer.getInt() != MAGIC) {
+            throw new IOException("File " + file + " is not an SSTable.");
+        }
+
+        DataInputStream index = new DataInputStream(
+                new ByteArrayInputStream(read(indexOffset, indexLength).array()));
+        int blockCount = index.readInt();
+
+        this.blockKeys = new byte[blockCount][];
+        this.blockOffsets = new long[blockCount];
+        this.blockLengths = new int[blockCount];
+
+        for (int i = 0; i < blockCount; i++) {
+            blockKeys[i] = readBytes(index);
+            blockOffsets[i] = index.readLong();
+            blockLengths[i] = index.readInt();
+        }
+        this.lastKey = readBytes(index);
+
+        this.bloom = BloomFilter.readFrom(new ByteArrayInputStream(read(bloomOffset, bloomLength).array()),
+                                          Funnels.byteArrayFunnel());
+    }
+
+    /**
+     * Opens table written into given file.
+     *
+     * @param file file of table
+     * @return opened table
+     * @throws IOException if file cannot be read or is not an SSTable
+     */
+    static SSTable open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, READ);
+
+        try {
+            return new SSTable(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of SSTable " + file);
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long getFileSize() {
+        return fileSize;
+    }
+
+    long getEntryCount() {
+        return entryCount;
+    }
+
+    byte[] getFirstKey() {
+        return blockKeys[0];
+    }
+
+    byte[] getLastKey() {
+        return lastKey;
+    }
+
+    /**
+     * Checks whether key ranges of this and given table intersect.
+     */
+    boolean overlaps(byte[] firstKey, byte[] lastKey) {
+        return KEY_ORDER.compare(getFirstKey(), lastKey) <= 0 && KEY_ORDER.compare(firstKey, this.lastKey) <= 0;
+    }
+
+    /**
+     * Checks without reading the file whether table may contain given key.
+     *
+     * @param key key to check
+     * @return {@code false} if table definitely doesn't contain key
+     */
+    boolean mightContain(byte[] key) {
+        return KEY_ORDER.compare(key, getFirstKey()) >= 0
+                && KEY_ORDER.compare(key, lastKey) <= 0
+                && bloom.mightContain(key);
+    }
+
+    /**
+     * Finds value of given key.
+     *
+     * <p>Table must be retained by caller.
+     *
+     * @param key key to find
+     * @return value or tombstone, {@code null} if table has no entry of key
+     * @throws IOException if data block cannot be read
+     */
+    @Nullable
+    byte[] get(byte[] key) throws IOException {
+        int low = 0;
+        int high = blockKeys.length - 1;
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (KEY_ORDER.compare(blockKeys[middle], key) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        ByteBuffer block = read(blockOffsets[low], blockLengths[low]);
+
+        while (block.hasRemaining()) {
+            byte[] entryKey = new byte[block.getInt()];
+            block.get(entryKey);
+            int valueLength = block.getInt();
+            int comparison = KEY_ORDER.compare(entryKey, key);
+
+            if (comparison == 0) {
+                byte[] value = new byte[valueLength];
+                block.get(value);
+                return value;
+            }
+            if (comparison > 0) {
+                return null;
+            }
+            block.position(block.position() + valueLength);
+        }
+
+        return null;
+    }
+
+    /**
+     * Provides iterator over entries in key order, which reads table block by block.
+     *
+     * <p>Table must be retained by caller while iterator is used.
+     *
+     * @return iterator over entries
+     * @throws UncheckedIOException from iterator methods if data block cannot be read
+     */
+    Iterator<Map.Entry<byte[], byte[]>> iterator() {
+        return new AbstractIterator<Map.Entry<byte[], byte[]>>() {
+
+            private int nextBlock;
+            private ByteBuffer block = ByteBuffer.allocate(0);
+
+            @Override
+            protected Map.Entry<byte[], byte[]> computeNext() {
+                if (!block.hasRemaining()) {
+                    if (nextBlock == blockKeys.length) {
+                        return endOfData();
+                    }
+
+                    try {
+                        block = read(blockOffsets[nextBlock], blockLengths[nextBlock]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read SSTable " + file, e);
+                    }
+                    nextBlock++;
+                }
+
+                byte[] key = new byte[block.getInt()];
+                block.get(key);
+                byte[] value = new byte[block.getInt()];
+                block.get(value);
+
+                return new AbstractMap.SimpleImmutableEntry<>(key, value);
+            }
+        };
+    }
+
+    /**
+     * Retains table for reading.
+     *
+     * @return {@code false} if table was already closed, so caller should use newer version of tree
+     */
+    boolean retain() {
+        while (true) {
+            int current = references.get();
+
+            if (current == 0) {
+                return false;
+            }
+            if (references.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases table retained by reader or by version, closing it if it is not used anymore.
+     *
+     * @throws UncheckedIOException if file of retired table cannot be deleted
+     */
+    void release() {
+        if (references.decrementAndGet() != 0) {
+            return;
+        }
+
+        try {
+            channel.close();
+            if (retired) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close SSTable " + file, e);
+        }
+    }
+
+    /**
+     * Marks table as replaced by compaction and releases reference of version.
+     * File of table is deleted when the last reader releases it.
+     */
+    void retire() {
+        retired = true;
+        release();
+    }
+
+    /**
+     * Releases reference of version without deleting the file.
+     */
+    @Override
+    public void close() {
+        release();
+    }
+}
@@ -0,0 +1,189 @@
+package org.javaclasses.todo.storage.lsm;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.javaclasses.todo.storage.lsm.Entries.KEY_ORDER;
+
+/**
+ * Writes entries sorted by key into new {@link SSTable} file.
+ *
+ * <p>File consists of data blocks, block index, bloom filter of keys and fixed-size footer:
+ * <pre>
+ * block:  [key length][key][value length][value]...
+ * index:  [block count]([first key length][first key][block offset][block length])...[last key length][last key]
+ * bloom:  serialized bloom filter
+ * footer: [index offset][index length][bloom offset][bloom length][entry count][magic]
+ * </pre>
+ *
+ * @author Oleg Barmin
+ */
+final class SSTableWriter {
+
+    static final int MAGIC = 0x4C534D54;
+    static final int FOOTER_SIZE = Long.BYTES * 3 + Integer.BYTES * 3;
+
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int blockSize;
+    private final BloomFilter<byte[]> bloom;
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final DataOutputStream blockOut = new DataOutputStream(block);
+    private final List<byte[]> blockKeys = new ArrayList<>();
+    private final List<long[]> blockPositions = new ArrayList<>();
+
+    private byte[] blockFirstKey;
+    private byte[] lastKey;
+    private long position;
+    private long entryCount;
+
+    /**
+     * Creates new SSTable file.
+     *
+     * @param file            file to create
+     * @param blockSize       size of data block
+     * @param expectedEntries expected number of entries, used to size bloom filter
+     * @throws IOException if file cannot be created
+     */
+    SSTableWriter(Path file, int blockSize, long expectedEntries) throws IOException {
+        this.file = file;
+        this.blockSize = blockSize;
+        this.bloom = BloomFilter.create(Funnels.byteArrayFunnel(), Math.max(expectedEntries, 1),
+                                        BLOOM_FALSE_POSITIVE_RATE);
+        this.channel = FileChannel.open(file, CREATE_NEW, WRITE);
+    }
+
+    /**
+     * Adds entry to the table.
+     *
+     * @param key   key greater than keys of all previously added entries
+     * @param value value or tombstone
+     * @throws IOException if block cannot be written
+     */
+    void add(byte[] key, byte[] value) throws IOException {
+        checkState(lastKey == null || KEY_ORDER.compare(lastKey, key) < 0, "Keys must be added in ascending order.");
+
+        if (blockFirstKey == null) {
+            blockFirstKey = key;
+        }
+
+        blockOut.writeInt(key.length);
+        blockOut.write(key);
+        blockOut.writeInt(value.length);
+        blockOut.write(value);
+
+        bloom.put(key);
+        lastKey = key;
+        entryCount++;
+
+        if (block.size() >= blockSize) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Provides approximate size of written table.
+     */
+    long size() {
+        return position + block.size();
+    }
+
+    long getEntryCount() {
+        return entryCount;
+    }
+
+    private void flushBlock() throws IOException {
+        if (block.size() == 0) {
+            return;
+        }
+
+        blockKeys.add(blockFirstKey);
+        blockPositions.add(new long[]{position, block.size()});
+
+        write(block.toByteArray());
+        block.reset();
+        blockFirstKey = null;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes index, bloom filter and footer, forces file to storage device and opens written table.
+     *
+     * @return written table
+     * @throws IOException if table cannot be written
+     */
+    SSTable finish() throws IOException {
+        checkState(entryCount > 0, "SSTable must contain at least one entry.");
+
+        try {
+            flushBlock();
+
+            long indexOffset = position;
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            DataOutputStream indexOut = new DataOutputStream(index);
+
+            indexOut.writeInt(blockKeys.size());
+            for (int i = 0; i < blockKeys.size(); i++) {
+                indexOut.writeInt(blockKeys.get(i).length);
+                indexOut.write(blockKeys.get(i));
+                indexOut.writeLong(blockPositions.get(i)[0]);
+                indexOut.writeInt((int) blockPositions.get(i)[1]);
+            }
+            indexOut.writeInt(lastKey.length);
+            indexOut.write(lastKey);
+            write(index.toByteArray());
+
+            long bloomOffset = position;
+            ByteArrayOutputStream bloomBytes = new ByteArrayOutputStream();
+            bloom.writeTo(bloomBytes);
+            write(bloomBytes.toByteArray());
+
+            write(ByteBuffer.allocate(FOOTER_SIZE)
+                            .putLong(indexOffset)
+                            .putInt(index.size())
+                            .putLong(bloomOffset)
+                            .putInt(bloomBytes.size())
+                            .putLong(entryCount)
+                            .putInt(MAGIC)
+                            .array());
+
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+
+        return SSTable.open(file);
+    }
+
+    /**
+     * Closes and deletes file of unfinished table.
+     *
+     * @throws IOException if file cannot be deleted
+     */
+    void abort() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
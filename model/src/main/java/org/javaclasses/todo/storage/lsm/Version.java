@@ -0,0 +1,132 @@
+package org.javaclasses.todo.storage.lsm;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.javaclasses.todo.storage.lsm.Entries.KEY_ORDER;
+
+/**
+ * Immutable state of the tree: active memtable, memtables waiting for flush and SSTables of each level.
+ *
+ * <p>Changes of tree structure create new version, so readers use consistent set of sources
+ * without locking.
+ *
+ * <p>SSTables of level zero are flushed memtables and may overlap, they are ordered from the newest
+ * to the oldest. SSTables of other levels don't overlap and are ordered by key.
+ *
+ * @author Oleg Barmin
+ */
+final class Version {
+
+    static final int LEVEL_COUNT = 7;
+
+    private final Memtable active;
+    private final List<Memtable> immutables;
+    private final List<List<SSTable>> levels;
+
+    /**
+     * Creates {@code Version} instance.
+     *
+     * @param active     memtable which accepts changes
+     * @param immutables memtables waiting for flush ordered from the newest to the oldest
+     * @param levels     SSTables of each level
+     */
+    Version(Memtable active, List<Memtable> immutables, List<List<SSTable>> levels) {
+        this.active = active;
+        this.immutables = ImmutableList.copyOf(immutables);
+
+        ImmutableList.Builder<List<SSTable>> builder = ImmutableList.builder();
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            builder.add(level < levels.size() ? ImmutableList.copyOf(levels.get(level)) : ImmutableList.of());
+        }
+        this.levels = builder.build();
+    }
+
+    Memtable getActive() {
+        return active;
+    }
+
+    List<Memtable> getImmutables() {
+        return immutables;
+    }
+
+    List<SSTable> getLevel(int level) {
+        return levels.get(level);
+    }
+
+    List<List<SSTable>> getLevels() {
+        return levels;
+    }
+
+    /**
+     * Provides all SSTables of all levels.
+     */
+    List<SSTable> allTables() {
+        List<SSTable> tables = new ArrayList<>();
+        levels.forEach(tables::addAll);
+        return tables;
+    }
+
+    long levelSize(int level) {
+        return levels.get(level)
+                     .stream()
+                     .mapToLong(SSTable::getFileSize)
+                     .sum();
+    }
+
+    /**
+     * Creates version in which given memtable replaces active one, and active one waits for flush.
+     */
+    Version withActive(Memtable memtable) {
+        List<Memtable> waiting = new ArrayList<>();
+        waiting.add(active);
+        waiting.addAll(immutables);
+        return new Version(memtable, waiting, levels);
+    }
+
+    /**
+     * Creates version in which given flushed memtable is replaced by given SSTable of level zero.
+     */
+    Version withFlushed(Memtable memtable, SSTable table) {
+        List<Memtable> waiting = new ArrayList<>(immutables);
+        waiting.remove(memtable);
+
+        List<List<SSTable>> tables = new ArrayList<>(levels);
+        List<SSTable> level0 = new ArrayList<>();
+        level0.add(table);
+        level0.addAll(levels.get(0));
+        tables.set(0, level0);
+
+        return new Version(active, waiting, tables);
+    }
+
+    /**
+     * Creates version in which given input tables are replaced by given output tables of given level.
+     */
+    Version withCompacted(Collection<SSTable> inputs, int outputLevel, Collection<SSTable> outputs) {
+        List<List<SSTable>> tables = new ArrayList<>();
+
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            List<SSTable> levelTables = new ArrayList<>(levels.get(level));
+            levelTables.removeAll(inputs);
+
+            if (level == outputLevel) {
+                levelTables.addAll(outputs);
+                levelTables.sort((first, second) -> KEY_ORDER.compare(first.getFirstKey(), second.getFirstKey()));
+            }
+            tables.add(levelTables);
+        }
+
+        return new Version(active, immutables, tables);
+    }
+
+    /**
+     * Checks whether all given tables are still live in this version.
+     */
+    boolean containsAll(Collection<SSTable> tables) {
+        return allTables().containsAll(tables);
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * Embedded storage engine based on log-structured merge-tree.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.storage.lsm;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
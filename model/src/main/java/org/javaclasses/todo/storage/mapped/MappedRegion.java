@@ -0,0 +1,188 @@
+package org.javaclasses.todo.storage.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Growable region of memory backed by a file, addressed by {@code long} offsets.
+ *
+ * <p>Single {@link MappedByteBuffer} is limited to 2 GB, so region maps its file by chunks of equal size
+ * which is a power of two. Callers must not write values which cross the chunk boundary.
+ *
+ * <p>Pages of the file are loaded and evicted by operating system, so region
+ * occupies neither Java heap nor direct memory.
+ *
+ * <p>Region is not thread-safe for writes, concurrent reads are safe
+ * because positions of mapped buffers are never changed.
+ *
+ * @author Oleg Barmin
+ */
+final class MappedRegion implements Closeable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int chunkSize;
+    private final int chunkShift;
+    private final long offsetMask;
+
+    private MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+    /**
+     * Creates region in new file.
+     *
+     * @param file      file to create
+     * @param chunkSize size of mapped chunk, must be a power of two
+     * @throws UncheckedIOException if file cannot be created
+     */
+    MappedRegion(Path file, int chunkSize) {
+        checkArgument(Integer.bitCount(chunkSize) == 1, "Chunk size must be a power of two.");
+
+        this.file = file;
+        this.chunkSize = chunkSize;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.offsetMask = chunkSize - 1;
+
+        try {
+            this.channel = FileChannel.open(file, CREATE_NEW, READ, WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create file " + file, e);
+        }
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Provides offset of the beginning of the chunk which follows chunk containing given offset.
+     */
+    long nextChunkStart(long offset) {
+        return ((offset >>> chunkShift) + 1) << chunkShift;
+    }
+
+    /**
+     * Ensures that region can hold given number of bytes, mapping new chunks if needed.
+     *
+     * @param size required size of region
+     * @throws UncheckedIOException if file cannot be mapped
+     */
+    void ensureCapacity(long size) {
+        int required = Math.toIntExact((size + chunkSize - 1) >>> chunkShift);
+
+        if (required <= chunks.length) {
+            return;
+        }
+
+        MappedByteBuffer[] extended = Arrays.copyOf(chunks, required);
+
+        try {
+            for (int i = chunks.length; i < required; i++) {
+                extended[i] = channel.map(READ_WRITE, (long) i << chunkShift, chunkSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map file " + file, e);
+        }
+
+        chunks = extended;
+    }
+
+    private MappedByteBuffer chunk(long offset) {
+        return chunks[(int) (offset >>> chunkShift)];
+    }
+
+    private int position(long offset) {
+        return (int) (offset & offsetMask);
+    }
+
+    byte getByte(long offset) {
+        return chunk(offset).get(position(offset));
+    }
+
+    void putByte(long offset, byte value) {
+        chunk(offset).put(position(offset), value);
+    }
+
+    int getInt(long offset) {
+        return chunk(offset).getInt(position(offset));
+    }
+
+    void putInt(long offset, int value) {
+        chunk(offset).putInt(position(offset), value);
+    }
+
+    long getLong(long offset) {
+        return chunk(offset).getLong(position(offset));
+    }
+
+    void putLong(long offset, long value) {
+        chunk(offset).putLong(position(offset), value);
+    }
+
+    /**
+     * Reads given number of bytes starting from given offset.
+     */
+    byte[] getBytes(long offset, int length) {
+        ByteBuffer view = chunk(offset).duplicate();
+        view.position(position(offset));
+
+        byte[] bytes = new byte[length];
+        view.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes given bytes starting from given offset.
+     */
+    void putBytes(long offset, byte[] bytes) {
+        ByteBuffer view = chunk(offset).duplicate();
+        view.position(position(offset));
+        view.put(bytes);
+    }
+
+    /**
+     * Checks whether bytes starting from given offset equal to given bytes.
+     */
+    boolean bytesEqual(long offset, byte[] bytes) {
+        MappedByteBuffer chunk = chunk(offset);
+        int position = position(offset);
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes the region and deletes its file.
+     *
+     * <p>Mapped chunks are released when they are garbage collected.
+     *
+     * @throws UncheckedIOException if file cannot be deleted
+     */
+    @Override
+    public void close() {
+        chunks = new MappedByteBuffer[0];
+
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete file " + file, e);
+        }
+    }
+}
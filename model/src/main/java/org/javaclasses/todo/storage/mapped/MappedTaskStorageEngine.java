@@ -0,0 +1,593 @@
+package org.javaclasses.todo.storage.mapped;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Engine which keeps tasks outside of Java heap in memory-mapped files.
+ *
+ * <p>Each task is kept as a fixed-size record in the records file. Strings of task are kept
+ * one after another in the data file, record keeps their offset and lengths.
+ * Records of tasks of one to-do list are linked into doubly linked list.
+ *
+ * <p>Tasks are found by two off-heap hash tables: from {@code TaskId} to record
+ * and from {@code TodoListId} to the head of list of its task records.
+ *
+ * <p>Heap footprint of engine doesn't depend on the number of kept tasks.
+ * {@code Task} instances are decoded from records on each read, so reads allocate.
+ *
+ * <p>Files are working memory of engine: they are created in a new subdirectory of given directory
+ * and deleted on {@link #close()}. Use {@link org.javaclasses.todo.storage.wal.DurableStorageEngine}
+ * to keep tasks between restarts.
+ *
+ * <p>Reads are performed under shared lock, changes under exclusive lock.
+ *
+ * @author Oleg Barmin
+ */
+public final class MappedTaskStorageEngine implements StorageEngine<TaskId, Task> {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+    private static final long MIN_DATA_TO_COMPACT = 1 << 20;
+
+    /* Layout of task record. */
+    private static final int RECORD_SIZE = 64;
+    private static final int LIVE = 0;
+    private static final int COMPLETED = 1;
+    private static final int TASK_ID_HASH = 4;
+    private static final int TODO_LIST_ID_HASH = 8;
+    private static final int TASK_ID_LENGTH = 12;
+    private static final int TODO_LIST_ID_LENGTH = 16;
+    private static final int DESCRIPTION_LENGTH = 20;
+    private static final int DATA_OFFSET = 24;
+    private static final int CREATION_DATE = 32;
+    private static final int LAST_UPDATE_DATE = 40;
+    private static final int NEXT_IN_LIST = 48;
+    private static final int PREVIOUS_IN_LIST = 56;
+
+    private final SecondaryIndex<TodoListId, Task> todoListIndex;
+    private final Path directory;
+    private final int chunkSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* Guarded by lock. Records are referenced by their number plus one, so zero means no record. */
+    private MappedRegion records;
+    private MappedRegion data;
+    private OffHeapHashTable taskIds;
+    private OffHeapHashTable todoListIds;
+    private long recordCount;
+    private long freeRecords;
+    private long dataEnd;
+    private long garbage;
+    private int dataGeneration;
+
+    /**
+     * Creates {@code MappedTaskStorageEngine} instance.
+     *
+     * @param directory     directory to create files of engine in
+     * @param todoListIndex index of tasks by to-do list declared by storage
+     * @throws UncheckedIOException if files cannot be created
+     */
+    public MappedTaskStorageEngine(Path directory, SecondaryIndex<TodoListId, Task> todoListIndex) {
+        this(directory, todoListIndex, DEFAULT_CHUNK_SIZE);
+    }
+
+    @VisibleForTesting
+    MappedTaskStorageEngine(Path directory, SecondaryIndex<TodoListId, Task> todoListIndex, int chunkSize) {
+        checkNotNull(directory);
+        checkArgument(chunkSize >= RECORD_SIZE && Integer.bitCount(chunkSize) == 1,
+                      "Chunk size must be a power of two not less than record size.");
+
+        this.todoListIndex = checkNotNull(todoListIndex);
+        this.chunkSize = chunkSize;
+
+        try {
+            Files.createDirectories(directory);
+            this.directory = Files.createTempDirectory(directory, "tasks");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create directory in " + directory, e);
+        }
+
+        allocate();
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = 1;
+        for (byte value : bytes) {
+            hash = 31 * hash + value;
+        }
+        return hash;
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    private static long offsetOf(long recordRef) {
+        return (recordRef - 1) * RECORD_SIZE;
+    }
+
+    private void allocate() {
+        records = new MappedRegion(directory.resolve("records.dat"), chunkSize);
+        data = new MappedRegion(directory.resolve("data-" + dataGeneration++ + ".dat"), chunkSize);
+        taskIds = new OffHeapHashTable(directory, "task-ids", chunkSize,
+                                       ref -> records.getInt(offsetOf(ref) + TASK_ID_HASH));
+        todoListIds = new OffHeapHashTable(directory, "todo-list-ids", chunkSize,
+                                           ref -> records.getInt(offsetOf(ref) + TODO_LIST_ID_HASH));
+        recordCount = 0;
+        freeRecords = 0;
+        dataEnd = 0;
+        garbage = 0;
+    }
+
+    private void release() {
+        records.close();
+        data.close();
+        taskIds.close();
+        todoListIds.close();
+    }
+
+    @Override
+    public Optional<Task> read(TaskId id) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return readLocked(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Reads whole batch under one read lock.
+     */
+    @Override
+    public Map<TaskId, Task> readAll(Collection<TaskId> ids) {
+        Map<TaskId, Task> result = new HashMap<>();
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            for (TaskId id : ids) {
+                readLocked(id).ifPresent(task -> result.put(id, task));
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        return result;
+    }
+
+    private Optional<Task> readLocked(TaskId id) {
+        long ref = find(bytesOf(id.getValue()));
+        return ref == 0 ? Optional.empty() : Optional.of(decode(ref));
+    }
+
+    @Override
+    public Optional<Task> compute(TaskId id, UnaryOperator<Optional<Task>> remapping) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            return computeLocked(id, remapping);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies whole batch under one write lock.
+     */
+    @Override
+    public void computeAll(Collection<TaskId> ids,
+                           BiFunction<? super TaskId, Optional<Task>, Optional<Task>> remapping) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (TaskId id : ids) {
+                computeLocked(id, current -> remapping.apply(id, current));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Optional<Task> computeLocked(TaskId id, UnaryOperator<Optional<Task>> remapping) {
+        byte[] taskId = bytesOf(id.getValue());
+        long ref = find(taskId);
+
+        Optional<Task> current = ref == 0 ? Optional.empty() : Optional.of(decode(ref));
+        Optional<Task> next = remapping.apply(current);
+
+        if (next == current) {
+            return current;
+        }
+
+        if (next.isPresent()) {
+            store(ref, taskId, next.get());
+        } else if (ref != 0) {
+            delete(ref);
+        }
+
+        return next;
+    }
+
+    /**
+     * Finds tasks of to-do list by walking the list of its task records.
+     *
+     * @throws IllegalArgumentException if given index is not the index of tasks by to-do list
+     */
+    @Override
+    public <K> List<Task> findBy(SecondaryIndex<K, Task> index, K key) {
+        checkArgument(todoListIndex.equals(index), "Index %s is not declared in storage.", index);
+
+        byte[] todoListId = bytesOf(((TodoListId) key).getValue());
+        List<Task> result = new ArrayList<>();
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            long ref = findListHead(todoListId);
+
+            while (ref != 0) {
+                result.add(decode(ref));
+                ref = records.getLong(offsetOf(ref) + NEXT_IN_LIST);
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Walks list of tasks of to-do list reading only task IDs and decodes only tasks of the page,
+     * so heap allocated by scan is bounded by the page size.
+     */
+    @Override
+    public <K> List<Task> scan(SecondaryIndex<K, Task> index, K key, @Nullable String after, int limit) {
+        checkArgument(todoListIndex.equals(index), "Index %s is not declared in storage.", index);
+
+        byte[] todoListId = bytesOf(((TodoListId) key).getValue());
+        List<Task> result = new ArrayList<>(Math.min(limit, 16));
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            TreeMap<String, Long> page = new TreeMap<>();
+            long ref = findListHead(todoListId);
+
+            while (ref != 0) {
+                String taskId = taskIdOf(ref);
+
+                if (after == null || taskId.compareTo(after) > 0) {
+                    page.put(taskId, ref);
+                    if (page.size() > limit) {
+                        page.pollLastEntry();
+                    }
+                }
+                ref = records.getLong(offsetOf(ref) + NEXT_IN_LIST);
+            }
+
+            page.values()
+                .forEach(pageRef -> result.add(decode(pageRef)));
+        } finally {
+            readLock.unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Performs given action for each task while shared lock is held, so action must not change engine.
+     */
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            for (long ref = 1; ref <= recordCount; ref++) {
+                if (records.getByte(offsetOf(ref) + LIVE) != 0) {
+                    action.accept(decode(ref));
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            release();
+            allocate();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes files of engine.
+     *
+     * @throws UncheckedIOException if files cannot be deleted
+     */
+    @Override
+    public void close() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            release();
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete directory " + directory, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @VisibleForTesting
+    long getDataSize() {
+        return dataEnd;
+    }
+
+    private long find(byte[] taskId) {
+        int hash = hash(taskId);
+        return taskIds.get(hash, ref -> matches(ref, TASK_ID_HASH, hash, taskId, 0));
+    }
+
+    private long findListHead(byte[] todoListId) {
+        int hash = hash(todoListId);
+        return todoListIds.get(hash, ref -> matchesTodoList(ref, hash, todoListId));
+    }
+
+    private boolean matchesTodoList(long ref, int hash, byte[] todoListId) {
+        int taskIdLength = records.getInt(offsetOf(ref) + TASK_ID_LENGTH);
+        return matches(ref, TODO_LIST_ID_HASH, hash, todoListId, taskIdLength);
+    }
+
+    /**
+     * Checks whether string of record with given hash offset and data position equals to given bytes.
+     */
+    private boolean matches(long ref, int hashOffset, int hash, byte[] value, int dataPosition) {
+        long record = offsetOf(ref);
+
+        if (records.getInt(record + hashOffset) != hash) {
+            return false;
+        }
+
+        int lengthOffset = hashOffset == TASK_ID_HASH ? TASK_ID_LENGTH : TODO_LIST_ID_LENGTH;
+        return records.getInt(record + lengthOffset) == value.length
+                && data.bytesEqual(records.getLong(record + DATA_OFFSET) + dataPosition, value);
+    }
+
+    private String taskIdOf(long ref) {
+        long record = offsetOf(ref);
+        byte[] taskId = data.getBytes(records.getLong(record + DATA_OFFSET), records.getInt(record + TASK_ID_LENGTH));
+
+        return new String(taskId, UTF_8);
+    }
+
+    private Task decode(long ref) {
+        long record = offsetOf(ref);
+
+        int taskIdLength = records.getInt(record + TASK_ID_LENGTH);
+        int todoListIdLength = records.getInt(record + TODO_LIST_ID_LENGTH);
+        int descriptionLength = records.getInt(record + DESCRIPTION_LENGTH);
+        byte[] strings = data.getBytes(records.getLong(record + DATA_OFFSET),
+                                       taskIdLength + todoListIdLength + descriptionLength);
+
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(new String(strings, 0, taskIdLength, UTF_8)))
+                .setTodoListId(new TodoListId(new String(strings, taskIdLength, todoListIdLength, UTF_8)))
+                .setDescription(new String(strings, taskIdLength + todoListIdLength, descriptionLength, UTF_8))
+                .setStatus(records.getByte(record + COMPLETED) != 0)
+                .setCreationDate(new Date(records.getLong(record + CREATION_DATE)))
+                .setLastUpdateDate(new Date(records.getLong(record + LAST_UPDATE_DATE)))
+                .build();
+    }
+
+    private void store(long existingRef, byte[] taskId, Task task) {
+        byte[] todoListId = bytesOf(task.getTodoListId()
+                                        .getValue());
+        byte[] description = bytesOf(task.getDescription());
+        int length = taskId.length + todoListId.length + description.length;
+
+        long ref = existingRef;
+        boolean sameList = false;
+        long dataOffset = -1;
+
+        if (ref != 0) {
+            long record = offsetOf(ref);
+            int previousLength = taskId.length + records.getInt(record + TODO_LIST_ID_LENGTH)
+                    + records.getInt(record + DESCRIPTION_LENGTH);
+
+            sameList = matchesTodoList(ref, hash(todoListId), todoListId);
+            if (!sameList) {
+                unlink(ref);
+            }
+
+            if (length <= previousLength) {
+                dataOffset = records.getLong(record + DATA_OFFSET);
+                garbage += previousLength - length;
+            } else {
+                garbage += previousLength;
+            }
+        } else {
+            ref = allocateRecord();
+        }
+
+        if (dataOffset < 0) {
+            dataOffset = allocateData(length);
+        }
+
+        data.putBytes(dataOffset, taskId);
+        data.putBytes(dataOffset + taskId.length, todoListId);
+        data.putBytes(dataOffset + taskId.length + todoListId.length, description);
+
+        long record = offsetOf(ref);
+        records.putByte(record + LIVE, (byte) 1);
+        records.putByte(record + COMPLETED, (byte) (task.isCompleted() ? 1 : 0));
+        records.putInt(record + TASK_ID_HASH, hash(taskId));
+        records.putInt(record + TODO_LIST_ID_HASH, hash(todoListId));
+        records.putInt(record + TASK_ID_LENGTH, taskId.length);
+        records.putInt(record + TODO_LIST_ID_LENGTH, todoListId.length);
+        records.putInt(record + DESCRIPTION_LENGTH, description.length);
+        records.putLong(record + DATA_OFFSET, dataOffset);
+        records.putLong(record + CREATION_DATE, task.getCreationDate()
+                                                    .getTime());
+        records.putLong(record + LAST_UPDATE_DATE, task.getLastUpdateDate()
+                                                       .getTime());
+
+        if (existingRef == 0) {
+            long newRef = ref;
+            taskIds.put(hash(taskId), ref, candidate -> candidate == newRef);
+        }
+        if (!sameList) {
+            link(ref, todoListId);
+        }
+
+        compactDataIfNeeded();
+    }
+
+    private void delete(long ref) {
+        long record = offsetOf(ref);
+        int taskIdLength = records.getInt(record + TASK_ID_LENGTH);
+        byte[] taskId = data.getBytes(records.getLong(record + DATA_OFFSET), taskIdLength);
+
+        unlink(ref);
+        taskIds.remove(hash(taskId), candidate -> candidate == ref);
+
+        garbage += taskIdLength + records.getInt(record + TODO_LIST_ID_LENGTH)
+                + records.getInt(record + DESCRIPTION_LENGTH);
+        records.putByte(record + LIVE, (byte) 0);
+        records.putLong(record + NEXT_IN_LIST, freeRecords);
+        freeRecords = ref;
+
+        compactDataIfNeeded();
+    }
+
+    private long allocateRecord() {
+        if (freeRecords != 0) {
+            long ref = freeRecords;
+            freeRecords = records.getLong(offsetOf(ref) + NEXT_IN_LIST);
+            return ref;
+        }
+
+        long ref = ++recordCount;
+        records.ensureCapacity(ref * RECORD_SIZE);
+        return ref;
+    }
+
+    /**
+     * Allocates space in data file, so that allocated space doesn't cross chunk boundary.
+     */
+    private long allocateData(int length) {
+        checkArgument(length <= chunkSize, "Task is too large to be stored.");
+
+        if (data.nextChunkStart(dataEnd) < dataEnd + length) {
+            long chunkStart = data.nextChunkStart(dataEnd);
+            garbage += chunkStart - dataEnd;
+            dataEnd = chunkStart;
+        }
+
+        long offset = dataEnd;
+        dataEnd += length;
+        data.ensureCapacity(dataEnd);
+        return offset;
+    }
+
+    private void unlink(long ref) {
+        long record = offsetOf(ref);
+        long previous = records.getLong(record + PREVIOUS_IN_LIST);
+        long next = records.getLong(record + NEXT_IN_LIST);
+
+        if (previous != 0) {
+            records.putLong(offsetOf(previous) + NEXT_IN_LIST, next);
+        } else {
+            int hash = records.getInt(record + TODO_LIST_ID_HASH);
+
+            if (next != 0) {
+                todoListIds.put(hash, next, candidate -> candidate == ref);
+            } else {
+                todoListIds.remove(hash, candidate -> candidate == ref);
+            }
+        }
+
+        if (next != 0) {
+            records.putLong(offsetOf(next) + PREVIOUS_IN_LIST, previous);
+        }
+    }
+
+    private void link(long ref, byte[] todoListId) {
+        long record = offsetOf(ref);
+        int hash = hash(todoListId);
+        long head = findListHead(todoListId);
+
+        records.putLong(record + PREVIOUS_IN_LIST, 0);
+        records.putLong(record + NEXT_IN_LIST, head);
+
+        if (head != 0) {
+            records.putLong(offsetOf(head) + PREVIOUS_IN_LIST, ref);
+        }
+        todoListIds.put(hash, ref, candidate -> candidate == head);
+    }
+
+    /**
+     * Moves strings of live tasks into new data file when more than half of data file is garbage.
+     */
+    private void compactDataIfNeeded() {
+        if (dataEnd < MIN_DATA_TO_COMPACT || garbage * 2 < dataEnd) {
+            return;
+        }
+
+        MappedRegion previous = data;
+        data = new MappedRegion(directory.resolve("data-" + dataGeneration++ + ".dat"), chunkSize);
+        dataEnd = 0;
+        garbage = 0;
+
+        for (long ref = 1; ref <= recordCount; ref++) {
+            long record = offsetOf(ref);
+
+            if (records.getByte(record + LIVE) == 0) {
+                continue;
+            }
+
+            int length = records.getInt(record + TASK_ID_LENGTH) + records.getInt(record + TODO_LIST_ID_LENGTH)
+                    + records.getInt(record + DESCRIPTION_LENGTH);
+            long offset = allocateData(length);
+
+            data.putBytes(offset, previous.getBytes(records.getLong(record + DATA_OFFSET), length));
+            records.putLong(record + DATA_OFFSET, offset);
+        }
+
+        previous.close();
+    }
+}
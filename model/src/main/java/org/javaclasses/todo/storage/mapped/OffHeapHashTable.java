@@ -0,0 +1,212 @@
+package org.javaclasses.todo.storage.mapped;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.function.LongPredicate;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Open addressing hash table of non-zero {@code long} values kept in {@link MappedRegion}.
+ *
+ * <p>Table keeps only values, keys are owned by caller which provides hash of the key and
+ * predicate to check whether value corresponds to the key. Hash of value is required to move values
+ * when table grows, so it should be stored by caller alongside the key, e.g. in the record value points to.
+ *
+ * <p>Collisions are resolved by linear probing, removed values are replaced by backward shift,
+ * so lookup never walks over deleted slots.
+ *
+ * <p>Table is not thread-safe.
+ *
+ * @author Oleg Barmin
+ */
+final class OffHeapHashTable implements Closeable {
+
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final int SLOT_SIZE = Long.BYTES;
+
+    private final Path directory;
+    private final String name;
+    private final int maxChunkSize;
+    private final LongToIntFunction hashOfValue;
+
+    private MappedRegion slots;
+    private long capacity;
+    private long mask;
+    private long size;
+    private int generation;
+
+    /**
+     * Creates empty table.
+     *
+     * @param directory    directory to create file of table in
+     * @param name         name of table file
+     * @param maxChunkSize maximal size of mapped chunk, must be a power of two
+     * @param hashOfValue  function which provides hash of key of given value
+     */
+    OffHeapHashTable(Path directory, String name, int maxChunkSize, LongToIntFunction hashOfValue) {
+        this.directory = directory;
+        this.name = name;
+        this.maxChunkSize = maxChunkSize;
+        this.hashOfValue = hashOfValue;
+        allocate(MIN_CAPACITY);
+    }
+
+    private static long spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9L;
+    }
+
+    private void allocate(long newCapacity) {
+        int chunkSize = (int) Math.min(newCapacity * SLOT_SIZE, maxChunkSize);
+
+        slots = new MappedRegion(directory.resolve(name + '-' + generation++ + ".idx"), chunkSize);
+        slots.ensureCapacity(newCapacity * SLOT_SIZE);
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        size = 0;
+    }
+
+    private long home(int hash) {
+        return spread(hash) & mask;
+    }
+
+    private long slotAt(long slot) {
+        return slots.getLong(slot * SLOT_SIZE);
+    }
+
+    private void setSlot(long slot, long value) {
+        slots.putLong(slot * SLOT_SIZE, value);
+    }
+
+    /**
+     * Finds value corresponding to the key.
+     *
+     * @param hash    hash of the key
+     * @param matches predicate which checks whether value corresponds to the key
+     * @return found value or {@code 0} if table has no value for the key
+     */
+    long get(int hash, LongPredicate matches) {
+        for (long slot = home(hash); ; slot = (slot + 1) & mask) {
+            long value = slotAt(slot);
+
+            if (value == 0 || matches.test(value)) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Puts value for the key, replacing previous value of the key if any.
+     *
+     * @param hash    hash of the key
+     * @param value   non-zero value to put
+     * @param matches predicate which checks whether value corresponds to the key
+     */
+    void put(int hash, long value, LongPredicate matches) {
+        if ((size + 1) * 2 > capacity) {
+            grow();
+        }
+
+        for (long slot = home(hash); ; slot = (slot + 1) & mask) {
+            long current = slotAt(slot);
+
+            if (current == 0) {
+                setSlot(slot, value);
+                size++;
+                return;
+            }
+            if (matches.test(current)) {
+                setSlot(slot, value);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes value of the key.
+     *
+     * @param hash    hash of the key
+     * @param matches predicate which checks whether value corresponds to the key
+     */
+    void remove(int hash, LongPredicate matches) {
+        long slot = home(hash);
+
+        for (long value = slotAt(slot); value != 0; slot = (slot + 1) & mask, value = slotAt(slot)) {
+            if (matches.test(value)) {
+                shiftBackward(slot);
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fills emptied slot by values which were displaced from their home slots past it.
+     */
+    private void shiftBackward(long emptied) {
+        long free = emptied;
+        long slot = emptied;
+
+        while (true) {
+            slot = (slot + 1) & mask;
+            long value = slotAt(slot);
+
+            if (value == 0) {
+                setSlot(free, 0);
+                return;
+            }
+
+            long home = home(hashOfValue.applyAsInt(value));
+            boolean displacedPastFree = slot > free
+                    ? home <= free || home > slot
+                    : home <= free && home > slot;
+
+            if (displacedPastFree) {
+                setSlot(free, value);
+                free = slot;
+            }
+        }
+    }
+
+    private void grow() {
+        MappedRegion previous = slots;
+        long previousCapacity = capacity;
+
+        allocate(capacity * 2);
+
+        for (long slot = 0; slot < previousCapacity; slot++) {
+            long value = previous.getLong(slot * SLOT_SIZE);
+
+            if (value != 0) {
+                insertNew(value);
+            }
+        }
+        previous.close();
+    }
+
+    private void insertNew(long value) {
+        long slot = home(hashOfValue.applyAsInt(value));
+
+        while (slotAt(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        setSlot(slot, value);
+        size++;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Deletes all values and shrinks table to its initial capacity.
+     */
+    void clear() {
+        slots.close();
+        allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    public void close() {
+        slots.close();
+    }
+}
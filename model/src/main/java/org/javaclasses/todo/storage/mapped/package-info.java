@@ -0,0 +1,11 @@
+/**
+ * Storage engine which keeps tasks outside of Java heap in memory-mapped files.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.storage.mapped;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
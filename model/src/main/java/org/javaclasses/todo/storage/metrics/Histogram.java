@@ -0,0 +1,95 @@
+package org.javaclasses.todo.storage.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Thread-safe histogram of non-negative values with bounded relative error,
+ * in the manner of <a href="http://hdrhistogram.org/">HdrHistogram</a>.
+ *
+ * <p>Values are counted in buckets which grow exponentially, each bucket is split into
+ * {@value #SUB_BUCKETS_HALF} linear sub-buckets, so value is reported with relative error
+ * below 1/{@value #SUB_BUCKETS_HALF} regardless of its magnitude. Values above {@link #MAX_VALUE}
+ * are counted as {@code MAX_VALUE}.
+ *
+ * <p>Recording takes no locks and allocates nothing, so histogram may stay on in production.
+ * Footprint of histogram is fixed, about eighteen kilobytes.
+ *
+ * @author Oleg Barmin
+ */
+public final class Histogram {
+
+    /**
+     * Largest value which is recorded exactly up to the relative error, about eighteen minutes in nanoseconds.
+     */
+    static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS_HALF = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int BUCKETS_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Provides index of bucket which counts given value.
+     */
+    static int indexOf(long value) {
+        int bits = Long.SIZE - Long.numberOfLeadingZeros(value);
+        if (bits <= SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+
+        int shift = bits - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS_HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Provides the largest value counted by bucket with given index.
+     */
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKETS_HALF) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS_HALF - 1;
+        long subBucket = index - (long) shift * SUB_BUCKETS_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Records value.
+     *
+     * @param value value to record
+     * @throws IllegalArgumentException if value is negative
+     */
+    public void record(long value) {
+        checkArgument(value >= 0, "Recorded value must not be negative, but was %s.", value);
+
+        long bounded = Math.min(value, MAX_VALUE);
+        counts.incrementAndGet(indexOf(bounded));
+        sum.add(bounded);
+        max.accumulate(bounded);
+    }
+
+    /**
+     * Provides copy of recorded values.
+     *
+     * <p>Values recorded concurrently with copying may be partially included.
+     *
+     * @return snapshot of histogram
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKETS_COUNT; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new HistogramSnapshot(copy, count, sum.sum(), max.get());
+    }
+}
@@ -0,0 +1,66 @@
+package org.javaclasses.todo.storage.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Immutable copy of values recorded by {@link Histogram}.
+ *
+ * @author Oleg Barmin
+ */
+public final class HistogramSnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long count, long sum, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Provides number of recorded values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Provides mean of recorded values, zero if nothing was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Provides the largest recorded value, zero if nothing was recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Provides value which is not exceeded by given percentage of recorded values.
+     *
+     * @param percentile percentage of values from zero to one hundred, e.g. {@code 99.9}
+     * @return value at given percentile, zero if nothing was recorded
+     * @throws IllegalArgumentException if percentile is out of range
+     */
+    public long getValueAtPercentile(double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100, "Percentile must be from 0 to 100, but was %s.",
+                      percentile);
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(Histogram.highestValueOf(i), max);
+            }
+        }
+        return 0;
+    }
+}
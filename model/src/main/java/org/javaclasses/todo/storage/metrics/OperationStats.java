@@ -0,0 +1,44 @@
+package org.javaclasses.todo.storage.metrics;
+
+/**
+ * Statistics of one operation of storage.
+ *
+ * @author Oleg Barmin
+ */
+public final class OperationStats {
+
+    private final StorageOperation operation;
+    private final long failureCount;
+    private final HistogramSnapshot latencyNanos;
+
+    OperationStats(StorageOperation operation, long failureCount, HistogramSnapshot latencyNanos) {
+        this.operation = operation;
+        this.failureCount = failureCount;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public StorageOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Provides number of performed operations, including failed ones.
+     */
+    public long getCount() {
+        return latencyNanos.getCount();
+    }
+
+    /**
+     * Provides number of operations which threw exception.
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Provides latencies of operations in nanoseconds.
+     */
+    public HistogramSnapshot getLatencyNanos() {
+        return latencyNanos;
+    }
+}
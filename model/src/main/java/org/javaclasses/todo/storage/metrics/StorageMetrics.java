@@ -0,0 +1,130 @@
+package org.javaclasses.todo.storage.metrics;
+
+import com.google.common.base.Ticker;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Counters and latency histograms of operations of one storage.
+ *
+ * <p>Each operation costs two reads of the clock and a few uncontended atomic increments,
+ * so metrics stay on in production.
+ *
+ * @author Oleg Barmin
+ */
+public final class StorageMetrics {
+
+    private final String storageName;
+    private final Ticker ticker;
+    private final LongSupplier entityCounter;
+
+    private final Map<StorageOperation, Histogram> latencies = new EnumMap<>(StorageOperation.class);
+    private final Map<StorageOperation, LongAdder> failures = new EnumMap<>(StorageOperation.class);
+    private final Histogram scanLengths = new Histogram();
+
+    /**
+     * Creates {@code StorageMetrics} instance.
+     *
+     * @param storageName   name of measured storage
+     * @param entityCounter provides number of entities kept in storage
+     */
+    public StorageMetrics(String storageName, LongSupplier entityCounter) {
+        this(storageName, entityCounter, Ticker.systemTicker());
+    }
+
+    StorageMetrics(String storageName, LongSupplier entityCounter, Ticker ticker) {
+        this.storageName = checkNotNull(storageName);
+        this.entityCounter = checkNotNull(entityCounter);
+        this.ticker = checkNotNull(ticker);
+
+        for (StorageOperation operation : StorageOperation.values()) {
+            latencies.put(operation, new Histogram());
+            failures.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Performs operation and records its latency.
+     *
+     * @param operation measured operation
+     * @param action    action which performs operation
+     * @param <T>       type of result of operation
+     * @return result of given action
+     */
+    public <T> T measure(StorageOperation operation, Supplier<T> action) {
+        long start = ticker.read();
+        boolean succeeded = false;
+        try {
+            T result = action.get();
+            succeeded = true;
+            return result;
+        } finally {
+            latencies.get(operation)
+                     .record(ticker.read() - start);
+            if (!succeeded) {
+                failures.get(operation)
+                        .increment();
+            }
+        }
+    }
+
+    /**
+     * Performs operation which returns nothing and records its latency.
+     *
+     * @param operation measured operation
+     * @param action    action which performs operation
+     */
+    public void measure(StorageOperation operation, Runnable action) {
+        measure(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records number of entities visited by lookup which scans the whole storage.
+     *
+     * @param length number of visited entities
+     */
+    public void recordScan(long length) {
+        scanLengths.record(length);
+    }
+
+    public String getStorageName() {
+        return storageName;
+    }
+
+    /**
+     * Provides statistics of given operation.
+     *
+     * @param operation measured operation
+     * @return statistics since storage was created
+     */
+    public OperationStats getStats(StorageOperation operation) {
+        return new OperationStats(operation, failures.get(operation)
+                                                     .sum(), latencies.get(operation)
+                                                                      .snapshot());
+    }
+
+    /**
+     * Provides numbers of entities visited by lookups which scan the whole storage.
+     */
+    public HistogramSnapshot getScanLengths() {
+        return scanLengths.snapshot();
+    }
+
+    /**
+     * Provides number of entities kept in storage.
+     *
+     * <p>Number is counted on request, which may visit all entities for engines which don't track it.
+     */
+    public long getEntityCount() {
+        return entityCounter.getAsLong();
+    }
+}
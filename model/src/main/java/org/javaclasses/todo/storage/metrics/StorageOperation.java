@@ -0,0 +1,24 @@
+package org.javaclasses.todo.storage.metrics;
+
+/**
+ * Operations of storage which are measured by {@link StorageMetrics}.
+ *
+ * @author Oleg Barmin
+ */
+public enum StorageOperation {
+
+    READ,
+    READ_ALL,
+    WRITE,
+    WRITE_ALL,
+    WRITE_IF_ABSENT,
+    WRITE_IF_VERSION,
+    COMPUTE,
+    REMOVE,
+    REMOVE_ALL,
+    FIND_BY_INDEX,
+    FIND_PAGE_BY_INDEX,
+    FIND_BY_FIELD,
+    FOR_EACH,
+    CLEAR
+}
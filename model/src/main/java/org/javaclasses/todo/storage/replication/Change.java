@@ -0,0 +1,118 @@
+package org.javaclasses.todo.storage.replication;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Change of one storage, which is replicated to followers.
+ *
+ * <p>Payload of {@link Type#PUT} is entity written by codec of storage, payload of {@link Type#REMOVE}
+ * is ID of removed entity written by the same codec, {@link Type#CLEAR} has empty payload.
+ *
+ * @author Oleg Barmin
+ */
+final class Change {
+
+    private final long sequence;
+    private final long timestamp;
+    private final String storage;
+    private final Type type;
+    private final byte[] payload;
+
+    /**
+     * Creates {@code Change} instance.
+     *
+     * @param sequence  sequence number of change in log
+     * @param timestamp time of change on leader in milliseconds since epoch
+     * @param storage   name of changed storage
+     * @param type      type of change
+     * @param payload   encoded entity or ID, depending on type
+     */
+    Change(long sequence, long timestamp, String storage, Type type, byte[] payload) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.storage = checkNotNull(storage);
+        this.type = checkNotNull(type);
+        this.payload = checkNotNull(payload);
+    }
+
+    /**
+     * Reads change written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in input to read from
+     * @return read change
+     * @throws IOException if reading failed or type of change is unknown
+     */
+    static Change readFrom(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        long timestamp = in.readLong();
+        String storage = in.readUTF();
+        int typeOrdinal = in.readUnsignedByte();
+        if (typeOrdinal >= Type.values().length) {
+            throw new IOException("Unknown type of change: " + typeOrdinal);
+        }
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+
+        return new Change(sequence, timestamp, storage, Type.values()[typeOrdinal], payload);
+    }
+
+    /**
+     * Writes this change.
+     *
+     * @param out output to write into
+     * @throws IOException if writing failed
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        out.writeLong(timestamp);
+        out.writeUTF(storage);
+        out.writeByte(type.ordinal());
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    String getStorage() {
+        return storage;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Type of change.
+     */
+    enum Type {
+
+        /**
+         * Entity was written.
+         */
+        PUT,
+
+        /**
+         * Entity was removed.
+         */
+        REMOVE,
+
+        /**
+         * All entities of storage were removed.
+         */
+        CLEAR
+    }
+}
@@ -0,0 +1,161 @@
+package org.javaclasses.todo.storage.replication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Ordered log of changes of storages, which keeps the most recent changes in memory.
+ *
+ * <p>Each change gets the next sequence number. Follower which applied changes up to some sequence number
+ * continues from the log while the log retains following changes, otherwise it needs a snapshot.
+ *
+ * <p>Change is appended before engine applies it, so the log tracks changes which are not applied yet.
+ * Snapshot taken after all changes up to {@link #getStableSequence()} were applied contains each of them,
+ * so follower continues after snapshot from that sequence number.
+ *
+ * <p>Log has random non-zero ID, so follower of previous log, e.g. of leader before restart,
+ * is not continued by unrelated sequence numbers of new log.
+ *
+ * @author Oleg Barmin
+ */
+final class ChangeLog {
+
+    /* Guarded by this. */
+    private final Change[] ring;
+    private final SortedSet<Long> pending = new TreeSet<>();
+    private long id;
+    private long firstSequence = 1;
+    private long lastSequence;
+
+    /**
+     * Creates empty {@code ChangeLog} instance.
+     *
+     * @param capacity number of the most recent changes to keep
+     */
+    ChangeLog(int capacity) {
+        checkArgument(capacity > 0, "Capacity must be positive, but was %s.", capacity);
+        this.ring = new Change[capacity];
+        this.id = newId();
+    }
+
+    private static long newId() {
+        return ThreadLocalRandom.current()
+                                .nextLong(1, Long.MAX_VALUE);
+    }
+
+    private int slotOf(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+    /**
+     * Appends change with the next sequence number and wakes up readers waiting for it.
+     *
+     * <p>Change is pending until it is {@link #complete(long) completed}.
+     *
+     * @param storage name of changed storage
+     * @param type    type of change
+     * @param payload encoded entity or ID, depending on type of change
+     * @return appended change
+     */
+    synchronized Change append(String storage, Change.Type type, byte[] payload) {
+        Change change = new Change(++lastSequence, System.currentTimeMillis(), storage, type, payload);
+
+        ring[slotOf(lastSequence)] = change;
+        pending.add(lastSequence);
+        if (lastSequence - firstSequence >= ring.length) {
+            firstSequence = lastSequence - ring.length + 1;
+        }
+        notifyAll();
+
+        return change;
+    }
+
+    /**
+     * Marks change as applied by engine.
+     *
+     * @param sequence sequence number of appended change
+     */
+    synchronized void complete(long sequence) {
+        pending.remove(sequence);
+    }
+
+    /**
+     * Provides sequence number up to which all changes were applied by engines.
+     *
+     * @return sequence number of the last change which follows only applied changes
+     */
+    synchronized long getStableSequence() {
+        return pending.isEmpty() ? lastSequence : pending.first() - 1;
+    }
+
+    synchronized long getId() {
+        return id;
+    }
+
+    synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Starts new log which continues from given sequence number, forgetting retained changes.
+     *
+     * @param sequence sequence number of the last change already applied by the log owner
+     */
+    synchronized void restart(long sequence) {
+        id = newId();
+        pending.clear();
+        lastSequence = sequence;
+        firstSequence = sequence + 1;
+        notifyAll();
+    }
+
+    /**
+     * Checks whether log retains all changes which follow given position of log with given ID.
+     *
+     * @param logId    ID of log which position belongs to
+     * @param position sequence number of the last change known to follower
+     * @return {@code true} if follower can continue from the log
+     */
+    synchronized boolean canContinue(long logId, long position) {
+        return logId == id && position <= lastSequence && position + 1 >= firstSequence;
+    }
+
+    /**
+     * Waits for changes which follow given position.
+     *
+     * @param position     sequence number of the last change known to reader
+     * @param maxChanges   maximal number of changes to provide
+     * @param timeoutNanos time to wait for the first change
+     * @return changes in order of their sequence numbers, empty if no change appeared in time
+     *         or log no longer retains changes which follow position
+     * @throws InterruptedException if thread was interrupted while waiting
+     */
+    synchronized List<Change> awaitAfter(long position, int maxChanges, long timeoutNanos)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long remaining = timeoutNanos;
+
+        while (lastSequence <= position && remaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+
+        if (lastSequence <= position || position + 1 < firstSequence) {
+            return Collections.emptyList();
+        }
+
+        long last = Math.min(lastSequence, position + maxChanges);
+        List<Change> result = new ArrayList<>((int) (last - position));
+        for (long sequence = position + 1; sequence <= last; sequence++) {
+            result.add(ring[slotOf(sequence)]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package org.javaclasses.todo.storage.replication;
+
+/**
+ * Occurs when storage of follower is asked to change entity, since followers only apply changes of leader.
+ *
+ * @author Oleg Barmin
+ */
+@SuppressWarnings("WeakerAccess") // part of Public API should be public
+public class ReadOnlyReplicaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates {@code ReadOnlyReplicaException} instance.
+     *
+     * @param storage name of storage which was asked to change entity
+     */
+    public ReadOnlyReplicaException(String storage) {
+        super(String.format("Storage '%s' of follower is read-only, changes are accepted by leader.", storage));
+    }
+}
@@ -0,0 +1,243 @@
+package org.javaclasses.todo.storage.replication;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.EntityCodec;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Engine which appends changes of entities to {@link ChangeLog} of {@link ReplicationNode}.
+ *
+ * <p>Changes are appended by function of {@link #compute(EntityId, UnaryOperator)} of delegate,
+ * which is invoked while no other change of same entity is in progress, so changes of each entity
+ * are appended in order they are applied.
+ *
+ * <p>Engine of follower rejects changes with {@link ReadOnlyReplicaException}
+ * and applies changes received from leader by {@link #apply(Change)}.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+final class ReplicatedStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    private final StorageEngine<I, E> delegate;
+    private final String name;
+    private final EntityCodec<I, E> codec;
+    private final ReplicationNode node;
+
+    /**
+     * Creates {@code ReplicatedStorageEngine} instance.
+     *
+     * @param delegate engine to keep entities in
+     * @param schema   schema of kept entities
+     * @param node     node which log receives changes
+     */
+    ReplicatedStorageEngine(StorageEngine<I, E> delegate, StorageSchema<I, E> schema, ReplicationNode node) {
+        this.delegate = checkNotNull(delegate);
+        this.name = schema.getName();
+        this.codec = schema.getCodec();
+        this.node = checkNotNull(node);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        return delegate.read(id);
+    }
+
+    @Override
+    public Map<I, E> readAll(Collection<I> ids) {
+        return delegate.readAll(ids);
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        node.checkWritable(name);
+        ChangeLog log = node.getLog();
+
+        long[] appended = {0};
+        try {
+            return delegate.compute(id, current -> {
+                Optional<E> next = remapping.apply(current);
+                appended[0] = append(log, id, current, next);
+                return next;
+            });
+        } finally {
+            if (appended[0] != 0) {
+                log.complete(appended[0]);
+            }
+        }
+    }
+
+    @Override
+    public void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        node.checkWritable(name);
+        ChangeLog log = node.getLog();
+
+        List<Long> appended = new ArrayList<>();
+        try {
+            delegate.computeAll(ids, (id, current) -> {
+                Optional<E> next = remapping.apply(id, current);
+                long sequence = append(log, id, current, next);
+                if (sequence != 0) {
+                    appended.add(sequence);
+                }
+                return next;
+            });
+        } finally {
+            appended.forEach(log::complete);
+        }
+    }
+
+    /**
+     * Appends change of entity to the log.
+     *
+     * @return sequence number of appended change, zero if entity was not changed
+     */
+    private long append(ChangeLog log, I id, Optional<E> current, Optional<E> next) {
+        if (next == current || !(next.isPresent() || current.isPresent())) {
+            return 0;
+        }
+
+        Change change = next.isPresent()
+                        ? log.append(name, Change.Type.PUT, encode(next.get()))
+                        : log.append(name, Change.Type.REMOVE, encodeId(id));
+        return change.getSequence();
+    }
+
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        return delegate.findBy(index, key);
+    }
+
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        return delegate.scan(index, key, after, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public void clear() {
+        node.checkWritable(name);
+        ChangeLog log = node.getLog();
+
+        Change change = log.append(name, Change.Type.CLEAR, new byte[0]);
+        try {
+            delegate.clear();
+        } finally {
+            log.complete(change.getSequence());
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Performs given action for each kept entity written by codec of the storage.
+     *
+     * @param action action to perform
+     */
+    void forEachEncoded(Consumer<byte[]> action) {
+        delegate.forEach(entity -> action.accept(encode(entity)));
+    }
+
+    /**
+     * Applies change received from leader.
+     *
+     * @param change change of this storage
+     * @throws IOException if payload of change cannot be decoded
+     */
+    void apply(Change change) throws IOException {
+        switch (change.getType()) {
+            case PUT:
+                applyEntity(change.getPayload());
+                break;
+            case REMOVE:
+                I id = codec.readId(new DataInputStream(new ByteArrayInputStream(change.getPayload())));
+                delegate.compute(id, current -> Optional.empty());
+                break;
+            case CLEAR:
+                delegate.clear();
+                break;
+            default:
+                throw new IOException("Unknown type of change: " + change.getType());
+        }
+    }
+
+    /**
+     * Writes entity received from leader.
+     *
+     * @param payload entity written by codec of the storage
+     * @throws IOException if entity cannot be decoded
+     */
+    void applyEntity(byte[] payload) throws IOException {
+        E entity = codec.read(new DataInputStream(new ByteArrayInputStream(payload)));
+        delegate.compute(entity.getId(), current -> Optional.of(entity));
+    }
+
+    /**
+     * Removes all entities before snapshot of leader is applied.
+     */
+    void applyClear() {
+        delegate.clear();
+    }
+
+    private byte[] encode(E entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(entity, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode entity.", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeId(I id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.writeId(id, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode ID.", e);
+        }
+
+        return bytes.toByteArray();
+    }
+}
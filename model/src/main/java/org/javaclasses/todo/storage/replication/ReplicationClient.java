@@ -0,0 +1,238 @@
+package org.javaclasses.todo.storage.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Client which follows the leader and applies its changes to storages of follower.
+ *
+ * <p>Client reconnects to leader after connection breaks and continues from the last applied change,
+ * if leader still retains following changes, or from snapshot otherwise.
+ *
+ * <p>Follower is in sync with leader at moment when it has applied all changes leader had at that moment.
+ * Such moments are known from heartbeats and changes of leader, which carry clock of leader,
+ * so replication lag is the time passed since the last such moment.
+ *
+ * @author Oleg Barmin
+ */
+final class ReplicationClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationClient.class);
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    private static final int READ_TIMEOUT_MILLIS = 10 * (int) ReplicationServer.HEARTBEAT_INTERVAL_MILLIS;
+
+    private final InetSocketAddress leaderAddress;
+    private final ReplicationNode node;
+    private final Object reconnectDelay = new Object();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile long logId;
+    private volatile long appliedSequence;
+    private volatile long leaderSequence;
+    private volatile long syncedAt = -1;
+    @Nullable
+    private volatile Socket socket;
+    @Nullable
+    private Thread thread;
+
+    /**
+     * Creates {@code ReplicationClient} instance.
+     *
+     * @param leaderAddress address of leader
+     * @param node          node which storages receive changes
+     */
+    ReplicationClient(InetSocketAddress leaderAddress, ReplicationNode node) {
+        this.leaderAddress = checkNotNull(leaderAddress);
+        this.node = checkNotNull(node);
+    }
+
+    /**
+     * Starts thread which follows the leader.
+     */
+    synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::follow, "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops following the leader and waits until the last received change is applied.
+     *
+     * <p>Thread of client is not interrupted, since interruption may break I/O of engine applying the change.
+     */
+    synchronized void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+
+        Socket current = socket;
+        if (current != null) {
+            closeQuietly(current);
+        }
+        synchronized (reconnectDelay) {
+            reconnectDelay.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+        thread = null;
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    long getLeaderSequence() {
+        return leaderSequence;
+    }
+
+    /**
+     * Provides time passed since follower was in sync with the leader.
+     *
+     * @return lag in milliseconds, {@code -1} if follower was never in sync
+     */
+    long getLagMillis() {
+        long synced = syncedAt;
+        return synced < 0 ? -1 : Math.max(0, System.currentTimeMillis() - synced);
+    }
+
+    private void follow() {
+        while (running) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(leaderAddress, CONNECT_TIMEOUT_MILLIS);
+                connection.setSoTimeout(READ_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                receive(connection);
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Lost connection to leader {}: {}", leaderAddress, e.toString());
+                }
+            } finally {
+                socket = null;
+                connected = false;
+            }
+
+            synchronized (reconnectDelay) {
+                if (running) {
+                    try {
+                        reconnectDelay.wait(RECONNECT_DELAY_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void receive(Socket connection) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+
+        out.writeInt(ReplicationServer.PROTOCOL_VERSION);
+        out.writeLong(logId);
+        out.writeLong(appliedSequence);
+        out.flush();
+        connected = true;
+        logger.info("Following leader {} from change {}.", leaderAddress, appliedSequence);
+
+        while (running) {
+            byte frame = in.readByte();
+            switch (frame) {
+                case ReplicationServer.CHANGE:
+                    applyChange(Change.readFrom(in));
+                    break;
+                case ReplicationServer.HEARTBEAT:
+                    long sequence = in.readLong();
+                    long timestamp = in.readLong();
+                    leaderSequence = Math.max(leaderSequence, sequence);
+                    if (appliedSequence >= sequence) {
+                        syncedAt = timestamp;
+                    }
+                    break;
+                case ReplicationServer.SNAPSHOT:
+                    applySnapshot(in);
+                    break;
+                default:
+                    throw new IOException("Unknown frame of replication protocol: " + frame);
+            }
+        }
+    }
+
+    private void applyChange(Change change) throws IOException {
+        ReplicatedStorageEngine<?, ?> engine = node.engineOf(change.getStorage())
+                                                   .orElseThrow(() -> unknownStorage(change.getStorage()));
+        engine.apply(change);
+
+        appliedSequence = change.getSequence();
+        if (appliedSequence >= leaderSequence) {
+            leaderSequence = appliedSequence;
+            syncedAt = change.getTimestamp();
+        }
+    }
+
+    private void applySnapshot(DataInputStream in) throws IOException {
+        long snapshotLogId = in.readLong();
+        long position = in.readLong();
+        logger.info("Receiving snapshot of leader at change {}.", position);
+
+        for (ReplicatedStorageEngine<?, ?> engine : node.getEngines()) {
+            engine.applyClear();
+        }
+
+        byte frame;
+        while ((frame = in.readByte()) == ReplicationServer.SNAPSHOT_ENTITY) {
+            String storage = in.readUTF();
+            byte[] entity = new byte[in.readInt()];
+            in.readFully(entity);
+            node.engineOf(storage)
+                .orElseThrow(() -> unknownStorage(storage))
+                .applyEntity(entity);
+        }
+        if (frame != ReplicationServer.SNAPSHOT_END) {
+            throw new IOException("Unexpected frame in snapshot: " + frame);
+        }
+
+        logId = snapshotLogId;
+        appliedSequence = position;
+        leaderSequence = position;
+    }
+
+    private static IOException unknownStorage(String storage) {
+        return new IOException("Leader replicates unknown storage: " + storage);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close connection to leader.", e);
+        }
+    }
+}
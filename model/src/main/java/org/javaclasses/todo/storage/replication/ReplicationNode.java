@@ -0,0 +1,212 @@
+package org.javaclasses.todo.storage.replication;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Process taking part in replication of storages, either as leader or as follower.
+ *
+ * <p>Leader appends each change of its storages to in-memory {@link ChangeLog} and sends it
+ * to followers connected to {@link #serve(int) replication port}. Follower connects to leader,
+ * receives snapshot of all entities if it cannot continue from the log of leader, then applies
+ * changes in order of the log. Follower serves reads and rejects changes with {@link ReadOnlyReplicaException}.
+ *
+ * <p>Storages take part in replication when they are created by factory {@link #wrap(StorageEngineFactory) wrapped}
+ * by the node. Storages of leader and followers are matched by names of their schemas.
+ *
+ * <p>Follower becomes leader on {@link #promote()}, e.g. after failure of the leader. It stops following,
+ * keeps applied entities and starts accepting changes and followers of its own.
+ *
+ * @author Oleg Barmin
+ */
+public final class ReplicationNode implements Closeable {
+
+    private static final int DEFAULT_RETAINED_CHANGES = 100_000;
+
+    private final Map<String, ReplicatedStorageEngine<?, ?>> engines = new ConcurrentHashMap<>();
+    private final ChangeLog log;
+    @Nullable
+    private final ReplicationClient client;
+    @Nullable
+    private ReplicationServer server;
+    private volatile ReplicationStatus.Role role;
+
+    /**
+     * Creates {@code ReplicationNode} instance.
+     *
+     * @param leaderAddress   address of leader to follow, {@code null} for leader
+     * @param retainedChanges number of the most recent changes retained by log to continue followers from
+     */
+    @VisibleForTesting
+    ReplicationNode(@Nullable InetSocketAddress leaderAddress, int retainedChanges) {
+        this.log = new ChangeLog(retainedChanges);
+        this.client = leaderAddress == null ? null : new ReplicationClient(leaderAddress, this);
+        this.role = leaderAddress == null ? ReplicationStatus.Role.LEADER : ReplicationStatus.Role.FOLLOWER;
+    }
+
+    /**
+     * Creates node which accepts changes and sends them to followers.
+     *
+     * @return leader node
+     */
+    public static ReplicationNode leader() {
+        return new ReplicationNode(null, DEFAULT_RETAINED_CHANGES);
+    }
+
+    /**
+     * Creates node which applies changes of leader once {@link #start() started}.
+     *
+     * @param leaderAddress address on which leader {@link #serve(int) serves} followers
+     * @return follower node
+     */
+    public static ReplicationNode follower(InetSocketAddress leaderAddress) {
+        checkNotNull(leaderAddress);
+        return new ReplicationNode(leaderAddress, DEFAULT_RETAINED_CHANGES);
+    }
+
+    /**
+     * Wraps factory, so storages created by it take part in replication.
+     *
+     * <p>Wrapped factory should create the outermost engine of storage, so entities cached
+     * by inner engines reflect changes applied by follower.
+     *
+     * @param factory factory of engines to keep entities in
+     * @return factory of replicated engines
+     */
+    public StorageEngineFactory wrap(StorageEngineFactory factory) {
+        checkNotNull(factory);
+
+        return new StorageEngineFactory() {
+            @Override
+            public <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema) {
+                ReplicatedStorageEngine<I, E> engine =
+                        new ReplicatedStorageEngine<>(factory.create(schema), schema, ReplicationNode.this);
+                ReplicatedStorageEngine<?, ?> previous = engines.putIfAbsent(schema.getName(), engine);
+                checkArgument(previous == null, "Storage '%s' is already replicated.", schema.getName());
+                return engine;
+            }
+        };
+    }
+
+    /**
+     * Starts accepting followers on loopback interface.
+     *
+     * <p>Follower accepts followers only after it was {@link #promote() promoted}.
+     *
+     * @param port port to listen on, zero to choose free port
+     * @return port on which followers are accepted
+     * @throws IOException if port cannot be bound
+     */
+    public synchronized int serve(int port) throws IOException {
+        checkState(server == null, "Node already serves followers.");
+
+        server = ReplicationServer.start(port, this);
+        return server.getPort();
+    }
+
+    /**
+     * Starts following the leader, should be called after replicated storages are created.
+     *
+     * <p>Does nothing for leader.
+     */
+    public void start() {
+        if (client != null) {
+            client.start();
+        }
+    }
+
+    /**
+     * Makes follower a leader, which accepts changes of storages.
+     *
+     * <p>New leader continues sequence numbers of the log it has applied, but starts log with new ID,
+     * so its followers receive snapshot of its storages before following changes.
+     */
+    public void promote() {
+        if (role == ReplicationStatus.Role.LEADER) {
+            return;
+        }
+
+        checkNotNull(client).stop();
+        log.restart(client.getAppliedSequence());
+        role = ReplicationStatus.Role.LEADER;
+    }
+
+    /**
+     * Provides current state of replication.
+     *
+     * @return status of this node
+     */
+    public ReplicationStatus getStatus() {
+        if (role == ReplicationStatus.Role.LEADER) {
+            long sequence = log.getLastSequence();
+            return new ReplicationStatus(role, true, getFollowerCount(), sequence, sequence, 0);
+        }
+
+        ReplicationClient follower = checkNotNull(client);
+        return new ReplicationStatus(role, follower.isConnected(), 0, follower.getAppliedSequence(),
+                                     follower.getLeaderSequence(), follower.getLagMillis());
+    }
+
+    private synchronized int getFollowerCount() {
+        return server == null ? 0 : server.getFollowerCount();
+    }
+
+    boolean isLeader() {
+        return role == ReplicationStatus.Role.LEADER;
+    }
+
+    /**
+     * Checks that storage of this node accepts changes.
+     *
+     * @param storage name of storage to change
+     * @throws ReadOnlyReplicaException if node is follower
+     */
+    void checkWritable(String storage) {
+        if (role != ReplicationStatus.Role.LEADER) {
+            throw new ReadOnlyReplicaException(storage);
+        }
+    }
+
+    ChangeLog getLog() {
+        return log;
+    }
+
+    Optional<ReplicatedStorageEngine<?, ?>> engineOf(String storage) {
+        return Optional.ofNullable(engines.get(storage));
+    }
+
+    Collection<ReplicatedStorageEngine<?, ?>> getEngines() {
+        return Collections.unmodifiableCollection(engines.values());
+    }
+
+    /**
+     * Stops following the leader and serving followers, storages are closed by their owners.
+     */
+    @Override
+    public synchronized void close() {
+        if (client != null) {
+            client.stop();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.javaclasses.todo.storage.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server which sends changes of leader to connected followers.
+ *
+ * <p>Each follower is served by its own thread. Follower starts with greeting which contains version of protocol,
+ * ID of log it followed and sequence number of the last applied change. If the log of leader retains changes
+ * which follow that position, they are sent right away, otherwise follower receives snapshot of all storages first.
+ *
+ * <p>Server sends heartbeat with the last sequence number of leader while there are no changes to send,
+ * so follower knows it is in sync and detects broken connection.
+ *
+ * @author Oleg Barmin
+ */
+final class ReplicationServer implements Closeable {
+
+    static final int PROTOCOL_VERSION = 1;
+
+    static final byte CHANGE = 1;
+    static final byte HEARTBEAT = 2;
+    static final byte SNAPSHOT = 3;
+    static final byte SNAPSHOT_ENTITY = 4;
+    static final byte SNAPSHOT_END = 5;
+
+    static final long HEARTBEAT_INTERVAL_MILLIS = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationServer.class);
+    private static final int BATCH_SIZE = 256;
+
+    private final ServerSocket serverSocket;
+    private final ReplicationNode node;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+
+    private ReplicationServer(ServerSocket serverSocket, ReplicationNode node) {
+        this.serverSocket = serverSocket;
+        this.node = node;
+    }
+
+    /**
+     * Starts server on loopback interface.
+     *
+     * @param port port to listen on, zero to choose free port
+     * @param node node which changes are sent
+     * @return started server
+     * @throws IOException if port cannot be bound
+     */
+    static ReplicationServer start(int port, ReplicationNode node) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        ReplicationServer server = new ReplicationServer(serverSocket, node);
+
+        Thread acceptor = new Thread(server::acceptFollowers, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        logger.info("Serving followers on {}.", serverSocket.getLocalSocketAddress());
+        return server;
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getFollowerCount() {
+        return followers.size();
+    }
+
+    private void acceptFollowers() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.error("Failed to accept follower.", e);
+                }
+                continue;
+            }
+
+            if (!node.isLeader()) {
+                closeQuietly(socket);
+                continue;
+            }
+
+            followers.add(socket);
+            Thread thread = new Thread(() -> serve(socket), "replication-" + socket.getRemoteSocketAddress());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            int version = in.readInt();
+            if (version != PROTOCOL_VERSION) {
+                throw new IOException("Unsupported version of replication protocol: " + version);
+            }
+            long logId = in.readLong();
+            long position = in.readLong();
+
+            ChangeLog log = node.getLog();
+            if (!log.canContinue(logId, position)) {
+                position = sendSnapshot(out);
+            }
+
+            sendChanges(out, position);
+        } catch (SocketException e) {
+            logger.info("Follower {} disconnected.", socket.getRemoteSocketAddress());
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Replication to {} failed.", socket.getRemoteSocketAddress(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        } finally {
+            followers.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Sends all entities of replicated storages.
+     *
+     * <p>Changes which are applied by leader while snapshot is sent may be sent twice, in snapshot and afterwards.
+     * Follower applies each change as the whole state of entity, so repeating changes in order of the log
+     * leads to the same state.
+     *
+     * @return sequence number of the last change contained by snapshot
+     */
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        ChangeLog log = node.getLog();
+        long logId = log.getId();
+        long position = log.getStableSequence();
+
+        out.writeByte(SNAPSHOT);
+        out.writeLong(logId);
+        out.writeLong(position);
+
+        for (ReplicatedStorageEngine<?, ?> engine : node.getEngines()) {
+            String storage = engine.getName();
+            engine.forEachEncoded(entity -> {
+                try {
+                    out.writeByte(SNAPSHOT_ENTITY);
+                    out.writeUTF(storage);
+                    out.writeInt(entity.length);
+                    out.write(entity);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        out.writeByte(SNAPSHOT_END);
+        out.flush();
+        return position;
+    }
+
+    private void sendChanges(DataOutputStream out, long position) throws IOException, InterruptedException {
+        ChangeLog log = node.getLog();
+        long logId = log.getId();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(HEARTBEAT_INTERVAL_MILLIS);
+
+        while (!serverSocket.isClosed()) {
+            List<Change> changes = log.awaitAfter(position, BATCH_SIZE, timeout);
+
+            if (changes.isEmpty()) {
+                if (!log.canContinue(logId, position)) {
+                    logger.info("Follower fell behind retained changes, it will receive snapshot.");
+                    return;
+                }
+                out.writeByte(HEARTBEAT);
+                out.writeLong(log.getLastSequence());
+                out.writeLong(System.currentTimeMillis());
+            } else {
+                for (Change change : changes) {
+                    out.writeByte(CHANGE);
+                    change.writeTo(out);
+                }
+                position = changes.get(changes.size() - 1)
+                                  .getSequence();
+            }
+            out.flush();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close replication connection.", e);
+        }
+    }
+
+    /**
+     * Stops accepting followers and disconnects connected ones.
+     */
+    @Override
+    public void close() {
+        closeQuietly(serverSocket);
+        followers.forEach(ReplicationServer::closeQuietly);
+    }
+}
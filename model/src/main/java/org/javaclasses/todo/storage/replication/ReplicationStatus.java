@@ -0,0 +1,99 @@
+package org.javaclasses.todo.storage.replication;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * State of replication of a process at some moment.
+ *
+ * @author Oleg Barmin
+ */
+public final class ReplicationStatus {
+
+    private final Role role;
+    private final boolean connected;
+    private final int followerCount;
+    private final long appliedSequence;
+    private final long leaderSequence;
+    private final long lagMillis;
+
+    /**
+     * Creates {@code ReplicationStatus} instance.
+     *
+     * @param role            role of process
+     * @param connected       whether follower is connected to leader, always {@code true} for leader
+     * @param followerCount   number of followers connected to leader, zero for follower
+     * @param appliedSequence sequence number of the last change applied by process
+     * @param leaderSequence  sequence number of the last change of leader known to process
+     * @param lagMillis       replication lag in milliseconds, {@code -1} if follower was never in sync
+     */
+    ReplicationStatus(Role role, boolean connected, int followerCount, long appliedSequence, long leaderSequence,
+                      long lagMillis) {
+        this.role = checkNotNull(role);
+        this.connected = connected;
+        this.followerCount = followerCount;
+        this.appliedSequence = appliedSequence;
+        this.leaderSequence = leaderSequence;
+        this.lagMillis = lagMillis;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public int getFollowerCount() {
+        return followerCount;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public long getLeaderSequence() {
+        return leaderSequence;
+    }
+
+    /**
+     * Provides time passed since the moment up to which follower has applied all changes of leader,
+     * so it bounds staleness of entities read from follower.
+     *
+     * <p>Lag is measured by clock of leader, so clocks of machines which run leader and follower
+     * have to be synchronized.
+     *
+     * @return lag in milliseconds, zero for leader, {@code -1} if follower has not received state of leader yet
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicationStatus{" +
+                "role=" + role +
+                ", connected=" + connected +
+                ", followerCount=" + followerCount +
+                ", appliedSequence=" + appliedSequence +
+                ", leaderSequence=" + leaderSequence +
+                ", lagMillis=" + lagMillis +
+                '}';
+    }
+
+    /**
+     * Role of process in replication.
+     */
+    public enum Role {
+
+        /**
+         * Process accepts changes and sends them to followers.
+         */
+        LEADER,
+
+        /**
+         * Process serves reads and applies changes received from leader.
+         */
+        FOLLOWER
+    }
+}
@@ -0,0 +1,345 @@
+package org.javaclasses.todo.storage.sharded;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Engine which splits entities into independent shards by hash of their partition key.
+ *
+ * <p>Each shard is a separate engine with its own map, locks, indexes and files,
+ * so changes of entities of different shards never contend, even if shard engine
+ * takes one lock for all its entities. Number of shards defaults to the number of available cores.
+ *
+ * <p>If {@link StorageSchema#getPartitionIndex() partition index} is declared by schema,
+ * entities with same value of indexed field are kept in the same shard
+ * and lookups by partition index touch only that shard. As partition key can not be derived from ID,
+ * engine keeps in memory directory of shards of entities by their IDs. Lookups by other indexes visit all shards.
+ * Entity moved to another shard may be not found by concurrent reader while it is moved.
+ *
+ * <p>If schema declares no partition index, entities are partitioned by their IDs.
+ * Since same hash function is used, entity and entities partitioned by its ID,
+ * e.g. user and to-do lists owned by the user, are kept in shards with the same number.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public class ShardedStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    private final List<StorageEngine<I, E>> shards;
+    private final SecondaryIndex<?, E> partitionIndex;
+
+    /**
+     * Shards of entities by their IDs, {@code null} if entities are partitioned by IDs.
+     *
+     * <p>Contains shard of each kept entity. Entry of entity is locked while entity is computed,
+     * so changes of entity are serialized even if entity moves between shards.
+     */
+    private final ConcurrentMap<I, Integer> directory;
+
+    /**
+     * Creates {@code ShardedStorageEngine} instance.
+     *
+     * @param schema schema of entities to keep
+     * @param shards engines of shards, which keep entities of given schema
+     */
+    @VisibleForTesting
+    ShardedStorageEngine(StorageSchema<I, E> schema, List<StorageEngine<I, E>> shards) {
+        checkArgument(!shards.isEmpty(), "At least one shard is required.");
+
+        this.shards = ImmutableList.copyOf(shards);
+        this.partitionIndex = schema.getPartitionIndex()
+                                    .orElse(null);
+
+        if (partitionIndex == null) {
+            directory = null;
+            return;
+        }
+
+        directory = new ConcurrentHashMap<>();
+        for (int shard = 0; shard < this.shards.size(); shard++) {
+            int restoredShard = shard;
+            this.shards.get(shard)
+                       .forEach(entity -> directory.put(entity.getId(), restoredShard));
+        }
+    }
+
+    /**
+     * Provides factory of engines with one shard per available core.
+     *
+     * @param shardFactories provides factory of engines of shard by its number
+     * @return factory of {@code ShardedStorageEngine}s
+     */
+    public static StorageEngineFactory factory(IntFunction<StorageEngineFactory> shardFactories) {
+        return factory(Runtime.getRuntime()
+                              .availableProcessors(), shardFactories);
+    }
+
+    /**
+     * Provides factory of engines with given number of shards.
+     *
+     * <p>Engines which keep files should be created by shard factories in different directories.
+     *
+     * @param shardsCount    number of shards
+     * @param shardFactories provides factory of engines of shard by its number
+     * @return factory of {@code ShardedStorageEngine}s
+     * @throws IllegalArgumentException if number of shards is not positive
+     */
+    public static StorageEngineFactory factory(int shardsCount, IntFunction<StorageEngineFactory> shardFactories) {
+        checkArgument(shardsCount > 0, "Number of shards must be positive, but was %s.", shardsCount);
+        checkNotNull(shardFactories);
+
+        return new Factory(shardsCount, shardFactories);
+    }
+
+    /**
+     * Provides number of shard which keeps entities with given partition key.
+     *
+     * @param partitionKey value of partition index or ID of entity
+     * @param shardsCount  number of shards
+     * @return number of shard
+     */
+    @VisibleForTesting
+    static int shardOf(Object partitionKey, int shardsCount) {
+        int hash = partitionKey.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardsCount);
+    }
+
+    private int shardOfKey(Object partitionKey) {
+        return shardOf(partitionKey, shards.size());
+    }
+
+    private int shardOfEntity(E entity) {
+        if (partitionIndex == null) {
+            return shardOfKey(entity.getId());
+        }
+
+        Object partitionKey = partitionIndex.keyOf(entity);
+        checkArgument(partitionKey != null, "Entity %s has no value of partition index.", entity.getId());
+        return shardOfKey(partitionKey);
+    }
+
+    @Nullable
+    private Integer currentShardOf(I id) {
+        return directory == null ? Integer.valueOf(shardOfKey(id)) : directory.get(id);
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        Integer shard = currentShardOf(id);
+        return shard == null ? Optional.empty() : shards.get(shard)
+                                                        .read(id);
+    }
+
+    @Override
+    public Map<I, E> readAll(Collection<I> ids) {
+        Map<Integer, List<I>> idsByShard = new HashMap<>();
+        for (I id : ids) {
+            Integer shard = currentShardOf(id);
+            if (shard != null) {
+                idsByShard.computeIfAbsent(shard, key -> new ArrayList<>())
+                          .add(id);
+            }
+        }
+
+        Map<I, E> result = new HashMap<>();
+        idsByShard.forEach((shard, shardIds) -> result.putAll(shards.get(shard)
+                                                                    .readAll(shardIds)));
+        return result;
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        if (directory == null) {
+            return shards.get(shardOfKey(id))
+                         .compute(id, remapping);
+        }
+
+        AtomicReference<E> computed = new AtomicReference<>();
+        directory.compute(id, (key, shard) -> {
+            E next = shard == null ? create(id, remapping) : recompute(id, shard, remapping);
+            computed.set(next);
+            return next == null ? null : shardOfEntity(next);
+        });
+        return Optional.ofNullable(computed.get());
+    }
+
+    /**
+     * Computes entity which is absent in all shards and stores it in its shard.
+     */
+    @Nullable
+    private E create(I id, UnaryOperator<Optional<E>> remapping) {
+        Optional<E> absent = Optional.empty();
+        Optional<E> next = remapping.apply(absent);
+
+        if (next == absent || !next.isPresent()) {
+            return null;
+        }
+
+        E created = next.get();
+        shards.get(shardOfEntity(created))
+              .compute(id, current -> next);
+        return created;
+    }
+
+    /**
+     * Computes entity in its current shard and moves it if its partition key has changed.
+     */
+    @Nullable
+    private E recompute(I id, int shard, UnaryOperator<Optional<E>> remapping) {
+        AtomicReference<E> moved = new AtomicReference<>();
+
+        Optional<E> kept = shards.get(shard)
+                                 .compute(id, current -> {
+                                     Optional<E> next = remapping.apply(current);
+
+                                     if (next.isPresent() && shardOfEntity(next.get()) != shard) {
+                                         moved.set(next.get());
+                                         return Optional.empty();
+                                     }
+                                     return next;
+                                 });
+
+        E movedEntity = moved.get();
+        if (movedEntity == null) {
+            return kept.orElse(null);
+        }
+
+        shards.get(shardOfEntity(movedEntity))
+              .compute(id, current -> Optional.of(movedEntity));
+        return movedEntity;
+    }
+
+    /**
+     * Applies batch in each affected shard at once if entities are partitioned by IDs.
+     *
+     * <p>If entities are partitioned by another index, shard of absent entity is known only after
+     * it is computed, so entities are computed one by one.
+     */
+    @Override
+    public void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        if (directory != null) {
+            StorageEngine.super.computeAll(ids, remapping);
+            return;
+        }
+
+        Map<Integer, List<I>> idsByShard = new LinkedHashMap<>();
+        for (I id : ids) {
+            idsByShard.computeIfAbsent(shardOfKey(id), key -> new ArrayList<>())
+                      .add(id);
+        }
+
+        idsByShard.forEach((shard, shardIds) -> shards.get(shard)
+                                                      .computeAll(shardIds, remapping));
+    }
+
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        if (index.equals(partitionIndex)) {
+            return shards.get(shardOfKey(key))
+                         .findBy(index, key);
+        }
+
+        List<E> result = new ArrayList<>();
+        for (StorageEngine<I, E> shard : shards) {
+            result.addAll(shard.findBy(index, key));
+        }
+        return result;
+    }
+
+    /**
+     * Scans only the shard of given key if index is the partition index,
+     * otherwise merges pages of all shards.
+     */
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        if (index.equals(partitionIndex)) {
+            return shards.get(shardOfKey(key))
+                         .scan(index, key, after, limit);
+        }
+
+        List<E> merged = new ArrayList<>();
+        for (StorageEngine<I, E> shard : shards) {
+            merged.addAll(shard.scan(index, key, after, limit));
+        }
+        merged.sort((first, second) -> StorageEngine.compareOrderKeys(first.getId(), second.getId()));
+
+        return merged.size() <= limit ? merged : new ArrayList<>(merged.subList(0, limit));
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        shards.forEach(shard -> shard.forEach(action));
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (StorageEngine<I, E> shard : shards) {
+            count += shard.count();
+        }
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        shards.forEach(StorageEngine::clear);
+        if (directory != null) {
+            directory.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(StorageEngine::close);
+    }
+
+    /**
+     * Creates {@code ShardedStorageEngine}s for storages.
+     */
+    private static class Factory implements StorageEngineFactory {
+
+        private final int shardsCount;
+        private final IntFunction<StorageEngineFactory> shardFactories;
+
+        private Factory(int shardsCount, IntFunction<StorageEngineFactory> shardFactories) {
+            this.shardsCount = shardsCount;
+            this.shardFactories = shardFactories;
+        }
+
+        @Override
+        public <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema) {
+            List<StorageEngine<I, E>> shards = new ArrayList<>(shardsCount);
+            for (int shard = 0; shard < shardsCount; shard++) {
+                shards.add(shardFactories.apply(shard)
+                                         .create(schema));
+            }
+            return new ShardedStorageEngine<>(schema, shards);
+        }
+    }
+}
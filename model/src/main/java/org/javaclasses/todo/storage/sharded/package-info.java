@@ -0,0 +1,11 @@
+/**
+ * Storage engine which splits entities into independent shards by hash of their partition key.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.storage.sharded;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
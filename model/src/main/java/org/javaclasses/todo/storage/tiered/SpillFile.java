@@ -0,0 +1,261 @@
+package org.javaclasses.todo.storage.tiered;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * File of records which were moved out of memory.
+ *
+ * <p>Records are appended and read back by their {@link Location}s concurrently.
+ * Space of released records is reclaimed by {@link #compactIfNeeded()}, which copies live records
+ * into new file {@code <name>-<N>.spill} and deletes the previous one.
+ *
+ * <p>File is temporary: it is deleted on {@link #close()} and not restored after restart.
+ *
+ * @author Oleg Barmin
+ */
+final class SpillFile implements Closeable {
+
+    /**
+     * Minimal size of released records which is worth reclaiming.
+     */
+    private static final long MIN_COMPACTED_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final String name;
+
+    /*
+     * Appends and reads hold read lock, they use positional I/O and may run concurrently.
+     * Compaction holds write lock while it replaces the file and moves locations.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong end = new AtomicLong();
+    private final AtomicLong liveBytes = new AtomicLong();
+    private final Set<Location> live = ConcurrentHashMap.newKeySet();
+
+    /* Guarded by lock. */
+    private Path file;
+    private FileChannel channel;
+    private long generation;
+
+    /**
+     * Creates empty spill file in given directory, creating directory if it does not exist.
+     *
+     * @param directory directory to keep file in
+     * @param name      name of file
+     * @throws UncheckedIOException if file cannot be created
+     */
+    SpillFile(Path directory, String name) {
+        this.directory = checkNotNull(directory);
+        this.name = checkNotNull(name);
+
+        try {
+            Files.createDirectories(directory);
+            deleteLeftovers();
+            file = pathOf(generation);
+            channel = FileChannel.open(file, CREATE_NEW, READ, WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create spill file in " + directory, e);
+        }
+    }
+
+    private Path pathOf(long fileGeneration) {
+        return directory.resolve(name + '-' + fileGeneration + ".spill");
+    }
+
+    /**
+     * Deletes files left by a process which was not closed properly.
+     */
+    private void deleteLeftovers() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + "-*.spill")) {
+            for (Path leftover : files) {
+                Files.delete(leftover);
+            }
+        }
+    }
+
+    /**
+     * Appends given record.
+     *
+     * @param record record to append
+     * @return location of appended record
+     * @throws UncheckedIOException if record cannot be written
+     */
+    Location append(byte[] record) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            long offset = end.getAndAdd(record.length);
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+
+            Location location = new Location(offset, record.length);
+            live.add(location);
+            liveBytes.addAndGet(record.length);
+            return location;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write into spill file " + file, e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Reads record at given location.
+     *
+     * @param location location of record which was not released
+     * @return read record
+     * @throws UncheckedIOException if record cannot be read
+     */
+    byte[] read(Location location) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(location.length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, location.offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of spill file " + file);
+                }
+            }
+            return buffer.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spill file " + file, e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Marks record at given location as no longer needed, so its space can be reclaimed.
+     *
+     * @param location location of record
+     */
+    void release(Location location) {
+        if (live.remove(location)) {
+            liveBytes.addAndGet(-location.length);
+        }
+    }
+
+    /**
+     * Reclaims space of released records if they take more space than live ones.
+     *
+     * @throws UncheckedIOException if file cannot be rewritten
+     */
+    void compactIfNeeded() {
+        long garbage = end.get() - liveBytes.get();
+        if (garbage < MIN_COMPACTED_BYTES || garbage < liveBytes.get()) {
+            return;
+        }
+
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            Path compactedFile = pathOf(generation + 1);
+            FileChannel compacted = FileChannel.open(compactedFile, CREATE_NEW, READ, WRITE);
+
+            long position = 0;
+            for (Location location : live) {
+                long copied = 0;
+                while (copied < location.length) {
+                    copied += channel.transferTo(location.offset + copied, location.length - copied, compacted);
+                }
+                location.offset = position;
+                position += location.length;
+            }
+
+            channel.close();
+            Files.delete(file);
+
+            generation++;
+            file = compactedFile;
+            channel = compacted;
+            end.set(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact spill file " + file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Releases all records and truncates the file.
+     *
+     * @throws UncheckedIOException if file cannot be truncated
+     */
+    void clear() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            live.clear();
+            liveBytes.set(0);
+            end.set(0);
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to truncate spill file " + file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Provides size of file in bytes.
+     */
+    long size() {
+        return end.get();
+    }
+
+    /**
+     * Closes and deletes the file.
+     *
+     * @throws UncheckedIOException if file cannot be deleted
+     */
+    @Override
+    public void close() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete spill file " + file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Position of record in spill file.
+     *
+     * <p>Offset is moved by compaction, so it is read and written only under lock of the file.
+     */
+    static final class Location {
+
+        private final int length;
+        private long offset;
+
+        private Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
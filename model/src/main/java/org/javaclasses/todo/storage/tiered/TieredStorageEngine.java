@@ -0,0 +1,621 @@
+package org.javaclasses.todo.storage.tiered;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.EntityCodec;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Engine which keeps in memory only entities of recently accessed groups
+ * and moves idle groups into spill file on disk.
+ *
+ * <p>Entities are grouped by value of {@link StorageSchema#getPartitionIndex() partition index},
+ * e.g. to-do lists by their owner and tasks by their to-do list, so data of a user who did not
+ * use application for {@link TieringOptions.Builder#setIdleThreshold(long, TimeUnit) idle threshold}
+ * leaves the heap and memory is bounded by data of active users.
+ *
+ * <p>Spilled group is read back into memory on the first access to any of its entities
+ * through any operation, so callers don't notice the difference except for latency of the first access.
+ * Only IDs of entities and access times of groups are always kept in memory.
+ *
+ * <p>Each group is guarded by read-write lock: operations on its entities hold read lock,
+ * while group is moved between memory and disk under write lock. Lookups by other indexes
+ * and iteration read spilled groups from disk without moving them into memory.
+ *
+ * <p>Spill file is a cache of memory and is deleted on {@link #close()},
+ * so engine should be used behind durable engine to keep entities between restarts.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public final class TieredStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredStorageEngine.class);
+
+    private final StorageEngine<I, E> resident;
+    private final SecondaryIndex<?, E> groupIndex;
+    private final EntityCodec<I, E> codec;
+    private final SpillFile spillFile;
+
+    private final Ticker ticker;
+    private final long idleThresholdNanos;
+    private final ScheduledExecutorService spiller;
+
+    /**
+     * Keys of groups of all kept entities, resident or spilled.
+     *
+     * <p>Entry of entity is changed only while entity is computed, so entity is present
+     * in resident engine only if it has an entry.
+     */
+    private final ConcurrentMap<I, Object> directory = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Group> groups = new ConcurrentHashMap<>();
+
+    /*
+     * Moves of groups between memory and disk hold read lock and may run concurrently.
+     * Lookups which visit all groups hold write lock, so they see each group exactly once.
+     */
+    private final ReadWriteLock tiersLock = new ReentrantReadWriteLock();
+
+    private final LongAdder spills = new LongAdder();
+    private final LongAdder faults = new LongAdder();
+
+    /**
+     * Creates {@code TieredStorageEngine} instance.
+     *
+     * @param schema         schema of entities to keep, must declare partition index
+     * @param spillDirectory directory to keep spill file in
+     * @param options        options of tiering
+     * @param ticker         source of time of accesses
+     * @throws IllegalArgumentException if schema declares no partition index
+     * @throws UncheckedIOException     if spill file cannot be created
+     */
+    @VisibleForTesting
+    TieredStorageEngine(StorageSchema<I, E> schema, Path spillDirectory, TieringOptions options, Ticker ticker) {
+        checkArgument(schema.getPartitionIndex()
+                            .isPresent(), "Schema %s declares no partition index to group entities by.", schema);
+
+        this.resident = new ConcurrentStorageEngine<>(schema.getIndexes());
+        this.groupIndex = schema.getPartitionIndex()
+                                .get();
+        this.codec = schema.getCodec();
+        this.spillFile = new SpillFile(spillDirectory, schema.getName());
+        this.ticker = checkNotNull(ticker);
+        this.idleThresholdNanos = options.getIdleThresholdNanos();
+
+        this.spiller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spill-" + schema.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = options.getCheckIntervalMillis();
+        spiller.scheduleWithFixedDelay(this::spillIdleQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Provides factory of engines which spill idle groups into files in given directory.
+     *
+     * <p>Entities of schemas which declare no partition index are not grouped,
+     * so they are kept in memory by {@link ConcurrentStorageEngine}.
+     *
+     * @param spillDirectory directory to keep spill files in
+     * @param options        options of tiering
+     * @return factory of {@code TieredStorageEngine}s
+     */
+    public static StorageEngineFactory factory(Path spillDirectory, TieringOptions options) {
+        return new Factory(checkNotNull(spillDirectory), checkNotNull(options));
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        while (true) {
+            Object key = directory.get(id);
+            if (key == null) {
+                return Optional.empty();
+            }
+
+            Group group = lockResident(key);
+            try {
+                Optional<E> entity = resident.read(id);
+                if (entity.isPresent() || key.equals(directory.get(id))) {
+                    return entity;
+                }
+            } finally {
+                group.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reads entities of each group under one lock.
+     */
+    @Override
+    public Map<I, E> readAll(Collection<I> ids) {
+        Map<Object, List<I>> idsByGroup = new LinkedHashMap<>();
+        for (I id : ids) {
+            Object key = directory.get(id);
+            if (key != null) {
+                idsByGroup.computeIfAbsent(key, k -> new ArrayList<>())
+                          .add(id);
+            }
+        }
+
+        Map<I, E> result = new HashMap<>();
+        idsByGroup.forEach((key, groupIds) -> {
+            Group group = lockResident(key);
+            try {
+                result.putAll(resident.readAll(groupIds));
+            } finally {
+                group.unlock();
+            }
+        });
+
+        if (result.size() < ids.size()) {
+            for (I id : ids) {
+                if (!result.containsKey(id)) {
+                    read(id).ifPresent(entity -> result.put(id, entity));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes entity while its group is locked in memory.
+     *
+     * <p>Entity which is created or moved into spilled group is kept in memory
+     * and joins the rest of group when group is read back.
+     */
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        while (true) {
+            Object key = directory.get(id);
+            Group group = key == null ? null : lockResident(key);
+            try {
+                Object[] computedKey = {null};
+                boolean[] stale = {false};
+
+                Optional<E> computed = resident.compute(id, current -> {
+                    if (!Objects.equals(key, directory.get(id))) {
+                        stale[0] = true;
+                        return current;
+                    }
+
+                    Optional<E> next = remapping.apply(current);
+                    if (next != current) {
+                        computedKey[0] = updateDirectory(id, key, next);
+                    }
+                    return next;
+                });
+
+                if (!stale[0]) {
+                    if (computedKey[0] != null && !computedKey[0].equals(key)) {
+                        groupOf(computedKey[0]).touch(ticker.read());
+                    }
+                    return computed;
+                }
+            } finally {
+                if (group != null) {
+                    group.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Records group of computed entity, entity must be computed.
+     *
+     * @return key of group of computed entity, {@code null} if entity was removed
+     */
+    @Nullable
+    private Object updateDirectory(I id, @Nullable Object key, Optional<E> next) {
+        if (!next.isPresent()) {
+            if (key != null) {
+                directory.remove(id);
+            }
+            return null;
+        }
+
+        Object nextKey = groupIndex.keyOf(next.get());
+        checkArgument(nextKey != null, "Entity %s has no value of partition index.", id);
+        if (!nextKey.equals(key)) {
+            directory.put(id, nextKey);
+        }
+        return nextKey;
+    }
+
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        if (!index.equals(groupIndex)) {
+            return findInAllGroups(index, key);
+        }
+
+        Group group = lockResidentIfExists(key);
+        try {
+            return resident.findBy(index, key);
+        } finally {
+            if (group != null) {
+                group.unlock();
+            }
+        }
+    }
+
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        if (!index.equals(groupIndex)) {
+            return StorageEngine.super.scan(index, key, after, limit);
+        }
+
+        Group group = lockResidentIfExists(key);
+        try {
+            return resident.scan(index, key, after, limit);
+        } finally {
+            if (group != null) {
+                group.unlock();
+            }
+        }
+    }
+
+    /**
+     * Finds entities in memory and in all spilled groups, spilled groups stay on disk.
+     */
+    private <K> List<E> findInAllGroups(SecondaryIndex<K, E> index, K key) {
+        List<E> found = new ArrayList<>();
+
+        Lock lock = tiersLock.writeLock();
+        lock.lock();
+        try {
+            found.addAll(resident.findBy(index, key));
+            forEachSpilled(entity -> {
+                if (key.equals(index.keyOf(entity))) {
+                    found.add(entity);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        return found;
+    }
+
+    /**
+     * Performs given action for entities in memory and entities of spilled groups,
+     * spilled groups stay on disk.
+     *
+     * <p>Groups are not moved between memory and disk until iteration is complete.
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Lock lock = tiersLock.writeLock();
+        lock.lock();
+        try {
+            resident.forEach(action);
+            forEachSpilled(action);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forEachSpilled(Consumer<? super E> action) {
+        for (Group group : groups.values()) {
+            SpillFile.Location location = group.spilled;
+            if (location != null) {
+                decode(spillFile.read(location)).forEach(action);
+            }
+        }
+    }
+
+    @Override
+    public long count() {
+        return directory.size();
+    }
+
+    @Override
+    public void clear() {
+        Lock lock = tiersLock.writeLock();
+        lock.lock();
+        try {
+            resident.clear();
+            directory.clear();
+            groups.clear();
+            spillFile.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops spilling and deletes spill file.
+     */
+    @Override
+    public void close() {
+        spiller.shutdown();
+        try {
+            spiller.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+
+        try {
+            spillFile.close();
+        } finally {
+            resident.close();
+        }
+    }
+
+    /**
+     * Provides statistics of engine.
+     *
+     * @return statistics since engine was created
+     */
+    public TieringStats stats() {
+        int spilledGroups = 0;
+        for (Group group : groups.values()) {
+            if (group.spilled != null) {
+                spilledGroups++;
+            }
+        }
+        return new TieringStats(groups.size() - spilledGroups, spilledGroups, spills.sum(), faults.sum(),
+                                spillFile.size());
+    }
+
+    private Group groupOf(Object key) {
+        return groups.computeIfAbsent(key, k -> new Group(k, ticker.read()));
+    }
+
+    /**
+     * Marks group as accessed, reads it back into memory if it is spilled and locks it there.
+     *
+     * @return group locked for reading, which should be unlocked after operation
+     */
+    private Group lockResident(Object key) {
+        Group group = groupOf(key);
+        group.touch(ticker.read());
+
+        while (true) {
+            group.lock.readLock()
+                      .lock();
+            if (group.spilled == null) {
+                return group;
+            }
+
+            group.unlock();
+            faultIn(group);
+        }
+    }
+
+    /**
+     * Locks group in memory as {@link #lockResident(Object)} does if group has any entities.
+     *
+     * @return locked group, {@code null} if there is no group with given key
+     */
+    @Nullable
+    private Group lockResidentIfExists(Object key) {
+        return groups.containsKey(key) ? lockResident(key) : null;
+    }
+
+    /**
+     * Reads spilled group back into memory.
+     */
+    private void faultIn(Group group) {
+        Lock lock = group.lock.writeLock();
+        lock.lock();
+        try {
+            SpillFile.Location location = group.spilled;
+            if (location == null) {
+                return;
+            }
+
+            Lock tiers = tiersLock.readLock();
+            tiers.lock();
+            try {
+                Map<I, E> spilled = new LinkedHashMap<>();
+                for (E entity : decode(spillFile.read(location))) {
+                    spilled.put(entity.getId(), entity);
+                }
+
+                resident.computeAll(spilled.keySet(), (id, current) -> current.isPresent()
+                                                                       ? current
+                                                                       : Optional.of(spilled.get(id)));
+                group.spilled = null;
+                spillFile.release(location);
+            } finally {
+                tiers.unlock();
+            }
+            faults.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Spills groups which were not accessed for idle threshold and reclaims space of spill file.
+     */
+    @VisibleForTesting
+    void spillIdle() {
+        long now = ticker.read();
+        for (Group group : groups.values()) {
+            if (group.spilled == null && group.isIdle(now, idleThresholdNanos)) {
+                spill(group, now);
+            }
+        }
+        spillFile.compactIfNeeded();
+    }
+
+    private void spillIdleQuietly() {
+        try {
+            spillIdle();
+        } catch (RuntimeException e) {
+            logger.error("Failed to spill idle entities, will retry.", e);
+        }
+    }
+
+    /**
+     * Moves entities of idle group into spill file.
+     *
+     * <p>Group which is in use is skipped, so spilling never delays requests.
+     */
+    private void spill(Group group, long now) {
+        Lock lock = group.lock.writeLock();
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (group.spilled != null || !group.isIdle(now, idleThresholdNanos)) {
+                return;
+            }
+
+            List<E> entities = findResident(groupIndex, group.key);
+            if (entities.isEmpty()) {
+                return;
+            }
+
+            Lock tiers = tiersLock.readLock();
+            tiers.lock();
+            try {
+                group.spilled = spillFile.append(encode(entities));
+
+                List<I> ids = new ArrayList<>(entities.size());
+                entities.forEach(entity -> ids.add(entity.getId()));
+                resident.computeAll(ids, (id, current) -> Optional.empty());
+            } finally {
+                tiers.unlock();
+            }
+            spills.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Key of group is a value of group index, taken from entity by the index itself. */
+    @SuppressWarnings("unchecked")
+    private <K> List<E> findResident(SecondaryIndex<K, E> index, Object key) {
+        return resident.findBy(index, (K) key);
+    }
+
+    private byte[] encode(List<E> entities) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(entities.size());
+            for (E entity : entities) {
+                codec.write(entity, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode entities.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<E> decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            int count = in.readInt();
+            List<E> entities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entities.add(codec.read(in));
+            }
+            return entities;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode spilled entities.", e);
+        }
+    }
+
+    /**
+     * Entities with the same value of partition index, which are spilled and read back together.
+     *
+     * <p>Groups are kept until engine is cleared, they hold only lock and time of the last access.
+     */
+    private static final class Group {
+
+        private final Object key;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private volatile long lastAccessNanos;
+
+        /**
+         * Location of spilled entities, {@code null} if group is in memory. Changed under write lock.
+         */
+        @Nullable
+        private volatile SpillFile.Location spilled;
+
+        private Group(Object key, long now) {
+            this.key = key;
+            this.lastAccessNanos = now;
+        }
+
+        private void touch(long now) {
+            lastAccessNanos = now;
+        }
+
+        private boolean isIdle(long now, long thresholdNanos) {
+            return now - lastAccessNanos >= thresholdNanos;
+        }
+
+        private void unlock() {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Creates {@code TieredStorageEngine}s for storages which declare partition index.
+     */
+    private static class Factory implements StorageEngineFactory {
+
+        private final Path spillDirectory;
+        private final TieringOptions options;
+
+        private Factory(Path spillDirectory, TieringOptions options) {
+            this.spillDirectory = spillDirectory;
+            this.options = options;
+        }
+
+        @Override
+        public <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema) {
+            if (!schema.getPartitionIndex()
+                       .isPresent()) {
+                return new ConcurrentStorageEngine<>(schema.getIndexes());
+            }
+            return new TieredStorageEngine<>(schema, spillDirectory, options, Ticker.systemTicker());
+        }
+    }
+}
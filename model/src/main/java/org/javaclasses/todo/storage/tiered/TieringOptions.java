@@ -0,0 +1,83 @@
+package org.javaclasses.todo.storage.tiered;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Options of {@link TieredStorageEngine}.
+ *
+ * @author Oleg Barmin
+ */
+public final class TieringOptions {
+
+    private final long idleThresholdNanos;
+    private final long checkIntervalMillis;
+
+    private TieringOptions(Builder builder) {
+        this.idleThresholdNanos = builder.idleThresholdNanos;
+        this.checkIntervalMillis = builder.checkIntervalMillis;
+    }
+
+    /**
+     * Creates builder of options.
+     *
+     * @return new builder with default options
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides options which spill entities idle for thirty minutes, checked every minute.
+     *
+     * @return default options
+     */
+    public static TieringOptions defaults() {
+        return newBuilder().build();
+    }
+
+    long getIdleThresholdNanos() {
+        return idleThresholdNanos;
+    }
+
+    long getCheckIntervalMillis() {
+        return checkIntervalMillis;
+    }
+
+    /**
+     * Allows to build {@code TieringOptions} instance.
+     *
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Builder_pattern">Builder pattern</a>.
+     */
+    public static final class Builder {
+
+        private long idleThresholdNanos = TimeUnit.MINUTES.toNanos(30);
+        private long checkIntervalMillis = TimeUnit.MINUTES.toMillis(1);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets time after the last access after which entities are spilled to disk.
+         */
+        public Builder setIdleThreshold(long threshold, TimeUnit unit) {
+            checkArgument(threshold > 0, "Idle threshold must be positive, but was %s.", threshold);
+            this.idleThresholdNanos = unit.toNanos(threshold);
+            return this;
+        }
+
+        /**
+         * Sets interval of checks for idle entities.
+         */
+        public Builder setCheckInterval(long interval, TimeUnit unit) {
+            checkArgument(interval > 0, "Check interval must be positive, but was %s.", interval);
+            this.checkIntervalMillis = Math.max(1, unit.toMillis(interval));
+            return this;
+        }
+
+        public TieringOptions build() {
+            return new TieringOptions(this);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.javaclasses.todo.storage.tiered;
+
+/**
+ * Statistics of {@link TieredStorageEngine} since it was created.
+ *
+ * @author Oleg Barmin
+ */
+public final class TieringStats {
+
+    private final int residentGroupCount;
+    private final int spilledGroupCount;
+    private final long spillCount;
+    private final long faultCount;
+    private final long spillFileSize;
+
+    TieringStats(int residentGroupCount, int spilledGroupCount, long spillCount, long faultCount,
+                 long spillFileSize) {
+        this.residentGroupCount = residentGroupCount;
+        this.spilledGroupCount = spilledGroupCount;
+        this.spillCount = spillCount;
+        this.faultCount = faultCount;
+        this.spillFileSize = spillFileSize;
+    }
+
+    /**
+     * Provides number of groups of entities kept in memory.
+     */
+    public int getResidentGroupCount() {
+        return residentGroupCount;
+    }
+
+    /**
+     * Provides number of groups of entities kept only in spill file.
+     */
+    public int getSpilledGroupCount() {
+        return spilledGroupCount;
+    }
+
+    /**
+     * Provides number of times groups were spilled to disk.
+     */
+    public long getSpillCount() {
+        return spillCount;
+    }
+
+    /**
+     * Provides number of times spilled groups were read back into memory.
+     */
+    public long getFaultCount() {
+        return faultCount;
+    }
+
+    /**
+     * Provides size of spill file in bytes, including space of groups read back which is not reclaimed yet.
+     */
+    public long getSpillFileSize() {
+        return spillFileSize;
+    }
+
+    @Override
+    public String toString() {
+        return "TieringStats{" +
+                "residentGroupCount=" + residentGroupCount +
+                ", spilledGroupCount=" + spilledGroupCount +
+                ", spillCount=" + spillCount +
+                ", faultCount=" + faultCount +
+                ", spillFileSize=" + spillFileSize +
+                '}';
+    }
+}
@@ -0,0 +1,454 @@
+package org.javaclasses.todo.storage.wal;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.EntityCodec;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Engine which keeps entities in memory of another engine and records every change
+ * in the {@link WriteAheadLog} before it is acknowledged.
+ *
+ * <p>Changes are appended to the log while entity is locked by delegate engine,
+ * so log keeps changes of each entity in order they were applied.
+ * Appended changes are made durable after entity is unlocked, so concurrent writers share one fsync.
+ *
+ * <p>After configured number of changes engine writes snapshot of all entities in background
+ * and deletes log segments covered by it, so log size and replay time stay bounded.
+ *
+ * <p>On creation engine restores entities from the latest snapshot and log segments written after it.
+ *
+ * @param <I> ID of the entity
+ * @param <E> entity to keep
+ * @author Oleg Barmin
+ */
+public final class DurableStorageEngine<I extends EntityId, E extends Entity<I>> implements StorageEngine<I, E> {
+
+    /**
+     * Default number of changes after which snapshot is written.
+     */
+    public static final long DEFAULT_SNAPSHOT_THRESHOLD = 100_000;
+
+    private static final Logger logger = LoggerFactory.getLogger(DurableStorageEngine.class);
+
+    private static final byte WRITE = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+    private static final byte BATCH = 4;
+
+    private final StorageEngine<I, E> delegate;
+    private final EntityCodec<I, E> codec;
+    private final WriteAheadLog log;
+    private final long snapshotThreshold;
+
+    /*
+     * Changes of single entities hold read lock while they are applied and appended to the log.
+     * Log rotation and clear hold write lock, so every change appended before rotation is visible
+     * to snapshot and no change is applied between clear of entities and its record in the log.
+     */
+    private final ReadWriteLock exclusiveLock = new ReentrantReadWriteLock();
+    private final AtomicLong changesSinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotInProgress = new AtomicBoolean();
+    private final ExecutorService snapshotExecutor;
+
+    /**
+     * Creates {@code DurableStorageEngine} instance and restores entities kept in given directory.
+     *
+     * @param directory         directory to keep log and snapshots in
+     * @param schema            schema of entities to keep
+     * @param fsync             whether changes should be forced to storage device before they are acknowledged
+     * @param snapshotThreshold number of changes after which snapshot is written
+     * @throws UncheckedIOException if log cannot be read
+     */
+    @VisibleForTesting
+    DurableStorageEngine(Path directory, StorageSchema<I, E> schema, boolean fsync, long snapshotThreshold) {
+        this(directory, schema, new ConcurrentStorageEngine<>(schema.getIndexes()), fsync, snapshotThreshold);
+    }
+
+    /**
+     * Creates {@code DurableStorageEngine} instance which keeps entities in given engine
+     * and restores entities kept in given directory into it.
+     *
+     * @param directory         directory to keep log and snapshots in
+     * @param schema            schema of entities to keep
+     * @param memory            empty engine to keep entities in
+     * @param fsync             whether changes should be forced to storage device before they are acknowledged
+     * @param snapshotThreshold number of changes after which snapshot is written
+     * @throws UncheckedIOException if log cannot be read
+     */
+    private DurableStorageEngine(Path directory, StorageSchema<I, E> schema, StorageEngine<I, E> memory,
+                                 boolean fsync, long snapshotThreshold) {
+        checkNotNull(directory);
+        checkNotNull(schema);
+        checkArgument(snapshotThreshold > 0, "Snapshot threshold must be positive.");
+
+        this.delegate = checkNotNull(memory);
+        this.codec = schema.getCodec();
+        this.snapshotThreshold = snapshotThreshold;
+
+        try {
+            this.log = new WriteAheadLog(directory, fsync);
+
+            long start = System.nanoTime();
+            log.replay(this::apply);
+            logger.info("Restored storage `{}` from {} in {} ms.", schema.getName(), directory,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore storage from " + directory, e);
+        }
+
+        this.snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-" + schema.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Provides factory of engines which keep each storage in subdirectory of given directory.
+     *
+     * <p>Changes are forced to storage device before they are acknowledged.
+     *
+     * @param directory directory to keep storages in
+     * @return factory of {@code DurableStorageEngine}s
+     */
+    public static StorageEngineFactory factory(Path directory) {
+        return factory(directory, ConcurrentStorageEngine.factory());
+    }
+
+    /**
+     * Provides factory of engines which keep each storage in subdirectory of given directory
+     * and keep entities in memory of engines created by given factory.
+     *
+     * <p>Engines of memory factory should not be durable themselves,
+     * e.g. they may move entities which are not in use to temporary files.
+     *
+     * @param directory     directory to keep storages in
+     * @param memoryFactory factory of engines to keep entities in
+     * @return factory of {@code DurableStorageEngine}s
+     */
+    public static StorageEngineFactory factory(Path directory, StorageEngineFactory memoryFactory) {
+        return new Factory(checkNotNull(directory), checkNotNull(memoryFactory));
+    }
+
+    @Override
+    public Optional<E> read(I id) {
+        return delegate.read(id);
+    }
+
+    @Override
+    public Map<I, E> readAll(Collection<I> ids) {
+        return delegate.readAll(ids);
+    }
+
+    @Override
+    public Optional<E> compute(I id, UnaryOperator<Optional<E>> remapping) {
+        AtomicLong lsn = new AtomicLong();
+        Optional<E> result;
+
+        Lock lock = exclusiveLock.readLock();
+        lock.lock();
+        try {
+            result = delegate.compute(id, current -> {
+                Optional<E> next = remapping.apply(current);
+
+                if (next != current) {
+                    if (next.isPresent()) {
+                        lsn.set(log.append(encodeWrite(next.get())));
+                    } else if (current.isPresent()) {
+                        lsn.set(log.append(encodeRemove(id)));
+                    }
+                }
+                return next;
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        if (lsn.get() > 0) {
+            log.sync(lsn.get());
+            onChange(1);
+        }
+
+        return result;
+    }
+
+    /**
+     * Applies batch while no other change is in progress and appends it to the log as one record,
+     * so whole batch is forced to storage device at once and is restored either entirely or not at all.
+     */
+    @Override
+    public void computeAll(Collection<I> ids, BiFunction<? super I, Optional<E>, Optional<E>> remapping) {
+        List<byte[]> records = new ArrayList<>();
+        long lsn = 0;
+
+        Lock lock = exclusiveLock.writeLock();
+        lock.lock();
+        try {
+            delegate.computeAll(ids, (id, current) -> {
+                Optional<E> next = remapping.apply(id, current);
+
+                if (next != current) {
+                    if (next.isPresent()) {
+                        records.add(encodeWrite(next.get()));
+                    } else if (current.isPresent()) {
+                        records.add(encodeRemove(id));
+                    }
+                }
+                return next;
+            });
+
+            if (!records.isEmpty()) {
+                lsn = log.append(encodeBatch(records));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (lsn > 0) {
+            log.sync(lsn);
+            onChange(records.size());
+        }
+    }
+
+    @Override
+    public <K> List<E> findBy(SecondaryIndex<K, E> index, K key) {
+        return delegate.findBy(index, key);
+    }
+
+    @Override
+    public <K> List<E> scan(SecondaryIndex<K, E> index, K key, @Nullable String after, int limit) {
+        return delegate.scan(index, key, after, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public void clear() {
+        long lsn;
+
+        Lock lock = exclusiveLock.writeLock();
+        lock.lock();
+        try {
+            delegate.clear();
+            lsn = log.append(new byte[]{CLEAR});
+        } finally {
+            lock.unlock();
+        }
+
+        log.sync(lsn);
+        onChange(1);
+    }
+
+    /**
+     * Waits for snapshot in progress and closes the log.
+     *
+     * @throws UncheckedIOException if pending changes cannot be written to disk
+     */
+    @Override
+    public void close() {
+        snapshotExecutor.shutdown();
+        try {
+            snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            log.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close log.", e);
+        } finally {
+            delegate.close();
+        }
+    }
+
+    private void onChange(int changes) {
+        if (changesSinceSnapshot.addAndGet(changes) >= snapshotThreshold
+                && snapshotInProgress.compareAndSet(false, true)) {
+            snapshotExecutor.execute(this::snapshot);
+        }
+    }
+
+    /**
+     * Writes snapshot of all entities and deletes log segments covered by it.
+     *
+     * <p>Snapshot is fuzzy: entities changed while it is written may be recorded in any state,
+     * their latest state is restored from log segments started after rotation.
+     */
+    @VisibleForTesting
+    void snapshot() {
+        try {
+            long segmentNumber;
+
+            Lock lock = exclusiveLock.writeLock();
+            lock.lock();
+            try {
+                segmentNumber = log.rotate();
+                changesSinceSnapshot.set(0);
+            } finally {
+                lock.unlock();
+            }
+
+            log.writeSnapshot(segmentNumber, sink -> delegate.forEach(entity -> sink.accept(encodeWrite(entity))));
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Failed to write snapshot, log will be replayed from previous one.", e);
+        } finally {
+            snapshotInProgress.set(false);
+        }
+    }
+
+    @VisibleForTesting
+    WriteAheadLog getLog() {
+        return log;
+    }
+
+    private byte[] encodeWrite(E entity) {
+        return encode(WRITE, out -> codec.write(entity, out));
+    }
+
+    private byte[] encodeRemove(I id) {
+        return encode(REMOVE, out -> codec.writeId(id, out));
+    }
+
+    private static byte[] encodeBatch(List<byte[]> records) {
+        return encode(BATCH, out -> {
+            out.writeInt(records.size());
+            for (byte[] record : records) {
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        });
+    }
+
+    private static byte[] encode(byte type, RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode record.", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private void apply(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            byte type = in.readByte();
+
+            switch (type) {
+                case WRITE:
+                    E entity = codec.read(in);
+                    delegate.compute(entity.getId(), current -> Optional.of(entity));
+                    break;
+                case REMOVE:
+                    delegate.compute(codec.readId(in), current -> Optional.empty());
+                    break;
+                case CLEAR:
+                    delegate.clear();
+                    break;
+                case BATCH:
+                    applyBatch(in);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown type of log record: " + type);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode record.", e);
+        }
+    }
+
+    private void applyBatch(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<I, Optional<E>> changes = new LinkedHashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            in.readInt();
+            byte type = in.readByte();
+
+            if (type == WRITE) {
+                E entity = codec.read(in);
+                changes.put(entity.getId(), Optional.of(entity));
+            } else if (type == REMOVE) {
+                changes.put(codec.readId(in), Optional.empty());
+            } else {
+                throw new IllegalStateException("Unknown type of batched log record: " + type);
+            }
+        }
+
+        delegate.computeAll(changes.keySet(), (id, current) -> changes.get(id));
+    }
+
+    /**
+     * Writes body of log record.
+     */
+    @FunctionalInterface
+    private interface RecordWriter {
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Creates {@code DurableStorageEngine}s in subdirectories named after storages.
+     */
+    private static class Factory implements StorageEngineFactory {
+
+        private final Path directory;
+        private final StorageEngineFactory memoryFactory;
+
+        private Factory(Path directory, StorageEngineFactory memoryFactory) {
+            this.directory = directory;
+            this.memoryFactory = memoryFactory;
+        }
+
+        @Override
+        public <I extends EntityId, E extends Entity<I>> StorageEngine<I, E> create(StorageSchema<I, E> schema) {
+            return new DurableStorageEngine<>(directory.resolve(schema.getName()), schema,
+                                              memoryFactory.create(schema), true, DEFAULT_SNAPSHOT_THRESHOLD);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package org.javaclasses.todo.storage.wal;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of binary records kept in a directory.
+ *
+ * <p>Log consists of numbered segment files {@code wal-<N>.log} and at most one snapshot file
+ * {@code snapshot-<N>.dat}. Snapshot with number {@code N} contains records which replace all records
+ * of segments with numbers less than {@code N}, so such segments are deleted after snapshot is written.
+ *
+ * <p>Each record is framed by its length and CRC32 checksum, so a record torn by a crash
+ * in the middle of the write is detected and discarded on replay.
+ *
+ * <p>Appended records are buffered in memory and become durable after {@link #sync(long)}.
+ * Sync is a group commit: the thread which acquires the flush lock first writes and fsyncs records
+ * appended by all threads so far, so threads which waited for it find their records already durable
+ * and return without another fsync.
+ *
+ * <p>If records cannot be written to disk, log fails: records of failed write are never durable,
+ * while changes they describe may be already visible in memory. Failed log rejects further appends and syncs,
+ * so no later sync reports these records as durable and no change is accepted without its record.
+ *
+ * @author Oleg Barmin
+ */
+public final class WriteAheadLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final int FRAME_HEADER_SIZE = Integer.BYTES * 2;
+
+    private final Path directory;
+    private final boolean fsync;
+
+    private final Object appendLock = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /* Guarded by appendLock. */
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedLsn;
+
+    /* Guarded by flushLock. */
+    private FileChannel segment;
+    private long segmentNumber;
+
+    private volatile long durableLsn;
+    @Nullable
+    private volatile IOException failure;
+
+    /**
+     * Opens log in given directory, creating directory if it does not exist.
+     *
+     * <p>Log must be {@link #replay(Consumer) replayed} before new records are appended.
+     *
+     * @param directory directory to keep log files in
+     * @param fsync     whether {@link #sync(long)} should force records to the storage device,
+     *                  if {@code false} records are only handed to operating system
+     * @throws IOException if directory cannot be created
+     */
+    public WriteAheadLog(Path directory, boolean fsync) throws IOException {
+        this.directory = checkNotNull(directory);
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+    }
+
+    private static byte[] frame(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+
+        return ByteBuffer.allocate(FRAME_HEADER_SIZE + record.length)
+                         .putInt(record.length)
+                         .putInt((int) crc.getValue())
+                         .put(record)
+                         .array();
+    }
+
+    /**
+     * Reads all whole records from given file.
+     *
+     * @return position in file after the last valid record
+     */
+    private static long readRecords(Path file, Consumer<byte[]> handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            ByteBuffer content = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                // reads whole file
+            }
+            content.flip();
+
+            while (content.remaining() >= FRAME_HEADER_SIZE) {
+                int start = content.position();
+                int length = content.getInt();
+                int checksum = content.getInt();
+
+                if (length < 0 || length > content.remaining()) {
+                    return start;
+                }
+
+                byte[] record = new byte[length];
+                content.get(record);
+
+                CRC32 crc = new CRC32();
+                crc.update(record, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    return start;
+                }
+
+                handler.accept(record);
+            }
+
+            return content.position();
+        }
+    }
+
+    private static long numberOf(Path file, String prefix, String suffix) {
+        String fileName = file.getFileName()
+                              .toString();
+        return Long.parseLong(fileName.substring(prefix.length(), fileName.length() - suffix.length()));
+    }
+
+    /**
+     * Passes all records of the latest snapshot and of segments written after it to given handler
+     * in order they were appended, then opens new segment to append records to.
+     *
+     * <p>Torn record at the end of the last segment is discarded.
+     *
+     * @param handler handler of replayed records
+     * @throws IOException if log files cannot be read
+     */
+    public void replay(Consumer<byte[]> handler) throws IOException {
+        flushLock.lock();
+        try {
+            checkState(segment == null, "Log was already replayed.");
+
+            List<Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            long snapshotNumber = 0;
+
+            if (!snapshots.isEmpty()) {
+                Path snapshot = snapshots.get(snapshots.size() - 1);
+                snapshotNumber = numberOf(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+                readRecords(snapshot, handler);
+            }
+
+            List<Path> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            long lastNumber = snapshotNumber;
+
+            for (int i = 0; i < segments.size(); i++) {
+                Path segmentFile = segments.get(i);
+                long number = numberOf(segmentFile, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+
+                if (number < snapshotNumber) {
+                    Files.delete(segmentFile);
+                    continue;
+                }
+
+                long validLength = readRecords(segmentFile, handler);
+                if (validLength < Files.size(segmentFile)) {
+                    checkState(i == segments.size() - 1, "Log segment %s is corrupted.", segmentFile);
+                    logger.warn("Discarding torn record at the end of log segment {}.", segmentFile);
+                    truncate(segmentFile, validLength);
+                }
+                lastNumber = number;
+            }
+
+            openSegment(lastNumber + 1);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, WRITE)) {
+            channel.truncate(length);
+            channel.force(true);
+        }
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            stream.forEach(files::add);
+        }
+
+        files.sort((first, second) -> Long.compare(numberOf(first, prefix, suffix),
+                                                   numberOf(second, prefix, suffix)));
+        return files;
+    }
+
+    private void openSegment(long number) throws IOException {
+        segmentNumber = number;
+        segment = FileChannel.open(segmentPath(number), CREATE, WRITE);
+        segment.position(segment.size());
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private Path snapshotPath(long number) {
+        return directory.resolve(SNAPSHOT_PREFIX + number + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Appends given record to the log.
+     *
+     * <p>Record is only buffered in memory, so it is not durable until {@link #sync(long)} is called
+     * with returned sequence number.
+     *
+     * @param record record to append
+     * @return sequence number of appended record
+     * @throws UncheckedIOException if log failed to write previous records
+     */
+    public long append(byte[] record) {
+        checkNotFailed();
+        byte[] frame = frame(record);
+
+        synchronized (appendLock) {
+            pending.write(frame, 0, frame.length);
+            return ++appendedLsn;
+        }
+    }
+
+    /**
+     * Makes record with given sequence number and all records appended before it durable.
+     *
+     * <p>Records appended by other threads which wait for sync are written by the same fsync.
+     *
+     * @param lsn sequence number of record returned by {@link #append(byte[])}
+     * @throws UncheckedIOException if records cannot be written to disk or log failed to write previous records
+     */
+    public void sync(long lsn) {
+        if (durableLsn >= lsn) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            if (durableLsn >= lsn) {
+                return;
+            }
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write records to log.", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void checkNotFailed() {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new UncheckedIOException("Log failed to write records earlier.", cause);
+        }
+    }
+
+    /* Must be called under flushLock. */
+    private void flush() throws IOException {
+        checkState(segment != null, "Log is not open.");
+        if (failure != null) {
+            throw new IOException("Log failed to write records earlier.", failure);
+        }
+
+        ByteArrayOutputStream records;
+        long lsn;
+
+        synchronized (appendLock) {
+            records = pending;
+            lsn = appendedLsn;
+            pending = new ByteArrayOutputStream(Math.max(records.size(), 32));
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            // segment may end with part of records and they are lost, so log must not be written anymore
+            failure = e;
+            logger.error("Failed to write records to log, log rejects further changes.", e);
+            throw e;
+        }
+
+        durableLsn = lsn;
+    }
+
+    /**
+     * Makes all appended records durable and starts new segment.
+     *
+     * <p>Caller must ensure no records are appended concurrently,
+     * so that all records appended before rotation are kept by previous segments.
+     *
+     * @return number of new segment, which should be passed to {@link #writeSnapshot(long, Consumer)}
+     * @throws IOException if records cannot be written to disk
+     */
+    public long rotate() throws IOException {
+        flushLock.lock();
+        try {
+            flush();
+            segment.force(true);
+            segment.close();
+            openSegment(segmentNumber + 1);
+            return segmentNumber;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes snapshot which replaces all segments preceding segment with given number.
+     *
+     * <p>Snapshot is written into temporary file which is atomically renamed when it is complete,
+     * so crash during writing leaves previous snapshot and segments untouched.
+     * Replaced segments and previous snapshots are deleted afterwards.
+     *
+     * @param segmentNumber number of the first segment which is not covered by snapshot
+     * @param writer        function which passes all records of snapshot to the given sink
+     * @throws IOException if snapshot cannot be written
+     */
+    public void writeSnapshot(long segmentNumber, Consumer<Consumer<byte[]>> writer) throws IOException {
+        Path snapshot = snapshotPath(segmentNumber);
+        Path temporary = directory.resolve(snapshot.getFileName() + TEMPORARY_SUFFIX);
+
+        Files.deleteIfExists(temporary);
+
+        try (FileChannel channel = FileChannel.open(temporary, CREATE_NEW, WRITE);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+
+            writer.accept(record -> {
+                try {
+                    out.write(frame(record));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            out.flush();
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Files.move(temporary, snapshot, ATOMIC_MOVE);
+        deleteCoveredFiles(segmentNumber);
+    }
+
+    /**
+     * Deletes segments with numbers less than given number, which are no longer needed
+     * because their records were persisted elsewhere.
+     *
+     * @param segmentNumber number of the first segment to keep
+     * @throws IOException if segments cannot be deleted
+     */
+    public void deleteSegmentsBefore(long segmentNumber) throws IOException {
+        for (Path segmentFile : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (numberOf(segmentFile, SEGMENT_PREFIX, SEGMENT_SUFFIX) < segmentNumber) {
+                Files.delete(segmentFile);
+            }
+        }
+    }
+
+    private void deleteCoveredFiles(long snapshotNumber) throws IOException {
+        for (Path snapshot : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (numberOf(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < snapshotNumber) {
+                Files.delete(snapshot);
+            }
+        }
+        deleteSegmentsBefore(snapshotNumber);
+    }
+
+    @VisibleForTesting
+    List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>(list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX));
+        files.addAll(list(SEGMENT_PREFIX, SEGMENT_SUFFIX));
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Makes all appended records durable and closes current segment.
+     *
+     * @throws IOException if records cannot be written to disk
+     */
+    @Override
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            if (segment == null) {
+                return;
+            }
+            try {
+                flush();
+                segment.force(true);
+            } finally {
+                segment.close();
+                segment = null;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Durable storage engine which keeps entities in memory and records their changes
+ * in a write-ahead log on disk.
+ *
+ * @author Oleg Barmin
+ */
+@CheckReturnValue
+@ParametersAreNonnullByDefault
+package org.javaclasses.todo.storage.wal;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.ParametersAreNonnullByDefault;
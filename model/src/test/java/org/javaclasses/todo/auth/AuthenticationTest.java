@@ -13,7 +13,20 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptyList;
 
 /**
  * Testing {@link Authentication} service which should validate user {@link Token} and allow user to:
@@ -21,6 +34,8 @@ import java.util.Optional;
  * - register in the system;
  * - sign-out from the system.
  *
+ * <p>Session should expire by absolute and idle timeouts.
+ *
  * @author Oleg Barmin
  */
 @DisplayName("Authentication should")
@@ -49,8 +64,8 @@ class AuthenticationTest {
 
         Assertions.assertEquals(username, user.getUsername(),
                                 "save user with equal username, but it don't.");
-        Assertions.assertEquals(password, user.getPassword(),
-                                "save user with equal password, but it don't.");
+        Assertions.assertNotEquals(password, user.getPassword(),
+                                   "save hash of password instead of password, but it don't.");
     }
 
     @Test
@@ -164,4 +179,229 @@ class AuthenticationTest {
         Assertions.assertThrows(AuthorizationFailedException.class,
                                 () -> authentication.validate(token));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("reject session after absolute timeout even if it is used.")
+    void testAbsoluteTimeout() {
+        MutableClock clock = new MutableClock();
+        Authentication expiring = createExpiring(clock);
+        expiring.createUser(username, password);
+        Token token = expiring.signIn(username, password);
+
+        for (int i = 0; i < 5; i++) {
+            clock.advance(TimeUnit.MINUTES.toMillis(10));
+            expiring.validate(token);
+        }
+        clock.advance(TimeUnit.MINUTES.toMillis(15));
+
+        Assertions.assertThrows(AuthorizationFailedException.class, () -> expiring.validate(token));
+        expiring.close();
+    }
+
+    @Test
+    @DisplayName("extend session on each use by idle timeout.")
+    void testIdleTimeout() {
+        MutableClock clock = new MutableClock();
+        Authentication expiring = createExpiring(clock);
+        expiring.createUser(username, password);
+        Token used = expiring.signIn(username, password);
+        Token idle = expiring.signIn(username, password);
+
+        clock.advance(TimeUnit.MINUTES.toMillis(15));
+        expiring.validate(used);
+        clock.advance(TimeUnit.MINUTES.toMillis(10));
+
+        Assertions.assertNotNull(expiring.validate(used), "Used session should be valid.");
+        Assertions.assertThrows(AuthorizationFailedException.class, () -> expiring.validate(idle));
+        Assertions.assertFalse(authSessionStorage.read(idle)
+                                                 .isPresent(), "Expired session should be removed.");
+        expiring.close();
+    }
+
+    @Test
+    @DisplayName("remove expired sessions in background.")
+    void testRemoveExpiredSessions() throws InterruptedException {
+        MutableClock clock = new MutableClock();
+        Authentication expiring = createExpiring(clock);
+        expiring.createUser(username, password);
+        Token token = expiring.signIn(username, password);
+
+        clock.advance(TimeUnit.MINUTES.toMillis(21));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (authSessionStorage.read(token)
+                                 .isPresent()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assertions.fail("Expired session should be removed from storage.");
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        expiring.close();
+    }
+
+    @Test
+    @DisplayName("expire sessions stored without times.")
+    void testExpireLegacySession() {
+        authentication.createUser(username, password);
+        AuthSession legacy = new AuthSession(new Token("legacy token"));
+        legacy.setUserId(userStorage.findBy(username)
+                                    .get()
+                                    .getId());
+        authSessionStorage.write(legacy);
+
+        Assertions.assertThrows(AuthorizationFailedException.class, () -> authentication.validate(legacy.getId()));
+    }
+
+    @Test
+    @DisplayName("validate signed token without stored session.")
+    void testSignedToken() {
+        Authentication signing = createSigning(new MutableClock());
+        signing.createUser(username, password);
+        Token token = signing.signIn(username, password);
+
+        Assertions.assertEquals(userStorage.findBy(username)
+                                           .map(User::getId), Optional.of(signing.validate(token)),
+                                "Signed token should carry ID of user.");
+        Assertions.assertEquals(emptyList(), storedSessions(), "Session of signed token should not be stored.");
+        signing.close();
+    }
+
+    @Test
+    @DisplayName("reject expired and revoked signed tokens.")
+    void testRevokeSignedToken() throws InterruptedException {
+        MutableClock clock = new MutableClock();
+        Authentication signing = createSigning(clock);
+        Authentication otherNode = createSigning(clock);
+        signing.createUser(username, password);
+        Token expiring = signing.signIn(username, password);
+        clock.advance(TimeUnit.MINUTES.toMillis(30));
+        Token revoked = signing.signIn(username, password);
+
+        signing.signOut(revoked);
+        clock.advance(TimeUnit.MINUTES.toMillis(31));
+
+        Assertions.assertThrows(AuthorizationFailedException.class, () -> signing.validate(expiring));
+        Assertions.assertThrows(AuthorizationFailedException.class, () -> signing.validate(revoked));
+        Assertions.assertThrows(AuthorizationFailedException.class,
+                                () -> signing.validate(new Token(storedSessions().get(0)
+                                                                                 .getId()
+                                                                                 .getValue())),
+                                "Revoked token should not be valid as token of session.");
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (isValid(otherNode, revoked)) {
+            if (System.currentTimeMillis() > deadline) {
+                Assertions.fail("Token revoked by another node should be rejected.");
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        signing.close();
+        otherNode.close();
+    }
+
+    @Test
+    @DisplayName("sign in user which password was stored in plain text and hash it.")
+    void testRehashPlainPassword() {
+        User user = new User(new UserId(UUID.randomUUID()));
+        user.setUsername(username);
+        user.setPassword(password);
+        userStorage.write(user);
+
+        Assertions.assertNotNull(authentication.signIn(username, password), "User should sign in.");
+        Assertions.assertNotEquals(password, userStorage.findBy(username)
+                                                        .map(User::getPassword)
+                                                        .orElse(null), "Password should be hashed.");
+        Assertions.assertNotNull(authentication.signIn(username, password), "User should sign in with hash.");
+        Assertions.assertThrows(InvalidCredentialsException.class,
+                                () -> authentication.signIn(username, new Password("wrong")));
+    }
+
+    @Test
+    @DisplayName("sign in asynchronously.")
+    void testSignInAsync() {
+        authentication.createUser(username, password);
+
+        CompletableFuture<Token> signedIn = authentication.signInAsync(username, password);
+        CompletableFuture<Token> unknown = authentication.signInAsync(new Username("unknown@mail.org"), password);
+
+        Assertions.assertNotNull(authentication.validate(signedIn.join()), "Token should be valid.");
+        CompletionException exception = Assertions.assertThrows(CompletionException.class, unknown::join);
+        Assertions.assertTrue(exception.getCause() instanceof InvalidCredentialsException,
+                              "Unknown user should not sign in.");
+        Assertions.assertTrue(authentication.getPasswordHashingStats()
+                                            .getLatencyNanos()
+                                            .getCount() >= 2, "Latency of hashing should be recorded.");
+    }
+
+    private List<AuthSession> storedSessions() {
+        List<AuthSession> sessions = new ArrayList<>();
+        authSessionStorage.forEach(sessions::add);
+        return sessions;
+    }
+
+    private static boolean isValid(Authentication authentication, Token token) {
+        try {
+            return authentication.validate(token) != null;
+        } catch (AuthorizationFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates authentication which issues signed tokens expiring in an hour.
+     */
+    private Authentication createSigning(Clock clock) {
+        SessionExpiry expiry = SessionExpiry.newBuilder()
+                                            .setAbsoluteTimeout(1, TimeUnit.HOURS)
+                                            .build();
+        SignedTokens signedTokens = SignedTokens.newBuilder()
+                                                .setKey("0123456789abcdef0123456789abcdef".getBytes())
+                                                .setRevocationRefresh(10, TimeUnit.MILLISECONDS)
+                                                .build();
+        return new Authentication(userStorage, authSessionStorage, expiry, signedTokens, clock);
+    }
+
+    /**
+     * Creates authentication which expires sessions in an hour, or after 20 minutes without use.
+     */
+    private Authentication createExpiring(Clock clock) {
+        SessionExpiry expiry = SessionExpiry.newBuilder()
+                                            .setAbsoluteTimeout(1, TimeUnit.HOURS)
+                                            .setIdleTimeout(20, TimeUnit.MINUTES)
+                                            .setPrecision(10, TimeUnit.MILLISECONDS)
+                                            .build();
+        return new Authentication(userStorage, authSessionStorage, expiry, clock);
+    }
+
+    /**
+     * Clock which time is advanced by test.
+     */
+    private static final class MutableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(1_500_000_000_000L);
+
+        void advance(long duration) {
+            millis.addAndGet(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.javaclasses.todo.auth;
+
+import org.javaclasses.todo.model.Password;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Testing {@link PasswordHasher} which should hash passwords with salt on bounded pool of threads.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("PasswordHasher should")
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(PasswordHashing.newBuilder()
+                                                                            .setIterations(1000)
+                                                                            .setThreads(1)
+                                                                            .setQueueCapacity(1)
+                                                                            .build());
+    private final Password password = new Password("t24h6RSz7");
+
+    @AfterEach
+    void closeHasher() {
+        hasher.close();
+    }
+
+    @Test
+    @DisplayName("match password against its salted hash.")
+    void testMatches() {
+        String hash = hasher.hash(password);
+
+        Assertions.assertNotEquals(hash, hasher.hash(password), "Hashes of one password should differ by salt.");
+        Assertions.assertTrue(hasher.matches(password, hash), "Password should match its hash.");
+        Assertions.assertFalse(hasher.matches(new Password("t24h6RSz8"), hash), "Other password should not match.");
+        Assertions.assertFalse(hasher.needsRehash(hash), "Hash of current options should be kept.");
+        Assertions.assertTrue(hasher.needsRehash(password.getValue()), "Plain password should be hashed.");
+        Assertions.assertTrue(hasher.matches(password, password.getValue()), "Plain password should match.");
+    }
+
+    @Test
+    @DisplayName("reject hashing when queue is full.")
+    void testOverload() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = hasher.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+            }
+            return true;
+        });
+        started.await();
+        CompletableFuture<String> queued = hasher.submit(() -> hasher.hash(password));
+
+        Assertions.assertEquals(1, hasher.getStats()
+                                         .getQueueDepth(), "Waiting hashing should be counted.");
+        Assertions.assertThrows(PasswordHashingOverloadedException.class, () -> hasher.submit(() -> true));
+        Assertions.assertEquals(1, hasher.getStats()
+                                         .getRejectedCount(), "Rejected hashing should be counted.");
+
+        release.countDown();
+        Assertions.assertTrue(busy.join(), "Running task should complete.");
+        Assertions.assertTrue(hasher.matches(password, queued.join()), "Queued hashing should complete.");
+    }
+}
@@ -0,0 +1,66 @@
+package org.javaclasses.todo.auth;
+
+import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.entity.UserId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Testing {@link SignedTokens} which should read only tokens signed by the same key.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("SignedTokens should")
+class SignedTokensTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes();
+
+    private final SignedTokens signedTokens = SignedTokens.newBuilder()
+                                                          .setKey(KEY)
+                                                          .build();
+
+    @Test
+    @DisplayName("read content of issued token.")
+    void testIssue() {
+        for (UserId userId : Arrays.asList(new UserId(UUID.randomUUID()), new UserId("not a UUID"))) {
+            TokenClaims claims = new TokenClaims(UUID.randomUUID(), userId, 1_000, 2_000);
+            Token token = signedTokens.issue(claims);
+
+            Assertions.assertTrue(SignedTokens.isSigned(token), "Issued token should be signed.");
+            TokenClaims read = signedTokens.verify(token)
+                                           .orElseThrow(AssertionError::new);
+            Assertions.assertEquals(claims.getTokenId(), read.getTokenId(), "ID of token should be read.");
+            Assertions.assertEquals(userId, read.getUserId(), "ID of user should be read.");
+            Assertions.assertEquals(claims.getIssuedAt(), read.getIssuedAt(), "Time of issue should be read.");
+            Assertions.assertEquals(claims.getExpiresAt(), read.getExpiresAt(), "Time of expiry should be read.");
+        }
+    }
+
+    @Test
+    @DisplayName("reject changed token and token signed by another key.")
+    void testReject() {
+        Token token = signedTokens.issue(new TokenClaims(UUID.randomUUID(), new UserId(UUID.randomUUID()),
+                                                         1_000, 2_000));
+        String value = token.getValue();
+        char changed = value.charAt(3) == 'A' ? 'B' : 'A';
+        Token tampered = new Token(value.substring(0, 3) + changed + value.substring(4));
+
+        byte[] otherKey = KEY.clone();
+        otherKey[0]++;
+        SignedTokens other = SignedTokens.newBuilder()
+                                         .setKey(otherKey)
+                                         .build();
+
+        Assertions.assertEquals(Optional.empty(), signedTokens.verify(tampered), "Changed token should be rejected.");
+        Assertions.assertEquals(Optional.empty(), other.verify(token), "Token of another key should be rejected.");
+        Assertions.assertEquals(Optional.empty(), signedTokens.verify(new Token("a.b")),
+                                "Malformed token should be rejected.");
+        Assertions.assertFalse(SignedTokens.isSigned(new Token(UUID.randomUUID())),
+                               "Token of stored session should not be signed.");
+    }
+}
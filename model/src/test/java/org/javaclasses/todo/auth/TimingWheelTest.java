@@ -0,0 +1,76 @@
+package org.javaclasses.todo.auth;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Testing {@link TimingWheel} which should make keys due once their deadlines pass.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("TimingWheel should")
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_500_000_000_500L;
+
+    @Test
+    @DisplayName("make key due within a tick after its deadline.")
+    void testDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, START);
+        wheel.schedule("key", START + 2500);
+
+        Assertions.assertEquals(emptyList(), wheel.advance(START + 2499), "Key should not be due before deadline.");
+        Assertions.assertEquals(singletonList("key"), wheel.advance(START + 3500),
+                                "Key should be due within a tick after deadline.");
+        Assertions.assertEquals(0, wheel.size(), "Due key should not be kept.");
+    }
+
+    @Test
+    @DisplayName("make key which deadline has passed due on the next advance.")
+    void testOverdue() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, START);
+        wheel.schedule("key", START - TICK);
+
+        Assertions.assertEquals(singletonList("key"), wheel.advance(START), "Overdue key should be due.");
+    }
+
+    @Test
+    @DisplayName("move keys of higher levels to lower ones and keep keys beyond its range.")
+    void testLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, START);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long deadline = START + (long) (random.nextDouble() * TICK * 20_000_000L);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+        Collections.sort(deadlines);
+
+        List<Long> due = new ArrayList<>();
+        long now = START;
+        for (long deadline : deadlines) {
+            List<Long> advanced = wheel.advance(deadline - 1);
+            Assertions.assertTrue(advanced.stream()
+                                          .allMatch(key -> key <= deadline - 1),
+                                  "Key should not be due before its deadline.");
+            due.addAll(advanced);
+            now = Math.max(now, deadline + TICK);
+        }
+        due.addAll(wheel.advance(now));
+
+        Collections.sort(due);
+        Assertions.assertEquals(deadlines, due, "Each key should become due once.");
+        Assertions.assertEquals(0, wheel.size(), "Due keys should not be kept.");
+    }
+}
@@ -1,5 +1,6 @@
 package org.javaclasses.todo.model;
 
+import com.google.common.base.Ticker;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
 import org.javaclasses.todo.model.entity.TodoList;
@@ -8,12 +9,16 @@ import org.javaclasses.todo.model.entity.UserId;
 import org.javaclasses.todo.storage.Storage;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 import org.javaclasses.todo.storage.impl.TodoListStorage;
+import org.javaclasses.todo.storage.metrics.StorageOperation;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Testing {@link Authorization} service which should allow to validate if user has access to entity by their IDs.
@@ -25,7 +30,13 @@ class AuthorizationTest {
 
     private final Storage<TaskId, Task> taskStorage = new TaskStorage();
     private final TodoListStorage todoListStorage = new TodoListStorage();
-    private final Authorization authorization = new Authorization(todoListStorage);
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final Authorization authorization = new Authorization(todoListStorage, 100, new Ticker() {
+        @Override
+        public long read() {
+            return nanoTime.get();
+        }
+    });
 
     private static TodoList getBuild(UserId owner, TodoListId todoListId) {
         return new TodoList.TodoListBuilder()
@@ -107,4 +118,80 @@ class AuthorizationTest {
         Assertions.assertThrows(AuthorizationFailedException.class,
                                 () -> authorization.validateAccess(userId, todoListId));
     }
+
+    private long readCount(StorageOperation operation) {
+        return todoListStorage.getMetrics()
+                              .getStats(operation)
+                              .getCount();
+    }
+
+    @Test
+    @DisplayName("validate repeated access to to-do list without reading storage.")
+    void testCachedAccess() {
+        UserId owner = new UserId(UUID.randomUUID()
+                                      .toString());
+        UserId userId = new UserId(UUID.randomUUID()
+                                       .toString());
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        todoListStorage.write(getBuild(owner, todoListId));
+
+        for (int i = 0; i < 3; i++) {
+            authorization.validateAccess(owner, todoListId);
+            authorization.validateAccess(owner, Arrays.asList(todoListId, todoListId));
+            Assertions.assertThrows(AuthorizationFailedException.class,
+                                    () -> authorization.validateAccess(userId, todoListId));
+        }
+
+        Assertions.assertEquals(1, readCount(StorageOperation.READ), "List should be read once.");
+        Assertions.assertEquals(0, readCount(StorageOperation.READ_ALL), "Cached list should not be read again.");
+    }
+
+    @Test
+    @DisplayName("cache absence of to-do list until it expires or is invalidated.")
+    void testCachedNotFound() {
+        UserId userId = new UserId(UUID.randomUUID()
+                                       .toString());
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+
+        Assertions.assertThrows(TodoListNotFoundException.class,
+                                () -> authorization.validateAccess(userId, todoListId));
+        todoListStorage.write(getBuild(userId, todoListId));
+        Assertions.assertThrows(TodoListNotFoundException.class,
+                                () -> authorization.validateAccess(userId, todoListId),
+                                "Absence of list should be cached.");
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        authorization.validateAccess(userId, todoListId);
+        Assertions.assertEquals(2, readCount(StorageOperation.READ), "Expired absence should be read again.");
+
+        TodoListId createdListId = new TodoListId(UUID.randomUUID()
+                                                      .toString());
+        Assertions.assertThrows(TodoListNotFoundException.class,
+                                () -> authorization.validateAccess(userId, createdListId));
+        todoListStorage.write(getBuild(userId, createdListId));
+        authorization.invalidate(createdListId);
+        authorization.validateAccess(userId, createdListId);
+    }
+
+    @Test
+    @DisplayName("validate access of access memo to each to-do list once.")
+    void testAccessMemo() {
+        UserId userId = new UserId(UUID.randomUUID()
+                                       .toString());
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        todoListStorage.write(getBuild(userId, todoListId));
+        AccessMemo memo = authorization.accessMemoOf(userId);
+
+        memo.validateAccess(todoListId);
+        authorization.invalidate(todoListId);
+        memo.validateAccess(todoListId);
+        memo.validateAccess(Arrays.asList(todoListId, todoListId));
+
+        Assertions.assertEquals(userId, memo.getUserId(), "Memo should keep user.");
+        Assertions.assertEquals(1, readCount(StorageOperation.READ), "Validated list should not be read again.");
+        Assertions.assertEquals(0, readCount(StorageOperation.READ_ALL), "Validated list should not be read again.");
+    }
 }
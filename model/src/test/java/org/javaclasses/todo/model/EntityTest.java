@@ -2,8 +2,12 @@ package org.javaclasses.todo.model;
 
 import com.google.common.testing.EqualsTester;
 import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.model.entity.TaskId;
 import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.storage.StorageEngine;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -11,6 +15,10 @@ import org.junit.jupiter.api.Test;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Testing equals and hashcode methods of {@link Entity} sub-classes.
@@ -82,4 +90,73 @@ class EntityTest {
                     .testEquals();
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("EntityId should")
+    class EntityIdTest {
+
+        @Test
+        @DisplayName("keep UUID value as bits of UUID.")
+        void testUuidValue() {
+            UUID uuid = UUID.randomUUID();
+            TaskId fromString = new TaskId(uuid.toString());
+
+            assertTrue(fromString.isUuid(), "UUID string should be kept as bits of UUID.");
+            assertEquals(uuid.toString(), fromString.getValue());
+            assertEquals(uuid.getMostSignificantBits(), fromString.getMostSignificantBits());
+            assertEquals(uuid.getLeastSignificantBits(), fromString.getLeastSignificantBits());
+
+            new EqualsTester()
+                    .addEqualityGroup(fromString, new TaskId(uuid))
+                    .testEquals();
+        }
+
+        @Test
+        @DisplayName("keep value which is not canonical UUID string as it is.")
+        void testStringValue() {
+            String upperCase = UUID.randomUUID()
+                                   .toString()
+                                   .toUpperCase();
+
+            TaskId upperCaseId = new TaskId(upperCase);
+            TaskId plainId = new TaskId("task-1");
+
+            assertFalse(upperCaseId.isUuid(), "Upper case UUID should be kept as string to be restored exactly.");
+            assertEquals(upperCase, upperCaseId.getValue());
+            assertEquals("task-1", plainId.getValue());
+            assertNotEquals(new TaskId(upperCase.toLowerCase()), upperCaseId);
+        }
+
+        @Test
+        @DisplayName("not be equal to ID of other class with same value.")
+        void testClassSensitiveEquality() {
+            UUID uuid = UUID.randomUUID();
+
+            assertNotEquals(new TaskId(uuid), new TodoListId(uuid));
+        }
+
+        @Test
+        @DisplayName("share interned instance between equal IDs.")
+        void testIntern() {
+            String value = UUID.randomUUID()
+                               .toString();
+            TodoListId first = EntityId.intern(new TodoListId(value));
+            TodoListId second = EntityId.intern(new TodoListId(value));
+
+            assertSame(first, second);
+        }
+
+        @Test
+        @DisplayName("be ordered as strings of their values.")
+        void testOrder() {
+            for (int i = 0; i < 1000; i++) {
+                TaskId first = new TaskId(UUID.randomUUID());
+                TaskId second = new TaskId(UUID.randomUUID());
+
+                int expected = Integer.signum(first.getValue()
+                                                   .compareTo(second.getValue()));
+                assertEquals(expected, Integer.signum(StorageEngine.compareOrderKeys(first, second)));
+            }
+        }
+    }
+}
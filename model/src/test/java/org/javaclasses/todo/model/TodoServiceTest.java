@@ -1,5 +1,6 @@
 package org.javaclasses.todo.model;
 
+import com.google.common.collect.Lists;
 import org.javaclasses.todo.auth.Authentication;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
@@ -8,15 +9,21 @@ import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.model.entity.Token;
 import org.javaclasses.todo.model.entity.UserId;
 import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.model.operation.AddTask;
+import org.javaclasses.todo.model.operation.AddTasks;
+import org.javaclasses.todo.storage.ContinuationToken;
+import org.javaclasses.todo.storage.Page;
 import org.javaclasses.todo.storage.impl.AuthSessionStorage;
 import org.javaclasses.todo.storage.impl.TaskStorage;
 import org.javaclasses.todo.storage.impl.TodoListStorage;
 import org.javaclasses.todo.storage.impl.UserStorage;
+import org.javaclasses.todo.storage.metrics.StorageOperation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -343,6 +350,68 @@ class TodoServiceTest {
                            .execute());
     }
 
+    @Test
+    @DisplayName("update task only if it has expected version.")
+    void testUpdateTaskOfVersion() {
+        createUser();
+        Token token = authentication.signIn(username, password);
+        UserId userId = authentication.validate(token);
+        TaskId taskId = new TaskId(UUID.randomUUID()
+                                       .toString());
+        TodoList todoList = createAndSaveTodoList(userId);
+
+        todoService.addTask(taskId)
+                   .authorizedWith(token)
+                   .withTodoListId(todoList.getId())
+                   .withDescription("read a book")
+                   .execute();
+        long version = taskStorage.read(taskId)
+                                  .map(Task::getVersion)
+                                  .orElseThrow(IllegalStateException::new);
+
+        todoService.updateTask(taskId)
+                   .authorizedWith(token)
+                   .withDescription("read two books")
+                   .ifVersion(version)
+                   .execute();
+
+        TaskVersionMismatchException exception = assertThrows(TaskVersionMismatchException.class, () ->
+                todoService.updateTask(taskId)
+                           .authorizedWith(token)
+                           .withDescription("read no books")
+                           .ifVersion(version)
+                           .execute());
+        assertEquals(version + 1, exception.getCurrentVersion(), "report current version of task.");
+        assertEquals("read two books", taskStorage.read(taskId)
+                                                  .map(Task::getDescription)
+                                                  .orElse(null), "keep the first update of task.");
+    }
+
+    @Test
+    @DisplayName("throw TaskAlreadyExistsException if task with same ID is added after check.")
+    void testAddTaskTwice() {
+        createUser();
+        Token token = authentication.signIn(username, password);
+        UserId userId = authentication.validate(token);
+        TaskId taskId = new TaskId(UUID.randomUUID()
+                                       .toString());
+        TodoList todoList = createAndSaveTodoList(userId);
+
+        AddTask first = todoService.addTask(taskId);
+        AddTask second = todoService.addTask(taskId);
+
+        first.authorizedWith(token)
+             .withTodoListId(todoList.getId())
+             .withDescription("first")
+             .execute();
+
+        assertThrows(TaskAlreadyExistsException.class, () ->
+                second.authorizedWith(token)
+                      .withTodoListId(todoList.getId())
+                      .withDescription("second")
+                      .execute());
+    }
+
     @Test
     @DisplayName("throw UpdateCompletedTaskException if try to updated absent task.")
     void testUpdateCompletedTask() {
@@ -390,6 +459,48 @@ class TodoServiceTest {
         assertFalse(taskByID.isPresent(), "delete task, but it didn't.");
     }
 
+    private long operationCount(StorageOperation operation) {
+        return taskStorage.getMetrics()
+                          .getStats(operation)
+                          .getCount()
+                + todoListStorage.getMetrics()
+                                 .getStats(operation)
+                                 .getCount();
+    }
+
+    @Test
+    @DisplayName("update and remove task without reading its to-do list, once access to the list is known.")
+    void testStorageOperationsOfMutations() {
+        createUser();
+        Token token = authentication.signIn(username, password);
+        UserId userId = authentication.validate(token);
+        TodoList todoList = createAndSaveTodoList(userId);
+        Task task = createAndSaveTask(todoList.getId());
+        todoService.findTask(task.getId())
+                   .authorizedWith(token)
+                   .execute();
+        long reads = operationCount(StorageOperation.READ);
+        long versionedWrites = operationCount(StorageOperation.WRITE_IF_VERSION);
+        long computations = operationCount(StorageOperation.COMPUTE);
+
+        todoService.updateTask(task.getId())
+                   .authorizedWith(token)
+                   .withDescription("updated by versioned write")
+                   .execute();
+        todoService.removeTask(task.getId())
+                   .authorizedWith(token)
+                   .execute();
+
+        assertEquals(reads + 2, operationCount(StorageOperation.READ),
+                     "read only task to update and task to remove, but it didn't.");
+        assertEquals(versionedWrites + 1, operationCount(StorageOperation.WRITE_IF_VERSION),
+                     "update task by one versioned write, but it didn't.");
+        assertEquals(computations + 1, operationCount(StorageOperation.COMPUTE),
+                     "remove task by one computation, but it didn't.");
+        assertFalse(taskStorage.read(task.getId())
+                               .isPresent(), "remove task, but it didn't.");
+    }
+
     @Test
     @DisplayName("throw TaskNotFoundException if try to remove task which doesn't exist.")
     /*
@@ -407,4 +518,137 @@ class TodoServiceTest {
                            .execute());
     }
 
-}
\ No newline at end of file
+    private static TaskId newTaskId() {
+        return new TaskId(UUID.randomUUID()
+                              .toString());
+    }
+
+    @Test
+    @DisplayName("add, find, update and remove tasks in batches.")
+    void testBatchOperations() {
+        createUser();
+        Token token = authentication.signIn(username, password);
+        UserId userId = authentication.validate(token);
+        TodoList firstList = createAndSaveTodoList(userId);
+        TodoList secondList = createAndSaveTodoList(userId);
+
+        List<TaskId> taskIds = new ArrayList<>();
+        AddTasks addTasks = todoService.addTasks()
+                                       .authorizedWith(token);
+        for (int i = 0; i < 10; i++) {
+            TaskId taskId = newTaskId();
+            taskIds.add(taskId);
+            addTasks.withTask(taskId, i % 2 == 0 ? firstList.getId() : secondList.getId(), "batched task " + i);
+        }
+        addTasks.execute();
+
+        List<Task> found = todoService.findTasks(taskIds)
+                                      .authorizedWith(token)
+                                      .execute();
+        assertEquals(taskIds, Lists.transform(found, Task::getId), "find all added tasks in order, but it didn't.");
+
+        todoService.updateTasks()
+                   .authorizedWith(token)
+                   .withTask(taskIds.get(0), "updated", true)
+                   .withTask(taskIds.get(1), "updated", false)
+                   .execute();
+        Task updated = taskStorage.read(taskIds.get(0))
+                                  .orElseThrow(IllegalStateException::new);
+        assertEquals("updated", updated.getDescription(), "update task description, but it didn't.");
+        assertTrue(updated.isCompleted(), "update task status, but it didn't.");
+
+        todoService.removeTasks(taskIds.subList(0, 5))
+                   .authorizedWith(token)
+                   .execute();
+        assertEquals(5, taskStorage.readAll(taskIds)
+                                   .size(), "remove batch of tasks, but it didn't.");
+    }
+
+    @Test
+    @DisplayName("add no tasks of batch if user has no access to one of to-do lists.")
+    void testAddTasksToForeignTodoList() {
+        createUser();
+        Token token = authentication.signIn(username, password);
+        UserId userId = authentication.validate(token);
+        TodoList ownList = createAndSaveTodoList(userId);
+        TodoList foreignList = createAndSaveTodoList(new UserId(UUID.randomUUID()
+                                                                    .toString()));
+        TaskId ownTaskId = newTaskId();
+
+        assertThrows(AuthorizationFailedException.class, () ->
+                todoService.addTasks()
+                           .authorizedWith(token)
+                           .withTask(ownTaskId, ownList.getId(), "own task")
+                           .withTask(newTaskId(), foreignList.getId(), "foreign task")
+                           .execute());
+        assertFalse(taskStorage.read(ownTaskId)
+                               .isPresent(), "add no tasks of rejected batch, but it did.");
+    }
+
+    @Test
+    @DisplayName("throw TaskAlreadyExistsException if batch contains task which already exists.")
+    void testAddExistingTasks() {
+        createUser();
+        Token token = authentication.signIn(username, password);
+        UserId userId = authentication.validate(token);
+        TodoList todoList = createAndSaveTodoList(userId);
+        Task existing = createAndSaveTask(todoList.getId());
+
+        assertThrows(TaskAlreadyExistsException.class, () ->
+                todoService.addTasks()
+                           .authorizedWith(token)
+                           .withTask(newTaskId(), todoList.getId(), "new task")
+                           .withTask(existing.getId(), todoList.getId(), "existing task")
+                           .execute());
+        assertEquals(1, taskStorage.getAllTaskOfTodoList(todoList.getId())
+                                   .size(), "add no tasks of rejected batch, but it did.");
+    }
+
+    @Test
+    @DisplayName("throw TaskNotFoundException and remove nothing if batch contains absent task.")
+    void testRemoveTasksWithAbsentTask() {
+        createUser();
+        Token token = authentication.signIn(username, password);
+        UserId userId = authentication.validate(token);
+        TodoList todoList = createAndSaveTodoList(userId);
+        Task task = createAndSaveTask(todoList.getId());
+
+        assertThrows(TaskNotFoundException.class, () ->
+                todoService.removeTasks(Arrays.asList(task.getId(), newTaskId()))
+                           .authorizedWith(token)
+                           .execute());
+        assertTrue(taskStorage.read(task.getId())
+                              .isPresent(), "remove no tasks of rejected batch, but it did.");
+    }
+
+    @Test
+    @DisplayName("read tasks of to-do list page by page.")
+    void testReadTasksByPages() {
+        createUser();
+        Token token = authentication.signIn(username, password);
+        UserId userId = authentication.validate(token);
+        TodoList todoList = createAndSaveTodoList(userId);
+        for (int i = 0; i < 7; i++) {
+            createAndSaveTask(todoList.getId());
+        }
+
+        Page<Task> first = todoService.readTasksFrom(todoList.getId())
+                                      .authorizedWith(token)
+                                      .withPageSize(5)
+                                      .executePage();
+        Optional<ContinuationToken> continuationToken = first.getContinuationToken();
+        assertTrue(continuationToken.isPresent(), "provide token to read the next page, but it didn't.");
+
+        Page<Task> second = todoService.readTasksFrom(todoList.getId())
+                                       .authorizedWith(token)
+                                       .withPageSize(5)
+                                       .continuingFrom(continuationToken.get())
+                                       .executePage();
+        assertEquals(5, first.getItems()
+                             .size(), "fill the first page, but it didn't.");
+        assertEquals(2, second.getItems()
+                              .size(), "provide rest of tasks on the last page, but it didn't.");
+        assertFalse(second.getContinuationToken()
+                          .isPresent(), "provide no token for the last page, but it did.");
+    }
+}
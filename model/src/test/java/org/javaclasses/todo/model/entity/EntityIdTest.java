@@ -0,0 +1,79 @@
+package org.javaclasses.todo.model.entity;
+
+import org.javaclasses.todo.storage.StorageEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Testing {@link EntityId} which should keep UUID values as bits and order them as their strings.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("EntityId should")
+class EntityIdTest {
+
+    private static final List<String> KEYS = Arrays.asList("", "0", "00000000-0000-0000-0000-000000000000",
+                                                           "7f", "7fffffff-ffff-ffff-ffff-ffffffffffff",
+                                                           "80000000-0000-0000-0000-000000000000",
+                                                           "80000000-0000-0000-0000-0000000000000",
+                                                           "ffffffff-ffff-ffff-ffff-ffffffffffff",
+                                                           "FFFFFFFF-FFFF-FFFF-FFFF-FFFFFFFFFFFF", "task", "~");
+
+    @Test
+    @DisplayName("compare UUID value with any string as string of UUID.")
+    void testCompareValue() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            TaskId id = new TaskId(uuid);
+            String string = uuid.toString();
+
+            Assertions.assertTrue(id.isUuid(), "UUID value should be kept as bits.");
+            Assertions.assertEquals(0, id.compareValueTo(string), "ID should be equal to its string.");
+            for (String key : KEYS) {
+                Assertions.assertEquals(Integer.signum(string.compareTo(key)), Integer.signum(id.compareValueTo(key)),
+                                        "ID should be compared with " + key + " as its string.");
+            }
+            for (int position = 0; position < string.length(); position++) {
+                String prefix = string.substring(0, position);
+                Assertions.assertTrue(id.compareValueTo(prefix) > 0, "ID should follow prefix of its string.");
+                Assertions.assertTrue(id.compareValueTo(prefix + '~') < 0, "ID should precede greater string.");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("order IDs with UUID values and other IDs as their strings.")
+    void testCompareOrderKeys() {
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            TaskId uuidId = new TaskId(new UUID(random.nextLong(), random.nextLong()));
+            String uuidKey = StorageEngine.orderKeyOf(uuidId);
+            for (String key : KEYS) {
+                TaskId stringId = new TaskId(key);
+                Assertions.assertEquals(Integer.signum(uuidKey.compareTo(StorageEngine.orderKeyOf(stringId))),
+                                        Integer.signum(StorageEngine.compareOrderKeys(uuidId, stringId)),
+                                        "IDs should be ordered as their strings.");
+                Assertions.assertEquals(Integer.signum(StorageEngine.orderKeyOf(stringId).compareTo(uuidKey)),
+                                        Integer.signum(StorageEngine.compareOrderKeys(stringId, uuidId)),
+                                        "IDs should be ordered as their strings.");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("format string of UUID value once.")
+    void testCachedValue() {
+        UUID uuid = UUID.randomUUID();
+        TaskId id = new TaskId(uuid.toString());
+
+        Assertions.assertEquals(uuid.toString(), id.getValue(), "ID should restore string of UUID.");
+        Assertions.assertSame(id.getValue(), id.getValue(), "String of UUID should be formatted once.");
+    }
+}
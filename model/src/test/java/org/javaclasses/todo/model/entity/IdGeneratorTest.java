@@ -0,0 +1,73 @@
+package org.javaclasses.todo.model.entity;
+
+import org.javaclasses.todo.storage.StorageEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Testing {@link IdGenerator} which should generate unique random and time-ordered UUIDs.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("IdGenerator should")
+class IdGeneratorTest {
+
+    @Test
+    @DisplayName("generate unique random UUIDs of version 4 from many threads.")
+    void testRandomUuid() {
+        Set<UUID> uuids = ConcurrentHashMap.newKeySet();
+        int count = 100_000;
+
+        IntStream.range(0, count)
+                 .parallel()
+                 .forEach(i -> uuids.add(IdGenerator.randomUuid()));
+
+        Assertions.assertEquals(count, uuids.size(), "Random UUIDs should not repeat.");
+        uuids.forEach(uuid -> {
+            Assertions.assertEquals(4, uuid.version(), "Random UUID should have version 4.");
+            Assertions.assertEquals(2, uuid.variant(), "UUID should have variant of RFC 4122.");
+        });
+    }
+
+    @Test
+    @DisplayName("generate UUIDs of version 7 ordered by time of creation.")
+    void testTimeOrderedUuid() {
+        Set<UUID> uuids = new HashSet<>();
+        TaskId previous = null;
+        for (long millis = 1_500_000_000_000L; millis < 1_500_000_001_000L; millis++) {
+            UUID uuid = IdGenerator.timeOrderedUuid(millis);
+            uuids.add(uuid);
+            Assertions.assertEquals(7, uuid.version(), "Time-ordered UUID should have version 7.");
+            Assertions.assertEquals(2, uuid.variant(), "UUID should have variant of RFC 4122.");
+            Assertions.assertEquals(millis, uuid.getMostSignificantBits() >>> 16, "UUID should start with time.");
+
+            TaskId current = new TaskId(uuid);
+            if (previous != null) {
+                Assertions.assertTrue(StorageEngine.compareOrderKeys(previous, current) < 0,
+                                      "IDs should be sorted in order of creation.");
+            }
+            previous = current;
+        }
+        Assertions.assertEquals(1000, uuids.size(), "Time-ordered UUIDs should not repeat.");
+    }
+
+    @Test
+    @DisplayName("fill arrays with random bytes.")
+    void testNextBytes() {
+        byte[] first = new byte[32];
+        byte[] second = new byte[32];
+
+        IdGenerator.nextBytes(first);
+        IdGenerator.nextBytes(second);
+
+        Assertions.assertFalse(Arrays.equals(first, second), "Random bytes should not repeat.");
+    }
+}
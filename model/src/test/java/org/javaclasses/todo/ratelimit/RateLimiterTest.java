@@ -0,0 +1,113 @@
+package org.javaclasses.todo.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Testing {@link RateLimiter} which should allow requests of each key at configured rate.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("RateLimiter should")
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong nanoTime = new AtomicLong(1_000 * SECOND);
+
+    private RateLimiter<String> createLimiter(int permitsPerSecond, int burst, int maximumKeys) {
+        RateLimit rateLimit = RateLimit.newBuilder()
+                                       .setRate(permitsPerSecond, 1, TimeUnit.SECONDS)
+                                       .setBurst(burst)
+                                       .setMaximumKeys(maximumKeys)
+                                       .build();
+        return new RateLimiter<>(rateLimit, nanoTime::get);
+    }
+
+    @Test
+    @DisplayName("allow burst of requests and reject further ones until bucket is refilled.")
+    void testBurst() {
+        RateLimiter<String> limiter = createLimiter(10, 3, 100);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire("bob"), "Requests of burst should be allowed.");
+        }
+        long wait = limiter.tryAcquire("bob");
+
+        Assertions.assertEquals(SECOND / 10, wait, "Rejected request should wait for the next permit.");
+        nanoTime.addAndGet(wait);
+        Assertions.assertEquals(0, limiter.tryAcquire("bob"), "Request should be allowed after refill.");
+        Assertions.assertTrue(limiter.tryAcquire("bob") > 0, "Refilled permit should be used once.");
+    }
+
+    @Test
+    @DisplayName("limit each key separately.")
+    void testKeys() {
+        RateLimiter<String> limiter = createLimiter(1, 1, 100);
+
+        Assertions.assertEquals(0, limiter.tryAcquire("bob"), "Request of bob should be allowed.");
+        Assertions.assertTrue(limiter.tryAcquire("bob") > 0, "The second request of bob should be rejected.");
+        Assertions.assertEquals(0, limiter.tryAcquire("alice"), "Request of alice should be allowed.");
+    }
+
+    @Test
+    @DisplayName("evict full buckets and share one bucket when maximum number of keys is kept.")
+    void testBoundedKeys() {
+        RateLimiter<String> limiter = createLimiter(1, 1, 2);
+
+        Assertions.assertEquals(0, limiter.tryAcquire("bob"), "Request of bob should be allowed.");
+        Assertions.assertEquals(0, limiter.tryAcquire("alice"), "Request of alice should be allowed.");
+        Assertions.assertEquals(0, limiter.tryAcquire("john"), "The first key over maximum should be allowed.");
+        Assertions.assertTrue(limiter.tryAcquire("kate") > 0, "Keys over maximum should share bucket.");
+        Assertions.assertEquals(2, limiter.size(), "Limiter should keep maximum number of keys.");
+
+        nanoTime.addAndGet(2 * SECOND);
+        Assertions.assertEquals(0, limiter.tryAcquire("kate"), "Key should get bucket after eviction.");
+        Assertions.assertEquals(1, limiter.size(), "Full buckets should be evicted.");
+    }
+
+    @Test
+    @DisplayName("allow exactly burst of concurrent requests of one key.")
+    void testConcurrentRequests() throws Exception {
+        int burst = 1000;
+        RateLimiter<String> limiter = createLimiter(1, burst, 100);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger acquired = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < burst; j++) {
+                        if (limiter.tryAcquire("bob") == 0) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(burst, acquired.get(), "Each permit should be acquired once.");
+    }
+}
@@ -0,0 +1,280 @@
+package org.javaclasses.todo.storage.cache;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Testing {@link CachingStorageEngine} which should serve reads from cache
+ * and keep underlying engine consistent with the cache.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("CachingStorageEngine should")
+class CachingStorageEngineTest {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+
+    private final TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                             .toString());
+    private final StorageEngine<TaskId, Task> delegate =
+            new ConcurrentStorageEngine<>(singletonList(TODO_LIST_INDEX));
+    private CachingStorageEngine<TaskId, Task> engine;
+
+    @AfterEach
+    void closeEngine() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    private CachingStorageEngine<TaskId, Task> createEngine(CacheOptions options) {
+        engine = new CachingStorageEngine<>(delegate, "tasks", options);
+        return engine;
+    }
+
+    private Task createTask(TaskId taskId, String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private static TaskId newTaskId() {
+        return new TaskId(UUID.randomUUID()
+                              .toString());
+    }
+
+    private static void write(StorageEngine<TaskId, Task> engine, Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private List<TaskId> writeTasks(StorageEngine<TaskId, Task> engine, int count) {
+        List<TaskId> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = createTask(newTaskId(), "task " + i);
+            write(engine, task);
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("serve reads of written entities from cache and write them through.")
+    void testWriteThrough() {
+        createEngine(CacheOptions.defaults());
+        Task task = createTask(newTaskId(), "cache written task");
+
+        write(engine, task);
+
+        Assertions.assertEquals(Optional.of(task), delegate.read(task.getId()),
+                                "Task should be written into underlying engine.");
+        Assertions.assertEquals(Optional.of(task), engine.read(task.getId()), "Written task should be read.");
+        Assertions.assertEquals(1, engine.stats()
+                                         .getHitCount(), "Written task should be read from cache.");
+        Assertions.assertEquals(0, engine.stats()
+                                         .getMissCount(), "Written task should not be loaded.");
+    }
+
+    @Test
+    @DisplayName("cache absence of entity.")
+    void testCacheAbsentEntity() {
+        createEngine(CacheOptions.defaults());
+        TaskId taskId = newTaskId();
+
+        Assertions.assertFalse(engine.read(taskId)
+                                     .isPresent(), "Absent task should not be found.");
+        Assertions.assertFalse(engine.read(taskId)
+                                     .isPresent(), "Absent task should not be found.");
+
+        CacheStats stats = engine.stats();
+        Assertions.assertEquals(1, stats.getMissCount(), "Absent task should be looked up once.");
+        Assertions.assertEquals(1, stats.getHitCount(), "Absence of task should be cached.");
+    }
+
+    @Test
+    @DisplayName("load batch of missed entities and cache them.")
+    void testReadAll() {
+        createEngine(CacheOptions.defaults());
+        List<TaskId> ids = writeTasks(delegate, 10);
+        engine.read(ids.get(0));
+
+        Map<TaskId, Task> found = engine.readAll(ids);
+        Map<TaskId, Task> foundAgain = engine.readAll(ids);
+
+        Assertions.assertEquals(ids.size(), found.size(), "All written tasks should be found.");
+        Assertions.assertEquals(found, foundAgain, "Cached tasks should be same as loaded.");
+        Assertions.assertEquals(ids.size(), engine.stats()
+                                                  .getMissCount(), "Each task should be loaded once.");
+    }
+
+    @Test
+    @DisplayName("coalesce repeated writes of entity with write-behind.")
+    void testWriteBehind() {
+        createEngine(CacheOptions.newBuilder()
+                                 .setWriteBehind(1, TimeUnit.HOURS)
+                                 .build());
+        TaskId taskId = newTaskId();
+        Task last = null;
+        for (int i = 0; i < 10; i++) {
+            last = createTask(taskId, "version " + i);
+            write(engine, last);
+        }
+
+        Assertions.assertFalse(delegate.read(taskId)
+                                       .isPresent(), "Task should not be written before flush.");
+        Assertions.assertEquals(Optional.of(last), engine.read(taskId), "Latest version of task should be read.");
+
+        engine.flush();
+
+        Assertions.assertEquals(Optional.of(last), delegate.read(taskId),
+                                "Latest version of task should be written by flush.");
+        CacheStats stats = engine.stats();
+        Assertions.assertEquals(9, stats.getCoalescedWriteCount(), "Repeated writes should be coalesced.");
+        Assertions.assertEquals(1, stats.getFlushCount(), "Pending writes should be flushed at once.");
+    }
+
+    @Test
+    @DisplayName("write pending changes before lookup by index and on close.")
+    void testWriteBehindVisibleToLookups() {
+        createEngine(CacheOptions.newBuilder()
+                                 .setWriteBehind(1, TimeUnit.HOURS)
+                                 .build());
+        List<TaskId> ids = writeTasks(engine, 5);
+
+        Assertions.assertEquals(ids.size(), engine.findBy(TODO_LIST_INDEX, todoListId)
+                                                  .size(), "Pending tasks should be found by index.");
+
+        engine.compute(ids.get(0), current -> Optional.empty());
+        engine.close();
+        engine = null;
+
+        Assertions.assertFalse(delegate.read(ids.get(0))
+                                       .isPresent(), "Pending removal should be written on close.");
+    }
+
+    @Test
+    @DisplayName("flush writes when too many are pending.")
+    void testFlushTooManyPending() {
+        createEngine(CacheOptions.newBuilder()
+                                 .setWriteBehind(1, TimeUnit.HOURS)
+                                 .setMaxPendingWrites(10)
+                                 .build());
+
+        List<TaskId> ids = writeTasks(engine, 10);
+
+        Assertions.assertEquals(ids.size(), delegate.readAll(ids)
+                                                    .size(), "Pending writes should be flushed by writer.");
+    }
+
+    @Test
+    @DisplayName("evict least recently used entity with LRU policy.")
+    void testLruEviction() {
+        createEngine(CacheOptions.newBuilder()
+                                 .setMaximumSize(3)
+                                 .setEviction(CacheOptions.Eviction.LRU)
+                                 .build());
+        List<TaskId> ids = writeTasks(engine, 3);
+        engine.read(ids.get(0));
+
+        writeTasks(engine, 1);
+        Assertions.assertEquals(1, engine.stats()
+                                         .getEvictionCount(), "One task should be evicted.");
+
+        long missesBefore = engine.stats()
+                                  .getMissCount();
+        engine.read(ids.get(0));
+        engine.read(ids.get(1));
+
+        Assertions.assertEquals(missesBefore + 1, engine.stats()
+                                                        .getMissCount(), "Least recently used task should be evicted.");
+    }
+
+    @Test
+    @DisplayName("keep frequently read entities cached during scan with W-TinyLFU policy.")
+    void testTinyLfuResistsScan() {
+        Assertions.assertTrue(hitsOfHotTasksAfterScan(CacheOptions.Eviction.W_TINY_LFU) >= 90,
+                              "Frequently read tasks should survive scan.");
+        Assertions.assertEquals(0, hitsOfHotTasksAfterScan(CacheOptions.Eviction.LRU),
+                                "LRU should evict frequently read tasks during scan.");
+    }
+
+    private long hitsOfHotTasksAfterScan(CacheOptions.Eviction eviction) {
+        delegate.clear();
+        CachingStorageEngine<TaskId, Task> cache =
+                new CachingStorageEngine<>(delegate, "tasks", CacheOptions.newBuilder()
+                                                                          .setMaximumSize(200)
+                                                                          .setEviction(eviction)
+                                                                          .build());
+        List<TaskId> hot = writeTasks(delegate, 100);
+        List<TaskId> cold = writeTasks(delegate, 5000);
+
+        for (int i = 0; i < 5; i++) {
+            hot.forEach(cache::read);
+        }
+        cold.forEach(cache::read);
+
+        long hitsBefore = cache.stats()
+                               .getHitCount();
+        hot.forEach(cache::read);
+        cache.close();
+
+        return cache.stats()
+                    .getHitCount() - hitsBefore;
+    }
+
+    @Test
+    @DisplayName("keep cache consistent with underlying engine under concurrent reads and writes.")
+    void testConcurrentReadsAndWrites() throws InterruptedException {
+        createEngine(CacheOptions.newBuilder()
+                                 .setMaximumSize(16)
+                                 .build());
+        List<TaskId> ids = writeTasks(engine, 32);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            boolean writer = thread % 2 == 0;
+            executor.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    TaskId taskId = ids.get(i % ids.size());
+                    if (writer) {
+                        write(engine, createTask(taskId, "version " + i));
+                    } else {
+                        engine.read(taskId);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS), "Threads should finish.");
+
+        for (TaskId taskId : ids) {
+            Assertions.assertEquals(delegate.read(taskId), engine.read(taskId),
+                                    "Cached task should be same as kept by underlying engine.");
+        }
+        Assertions.assertEquals(ids.size(), engine.readAll(ids)
+                                                  .size(), "All tasks should be found.");
+    }
+}
@@ -0,0 +1,237 @@
+package org.javaclasses.todo.storage.cdc;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Testing {@link ChangeFeed} which should deliver ordered changes of observed engine to subscribers.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("ChangeFeed should")
+class ChangeFeedTest {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), singletonList(TODO_LIST_INDEX));
+
+    private final TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                             .toString());
+    private ChangeFeed<TaskId, Task> feed;
+    private StorageEngine<TaskId, Task> engine;
+
+    @BeforeEach
+    void createFeed() {
+        feed = new ChangeFeed<>(SCHEMA.getName());
+        engine = feed.observe(ConcurrentStorageEngine.factory()
+                                                     .create(SCHEMA));
+    }
+
+    private Task createTask(String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(UUID.randomUUID()
+                                          .toString()))
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private void write(Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private static List<ChangeEvent<TaskId, Task>> take(BlockingQueue<ChangeEvent<TaskId, Task>> received, int count)
+            throws InterruptedException {
+        List<ChangeEvent<TaskId, Task>> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ChangeEvent<TaskId, Task> event = received.poll(10, TimeUnit.SECONDS);
+            Assertions.assertNotNull(event, "Change should be delivered.");
+            result.add(event);
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("deliver changes with entity before and after change in order of sequence numbers.")
+    void testOrderedChanges() throws InterruptedException {
+        BlockingQueue<ChangeEvent<TaskId, Task>> received = new LinkedBlockingQueue<>();
+        Subscription<TaskId, Task> subscription = feed.subscribe(received::addAll);
+
+        Task created = createTask("created");
+        Task updated = new Task.TaskBuilder()
+                .setTaskId(created.getId())
+                .setTodoListId(todoListId)
+                .setDescription("updated")
+                .setCreationDate(created.getCreationDate())
+                .build();
+        write(created);
+        write(updated);
+        engine.compute(created.getId(), current -> Optional.empty());
+        engine.compute(created.getId(), current -> Optional.empty());
+
+        List<ChangeEvent<TaskId, Task>> events = take(received, 3);
+        subscription.close();
+
+        Assertions.assertEquals(ChangeEvent.of(1, created.getId(), Optional.empty(), Optional.of(created)),
+                                events.get(0), "Creation should be delivered first.");
+        Assertions.assertEquals(ChangeEvent.of(2, created.getId(), Optional.of(created), Optional.of(updated)),
+                                events.get(1), "Update should be delivered second.");
+        Assertions.assertEquals(ChangeEvent.of(3, created.getId(), Optional.of(updated), Optional.empty()),
+                                events.get(2), "Removal should be delivered last.");
+        Assertions.assertTrue(received.isEmpty(), "Removal of absent entity should not be delivered.");
+    }
+
+    @Test
+    @DisplayName("deliver changes of batch write in batches of bounded size.")
+    void testBatches() throws InterruptedException {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        BlockingQueue<ChangeEvent<TaskId, Task>> received = new LinkedBlockingQueue<>();
+        feed.subscribe(changes -> {
+            batchSizes.add(changes.size());
+            received.addAll(changes);
+        }, SubscriptionOptions.newBuilder()
+                              .setMaxBatchSize(10)
+                              .build());
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(createTask("task " + i));
+        }
+        List<TaskId> ids = tasks.stream()
+                                .map(Task::getId)
+                                .collect(Collectors.toList());
+        engine.computeAll(ids, (id, current) -> Optional.of(tasks.get(ids.indexOf(id))));
+
+        List<ChangeEvent<TaskId, Task>> events = take(received, tasks.size());
+        for (int i = 0; i < events.size(); i++) {
+            Assertions.assertEquals(i + 1, events.get(i)
+                                                 .getSequence(), "Changes should be delivered in order.");
+        }
+        Assertions.assertTrue(batchSizes.stream()
+                                        .allMatch(size -> size <= 10), "Batches should not exceed maximal size.");
+    }
+
+    @Test
+    @DisplayName("block writers while buffer of slow subscriber is full.")
+    void testBackpressure() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<ChangeEvent<TaskId, Task>> received = new LinkedBlockingQueue<>();
+        feed.subscribe(changes -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+            }
+            received.addAll(changes);
+        }, SubscriptionOptions.newBuilder()
+                              .setBufferSize(2)
+                              .build());
+
+        CountDownLatch written = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                write(createTask("task " + i));
+            }
+            written.countDown();
+        });
+        writer.start();
+
+        Assertions.assertFalse(written.await(300, TimeUnit.MILLISECONDS),
+                               "Writer should wait until slow subscriber consumes changes.");
+        release.countDown();
+        Assertions.assertTrue(written.await(10, TimeUnit.SECONDS), "Writer should continue after consumption.");
+        Assertions.assertEquals(10, take(received, 10).size(), "All changes should be delivered.");
+    }
+
+    @Test
+    @DisplayName("cancel subscription which overflows buffer if overflow policy is cancellation.")
+    void testCancelOnOverflow() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Subscription<TaskId, Task> subscription = feed.subscribe(changes -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+            }
+        }, SubscriptionOptions.newBuilder()
+                              .setBufferSize(2)
+                              .setOverflow(SubscriptionOptions.Overflow.CANCEL)
+                              .build());
+
+        for (int i = 0; i < 10; i++) {
+            write(createTask("task " + i));
+        }
+        release.countDown();
+
+        Assertions.assertFalse(subscription.isActive(), "Overflowed subscription should be cancelled.");
+        Assertions.assertFalse(feed.hasSubscribers(), "Cancelled subscription should be removed from feed.");
+    }
+
+    @Test
+    @DisplayName("deliver removal of all entities after preceding changes.")
+    void testClear() throws InterruptedException {
+        BlockingQueue<Long> clears = new LinkedBlockingQueue<>();
+        BlockingQueue<ChangeEvent<TaskId, Task>> received = new LinkedBlockingQueue<>();
+        feed.subscribe(new ChangeListener<TaskId, Task>() {
+            @Override
+            public void onChanges(List<ChangeEvent<TaskId, Task>> changes) {
+                received.addAll(changes);
+            }
+
+            @Override
+            public void onClear(long sequence) {
+                Assertions.assertEquals(1, received.size(), "Preceding change should be delivered first.");
+                clears.add(sequence);
+            }
+        });
+
+        write(createTask("removed by clear"));
+        engine.clear();
+
+        Assertions.assertEquals(Long.valueOf(2), clears.poll(10, TimeUnit.SECONDS),
+                                "Removal of all entities should be delivered.");
+    }
+
+    @Test
+    @DisplayName("not deliver changes after subscription is closed.")
+    void testClose() throws InterruptedException {
+        BlockingQueue<ChangeEvent<TaskId, Task>> received = new LinkedBlockingQueue<>();
+        Subscription<TaskId, Task> subscription = feed.subscribe(received::addAll);
+        write(createTask("before close"));
+        take(received, 1);
+
+        subscription.close();
+        write(createTask("after close"));
+
+        Assertions.assertNull(received.poll(200, TimeUnit.MILLISECONDS), "Closed subscription should not receive.");
+        Assertions.assertFalse(feed.hasSubscribers(), "Closed subscription should be removed from feed.");
+    }
+}
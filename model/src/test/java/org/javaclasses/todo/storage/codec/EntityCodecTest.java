@@ -0,0 +1,212 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.javaclasses.todo.model.Password;
+import org.javaclasses.todo.model.entity.AuthSession;
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoList;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.entity.User;
+import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.model.entity.Username;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Testing codecs of entities, which should write entities in compact form
+ * and read entities written by any previous version of codecs.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("Entity codecs should")
+class EntityCodecTest {
+
+    private static String newId() {
+        return UUID.randomUUID()
+                   .toString();
+    }
+
+    private static Task createTask(String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(newId()))
+                .setTodoListId(new TodoListId(newId()))
+                .setDescription(description)
+                .setStatus(true)
+                .setCreationDate(new Date(1_500_000_000_000L))
+                .setLastUpdateDate(new Date(1_500_000_060_000L))
+                .build();
+    }
+
+    private static <I extends EntityId<String>, E extends Entity<I>> byte[] encode(EntityCodec<I, E> codec,
+                                                                                   E entity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(entity, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static <I extends EntityId<String>, E extends Entity<I>> E decode(EntityCodec<I, E> codec,
+                                                                              byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        E entity = codec.read(in);
+        Assertions.assertEquals(-1, in.read(), "Whole entity should be read.");
+        return entity;
+    }
+
+    private static void assertTasksEqual(Task expected, Task actual) {
+        Assertions.assertEquals(expected, actual, "Task with the same ID should be read.");
+        Assertions.assertEquals(expected.getTodoListId(), actual.getTodoListId(), "To-do list should be read.");
+        Assertions.assertEquals(expected.getDescription(), actual.getDescription(), "Description should be read.");
+        Assertions.assertEquals(expected.isCompleted(), actual.isCompleted(), "Status should be read.");
+        Assertions.assertEquals(expected.getCreationDate(), actual.getCreationDate(), "Creation date should be read.");
+        Assertions.assertEquals(expected.getLastUpdateDate(), actual.getLastUpdateDate(),
+                                "Last update date should be read.");
+        Assertions.assertEquals(expected.getVersion(), actual.getVersion(), "Version of task should be read.");
+    }
+
+    private static void writeLegacyString(String value, DataOutputStream out) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Test
+    @DisplayName("read written task with and without compression.")
+    void testTask() throws IOException {
+        Task task = createTask("buy milk \u2014 and bread");
+        task.setVersion(42);
+
+        assertTasksEqual(task, decode(new TaskCodec(), encode(new TaskCodec(), task)));
+        assertTasksEqual(task, decode(new TaskCodec(), encode(new TaskCodec(Compression.LZ4), task)));
+    }
+
+    @Test
+    @DisplayName("compress task with long description.")
+    void testCompressedTask() throws IOException {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            description.append("write long description of the task ");
+        }
+        Task task = createTask(description.toString());
+
+        byte[] plain = encode(new TaskCodec(), task);
+        byte[] compressed = encode(new TaskCodec(Compression.LZ4), task);
+
+        Assertions.assertTrue(compressed.length < plain.length / 4, "Repeated description should be compressed.");
+        assertTasksEqual(task, decode(new TaskCodec(), compressed));
+    }
+
+    @Test
+    @DisplayName("write task shorter than the first version of codecs.")
+    void testCompactTask() throws IOException {
+        Task task = createTask("buy milk");
+
+        ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(legacy);
+        writeLegacyString(task.getId()
+                              .getValue(), out);
+        writeLegacyString(task.getTodoListId()
+                              .getValue(), out);
+        writeLegacyString(task.getDescription(), out);
+        out.writeBoolean(task.isCompleted());
+        out.writeLong(task.getCreationDate()
+                          .getTime());
+        out.writeLong(task.getLastUpdateDate()
+                          .getTime());
+
+        byte[] compact = encode(new TaskCodec(), task);
+        Assertions.assertTrue(compact.length * 2 < legacy.size(),
+                              "Compact task should take less than half of the first version.");
+        assertTasksEqual(task, decode(new TaskCodec(), legacy.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("read to-do list and IDs which are not UUIDs.")
+    void testTodoList() throws IOException {
+        TodoList todoList = new TodoList.TodoListBuilder()
+                .setTodoListId(new TodoListId(newId()))
+                .setOwner(new UserId("not a UUID"))
+                .build();
+        TodoListCodec codec = new TodoListCodec();
+
+        TodoList read = decode(codec, encode(codec, todoList));
+
+        Assertions.assertEquals(todoList, read, "To-do list should be read.");
+        Assertions.assertEquals(todoList.getOwner(), read.getOwner(), "Owner should be read.");
+
+        TodoListId upperCase = new TodoListId(newId().toUpperCase());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.writeId(upperCase, new DataOutputStream(bytes));
+        Assertions.assertEquals(upperCase, codec.readId(new DataInputStream(new ByteArrayInputStream(
+                bytes.toByteArray()))), "ID should be read exactly as it was written.");
+    }
+
+    @Test
+    @DisplayName("read user with and without credentials.")
+    void testUser() throws IOException {
+        UserCodec codec = new UserCodec();
+        User user = new User(new UserId(newId()));
+        user.setUsername(new Username("user@example.com"));
+        user.setPassword(new Password("qwerty123"));
+
+        User read = decode(codec, encode(codec, user));
+        Assertions.assertEquals(user.getUsername(), read.getUsername(), "Username should be read.");
+        Assertions.assertEquals(user.getPassword(), read.getPassword(), "Password should be read.");
+
+        User anonymous = decode(codec, encode(codec, new User(new UserId(newId()))));
+        Assertions.assertNull(anonymous.getUsername(), "Absent username should be read.");
+        Assertions.assertNull(anonymous.getPassword(), "Absent password should be read.");
+    }
+
+    @Test
+    @DisplayName("read auth session and session written by the first version of codecs.")
+    void testAuthSession() throws IOException {
+        AuthSessionCodec codec = new AuthSessionCodec();
+        AuthSession authSession = new AuthSession(new Token(newId()));
+        authSession.setUserId(new UserId(newId()));
+
+        authSession.setCreationTime(1_500_000_000_000L);
+        authSession.setLastAccessTime(1_500_000_360_000L);
+
+        AuthSession decoded = decode(codec, encode(codec, authSession));
+        Assertions.assertEquals(authSession.getUserId(), decoded.getUserId(), "User of session should be read.");
+        Assertions.assertEquals(authSession.getCreationTime(), decoded.getCreationTime(),
+                                "Creation time of session should be read.");
+        Assertions.assertEquals(authSession.getLastAccessTime(), decoded.getLastAccessTime(),
+                                "Time of the last access to session should be read.");
+
+        ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(legacy);
+        writeLegacyString(authSession.getId()
+                                     .getValue(), out);
+        out.writeBoolean(true);
+        writeLegacyString(authSession.getUserId()
+                                     .getValue(), out);
+
+        AuthSession read = decode(codec, legacy.toByteArray());
+        Assertions.assertEquals(authSession, read, "Legacy session should be read.");
+        Assertions.assertEquals(authSession.getUserId(), read.getUserId(), "User of legacy session should be read.");
+    }
+
+    @Test
+    @DisplayName("reject entity written by newer version of codec.")
+    void testUnknownVersion() {
+        byte[] bytes = {(byte) (AbstractEntityCodec.FIRST_VERSION + 1), 0};
+
+        Assertions.assertThrows(IOException.class, () -> new TaskCodec().read(
+                new DataInputStream(new ByteArrayInputStream(bytes))));
+    }
+}
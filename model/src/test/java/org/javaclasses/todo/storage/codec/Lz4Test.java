@@ -0,0 +1,71 @@
+package org.javaclasses.todo.storage.codec;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Testing {@link Lz4} compressor.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("Lz4 should")
+class Lz4Test {
+
+    private static byte[] roundTrip(byte[] input) throws IOException {
+        byte[] compressed = new byte[Lz4.maxCompressedLength(input.length)];
+        int length = Lz4.compress(input, 0, input.length, compressed, 0);
+
+        byte[] output = new byte[input.length];
+        Lz4.decompress(compressed, 0, length, output, 0, output.length);
+        return output;
+    }
+
+    @Test
+    @DisplayName("restore compressed bytes of any length and content.")
+    void testRoundTrip() throws IOException {
+        Random random = new Random(42);
+        for (int length : new int[]{0, 1, 12, 13, 100, 1000, 70_000}) {
+            byte[] repetitive = new byte[length];
+            byte[] noise = new byte[length];
+            for (int i = 0; i < length; i++) {
+                repetitive[i] = (byte) (i % 7 + random.nextInt(2));
+            }
+            random.nextBytes(noise);
+
+            Assertions.assertArrayEquals(repetitive, roundTrip(repetitive), "Repetitive bytes should be restored.");
+            Assertions.assertArrayEquals(noise, roundTrip(noise), "Random bytes should be restored.");
+        }
+    }
+
+    @Test
+    @DisplayName("shrink repeated bytes.")
+    void testCompress() {
+        byte[] input = new byte[1000];
+        Arrays.fill(input, (byte) 'a');
+        byte[] compressed = new byte[Lz4.maxCompressedLength(input.length)];
+
+        Assertions.assertTrue(Lz4.compress(input, 0, input.length, compressed, 0) < 20,
+                              "Repeated bytes should take a few bytes.");
+    }
+
+    @Test
+    @DisplayName("reject malformed input.")
+    void testMalformed() {
+        byte[] input = new byte[200];
+        Arrays.fill(input, (byte) 'a');
+        byte[] compressed = new byte[Lz4.maxCompressedLength(input.length)];
+        int length = Lz4.compress(input, 0, input.length, compressed, 0);
+
+        Assertions.assertThrows(IOException.class, () -> Lz4.decompress(compressed, 0, length - 1,
+                                                                          new byte[200], 0, 200));
+        Assertions.assertThrows(IOException.class, () -> Lz4.decompress(compressed, 0, length,
+                                                                          new byte[100], 0, 100));
+        Assertions.assertThrows(IOException.class, () -> Lz4.decompress(new byte[]{0x0F, 1, 0}, 0, 3,
+                                                                          new byte[10], 0, 10));
+    }
+}
@@ -0,0 +1,405 @@
+package org.javaclasses.todo.storage.impl;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.storage.metrics.OperationStats;
+import org.javaclasses.todo.storage.metrics.StorageMetrics;
+import org.javaclasses.todo.storage.metrics.StorageOperation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Abstract test of sub-classes of {@link AbstractStorage}, which verifies proper work of
+ * methods:
+ * - {@link AbstractStorage#read(EntityId)};
+ * - {@link AbstractStorage#write(Entity)}};
+ * - {@link AbstractStorage#remove(EntityId)};
+ * - {@link AbstractStorage#writeIfAbsent(Entity)};
+ * - {@link AbstractStorage#writeIfVersion(Entity, long)};
+ * - {@link AbstractStorage#compute(EntityId, java.util.function.UnaryOperator)};
+ * - {@link AbstractStorage#writeAll(Collection)}, {@link AbstractStorage#readAll(Collection)}
+ * and {@link AbstractStorage#removeAll(Collection)};
+ * - {@link AbstractStorage#clear()}};
+ * - {@link AbstractStorage#getMetrics()}.
+ *
+ * @author Oleg Barmin
+ */
+abstract class AbstractStorageTest<I extends EntityId, E extends Entity<I>> {
+
+    private AbstractStorage<I, E> storage;
+    private Map<I, E> map;
+
+    E createEntity() {
+        return createEntityWithId(createID());
+    }
+
+    E createEntityWithNullId() {
+        return createEntityWithId(null);
+    }
+
+    abstract I createID();
+
+    abstract Map<I, E> getMap();
+
+    abstract AbstractStorage<I, E> getStorage();
+
+    abstract E createEntityWithId(@Nullable I entityId);
+
+    @BeforeEach
+    void init() {
+        map = getMap();
+        storage = getStorage();
+    }
+
+    @Test
+    @DisplayName("write new entity.")
+    void testWrite() {
+        E entity = createEntity();
+
+        I entityId = entity.getId();
+        storage.write(entity);
+
+        Assertions.assertEquals(entity, map.get(entityId),
+                                "write Entity in storage, but it don't.");
+    }
+
+    @SuppressWarnings("ConstantConditions") // null value given to validate that NullPointerException will be thrown.
+    @Test
+    @DisplayName("throw NullPointerException if try to write null entity.")
+    void testWriteNullEntity() {
+        Assertions.assertThrows(NullPointerException.class, () -> storage.write(null),
+                                "throw NullPointerException if try to write null entity, but it don't.");
+    }
+
+    @Test
+    @DisplayName("throw NullPointerException if try to write entity with null ID.")
+    void testWriteEntityWithNullId() {
+        E entity = createEntityWithNullId();
+
+        Assertions.assertThrows(NullPointerException.class, () -> storage.write(entity),
+                                "throw NullPointerException if try to write entity with null ID, but it don't.");
+    }
+
+    @Test
+    @DisplayName("overwrite existing entity if try to write entity with same ID.")
+    void testOverwrite() {
+        E entity = createEntity();
+        I entityId = entity.getId();
+
+        storage.write(entity);
+
+        E entityToOverride = createEntityWithId(entityId);
+
+        storage.write(entityToOverride);
+
+        Assertions.assertEquals(entityToOverride, map.get(entityId),
+                                "overwrite entity, but it don't.");
+    }
+
+    @Test
+    @DisplayName("read entity by ID.")
+    void testRead() {
+        E entity = createEntity();
+        I entityId = entity.getId();
+
+        storage.write(entity);
+
+        Optional<E> optionalEntity = storage.read(entityId);
+        if (!optionalEntity.isPresent()) {
+            Assertions.fail("Storage has to read written entity by ID, but it don't.");
+            return;
+        }
+        E storedEntity = optionalEntity.get();
+
+        Assertions.assertEquals(storedEntity, map.get(entityId),
+                                "Storage has to read entity by ID, but it don't");
+    }
+
+    @Test
+    @DisplayName("return empty Optional if try to read entity with ID, which doesn't exist in storage")
+    void testReadNonExistingEntity() {
+        I entityId = createID();
+
+        Optional<E> optional = storage.read(entityId);
+
+        Assertions.assertFalse(optional.isPresent(),
+                               "return empty optional on read if ID doesn't exist in storage, but it don't.");
+    }
+
+    @SuppressWarnings({"ConstantConditions", // null value given to validate that read will throw NullPointerException
+            "ResultOfMethodCallIgnored"}) // NullPointerException will be thrown, so return value wont be retrieved
+    @Test
+    @DisplayName("throw NullPointerException if read method argument is null.")
+    void testReadWithNullID() {
+        Assertions.assertThrows(NullPointerException.class, () -> storage.read(null),
+                                "throw NullPointerException if read method argument is null, but it don't.");
+    }
+
+    @Test
+    @DisplayName("remove entity by ID")
+    void removeTest() {
+        E entity = createEntity();
+        I entityId = entity.getId();
+
+        storage.write(entity);
+
+        Optional<E> optionalEntity = storage.remove(entityId);
+        if (!optionalEntity.isPresent()) {
+            Assertions.fail("Storage has to remove entity by ID, but it don't.");
+            return;
+        }
+        E storedEntity = optionalEntity.get();
+
+        Assertions.assertEquals(entity, storedEntity,
+                                "Storage has to remove written entity by ID, but it don't.");
+    }
+
+    @Test
+    @DisplayName("return empty Optional if try to remove entity with ID, which doesn't exist in storage")
+    void testRemoveNonExistingEntity() {
+        I entityId = createID();
+
+        Optional<E> optional = storage.remove(entityId);
+
+        Assertions.assertFalse(optional.isPresent(),
+                               "return empty optional on remove if I doesn't exist in storage, but it don't.");
+    }
+
+    @Test
+    @DisplayName("write, read and remove batches of entities.")
+    void testBatchOperations() {
+        List<E> entities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            entities.add(createEntity());
+        }
+        I absentId = createID();
+
+        storage.writeAll(entities);
+
+        Assertions.assertEquals(entities.size(), map.size(), "write all entities of batch, but it don't.");
+
+        List<I> ids = new ArrayList<>();
+        entities.forEach(entity -> ids.add(entity.getId()));
+        ids.add(absentId);
+
+        Map<I, E> found = storage.readAll(ids);
+        Assertions.assertEquals(entities.size(), found.size(), "read all existing entities, but it don't.");
+        Assertions.assertFalse(found.containsKey(absentId), "omit ID of absent entity, but it don't.");
+        entities.forEach(entity -> Assertions.assertEquals(entity, found.get(entity.getId())));
+
+        Map<I, E> removed = storage.removeAll(ids.subList(5, ids.size()));
+        Assertions.assertEquals(5, removed.size(), "return removed entities, but it don't.");
+        Assertions.assertFalse(removed.containsKey(absentId), "omit ID of absent entity, but it don't.");
+        Assertions.assertEquals(5, map.size(), "keep entities which were not removed, but it don't.");
+    }
+
+    @Test
+    @DisplayName("keep the last of batched entities with same ID.")
+    void testWriteAllWithSameId() {
+        E first = createEntity();
+        E last = createEntityWithId(first.getId());
+
+        storage.writeAll(Arrays.asList(first, last));
+
+        Assertions.assertSame(last, map.get(first.getId()), "keep the last entity, but it don't.");
+    }
+
+    @Test
+    @DisplayName("throw NullPointerException and write nothing if batch contains entity with null ID.")
+    void testWriteAllWithNullId() {
+        E entity = createEntity();
+
+        Assertions.assertThrows(NullPointerException.class,
+                                () -> storage.writeAll(Arrays.asList(entity, createEntityWithNullId())));
+        Assertions.assertTrue(map.isEmpty(), "write nothing, but it do.");
+    }
+
+    @Test
+    @DisplayName("erase all stored entity.")
+    void testClear() {
+        E firstEntity = createEntity();
+        E secondEntity = createEntity();
+        E thirdEntity = createEntity();
+
+        storage.write(firstEntity);
+        storage.write(secondEntity);
+        storage.write(thirdEntity);
+
+        storage.clear();
+
+        Assertions.assertEquals(0, map.size(), "erase all entity from storage, but it don't.");
+    }
+
+    /*
+     * Write return value not needed, because exception should be thrown.
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    @Test
+    void testFindByField() {
+        E entity = createEntity();
+        storage.write(entity);
+
+        Assertions.assertThrows(SearchByFieldException.class,
+                                () -> storage.findByField("1impossibleField", new Object()));
+    }
+
+    @Test
+    @DisplayName("write entity if entity with same ID doesn't exist.")
+    void testWriteIfAbsent() {
+        E entity = createEntity();
+
+        Optional<E> existing = storage.writeIfAbsent(entity);
+
+        Assertions.assertFalse(existing.isPresent(),
+                               "return empty Optional if entity was written, but it don't.");
+        Assertions.assertEquals(entity, map.get(entity.getId()),
+                                "write absent entity, but it don't.");
+    }
+
+    @Test
+    @DisplayName("not overwrite existing entity on writeIfAbsent.")
+    void testWriteIfAbsentExistingEntity() {
+        E entity = createEntity();
+        storage.write(entity);
+
+        E entityWithSameId = createEntityWithId(entity.getId());
+        Optional<E> existing = storage.writeIfAbsent(entityWithSameId);
+
+        Assertions.assertTrue(existing.isPresent(),
+                              "return Optional with existing entity, but it don't.");
+        Assertions.assertSame(entity, existing.get());
+        Assertions.assertSame(entity, map.get(entity.getId()),
+                              "keep existing entity, but it don't.");
+    }
+
+    @Test
+    @DisplayName("increment version of entity on each write.")
+    void testVersion() {
+        E entity = createEntity();
+        storage.write(entity);
+        Assertions.assertEquals(1, entity.getVersion(), "set version of the first write.");
+
+        E nextEntity = createEntityWithId(entity.getId());
+        storage.write(nextEntity);
+        Assertions.assertEquals(2, nextEntity.getVersion(), "increment version of overwritten entity.");
+    }
+
+    @Test
+    @DisplayName("write entity only if stored entity has expected version.")
+    void testWriteIfVersion() {
+        E entity = createEntity();
+        storage.write(entity);
+        long version = entity.getVersion();
+
+        E update = createEntityWithId(entity.getId());
+        Assertions.assertTrue(storage.writeIfVersion(update, version), "write entity of expected version.");
+        Assertions.assertSame(update, map.get(entity.getId()), "store entity written conditionally.");
+
+        E staleUpdate = createEntityWithId(entity.getId());
+        Assertions.assertFalse(storage.writeIfVersion(staleUpdate, version), "reject entity of stale version.");
+        Assertions.assertSame(update, map.get(entity.getId()), "keep entity written by the first update.");
+
+        Assertions.assertFalse(storage.writeIfVersion(createEntity(), 0), "reject absent entity.");
+    }
+
+    @Test
+    @DisplayName("create and remove entity by compute.")
+    void testCompute() {
+        E entity = createEntity();
+        I entityId = entity.getId();
+
+        Optional<E> created = storage.compute(entityId, current -> Optional.of(entity));
+        Assertions.assertEquals(Optional.of(entity), created, "return computed entity, but it don't.");
+        Assertions.assertEquals(entity, map.get(entityId), "store computed entity, but it don't.");
+
+        Optional<E> removed = storage.compute(entityId, current -> Optional.empty());
+        Assertions.assertFalse(removed.isPresent(), "return empty Optional on removal, but it don't.");
+        Assertions.assertFalse(map.containsKey(entityId), "remove entity by compute, but it don't.");
+    }
+
+    @Test
+    @DisplayName("throw IllegalStateException if computed entity has other ID.")
+    void testComputeEntityWithOtherId() {
+        E entity = createEntity();
+
+        Assertions.assertThrows(IllegalStateException.class,
+                                () -> storage.compute(createID(), current -> Optional.of(entity)));
+        Assertions.assertTrue(map.isEmpty(), "not store entity with other ID, but it do.");
+    }
+
+    @Test
+    @DisplayName("record count, failures and latency of operations.")
+    void testMetrics() {
+        E entity = createEntity();
+        storage.write(entity);
+        storage.read(entity.getId());
+        storage.read(entity.getId());
+        Assertions.assertThrows(IllegalStateException.class,
+                                () -> storage.compute(createID(), current -> Optional.of(entity)));
+        Assertions.assertThrows(SearchByFieldException.class,
+                                () -> storage.findByField("1impossibleField", new Object()));
+
+        StorageMetrics metrics = storage.getMetrics();
+        OperationStats reads = metrics.getStats(StorageOperation.READ);
+
+        Assertions.assertEquals(2, reads.getCount(), "count reads, but it don't.");
+        Assertions.assertEquals(0, reads.getFailureCount(), "not count successful reads as failed, but it do.");
+        Assertions.assertTrue(reads.getLatencyNanos()
+                                   .getValueAtPercentile(99) > 0, "record latency of reads, but it don't.");
+        Assertions.assertEquals(1, metrics.getStats(StorageOperation.WRITE)
+                                          .getCount(), "count writes, but it don't.");
+        Assertions.assertEquals(1, metrics.getStats(StorageOperation.COMPUTE)
+                                          .getFailureCount(), "count failed operations, but it don't.");
+        Assertions.assertEquals(1, metrics.getScanLengths()
+                                          .getCount(), "record scan by field, but it don't.");
+        Assertions.assertEquals(1, metrics.getEntityCount(), "count stored entities, but it don't.");
+    }
+
+    @Test
+    @DisplayName("not lose entities written concurrently.")
+    void testConcurrentWrite() throws Exception {
+        int threads = 8;
+        int entitiesPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            Collection<Callable<List<E>>> writers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                writers.add(() -> {
+                    List<E> written = new ArrayList<>();
+                    for (int j = 0; j < entitiesPerThread; j++) {
+                        E entity = createEntity();
+                        storage.write(entity);
+                        written.add(entity);
+                    }
+                    return written;
+                });
+            }
+
+            for (Future<List<E>> future : executor.invokeAll(writers)) {
+                for (E entity : future.get()) {
+                    Assertions.assertTrue(storage.read(entity.getId())
+                                                 .isPresent(),
+                                          "keep all concurrently written entities, but it don't.");
+                }
+            }
+            Assertions.assertEquals(threads * entitiesPerThread, map.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -5,9 +5,10 @@ import org.javaclasses.todo.model.entity.Token;
 import org.javaclasses.todo.model.entity.UserId;
 import org.junit.jupiter.api.DisplayName;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Testing {@link AuthSessionStorage}.
@@ -15,9 +16,9 @@ import java.util.UUID;
  * @author Oleg Barmin
  */
 @DisplayName("AuthSessionStorage should")
-class AuthSessionStorageTest extends InMemoryStorageTest<Token, AuthSession> {
+class AuthSessionStorageTest extends AbstractStorageTest<Token, AuthSession> {
 
-    private final Map<Token, AuthSession> map = new HashMap<>();
+    private final ConcurrentMap<Token, AuthSession> map = new ConcurrentHashMap<>();
     private final AuthSessionStorage storage = new AuthSessionStorage(map);
 
     @Override
@@ -34,7 +35,7 @@ class AuthSessionStorageTest extends InMemoryStorageTest<Token, AuthSession> {
     }
 
     @Override
-    InMemoryStorage<Token, AuthSession> getStorage() {
+    AbstractStorage<Token, AuthSession> getStorage() {
         return storage;
     }
 
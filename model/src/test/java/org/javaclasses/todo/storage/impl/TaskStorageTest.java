@@ -3,29 +3,40 @@ package org.javaclasses.todo.storage.impl;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
 import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.ContinuationToken;
+import org.javaclasses.todo.storage.Page;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
 
 /**
  * Testing {@link TaskStorage}:
- * - basic methods inherited from {@link InMemoryStorage};
- * - {@link TaskStorage#getAllTaskOfTodoList(TodoListId)}.
+ * - basic methods inherited from {@link AbstractStorage};
+ * - {@link TaskStorage#getAllTaskOfTodoList(TodoListId)};
+ * - page by page reading of tasks of to-do list.
  *
  * @author Oleg Barmin
  */
 @DisplayName("TaskStorage should")
-class TaskStorageTest extends InMemoryStorageTest<TaskId, Task> {
+class TaskStorageTest extends AbstractStorageTest<TaskId, Task> {
 
-    private final Map<TaskId, Task> map = new HashMap<>();
+    private final ConcurrentMap<TaskId, Task> map = new ConcurrentHashMap<>();
     private final TaskStorage storage = new TaskStorage(map);
 
     @Override
@@ -42,7 +53,7 @@ class TaskStorageTest extends InMemoryStorageTest<TaskId, Task> {
     }
 
     @Override
-    InMemoryStorage<TaskId, Task> getStorage() {
+    AbstractStorage<TaskId, Task> getStorage() {
         return storage;
     }
 
@@ -117,4 +128,239 @@ class TaskStorageTest extends InMemoryStorageTest<TaskId, Task> {
         Assertions.assertEquals(0, allTaskOfTodoList.size(),
                                 "Size of received tasks list should be zero if TodoList doesn't exists, but it don't.");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should return task only from to-do list it was moved to by overwrite")
+    void testGetAllTaskOfTodoListAfterOverwrite() {
+        TodoListId firstId = new TodoListId(UUID.randomUUID()
+                                                .toString());
+        TodoListId secondId = new TodoListId(UUID.randomUUID()
+                                                 .toString());
+
+        Task task = createTaskWith(firstId);
+        storage.write(task);
+
+        Task movedTask = new Task.TaskBuilder()
+                .setTaskId(task.getId())
+                .setTodoListId(secondId)
+                .setDescription(task.getDescription())
+                .setCreationDate(task.getCreationDate())
+                .build();
+        storage.write(movedTask);
+
+        Assertions.assertTrue(storage.getAllTaskOfTodoList(firstId)
+                                     .isEmpty(),
+                              "should not return overwritten task from previous to-do list, but it do.");
+        Assertions.assertEquals(1, storage.getAllTaskOfTodoList(secondId)
+                                          .size(),
+                                "should return overwritten task from its new to-do list, but it don't.");
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored") // removed task is not needed
+    @Test
+    @DisplayName("should not return removed tasks of todoList")
+    void testGetAllTaskOfTodoListAfterRemove() {
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+
+        Task removedTask = createTaskWith(todoListId);
+        Task task = createTaskWith(todoListId);
+        storage.write(removedTask);
+        storage.write(task);
+
+        storage.remove(removedTask.getId());
+
+        List<Task> allTaskOfTodoList = storage.getAllTaskOfTodoList(todoListId);
+
+        Assertions.assertEquals(1, allTaskOfTodoList.size(),
+                                "should not return removed task, but it do.");
+        Assertions.assertEquals(task, allTaskOfTodoList.get(0));
+    }
+
+    @Test
+    @DisplayName("should index all tasks written concurrently to same todoList")
+    void testConcurrentWriteToSameTodoList() throws InterruptedException {
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        int tasksCount = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < tasksCount; i++) {
+            executor.execute(() -> storage.write(createTaskWith(todoListId)));
+        }
+        executor.shutdown();
+
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertEquals(tasksCount, storage.getAllTaskOfTodoList(todoListId)
+                                                   .size(),
+                                "should index all concurrently written tasks, but it don't.");
+    }
+
+    @Test
+    @DisplayName("should return consistent snapshot of todoList tasks updated concurrently")
+    void testSnapshotUnderConcurrentUpdates() throws InterruptedException {
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Task task = createTaskWith(todoListId);
+            tasks.add(task);
+            storage.write(task);
+        }
+        tasks.sort(Comparator.comparing(task -> task.getId()
+                                                    .getValue()));
+
+        /* Writer updates tasks one by one in order of their IDs, which is the order of snapshot,
+           so no snapshot can contain task of some generation followed by task of older generation. */
+        Thread writer = new Thread(() -> {
+            for (int generation = 1; generation <= 500; generation++) {
+                for (Task task : tasks) {
+                    storage.write(new Task.TaskBuilder()
+                                          .setTaskId(task.getId())
+                                          .setTodoListId(todoListId)
+                                          .setDescription(String.valueOf(generation))
+                                          .setCreationDate(task.getCreationDate())
+                                          .build());
+                }
+            }
+        });
+        writer.start();
+
+        while (writer.isAlive()) {
+            List<Task> snapshot = storage.getAllTaskOfTodoList(todoListId);
+            Assertions.assertEquals(tasks.size(), snapshot.size(), "should return each task once, but it don't.");
+
+            int previousGeneration = Integer.MAX_VALUE;
+            for (Task task : snapshot) {
+                String description = task.getDescription();
+                int generation = description.chars()
+                                            .allMatch(Character::isDigit) ? Integer.parseInt(description) : 0;
+
+                Assertions.assertTrue(generation <= previousGeneration,
+                                      "should not return task updated after later task, but it do.");
+                previousGeneration = generation;
+            }
+        }
+        writer.join();
+    }
+
+    private List<TaskId> writeSortedTasksOf(TodoListId todoListId, int count) {
+        List<TaskId> taskIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = createTaskWith(todoListId);
+            storage.write(task);
+            taskIds.add(task.getId());
+        }
+        taskIds.sort(Comparator.comparing(TaskId::getValue));
+        return taskIds;
+    }
+
+    @Test
+    @DisplayName("should read tasks of todoList page by page with continuation tokens")
+    void testReadPages() {
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        List<TaskId> expected = writeSortedTasksOf(todoListId, 25);
+        storage.write(createTaskWith(new TodoListId(UUID.randomUUID()
+                                                        .toString())));
+
+        List<TaskId> read = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        ContinuationToken token = null;
+
+        do {
+            Page<Task> page = storage.getTasksOfTodoList(todoListId, token, 10);
+            page.getItems()
+                .forEach(task -> read.add(task.getId()));
+            pageSizes.add(page.getItems()
+                              .size());
+
+            /* Token is passed to clients as string. */
+            token = page.getContinuationToken()
+                        .map(value -> ContinuationToken.parse(value.toString()))
+                        .orElse(null);
+        } while (token != null);
+
+        Assertions.assertEquals(expected, read, "should read each task once in order of IDs, but it don't.");
+        Assertions.assertEquals(Arrays.asList(10, 10, 5), pageSizes,
+                                "should fill each page but the last one, but it don't.");
+    }
+
+    @Test
+    @DisplayName("should resume reading after the last task of page when it was removed")
+    void testReadPageAfterRemovedTask() {
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        List<TaskId> taskIds = writeSortedTasksOf(todoListId, 6);
+
+        Page<Task> first = storage.getTasksOfTodoList(todoListId, null, 3);
+        storage.remove(taskIds.get(2));
+
+        Page<Task> second = storage.getTasksOfTodoList(todoListId, first.getContinuationToken()
+                                                                        .orElse(null), 3);
+
+        Assertions.assertEquals(taskIds.subList(3, 6), second.getItems()
+                                                             .stream()
+                                                             .map(Task::getId)
+                                                             .collect(toList()),
+                                "should read tasks which follow removed one, but it don't.");
+        Assertions.assertFalse(second.getContinuationToken()
+                                     .isPresent(), "should not provide token for the last page, but it do.");
+    }
+
+    @Test
+    @DisplayName("should keep order of many tasks of one todoList written one by one and in batches")
+    void testManyTasksOfTodoList() {
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        List<TaskId> expected = writeSortedTasksOf(todoListId, 20_000);
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            batch.add(createTaskWith(todoListId));
+        }
+        storage.writeAll(batch);
+        batch.forEach(task -> expected.add(task.getId()));
+        expected.sort(Comparator.comparing(TaskId::getValue));
+
+        for (int i = expected.size() - 1; i >= 0; i -= 3) {
+            storage.remove(expected.remove(i));
+        }
+
+        Assertions.assertEquals(expected, storage.getAllTaskOfTodoList(todoListId)
+                                                 .stream()
+                                                 .map(Task::getId)
+                                                 .collect(toList()),
+                                "should keep each task once in order of IDs, but it don't.");
+        Assertions.assertEquals(expected, storage.streamTasksOfTodoList(todoListId, 1_000)
+                                                 .map(Task::getId)
+                                                 .collect(toList()),
+                                "should read each task once page by page, but it don't.");
+    }
+
+    @Test
+    @DisplayName("should stream all tasks of todoList reading them page by page")
+    void testStreamTasks() {
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+        List<TaskId> expected = writeSortedTasksOf(todoListId, 23);
+
+        List<TaskId> streamed = storage.streamTasksOfTodoList(todoListId, 4)
+                                       .map(Task::getId)
+                                       .collect(toList());
+
+        Assertions.assertEquals(expected, streamed, "should stream each task once in order of IDs, but it don't.");
+    }
+
+    @Test
+    @DisplayName("should reject malformed continuation token and not positive page size")
+    void testInvalidPageRequest() {
+        TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                   .toString());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ContinuationToken.parse("not a token"),
+                                "should reject malformed token, but it don't.");
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> storage.getTasksOfTodoList(todoListId, null, 0),
+                                "should reject not positive page size, but it don't.");
+    }
+}
@@ -8,10 +8,11 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.javaclasses.todo.model.entity.TodoList.TodoListBuilder;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -24,9 +25,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  * @author Oleg Barmin
  */
 @DisplayName("TodoListStorage should")
-class TodoListStorageTest extends InMemoryStorageTest<TodoListId, TodoList> {
+class TodoListStorageTest extends AbstractStorageTest<TodoListId, TodoList> {
 
-    private final Map<TodoListId, TodoList> map = new HashMap<>();
+    private final ConcurrentMap<TodoListId, TodoList> map = new ConcurrentHashMap<>();
     private final TodoListStorage storage = new TodoListStorage(map);
 
     @Override
@@ -43,7 +44,7 @@ class TodoListStorageTest extends InMemoryStorageTest<TodoListId, TodoList> {
     }
 
     @Override
-    InMemoryStorage<TodoListId, TodoList> getStorage() {
+    AbstractStorage<TodoListId, TodoList> getStorage() {
         return storage;
     }
 
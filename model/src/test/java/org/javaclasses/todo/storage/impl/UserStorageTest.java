@@ -8,22 +8,23 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Testing {@link UserStorage}:
- * - basic methods inherited from {@link InMemoryStorage};
+ * - basic methods inherited from {@link AbstractStorage};
  * - {@link UserStorage#findBy(Username)}.
  *
  * @author Oleg Barmin
  */
 @DisplayName("UserStorage should")
-class UserStorageTest extends InMemoryStorageTest<UserId, User> {
+class UserStorageTest extends AbstractStorageTest<UserId, User> {
 
-    private final Map<UserId, User> map = new HashMap<>();
+    private final ConcurrentMap<UserId, User> map = new ConcurrentHashMap<>();
     private final UserStorage storage = new UserStorage(map);
 
     private final Username username = new Username("exmapleUsername@gmail.ru");
@@ -53,7 +54,7 @@ class UserStorageTest extends InMemoryStorageTest<UserId, User> {
     }
 
     @Override
-    InMemoryStorage<UserId, User> getStorage() {
+    AbstractStorage<UserId, User> getStorage() {
         return storage;
     }
 
@@ -84,4 +85,37 @@ class UserStorageTest extends InMemoryStorageTest<UserId, User> {
         Assertions.assertEquals(entity, user, "find user by username, but it don't.");
 
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("ResultOfMethodCallIgnored") // removed user is not needed
+    @Test
+    @DisplayName("not find removed user by username.")
+    void testFindRemovedUserByUsername() {
+        User entity = createEntity();
+
+        storage.write(entity);
+        storage.remove(entity.getId());
+
+        Assertions.assertFalse(storage.findBy(entity.getUsername())
+                                      .isPresent(),
+                               "not find removed user, but it do.");
+    }
+
+    @Test
+    @DisplayName("find user by new username after user was overwritten.")
+    void testFindUserByChangedUsername() {
+        User entity = createEntity();
+        storage.write(entity);
+
+        Username newUsername = new Username("renamed@gmail.ru");
+        User renamedUser = createEntityWithId(entity.getId());
+        renamedUser.setUsername(newUsername);
+        storage.write(renamedUser);
+
+        Assertions.assertFalse(storage.findBy(username)
+                                      .isPresent(),
+                               "not find user by previous username, but it do.");
+        Assertions.assertTrue(storage.findBy(newUsername)
+                                     .isPresent(),
+                              "find user by new username, but it don't.");
+    }
+}
@@ -0,0 +1,215 @@
+package org.javaclasses.todo.storage.jdbc;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.model.entity.User;
+import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.javaclasses.todo.storage.codec.UserCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Testing {@link JdbcStorageEngine} which should keep entities in embedded H2 database.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("JdbcStorageEngine should")
+class JdbcStorageEngineTest {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), singletonList(TODO_LIST_INDEX), TODO_LIST_INDEX);
+
+    private final TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                             .toString());
+    private Path directory;
+    private StorageEngineFactory factory;
+    private StorageEngine<TaskId, Task> engine;
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @BeforeEach
+    void openEngine() throws IOException {
+        directory = Files.createTempDirectory("jdbc-test");
+        factory = JdbcStorageEngine.factory(directory);
+        engine = factory.create(SCHEMA);
+    }
+
+    @AfterEach
+    void closeEngine() throws IOException {
+        engine.close();
+        deleteRecursively(directory);
+    }
+
+    private Task createTask(String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(UUID.randomUUID()
+                                          .toString()))
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private void write(Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    @Test
+    @DisplayName("keep written entities after reopening.")
+    void testReopen() {
+        Task task = createTask("keep me in database");
+        write(task);
+        engine.close();
+
+        engine = factory.create(SCHEMA);
+
+        Optional<Task> restored = engine.read(task.getId());
+        Assertions.assertTrue(restored.isPresent(), "Task should be kept in database.");
+        Assertions.assertEquals(task.getDescription(), restored.get()
+                                                               .getDescription(), "Description should be kept.");
+        Assertions.assertEquals(singletonList(task), engine.findBy(TODO_LIST_INDEX, todoListId),
+                                "Task should be found by index after reopening.");
+    }
+
+    @Test
+    @DisplayName("update and remove entities.")
+    void testUpdateAndRemove() {
+        Task task = createTask("first version");
+        Task removed = createTask("to remove");
+        write(task);
+        write(removed);
+
+        engine.compute(task.getId(), current -> {
+            Assertions.assertEquals(Optional.of(task), current, "Current task should be passed to function.");
+            return Optional.of(new Task.TaskBuilder()
+                                       .setTaskId(task.getId())
+                                       .setTodoListId(todoListId)
+                                       .setDescription("second version")
+                                       .setCreationDate(task.getCreationDate())
+                                       .build());
+        });
+        engine.compute(removed.getId(), current -> Optional.empty());
+
+        Assertions.assertEquals("second version", engine.read(task.getId())
+                                                        .map(Task::getDescription)
+                                                        .orElse(null), "Task should be updated.");
+        Assertions.assertFalse(engine.read(removed.getId())
+                                     .isPresent(), "Removed task should not be read.");
+        Assertions.assertEquals(1, engine.count(), "Removed task should not be counted.");
+    }
+
+    @Test
+    @DisplayName("write batch in one transaction.")
+    void testComputeAll() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(createTask("task " + i));
+        }
+        List<TaskId> ids = tasks.stream()
+                                .map(Task::getId)
+                                .collect(Collectors.toList());
+
+        engine.computeAll(ids, (id, current) -> Optional.of(tasks.get(ids.indexOf(id))));
+
+        Assertions.assertEquals(new HashSet<>(tasks), new HashSet<>(engine.readAll(ids)
+                                                                          .values()),
+                                "All tasks of batch should be written.");
+
+        RuntimeException failure = new IllegalStateException("Batch fails.");
+        Assertions.assertThrows(IllegalStateException.class, () -> engine.computeAll(ids, (id, current) -> {
+            if (id.equals(ids.get(ids.size() - 1))) {
+                throw failure;
+            }
+            return Optional.empty();
+        }));
+        Assertions.assertEquals(tasks.size(), engine.count(), "Failed batch should not be applied.");
+    }
+
+    @Test
+    @DisplayName("scan entities of index page by page in order of IDs.")
+    void testScan() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Task task = createTask("task " + i);
+            write(task);
+            tasks.add(task);
+        }
+        write(new Task.TaskBuilder()
+                      .setTaskId(new TaskId(UUID.randomUUID()
+                                                .toString()))
+                      .setTodoListId(new TodoListId(UUID.randomUUID()
+                                                        .toString()))
+                      .setDescription("task of other list")
+                      .setCreationDate(new Date())
+                      .build());
+        tasks.sort(Comparator.comparing(task -> StorageEngine.orderKeyOf(task.getId())));
+
+        List<Task> scanned = new ArrayList<>();
+        String after = null;
+        List<Task> page;
+        do {
+            page = engine.scan(TODO_LIST_INDEX, todoListId, after, 3);
+            scanned.addAll(page);
+            after = page.isEmpty() ? after : StorageEngine.orderKeyOf(page.get(page.size() - 1)
+                                                                          .getId());
+        } while (page.size() == 3);
+
+        Assertions.assertEquals(tasks, scanned, "Tasks of list should be scanned in order of IDs.");
+    }
+
+    @Test
+    @DisplayName("find users by username.")
+    void testFindByUsername() {
+        SecondaryIndex<Username, User> usernameIndex = SecondaryIndex.on("username", User::getUsername);
+        StorageSchema<UserId, User> schema =
+                new StorageSchema<>("users", new UserCodec(), singletonList(usernameIndex));
+        User user = new User(new UserId(UUID.randomUUID()
+                                            .toString()));
+        user.setUsername(new Username("user@example.com"));
+
+        StorageEngine<UserId, User> users = factory.create(schema);
+        try {
+            users.compute(user.getId(), current -> Optional.of(user));
+
+            Assertions.assertEquals(singletonList(user), users.findBy(usernameIndex, new Username("user@example.com")),
+                                    "User should be found by username.");
+            Assertions.assertTrue(users.findBy(usernameIndex, new Username("other@example.com"))
+                                       .isEmpty(), "User with other username should not be found.");
+        } finally {
+            users.close();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package org.javaclasses.todo.storage.lsm;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Testing {@link LsmStorageEngine} which should keep entities in SSTables and restore them after reopening.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("LsmStorageEngine should")
+class LsmStorageEngineTest {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), singletonList(TODO_LIST_INDEX));
+
+    /* Small sizes make tests flush and compact after a few hundreds of writes. */
+    private static final LsmOptions SMALL_TREE = LsmOptions.newBuilder()
+                                                           .setMemtableSize(8 << 10)
+                                                           .setBlockSize(512)
+                                                           .setTargetFileSize(16 << 10)
+                                                           .setLevel0CompactionTrigger(2)
+                                                           .setLevelBaseSize(32 << 10)
+                                                           .setFsync(false)
+                                                           .build();
+
+    private final TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                             .toString());
+    private Path directory;
+
+    private static void write(LsmStorageEngine<TaskId, Task> engine, Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private static void remove(LsmStorageEngine<TaskId, Task> engine, TaskId taskId) {
+        engine.compute(taskId, current -> Optional.empty());
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static int tablesCount(Version version) {
+        return version.allTables()
+                      .size();
+    }
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("lsm-test");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        deleteRecursively(directory);
+    }
+
+    private LsmStorageEngine<TaskId, Task> openEngine() {
+        return new LsmStorageEngine<>(directory, SCHEMA, SMALL_TREE);
+    }
+
+    private Task createTask(String description) {
+        return createTask(new TaskId(UUID.randomUUID()
+                                         .toString()), description);
+    }
+
+    private Task createTask(TaskId taskId, String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private static void assertSameTask(Task expected, Optional<Task> actual) {
+        Assertions.assertTrue(actual.isPresent(), "Task should be found.");
+        Task task = actual.get();
+        Assertions.assertEquals(expected.getTodoListId(), task.getTodoListId(), "To-do list should be kept.");
+        Assertions.assertEquals(expected.getDescription(), task.getDescription(), "Description should be kept.");
+        Assertions.assertEquals(expected.getCreationDate(), task.getCreationDate(), "Creation date should be kept.");
+    }
+
+    @Test
+    @DisplayName("find entries of SSTable and skip absent keys.")
+    void testSSTable() throws IOException {
+        SSTableWriter writer = new SSTableWriter(directory.resolve("table.sst"), 64, 1000);
+        for (int i = 0; i < 1000; i++) {
+            writer.add(key(i * 2), key(i));
+        }
+        SSTable table = writer.finish();
+
+        Assertions.assertEquals(1000, table.getEntryCount(), "All entries should be written.");
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertArrayEquals(key(i), table.get(key(i * 2)), "Written entry should be found.");
+            Assertions.assertNull(table.get(key(i * 2 + 1)), "Absent key should not be found.");
+        }
+        Assertions.assertFalse(table.mightContain(key(5000)), "Key out of range should be skipped.");
+        table.close();
+
+        SSTable reopened = SSTable.open(directory.resolve("table.sst"));
+        Assertions.assertArrayEquals(key(0), reopened.get(key(0)), "Entry should be found after reopening.");
+        Assertions.assertArrayEquals(key(0), reopened.getFirstKey(), "First key should be restored.");
+        Assertions.assertArrayEquals(key(1998), reopened.getLastKey(), "Last key should be restored.");
+        reopened.close();
+    }
+
+    private static byte[] key(int number) {
+        return String.format("key-%08d", number)
+                     .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    @DisplayName("restore written and removed entities after reopening.")
+    void testReopen() {
+        Task kept = createTask("kept");
+        Task removed = createTask("removed");
+
+        LsmStorageEngine<TaskId, Task> engine = openEngine();
+        write(engine, kept);
+        write(engine, removed);
+        remove(engine, removed.getId());
+        engine.close();
+
+        LsmStorageEngine<TaskId, Task> reopened = openEngine();
+        assertSameTask(kept, reopened.read(kept.getId()));
+        Assertions.assertFalse(reopened.read(removed.getId())
+                                       .isPresent(), "Removed task should not be restored.");
+        Assertions.assertEquals(1, reopened.findBy(TODO_LIST_INDEX, todoListId)
+                                           .size(), "Restored entities should be indexed.");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("restore changes written in batches.")
+    void testRestoreBatch() {
+        Map<TaskId, Task> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            Task task = createTask("batched " + i);
+            tasks.put(task.getId(), task);
+        }
+        List<TaskId> removedIds = new ArrayList<>(tasks.keySet()).subList(0, 10);
+
+        LsmStorageEngine<TaskId, Task> engine = openEngine();
+        engine.computeAll(tasks.keySet(), (id, current) -> Optional.of(tasks.get(id)));
+        engine.computeAll(removedIds, (id, current) -> Optional.empty());
+        engine.close();
+
+        LsmStorageEngine<TaskId, Task> reopened = openEngine();
+        Assertions.assertTrue(reopened.readAll(removedIds)
+                                      .isEmpty(), "Tasks removed by batch should not be restored.");
+        Assertions.assertEquals(90, reopened.readAll(tasks.keySet())
+                                            .size(), "Tasks written by batch should be restored.");
+        Assertions.assertEquals(90, reopened.findBy(TODO_LIST_INDEX, todoListId)
+                                            .size(), "Restored batch should be indexed.");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("scan indexed entities page by page in order of IDs, skipping removed ones.")
+    void testScan() {
+        LsmStorageEngine<TaskId, Task> engine = openEngine();
+        List<TaskId> expected = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Task task = createTask("scanned " + i);
+            write(engine, task);
+            expected.add(task.getId());
+        }
+        expected.sort(Comparator.comparing(TaskId::getValue));
+        remove(engine, expected.remove(7));
+
+        List<TaskId> scanned = new ArrayList<>();
+        String after = null;
+        List<Task> page;
+        do {
+            page = engine.scan(TODO_LIST_INDEX, todoListId, after, 8);
+            page.forEach(task -> scanned.add(task.getId()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1)
+                                                 .getId()
+                                                 .getValue();
+        } while (page.size() == 8);
+
+        Assertions.assertEquals(expected, scanned, "Each kept entity should be scanned once in order of IDs.");
+        engine.close();
+    }
+
+    @Test
+    @DisplayName("flush memtables into SSTables and compact them into deeper levels.")
+    void testFlushAndCompaction() throws InterruptedException, ExecutionException {
+        List<Task> tasks = new ArrayList<>();
+        LsmStorageEngine<TaskId, Task> engine = openEngine();
+
+        for (int i = 0; i < 3000; i++) {
+            Task task = createTask("flushed and compacted task " + i);
+            tasks.add(task);
+            write(engine, task);
+        }
+        engine.awaitBackgroundWork();
+
+        Version version = engine.getVersion();
+        Assertions.assertTrue(version.getLevel(0)
+                                     .size() < SMALL_TREE.getLevel0CompactionTrigger(),
+                              "Tables of level zero should be compacted.");
+        Assertions.assertTrue(version.levelSize(1) <= SMALL_TREE.maxLevelSize(1),
+                              "Level one should not exceed its size limit.");
+        Assertions.assertFalse(version.getLevel(2)
+                                      .isEmpty(), "Outgrown level one should be compacted into level two.");
+        for (Task task : tasks) {
+            assertSameTask(task, engine.read(task.getId()));
+        }
+        engine.close();
+
+        LsmStorageEngine<TaskId, Task> reopened = openEngine();
+        Assertions.assertEquals(tablesCount(version), tablesCount(reopened.getVersion()),
+                                "Tables should be restored from manifest.");
+        for (Task task : tasks) {
+            assertSameTask(task, reopened.read(task.getId()));
+        }
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("keep obsolete files deleted after compaction.")
+    void testObsoleteFilesDeleted() throws InterruptedException, ExecutionException, IOException {
+        LsmStorageEngine<TaskId, Task> engine = openEngine();
+        TaskId taskId = new TaskId(UUID.randomUUID()
+                                       .toString());
+
+        for (int i = 0; i < 3000; i++) {
+            write(engine, createTask(taskId, "overwritten " + i));
+        }
+        engine.awaitBackgroundWork();
+        int liveTables = tablesCount(engine.getVersion());
+        engine.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(liveTables, files.filter(file -> file.toString()
+                                                                         .endsWith(".sst"))
+                                                     .count(), "Only live tables should be kept on disk.");
+        }
+    }
+
+    @Test
+    @DisplayName("behave as a map under random writes and removes.")
+    void testRandomOperations() throws InterruptedException, ExecutionException {
+        Random random = new Random(42);
+        List<TaskId> taskIds = new ArrayList<>();
+        Map<TaskId, Task> expected = new HashMap<>();
+
+        for (int i = 0; i < 500; i++) {
+            taskIds.add(new TaskId(UUID.randomUUID()
+                                       .toString()));
+        }
+
+        LsmStorageEngine<TaskId, Task> engine = openEngine();
+        for (int i = 0; i < 5000; i++) {
+            TaskId taskId = taskIds.get(random.nextInt(taskIds.size()));
+
+            if (random.nextInt(4) == 0) {
+                remove(engine, taskId);
+                expected.remove(taskId);
+            } else {
+                Task task = createTask(taskId, "random " + i);
+                write(engine, task);
+                expected.put(taskId, task);
+            }
+        }
+        engine.awaitBackgroundWork();
+
+        for (TaskId taskId : taskIds) {
+            Task task = expected.get(taskId);
+            if (task == null) {
+                Assertions.assertFalse(engine.read(taskId)
+                                             .isPresent(), "Removed task should not be found.");
+            } else {
+                assertSameTask(task, engine.read(taskId));
+            }
+        }
+
+        List<Task> scanned = new ArrayList<>();
+        engine.forEach(scanned::add);
+        Assertions.assertEquals(expected.size(), scanned.size(), "Scan should return each live task once.");
+        Assertions.assertEquals(expected.size(), engine.findBy(TODO_LIST_INDEX, todoListId)
+                                                       .size(), "Index should contain each live task.");
+        engine.close();
+    }
+
+    @Test
+    @DisplayName("not restore entities written before clear.")
+    void testClear() throws InterruptedException, ExecutionException {
+        List<Task> cleared = new ArrayList<>();
+        LsmStorageEngine<TaskId, Task> engine = openEngine();
+
+        for (int i = 0; i < 1000; i++) {
+            Task task = createTask("cleared " + i);
+            cleared.add(task);
+            write(engine, task);
+        }
+        engine.clear();
+        Task kept = createTask("kept");
+        write(engine, kept);
+        engine.awaitBackgroundWork();
+        engine.close();
+
+        LsmStorageEngine<TaskId, Task> reopened = openEngine();
+        for (Task task : cleared) {
+            Assertions.assertFalse(reopened.read(task.getId())
+                                           .isPresent(), "Cleared task should not be restored.");
+        }
+        assertSameTask(kept, reopened.read(kept.getId()));
+        Assertions.assertEquals(1, reopened.findBy(TODO_LIST_INDEX, todoListId)
+                                           .size(), "Only task written after clear should be indexed.");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("keep all entities written concurrently.")
+    void testConcurrentWrites() throws InterruptedException {
+        int threads = 8;
+        int tasksPerThread = 500;
+
+        LsmStorageEngine<TaskId, Task> engine = openEngine();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Collection<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < threads * tasksPerThread; i++) {
+            tasks.add(createTask("concurrent " + i));
+        }
+        for (Task task : tasks) {
+            executor.execute(() -> write(engine, task));
+        }
+
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Writes should finish.");
+        engine.close();
+
+        LsmStorageEngine<TaskId, Task> reopened = openEngine();
+        for (Task task : tasks) {
+            assertSameTask(task, reopened.read(task.getId()));
+        }
+        Assertions.assertEquals(tasks.size(), reopened.findBy(TODO_LIST_INDEX, todoListId)
+                                                      .size(), "All written tasks should be restored.");
+        reopened.close();
+    }
+}
@@ -0,0 +1,347 @@
+package org.javaclasses.todo.storage.mapped;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singleton;
+
+/**
+ * Testing {@link MappedTaskStorageEngine} which should keep tasks in memory-mapped files
+ * and provide same results as in-memory engine.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("MappedTaskStorageEngine should")
+class MappedTaskStorageEngineTest {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+
+    /* Small chunks make engine map several chunks and grow its tables during test. */
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    private Path directory;
+    private MappedTaskStorageEngine engine;
+
+    private static TodoListId newTodoListId() {
+        return new TodoListId(UUID.randomUUID()
+                                  .toString());
+    }
+
+    private static Task createTask(TaskId taskId, TodoListId todoListId, String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setCreationDate(new Date(1_000))
+                .setLastUpdateDate(new Date(2_000))
+                .build();
+    }
+
+    private static Task createTask(TodoListId todoListId, String description) {
+        return createTask(new TaskId(UUID.randomUUID()
+                                         .toString()), todoListId, description);
+    }
+
+    private static void assertSameTask(Task expected, Task actual) {
+        Assertions.assertEquals(expected.getId(), actual.getId(), "ID should be kept.");
+        Assertions.assertEquals(expected.getTodoListId(), actual.getTodoListId(), "To-do list should be kept.");
+        Assertions.assertEquals(expected.getDescription(), actual.getDescription(), "Description should be kept.");
+        Assertions.assertEquals(expected.isCompleted(), actual.isCompleted(), "Status should be kept.");
+        Assertions.assertEquals(expected.getCreationDate(), actual.getCreationDate(),
+                                "Creation date should be kept.");
+        Assertions.assertEquals(expected.getLastUpdateDate(), actual.getLastUpdateDate(),
+                                "Last update date should be kept.");
+    }
+
+    private static Set<TaskId> idsOf(List<Task> tasks) {
+        return tasks.stream()
+                    .map(Task::getId)
+                    .collect(Collectors.toSet());
+    }
+
+    @BeforeEach
+    void createEngine() throws IOException {
+        directory = Files.createTempDirectory("mapped-test");
+        engine = new MappedTaskStorageEngine(directory, TODO_LIST_INDEX, CHUNK_SIZE);
+    }
+
+    @AfterEach
+    void closeEngine() throws IOException {
+        engine.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(0, files.count(), "Files of engine should be deleted on close.");
+        }
+        Files.delete(directory);
+    }
+
+    private void write(Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private void remove(TaskId taskId) {
+        engine.compute(taskId, current -> Optional.empty());
+    }
+
+    @Test
+    @DisplayName("read written task.")
+    void testReadWritten() {
+        Task task = createTask(newTodoListId(), "keep tasks off heap \u2014 \u00fcn\u00efc\u00f6d\u00e9");
+        write(task);
+
+        Optional<Task> read = engine.read(task.getId());
+
+        Assertions.assertTrue(read.isPresent(), "Written task should be found.");
+        assertSameTask(task, read.get());
+    }
+
+    @Test
+    @DisplayName("not find removed task.")
+    void testRemove() {
+        TodoListId todoListId = newTodoListId();
+        Task task = createTask(todoListId, "to remove");
+        write(task);
+        remove(task.getId());
+
+        Assertions.assertFalse(engine.read(task.getId())
+                                     .isPresent(), "Removed task should not be found.");
+        Assertions.assertTrue(engine.findBy(TODO_LIST_INDEX, todoListId)
+                                    .isEmpty(), "Removed task should not be found by to-do list.");
+    }
+
+    @Test
+    @DisplayName("keep latest version of overwritten task.")
+    void testOverwrite() {
+        TodoListId todoListId = newTodoListId();
+        Task task = createTask(todoListId, "short");
+        Task longer = createTask(task.getId(), todoListId, "much longer description than before");
+        Task shorter = createTask(task.getId(), todoListId, "tiny");
+
+        write(task);
+        write(longer);
+        assertSameTask(longer, engine.read(task.getId())
+                                     .get());
+
+        write(shorter);
+        assertSameTask(shorter, engine.read(task.getId())
+                                      .get());
+        Assertions.assertEquals(1, engine.findBy(TODO_LIST_INDEX, todoListId)
+                                         .size(), "Overwritten task should be found once.");
+    }
+
+    @Test
+    @DisplayName("find task by new to-do list after it was moved.")
+    void testMoveBetweenLists() {
+        TodoListId first = newTodoListId();
+        TodoListId second = newTodoListId();
+        Task staying = createTask(first, "stays in first list");
+        Task moving = createTask(first, "moves to second list");
+
+        write(staying);
+        write(moving);
+        write(createTask(moving.getId(), second, "moves to second list"));
+
+        Assertions.assertEquals(idsOf(engine.findBy(TODO_LIST_INDEX, first)),
+                                singleton(staying.getId()),
+                                "Moved task should not be found by previous list.");
+        Assertions.assertEquals(idsOf(engine.findBy(TODO_LIST_INDEX, second)),
+                                singleton(moving.getId()),
+                                "Moved task should be found by new list.");
+    }
+
+    @Test
+    @DisplayName("scan tasks of to-do list page by page in order of IDs.")
+    void testScan() {
+        TodoListId todoListId = newTodoListId();
+        List<TaskId> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Task task = createTask(todoListId, "scanned " + i);
+            write(task);
+            expected.add(task.getId());
+        }
+        write(createTask(newTodoListId(), "other list"));
+        expected.sort(Comparator.comparing(TaskId::getValue));
+
+        List<TaskId> scanned = new ArrayList<>();
+        String after = null;
+        List<Task> page;
+        do {
+            page = engine.scan(TODO_LIST_INDEX, todoListId, after, 6);
+            page.forEach(task -> scanned.add(task.getId()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1)
+                                                 .getId()
+                                                 .getValue();
+        } while (page.size() == 6);
+
+        Assertions.assertEquals(expected, scanned, "Each task of list should be scanned once in order of IDs.");
+    }
+
+    @Test
+    @DisplayName("keep task unchanged if computation returns current value.")
+    void testUnchanged() {
+        Task task = createTask(newTodoListId(), "unchanged");
+        write(task);
+
+        Optional<Task> result = engine.compute(task.getId(), current -> current);
+
+        Assertions.assertTrue(result.isPresent(), "Current task should be returned.");
+        assertSameTask(task, engine.read(task.getId())
+                                   .get());
+    }
+
+    @Test
+    @DisplayName("be empty after clear.")
+    void testClear() {
+        TodoListId todoListId = newTodoListId();
+        Task task = createTask(todoListId, "cleared");
+        write(task);
+
+        engine.clear();
+
+        Assertions.assertFalse(engine.read(task.getId())
+                                     .isPresent(), "Cleared task should not be found.");
+        Assertions.assertTrue(engine.findBy(TODO_LIST_INDEX, todoListId)
+                                    .isEmpty(), "Cleared task should not be found by to-do list.");
+    }
+
+    @Test
+    @DisplayName("reject undeclared index.")
+    void testUndeclaredIndex() {
+        SecondaryIndex<TodoListId, Task> undeclared = SecondaryIndex.on("todoListId", Task::getTodoListId);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> engine.findBy(undeclared, newTodoListId()));
+    }
+
+    @Test
+    @DisplayName("provide same results as map for random sequence of changes.")
+    void testRandomChanges() {
+        Random random = new Random(42);
+        List<TodoListId> todoLists = new ArrayList<>();
+        List<TaskId> taskIds = new ArrayList<>();
+        Map<TaskId, Task> expected = new HashMap<>();
+
+        for (int i = 0; i < 20; i++) {
+            todoLists.add(newTodoListId());
+        }
+        for (int i = 0; i < 2_000; i++) {
+            taskIds.add(new TaskId(UUID.randomUUID()
+                                       .toString()));
+        }
+
+        for (int i = 0; i < 30_000; i++) {
+            TaskId taskId = taskIds.get(random.nextInt(taskIds.size()));
+
+            if (random.nextInt(4) == 0) {
+                remove(taskId);
+                expected.remove(taskId);
+            } else {
+                StringBuilder description = new StringBuilder("task");
+                for (int j = random.nextInt(20); j > 0; j--) {
+                    description.append(" description");
+                }
+
+                Task task = createTask(taskId, todoLists.get(random.nextInt(todoLists.size())),
+                                       description.toString());
+                write(task);
+                expected.put(taskId, task);
+            }
+        }
+
+        for (TaskId taskId : taskIds) {
+            Optional<Task> actual = engine.read(taskId);
+            Assertions.assertEquals(expected.containsKey(taskId), actual.isPresent(),
+                                    "Task should be found only if it was not removed.");
+            actual.ifPresent(task -> assertSameTask(expected.get(taskId), task));
+        }
+
+        for (TodoListId todoListId : todoLists) {
+            Set<TaskId> expectedIds = expected.values()
+                                              .stream()
+                                              .filter(task -> task.getTodoListId()
+                                                                  .equals(todoListId))
+                                              .map(Task::getId)
+                                              .collect(Collectors.toSet());
+            Assertions.assertEquals(expectedIds, idsOf(engine.findBy(TODO_LIST_INDEX, todoListId)),
+                                    "Tasks of to-do list should be found.");
+        }
+
+        List<Task> all = new ArrayList<>();
+        engine.forEach(all::add);
+        Assertions.assertEquals(expected.keySet(), idsOf(all), "All kept tasks should be iterated.");
+    }
+
+    @Test
+    @DisplayName("compact data file when most of it is garbage.")
+    void testCompaction() {
+        TodoListId todoListId = newTodoListId();
+        Task kept = createTask(todoListId, "kept task");
+        write(kept);
+
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            description.append("long description ");
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            Task task = createTask(todoListId, description.toString());
+            write(task);
+            remove(task.getId());
+        }
+
+        Assertions.assertTrue(engine.getDataSize() < (1 << 20) + 2 * CHUNK_SIZE, "Data of removed tasks should be reclaimed.");
+        assertSameTask(kept, engine.read(kept.getId())
+                                   .get());
+    }
+
+    @Test
+    @DisplayName("allow concurrent reads and writes.")
+    void testConcurrentAccess() throws InterruptedException {
+        TodoListId todoListId = newTodoListId();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 4_000; i++) {
+            tasks.add(createTask(todoListId, "concurrent " + i));
+        }
+        for (Task task : tasks) {
+            executor.execute(() -> {
+                write(task);
+                Assertions.assertTrue(engine.read(task.getId())
+                                            .isPresent(), "Written task should be visible.");
+            });
+        }
+
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Writes should finish.");
+        Assertions.assertEquals(tasks.size(), engine.findBy(TODO_LIST_INDEX, todoListId)
+                                                    .size(), "All tasks should be found.");
+    }
+}
@@ -0,0 +1,93 @@
+package org.javaclasses.todo.storage.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testing {@link Histogram} which should report percentiles of recorded values with bounded relative error.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("Histogram should")
+class HistogramTest {
+
+    private static final double RELATIVE_ERROR = 1.0 / 64;
+
+    private static void assertClose(long expected, long actual) {
+        Assertions.assertTrue(Math.abs(actual - expected) <= expected * RELATIVE_ERROR,
+                              "Expected value close to " + expected + ", but was " + actual + '.');
+    }
+
+    @Test
+    @DisplayName("report percentiles of recorded values.")
+    void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        Assertions.assertEquals(100_000, snapshot.getCount(), "All values should be counted.");
+        assertClose(50_000_000, snapshot.getValueAtPercentile(50));
+        assertClose(99_000_000, snapshot.getValueAtPercentile(99));
+        assertClose(99_900_000, snapshot.getValueAtPercentile(99.9));
+        Assertions.assertEquals(100_000_000, snapshot.getValueAtPercentile(100), "Maximum should be exact.");
+        Assertions.assertEquals(50_000_500, snapshot.getMean(), 1, "Mean should be exact.");
+    }
+
+    @Test
+    @DisplayName("keep small values exact and bound huge ones.")
+    void testBounds() {
+        Histogram histogram = new Histogram();
+        histogram.record(0);
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        Assertions.assertEquals(0, snapshot.getValueAtPercentile(0), "Zero should be recorded exactly.");
+        Assertions.assertEquals(7, snapshot.getValueAtPercentile(50), "Small value should be recorded exactly.");
+        Assertions.assertEquals(Histogram.MAX_VALUE, snapshot.getMax(), "Huge value should be bounded.");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.record(-1),
+                                "Negative value should be rejected.");
+    }
+
+    @Test
+    @DisplayName("count each bucket of values once.")
+    void testBuckets() {
+        long previousHighest = -1;
+        for (int index = 0; index < Histogram.indexOf(Histogram.MAX_VALUE); index++) {
+            long highest = Histogram.highestValueOf(index);
+
+            Assertions.assertEquals(index, Histogram.indexOf(previousHighest + 1), "Buckets should be contiguous.");
+            Assertions.assertEquals(index, Histogram.indexOf(highest), "Bucket should count its highest value.");
+            previousHighest = highest;
+        }
+    }
+
+    @Test
+    @DisplayName("count values recorded concurrently.")
+    void testConcurrentRecording() throws InterruptedException {
+        Histogram histogram = new Histogram();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS), "Threads should finish.");
+
+        Assertions.assertEquals(40_000, histogram.snapshot()
+                                                 .getCount(), "Each recorded value should be counted.");
+    }
+}
@@ -0,0 +1,230 @@
+package org.javaclasses.todo.storage.replication;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Testing {@link ReplicationNode} which should replicate changes of leader to followers.
+ *
+ * <p>Leader and follower run in one process and communicate over loopback interface.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("ReplicationNode should")
+class ReplicationNodeTest {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), singletonList(TODO_LIST_INDEX));
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                             .toString());
+    private final List<ReplicationNode> nodes = new ArrayList<>();
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assertions.fail(message);
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+
+    @AfterEach
+    void closeNodes() {
+        nodes.forEach(ReplicationNode::close);
+    }
+
+    private ReplicationNode register(ReplicationNode node) {
+        nodes.add(node);
+        return node;
+    }
+
+    private static StorageEngine<TaskId, Task> createStorage(ReplicationNode node) {
+        return node.wrap(ConcurrentStorageEngine.factory())
+                   .create(SCHEMA);
+    }
+
+    private static InetSocketAddress loopback(int port) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    private Task createTask(String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(UUID.randomUUID()
+                                          .toString()))
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private static void write(StorageEngine<TaskId, Task> storage, Task task) {
+        storage.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private StorageEngine<TaskId, Task> startFollower(ReplicationNode follower) {
+        StorageEngine<TaskId, Task> storage = createStorage(follower);
+        follower.start();
+        return storage;
+    }
+
+    @Test
+    @DisplayName("apply changes of leader to follower.")
+    void testReplicateChanges() throws IOException, InterruptedException {
+        ReplicationNode leader = register(ReplicationNode.leader());
+        StorageEngine<TaskId, Task> leaderTasks = createStorage(leader);
+        int port = leader.serve(0);
+
+        ReplicationNode follower = register(ReplicationNode.follower(loopback(port)));
+        StorageEngine<TaskId, Task> followerTasks = startFollower(follower);
+
+        Task kept = createTask("keep me");
+        Task removed = createTask("remove me");
+        write(leaderTasks, kept);
+        write(leaderTasks, removed);
+        leaderTasks.compute(removed.getId(), current -> Optional.empty());
+
+        awaitTrue(() -> follower.getStatus()
+                                .getAppliedSequence() == 3, "Follower should apply all changes of leader.");
+        Assertions.assertEquals(Optional.of(kept), followerTasks.read(kept.getId()),
+                                "Written task should be replicated.");
+        Assertions.assertFalse(followerTasks.read(removed.getId())
+                                            .isPresent(), "Removed task should be removed from follower.");
+        Assertions.assertEquals(singletonList(kept), followerTasks.findBy(TODO_LIST_INDEX, todoListId),
+                                "Follower should find replicated task by index.");
+        Assertions.assertEquals(1, leader.getStatus()
+                                         .getFollowerCount(), "Leader should count connected follower.");
+    }
+
+    @Test
+    @DisplayName("send snapshot of existing entities to new follower.")
+    void testSnapshot() throws IOException, InterruptedException {
+        ReplicationNode leader = register(ReplicationNode.leader());
+        StorageEngine<TaskId, Task> leaderTasks = createStorage(leader);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Task task = createTask("task " + i);
+            write(leaderTasks, task);
+            tasks.add(task);
+        }
+        int port = leader.serve(0);
+
+        ReplicationNode follower = register(ReplicationNode.follower(loopback(port)));
+        StorageEngine<TaskId, Task> followerTasks = startFollower(follower);
+
+        awaitTrue(() -> followerTasks.count() == tasks.size(), "Follower should receive existing tasks.");
+        tasks.forEach(task -> Assertions.assertEquals(Optional.of(task), followerTasks.read(task.getId()),
+                                                      "Task should be received in snapshot."));
+    }
+
+    @Test
+    @DisplayName("reject changes on follower.")
+    void testFollowerIsReadOnly() throws IOException {
+        ReplicationNode leader = register(ReplicationNode.leader());
+        createStorage(leader);
+        int port = leader.serve(0);
+
+        ReplicationNode follower = register(ReplicationNode.follower(loopback(port)));
+        StorageEngine<TaskId, Task> followerTasks = startFollower(follower);
+
+        Task task = createTask("write me on follower");
+        Assertions.assertThrows(ReadOnlyReplicaException.class, () -> write(followerTasks, task));
+        Assertions.assertThrows(ReadOnlyReplicaException.class, followerTasks::clear);
+    }
+
+    @Test
+    @DisplayName("report lag of follower which is in sync with leader.")
+    void testLag() throws IOException, InterruptedException {
+        ReplicationNode leader = register(ReplicationNode.leader());
+        StorageEngine<TaskId, Task> leaderTasks = createStorage(leader);
+        int port = leader.serve(0);
+
+        ReplicationNode follower = register(ReplicationNode.follower(loopback(port)));
+        Assertions.assertEquals(-1, follower.getStatus()
+                                            .getLagMillis(), "Lag should be unknown before follower syncs.");
+        startFollower(follower);
+        write(leaderTasks, createTask("measure lag"));
+
+        awaitTrue(() -> follower.getStatus()
+                                .getLagMillis() >= 0, "Follower should know its lag after sync.");
+        ReplicationStatus status = follower.getStatus();
+        Assertions.assertEquals(ReplicationStatus.Role.FOLLOWER, status.getRole(), "Follower role should be reported.");
+        Assertions.assertTrue(status.isConnected(), "Follower should be connected to leader.");
+        Assertions.assertTrue(status.getLagMillis() < TIMEOUT_MILLIS, "Lag of follower in sync should be small.");
+    }
+
+    @Test
+    @DisplayName("accept changes and followers after promotion of follower.")
+    void testPromote() throws IOException, InterruptedException {
+        ReplicationNode leader = register(ReplicationNode.leader());
+        StorageEngine<TaskId, Task> leaderTasks = createStorage(leader);
+        int port = leader.serve(0);
+
+        ReplicationNode follower = register(ReplicationNode.follower(loopback(port)));
+        StorageEngine<TaskId, Task> followerTasks = startFollower(follower);
+        int followerPort = follower.serve(0);
+        Task replicated = createTask("replicated before failure");
+        write(leaderTasks, replicated);
+        awaitTrue(() -> followerTasks.read(replicated.getId())
+                                     .isPresent(), "Follower should apply change of leader.");
+
+        leader.close();
+        follower.promote();
+        Task written = createTask("written to new leader");
+        write(followerTasks, written);
+
+        ReplicationNode secondFollower = register(ReplicationNode.follower(loopback(followerPort)));
+        StorageEngine<TaskId, Task> secondTasks = startFollower(secondFollower);
+        awaitTrue(() -> secondTasks.count() == 2, "New leader should replicate its entities.");
+        Assertions.assertEquals(ReplicationStatus.Role.LEADER, follower.getStatus()
+                                                                       .getRole(), "Promoted node should lead.");
+    }
+
+    @Test
+    @DisplayName("resync follower which fell behind retained changes.")
+    void testResyncAfterOverflow() throws IOException, InterruptedException {
+        ReplicationNode leader = register(new ReplicationNode(null, 4));
+        StorageEngine<TaskId, Task> leaderTasks = createStorage(leader);
+        int port = leader.serve(0);
+        for (int i = 0; i < 10; i++) {
+            write(leaderTasks, createTask("before follower " + i));
+        }
+
+        ReplicationNode follower = register(ReplicationNode.follower(loopback(port)));
+        StorageEngine<TaskId, Task> followerTasks = startFollower(follower);
+        awaitTrue(() -> followerTasks.count() == 10, "Follower should receive snapshot.");
+
+        for (int i = 0; i < 50; i++) {
+            write(leaderTasks, createTask("after follower " + i));
+        }
+
+        awaitTrue(() -> followerTasks.count() == 60, "Follower should catch up with leader.");
+    }
+}
@@ -0,0 +1,238 @@
+package org.javaclasses.todo.storage.sharded;
+
+import org.javaclasses.todo.model.entity.Entity;
+import org.javaclasses.todo.model.entity.EntityId;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoList;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.model.entity.UserId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageEngine;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.javaclasses.todo.storage.codec.TodoListCodec;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Testing {@link ShardedStorageEngine} which should keep entities with same partition key in one shard
+ * and provide same results as a single engine.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("ShardedStorageEngine should")
+class ShardedStorageEngineTest {
+
+    private static final int SHARDS_COUNT = 4;
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    private static final StorageSchema<TaskId, Task> TASKS_SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), singletonList(TODO_LIST_INDEX), TODO_LIST_INDEX);
+
+    private static final SecondaryIndex<UserId, TodoList> OWNER_INDEX =
+            SecondaryIndex.on("owner", TodoList::getOwner);
+    private static final StorageSchema<TodoListId, TodoList> TODO_LISTS_SCHEMA =
+            new StorageSchema<>("todo-lists", new TodoListCodec(), singletonList(OWNER_INDEX));
+
+    private final List<StorageEngine<TaskId, Task>> taskShards = createShards(TASKS_SCHEMA);
+    private final ShardedStorageEngine<TaskId, Task> tasks = new ShardedStorageEngine<>(TASKS_SCHEMA, taskShards);
+
+    private static <I extends EntityId, E extends Entity<I>> List<StorageEngine<I, E>> createShards(
+            StorageSchema<I, E> schema) {
+        List<StorageEngine<I, E>> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS_COUNT; i++) {
+            shards.add(ConcurrentStorageEngine.factory()
+                                              .create(schema));
+        }
+        return shards;
+    }
+
+    private static TodoListId newTodoListId() {
+        return new TodoListId(UUID.randomUUID()
+                                  .toString());
+    }
+
+    private static Task createTask(TaskId taskId, TodoListId todoListId) {
+        return new Task.TaskBuilder()
+                .setTaskId(taskId)
+                .setTodoListId(todoListId)
+                .setDescription("split tasks into shards")
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private static Task createTask(TodoListId todoListId) {
+        return createTask(new TaskId(UUID.randomUUID()
+                                         .toString()), todoListId);
+    }
+
+    private void write(Task task) {
+        tasks.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private int shardsWithTasksOf(TodoListId todoListId) {
+        int count = 0;
+        for (StorageEngine<TaskId, Task> shard : taskShards) {
+            if (!shard.findBy(TODO_LIST_INDEX, todoListId)
+                      .isEmpty()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    @DisplayName("keep all tasks of to-do list in one shard.")
+    void testPartitionByTodoList() {
+        TodoListId todoListId = newTodoListId();
+        List<Task> written = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Task task = createTask(todoListId);
+            write(task);
+            written.add(task);
+        }
+
+        Assertions.assertEquals(1, shardsWithTasksOf(todoListId), "Tasks of list should be kept in one shard.");
+        Assertions.assertEquals(written.size(), tasks.findBy(TODO_LIST_INDEX, todoListId)
+                                                     .size(), "All tasks of list should be found.");
+        for (Task task : written) {
+            Assertions.assertTrue(tasks.read(task.getId())
+                                       .isPresent(), "Written task should be found by ID.");
+        }
+    }
+
+    @Test
+    @DisplayName("keep to-do list in the shard with same number as its tasks.")
+    void testColocateTodoListWithTasks() {
+        List<StorageEngine<TodoListId, TodoList>> listShards = createShards(TODO_LISTS_SCHEMA);
+        ShardedStorageEngine<TodoListId, TodoList> todoLists =
+                new ShardedStorageEngine<>(TODO_LISTS_SCHEMA, listShards);
+
+        for (int i = 0; i < 20; i++) {
+            TodoList todoList = new TodoList.TodoListBuilder()
+                    .setTodoListId(newTodoListId())
+                    .setOwner(new UserId(UUID.randomUUID()
+                                             .toString()))
+                    .build();
+            todoLists.compute(todoList.getId(), current -> Optional.of(todoList));
+            write(createTask(todoList.getId()));
+
+            int shard = ShardedStorageEngine.shardOf(todoList.getId(), SHARDS_COUNT);
+            Assertions.assertTrue(listShards.get(shard)
+                                            .read(todoList.getId())
+                                            .isPresent(), "To-do list should be kept in its shard.");
+            Assertions.assertFalse(taskShards.get(shard)
+                                             .findBy(TODO_LIST_INDEX, todoList.getId())
+                                             .isEmpty(), "Tasks should be kept in shard of their list.");
+        }
+    }
+
+    @Test
+    @DisplayName("move task to the shard of its new to-do list.")
+    void testMoveBetweenShards() {
+        TodoListId first = newTodoListId();
+        TodoListId second = newTodoListId();
+        int firstShard = ShardedStorageEngine.shardOf(first, SHARDS_COUNT);
+        while (ShardedStorageEngine.shardOf(second, SHARDS_COUNT) == firstShard) {
+            second = newTodoListId();
+        }
+        Task task = createTask(first);
+        write(task);
+
+        write(createTask(task.getId(), second));
+
+        Assertions.assertTrue(tasks.findBy(TODO_LIST_INDEX, first)
+                                   .isEmpty(), "Moved task should not be found by previous list.");
+        Assertions.assertEquals(1, tasks.findBy(TODO_LIST_INDEX, second)
+                                        .size(), "Moved task should be found by new list.");
+        Assertions.assertEquals(second, tasks.read(task.getId())
+                                             .map(Task::getTodoListId)
+                                             .orElse(null), "Moved task should be found by ID.");
+
+        tasks.compute(task.getId(), current -> Optional.empty());
+        Assertions.assertFalse(tasks.read(task.getId())
+                                    .isPresent(), "Removed task should not be found.");
+        Assertions.assertEquals(0, shardsWithTasksOf(second), "Removed task should not be kept in any shard.");
+    }
+
+    @Test
+    @DisplayName("restore directory of shards from engines of shards.")
+    void testRestoreDirectory() {
+        Task task = createTask(newTodoListId());
+        write(task);
+
+        ShardedStorageEngine<TaskId, Task> reopened = new ShardedStorageEngine<>(TASKS_SCHEMA, taskShards);
+
+        Assertions.assertTrue(reopened.read(task.getId())
+                                      .isPresent(), "Task should be found by ID in restored engine.");
+    }
+
+    @Test
+    @DisplayName("merge entities of all shards when searching by index other than partition one.")
+    void testFindByOtherIndex() {
+        ShardedStorageEngine<TodoListId, TodoList> todoLists =
+                new ShardedStorageEngine<>(TODO_LISTS_SCHEMA, createShards(TODO_LISTS_SCHEMA));
+        UserId owner = new UserId(UUID.randomUUID()
+                                      .toString());
+        List<TodoListId> expected = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            TodoList todoList = new TodoList.TodoListBuilder()
+                    .setTodoListId(newTodoListId())
+                    .setOwner(owner)
+                    .build();
+            todoLists.compute(todoList.getId(), current -> Optional.of(todoList));
+            expected.add(todoList.getId());
+        }
+        expected.sort(Comparator.comparing(TodoListId::getValue));
+
+        Assertions.assertEquals(expected.size(), todoLists.findBy(OWNER_INDEX, owner)
+                                                          .size(), "Lists of all shards should be found.");
+        Assertions.assertEquals(expected.subList(0, 10), todoLists.scan(OWNER_INDEX, owner, null, 10)
+                                                                  .stream()
+                                                                  .map(TodoList::getId)
+                                                                  .collect(toList()),
+                                "Pages of shards should be merged in order of IDs.");
+    }
+
+    @Test
+    @DisplayName("keep tasks written concurrently into different lists.")
+    void testConcurrentWrites() throws InterruptedException {
+        List<TodoListId> todoListIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            todoListIds.add(newTodoListId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(todoListIds.size());
+        for (TodoListId todoListId : todoListIds) {
+            executor.execute(() -> {
+                for (int i = 0; i < 200; i++) {
+                    write(createTask(todoListId));
+                }
+            });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS), "Writers should finish.");
+
+        for (TodoListId todoListId : todoListIds) {
+            Assertions.assertEquals(200, tasks.findBy(TODO_LIST_INDEX, todoListId)
+                                              .size(), "All tasks of each list should be kept.");
+        }
+    }
+}
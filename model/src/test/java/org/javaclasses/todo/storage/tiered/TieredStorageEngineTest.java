@@ -0,0 +1,288 @@
+package org.javaclasses.todo.storage.tiered;
+
+import com.google.common.base.Ticker;
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Testing {@link TieredStorageEngine} which should move idle groups of entities to disk
+ * and read them back transparently.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("TieredStorageEngine should")
+class TieredStorageEngineTest {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), singletonList(TODO_LIST_INDEX), TODO_LIST_INDEX);
+
+    private static final long IDLE_MINUTES = 30;
+
+    private final ManualTicker ticker = new ManualTicker();
+    private Path directory;
+    private TieredStorageEngine<TaskId, Task> engine;
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @BeforeEach
+    void createEngine() throws IOException {
+        directory = Files.createTempDirectory("spill-test");
+        TieringOptions options = TieringOptions.newBuilder()
+                                               .setIdleThreshold(IDLE_MINUTES, TimeUnit.MINUTES)
+                                               .setCheckInterval(1, TimeUnit.DAYS)
+                                               .build();
+        engine = new TieredStorageEngine<>(SCHEMA, directory, options, ticker);
+    }
+
+    @AfterEach
+    void closeEngine() throws IOException {
+        engine.close();
+        deleteRecursively(directory);
+    }
+
+    private static TodoListId newTodoListId() {
+        return new TodoListId(UUID.randomUUID()
+                                  .toString());
+    }
+
+    private static Task createTask(TodoListId todoListId, String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(UUID.randomUUID()
+                                          .toString()))
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private List<Task> writeTasks(TodoListId todoListId, int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = createTask(todoListId, "task " + i);
+            engine.compute(task.getId(), current -> Optional.of(task));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private void becomeIdle() {
+        ticker.advance(IDLE_MINUTES, TimeUnit.MINUTES);
+        engine.spillIdle();
+    }
+
+    @Test
+    @DisplayName("spill idle group and read it back on access.")
+    void testSpillAndFaultIn() {
+        List<Task> tasks = writeTasks(newTodoListId(), 3);
+
+        becomeIdle();
+
+        TieringStats spilled = engine.stats();
+        Assertions.assertEquals(1, spilled.getSpilledGroupCount(), "Idle group should be spilled.");
+        Assertions.assertEquals(0, spilled.getResidentGroupCount(), "No group should stay in memory.");
+        Assertions.assertTrue(spilled.getSpillFileSize() > 0, "Spilled tasks should be written into file.");
+
+        Assertions.assertEquals(Optional.of(tasks.get(0)), engine.read(tasks.get(0)
+                                                                            .getId()),
+                                "Spilled task should be read.");
+
+        TieringStats restored = engine.stats();
+        Assertions.assertEquals(1, restored.getFaultCount(), "Group should be read back once.");
+        Assertions.assertEquals(1, restored.getResidentGroupCount(), "Read group should be in memory.");
+        Assertions.assertEquals(Optional.of(tasks.get(2)), engine.read(tasks.get(2)
+                                                                            .getId()),
+                                "Whole group should be read back.");
+    }
+
+    @Test
+    @DisplayName("keep recently accessed groups in memory.")
+    void testKeepActiveGroups() {
+        List<Task> idle = writeTasks(newTodoListId(), 2);
+        List<Task> active = writeTasks(newTodoListId(), 2);
+
+        ticker.advance(IDLE_MINUTES - 1, TimeUnit.MINUTES);
+        Assertions.assertTrue(engine.read(active.get(0)
+                                                .getId())
+                                    .isPresent(), "Active task should be read.");
+        ticker.advance(1, TimeUnit.MINUTES);
+        engine.spillIdle();
+
+        TieringStats stats = engine.stats();
+        Assertions.assertEquals(1, stats.getSpilledGroupCount(), "Only idle group should be spilled.");
+        Assertions.assertEquals(1, stats.getResidentGroupCount(), "Accessed group should stay in memory.");
+
+        Assertions.assertTrue(engine.read(idle.get(1)
+                                              .getId())
+                                    .isPresent(), "Task of idle group should be read.");
+    }
+
+    @Test
+    @DisplayName("find entities of spilled group by partition index.")
+    void testFindSpilledGroup() {
+        TodoListId todoListId = newTodoListId();
+        List<Task> tasks = writeTasks(todoListId, 5);
+
+        becomeIdle();
+
+        Assertions.assertEquals(new HashSet<>(tasks), new HashSet<>(engine.findBy(TODO_LIST_INDEX, todoListId)),
+                                "All tasks of spilled group should be found.");
+
+        becomeIdle();
+
+        Assertions.assertEquals(2, engine.scan(TODO_LIST_INDEX, todoListId, null, 2)
+                                         .size(), "Page of spilled group should be scanned.");
+        Assertions.assertEquals(2, engine.stats()
+                                         .getFaultCount(), "Group should be read back on each lookup.");
+    }
+
+    @Test
+    @DisplayName("update and remove entities of spilled group.")
+    void testComputeSpilledEntity() {
+        TodoListId todoListId = newTodoListId();
+        List<Task> tasks = writeTasks(todoListId, 2);
+        Task updated = new Task.TaskBuilder()
+                .setTaskId(tasks.get(0)
+                                .getId())
+                .setTodoListId(todoListId)
+                .setDescription("updated")
+                .setCreationDate(new Date())
+                .build();
+
+        becomeIdle();
+        engine.compute(updated.getId(), current -> Optional.of(updated));
+        becomeIdle();
+        engine.compute(tasks.get(1)
+                            .getId(), current -> Optional.empty());
+        becomeIdle();
+
+        Assertions.assertEquals(1, engine.count(), "Removed task should not be counted.");
+        Assertions.assertEquals(singletonList(updated), engine.findBy(TODO_LIST_INDEX, todoListId),
+                                "Only updated task should be kept.");
+    }
+
+    @Test
+    @DisplayName("add entity created in spilled group to the group.")
+    void testCreateInSpilledGroup() {
+        TodoListId todoListId = newTodoListId();
+        writeTasks(todoListId, 2);
+
+        becomeIdle();
+        writeTasks(todoListId, 1);
+
+        Assertions.assertEquals(3, engine.findBy(TODO_LIST_INDEX, todoListId)
+                                         .size(), "Created task should be found together with spilled ones.");
+    }
+
+    @Test
+    @DisplayName("iterate and count spilled entities without reading them back.")
+    void testForEachWithoutFaultIn() {
+        writeTasks(newTodoListId(), 3);
+        writeTasks(newTodoListId(), 2);
+        becomeIdle();
+        writeTasks(newTodoListId(), 1);
+
+        Set<Task> visited = new HashSet<>();
+        engine.forEach(visited::add);
+
+        Assertions.assertEquals(6, visited.size(), "Resident and spilled tasks should be visited.");
+        Assertions.assertEquals(6, engine.count(), "Resident and spilled tasks should be counted.");
+        Assertions.assertEquals(0, engine.stats()
+                                         .getFaultCount(), "Spilled groups should stay on disk.");
+    }
+
+    @Test
+    @DisplayName("read entities while their groups are spilled concurrently.")
+    void testConcurrentSpill() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tasks.addAll(writeTasks(newTodoListId(), 5));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 3; reader++) {
+                readers.add(executor.submit(() -> {
+                    int missed = 0;
+                    for (int round = 0; round < 50; round++) {
+                        for (Task task : tasks) {
+                            if (!engine.read(task.getId())
+                                       .equals(Optional.of(task))) {
+                                missed++;
+                            }
+                        }
+                    }
+                    return missed;
+                }));
+            }
+            Future<?> spiller = executor.submit(() -> {
+                for (int round = 0; round < 200; round++) {
+                    becomeIdle();
+                }
+            });
+
+            spiller.get();
+            for (Future<Integer> reader : readers) {
+                Assertions.assertEquals(0, reader.get()
+                                                 .intValue(), "Every task should be read while groups are spilled.");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(tasks.size(), engine.count(), "No task should be lost.");
+    }
+
+    /**
+     * Ticker which time is advanced by test.
+     */
+    private static class ManualTicker extends Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        private void advance(long duration, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(duration));
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
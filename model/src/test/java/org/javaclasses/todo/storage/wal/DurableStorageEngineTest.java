@@ -0,0 +1,311 @@
+package org.javaclasses.todo.storage.wal;
+
+import org.javaclasses.todo.model.entity.Task;
+import org.javaclasses.todo.model.entity.TaskId;
+import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.storage.SecondaryIndex;
+import org.javaclasses.todo.storage.StorageSchema;
+import org.javaclasses.todo.storage.codec.TaskCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.singletonList;
+
+/**
+ * Testing {@link DurableStorageEngine} which should restore all acknowledged changes after reopening.
+ *
+ * @author Oleg Barmin
+ */
+@DisplayName("DurableStorageEngine should")
+class DurableStorageEngineTest {
+
+    private static final SecondaryIndex<TodoListId, Task> TODO_LIST_INDEX =
+            SecondaryIndex.on("todoListId", Task::getTodoListId);
+    private static final StorageSchema<TaskId, Task> SCHEMA =
+            new StorageSchema<>("tasks", new TaskCodec(), singletonList(TODO_LIST_INDEX));
+
+    private final TodoListId todoListId = new TodoListId(UUID.randomUUID()
+                                                             .toString());
+    private Path directory;
+
+    private static void write(DurableStorageEngine<TaskId, Task> engine, Task task) {
+        engine.compute(task.getId(), current -> Optional.of(task));
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("wal-test");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        deleteRecursively(directory);
+    }
+
+    private DurableStorageEngine<TaskId, Task> openEngine(long snapshotThreshold) {
+        return new DurableStorageEngine<>(directory, SCHEMA, true, snapshotThreshold);
+    }
+
+    private Task createTask(String description) {
+        return new Task.TaskBuilder()
+                .setTaskId(new TaskId(UUID.randomUUID()
+                                          .toString()))
+                .setTodoListId(todoListId)
+                .setDescription(description)
+                .setCreationDate(new Date())
+                .build();
+    }
+
+    private static void assertSameTask(Task expected, Optional<Task> actual) {
+        Assertions.assertTrue(actual.isPresent(), "Task should be restored.");
+        Task task = actual.get();
+        Assertions.assertEquals(expected.getTodoListId(), task.getTodoListId(), "To-do list should be restored.");
+        Assertions.assertEquals(expected.getDescription(), task.getDescription(), "Description should be restored.");
+        Assertions.assertEquals(expected.isCompleted(), task.isCompleted(), "Status should be restored.");
+        Assertions.assertEquals(expected.getCreationDate(), task.getCreationDate(),
+                                "Creation date should be restored.");
+        Assertions.assertEquals(expected.getLastUpdateDate(), task.getLastUpdateDate(),
+                                "Last update date should be restored.");
+    }
+
+    @Test
+    @DisplayName("restore written entities after reopening.")
+    void testRestoreWrites() {
+        Task first = createTask("write durable log");
+        Task second = createTask("replay it on start");
+
+        DurableStorageEngine<TaskId, Task> engine = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        write(engine, first);
+        write(engine, second);
+        engine.close();
+
+        DurableStorageEngine<TaskId, Task> reopened = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        assertSameTask(first, reopened.read(first.getId()));
+        assertSameTask(second, reopened.read(second.getId()));
+        Assertions.assertEquals(2, reopened.findBy(TODO_LIST_INDEX, todoListId)
+                                           .size(), "Restored entities should be indexed.");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("restore latest version of updated entity and forget removed entity.")
+    void testRestoreUpdatesAndRemoves() {
+        Task task = createTask("first version");
+        Task removed = createTask("to remove");
+        Task updated = new Task.TaskBuilder()
+                .setTaskId(task.getId())
+                .setTodoListId(todoListId)
+                .setDescription("second version")
+                .setStatus(true)
+                .setCreationDate(task.getCreationDate())
+                .build();
+
+        DurableStorageEngine<TaskId, Task> engine = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        write(engine, task);
+        write(engine, removed);
+        write(engine, updated);
+        engine.compute(removed.getId(), current -> Optional.empty());
+        engine.close();
+
+        DurableStorageEngine<TaskId, Task> reopened = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        assertSameTask(updated, reopened.read(task.getId()));
+        Assertions.assertFalse(reopened.read(removed.getId())
+                                       .isPresent(), "Removed task should not be restored.");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("not restore entities written before clear.")
+    void testRestoreClear() {
+        Task cleared = createTask("cleared");
+        Task kept = createTask("kept");
+
+        DurableStorageEngine<TaskId, Task> engine = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        write(engine, cleared);
+        engine.clear();
+        write(engine, kept);
+        engine.close();
+
+        DurableStorageEngine<TaskId, Task> reopened = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        Assertions.assertFalse(reopened.read(cleared.getId())
+                                       .isPresent(), "Cleared task should not be restored.");
+        assertSameTask(kept, reopened.read(kept.getId()));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("restore changes written in batches.")
+    void testRestoreBatch() {
+        Map<TaskId, Task> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            Task task = createTask("batched " + i);
+            tasks.put(task.getId(), task);
+        }
+        List<TaskId> removedIds = new ArrayList<>(tasks.keySet()).subList(0, 10);
+
+        DurableStorageEngine<TaskId, Task> engine = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        engine.computeAll(tasks.keySet(), (id, current) -> Optional.of(tasks.get(id)));
+        engine.computeAll(removedIds, (id, current) -> Optional.empty());
+        engine.close();
+
+        DurableStorageEngine<TaskId, Task> reopened = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        Assertions.assertTrue(reopened.readAll(removedIds)
+                                      .isEmpty(), "Tasks removed by batch should not be restored.");
+        for (TaskId taskId : tasks.keySet()) {
+            if (!removedIds.contains(taskId)) {
+                assertSameTask(tasks.get(taskId), reopened.read(taskId));
+            }
+        }
+        Assertions.assertEquals(90, reopened.findBy(TODO_LIST_INDEX, todoListId)
+                                            .size(), "Restored batch should be indexed.");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("restore entities from snapshot and log written after it.")
+    void testRestoreFromSnapshot() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+
+        DurableStorageEngine<TaskId, Task> engine = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        for (int i = 0; i < 10; i++) {
+            Task task = createTask("before snapshot " + i);
+            tasks.add(task);
+            write(engine, task);
+        }
+        engine.snapshot();
+        Task afterSnapshot = createTask("after snapshot");
+        write(engine, afterSnapshot);
+        engine.compute(tasks.get(0)
+                            .getId(), current -> Optional.empty());
+        List<Path> files = engine.getLog()
+                                 .files();
+        engine.close();
+
+        Assertions.assertEquals(2, files.size(), "Segments covered by snapshot should be deleted.");
+
+        DurableStorageEngine<TaskId, Task> reopened = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        Assertions.assertFalse(reopened.read(tasks.get(0)
+                                                  .getId())
+                                       .isPresent(), "Task removed after snapshot should not be restored.");
+        for (Task task : tasks.subList(1, tasks.size())) {
+            assertSameTask(task, reopened.read(task.getId()));
+        }
+        assertSameTask(afterSnapshot, reopened.read(afterSnapshot.getId()));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("write snapshot in background after configured number of changes.")
+    void testBackgroundSnapshot() throws IOException {
+        DurableStorageEngine<TaskId, Task> engine = openEngine(5);
+        List<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 12; i++) {
+            Task task = createTask("task " + i);
+            tasks.add(task);
+            write(engine, task);
+        }
+        engine.close();
+
+        boolean hasSnapshot = engine.getLog()
+                                    .files()
+                                    .stream()
+                                    .anyMatch(file -> file.getFileName()
+                                                          .toString()
+                                                          .startsWith("snapshot-"));
+        Assertions.assertTrue(hasSnapshot, "Snapshot should be written.");
+
+        DurableStorageEngine<TaskId, Task> reopened = openEngine(5);
+        for (Task task : tasks) {
+            assertSameTask(task, reopened.read(task.getId()));
+        }
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("discard torn record at the end of log.")
+    void testTornRecord() throws IOException {
+        Task task = createTask("survives crash");
+
+        DurableStorageEngine<TaskId, Task> engine = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        write(engine, task);
+        engine.close();
+
+        Path segment = engine.getLog()
+                             .files()
+                             .get(0);
+        long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        DurableStorageEngine<TaskId, Task> reopened = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        Assertions.assertFalse(reopened.read(task.getId())
+                                       .isPresent(), "Torn record should be discarded.");
+
+        Task next = createTask("written after crash");
+        write(reopened, next);
+        reopened.close();
+
+        DurableStorageEngine<TaskId, Task> restarted = openEngine(DurableStorageEngine.DEFAULT_SNAPSHOT_THRESHOLD);
+        assertSameTask(next, restarted.read(next.getId()));
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("restore all entities written concurrently.")
+    void testConcurrentWrites() throws InterruptedException {
+        int threads = 8;
+        int tasksPerThread = 200;
+
+        DurableStorageEngine<TaskId, Task> engine = openEngine(300);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Collection<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < threads * tasksPerThread; i++) {
+            tasks.add(createTask("concurrent " + i));
+        }
+        for (Task task : tasks) {
+            executor.execute(() -> write(engine, task));
+        }
+
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Writes should finish.");
+        engine.close();
+
+        DurableStorageEngine<TaskId, Task> reopened = openEngine(300);
+        Assertions.assertEquals(tasks.size(), reopened.findBy(TODO_LIST_INDEX, todoListId)
+                                                      .size(), "All written tasks should be restored.");
+        reopened.close();
+    }
+}
@@ -22,16 +22,21 @@ abstract class AbstractRequestHandler implements Route {
         request.headers()
                .forEach(header -> headersMap.put(header, request.headers(header)));
 
+        Map<String, String> queryParamsMap = new HashMap<>();
+        request.queryParams()
+               .forEach(param -> queryParamsMap.put(param, request.queryParams(param)));
+
         RequestBody body = RequestBody.of(request.body());
-        RequestParams params = new RequestParams(request.params());
+        RequestParams params = new RequestParams(request.params(), queryParamsMap);
         RequestHeaders headers = new RequestHeaders(headersMap);
 
-        RequestData requestData = new RequestData(body, params, headers);
+        RequestData requestData = new RequestData(body, params, headers, request.ip());
 
         HttpResponse httpResponse = process(requestData);
 
         response.status(httpResponse.getCode());
         response.type(getContentType());
+        httpResponse.writeHeadersTo(response);
 
         return httpResponse.getBody()
                            .asJson();
@@ -0,0 +1,155 @@
+package org.javaclasses.todo.web;
+
+import org.javaclasses.todo.ServiceFactory;
+import org.javaclasses.todo.auth.Authentication;
+import org.javaclasses.todo.storage.replication.ReplicationNode;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Processes requests of operators of application, which are served on separate admin port.
+ *
+ * @author Oleg Barmin
+ */
+class AdminController {
+
+    private AdminController() {
+    }
+
+    /**
+     * Handles get storage metrics request.
+     *
+     * <p>Provides counters and latency percentiles of operations of each storage.
+     *
+     * @author Oleg Barmin
+     */
+    static class StorageMetricsHandler extends AbstractRequestHandler {
+
+        private final ServiceFactory serviceFactory;
+
+        /**
+         * Creates {@code StorageMetricsHandler} instance.
+         *
+         * @param serviceFactory factory of services which storages are measured
+         */
+        StorageMetricsHandler(ServiceFactory serviceFactory) {
+            this.serviceFactory = checkNotNull(serviceFactory);
+        }
+
+        /**
+         * Reads current metrics of storages.
+         *
+         * @param requestData data of received request
+         * @return response with list of metrics of storages
+         */
+        @Override
+        HttpResponse process(RequestData requestData) {
+            List<StorageMetricsPayload> payload = serviceFactory.getStorageMetrics()
+                                                                .stream()
+                                                                .map(StorageMetricsPayload::new)
+                                                                .collect(toList());
+            return HttpResponse.ok(payload);
+        }
+    }
+
+    /**
+     * Handles get password hashing metrics request.
+     *
+     * <p>Provides depth of queue of passwords waiting to be hashed, number of rejected hashings
+     * and latency percentiles of hashing.
+     *
+     * @author Oleg Barmin
+     */
+    static class PasswordHashingMetricsHandler extends AbstractRequestHandler {
+
+        private final Authentication authentication;
+
+        /**
+         * Creates {@code PasswordHashingMetricsHandler} instance.
+         *
+         * @param authentication authentication service which hashes passwords
+         */
+        PasswordHashingMetricsHandler(Authentication authentication) {
+            this.authentication = checkNotNull(authentication);
+        }
+
+        /**
+         * Reads current metrics of hashing of passwords.
+         *
+         * @param requestData data of received request
+         * @return response with metrics of hashing
+         */
+        @Override
+        HttpResponse process(RequestData requestData) {
+            return HttpResponse.ok(new PasswordHashingMetricsPayload(authentication.getPasswordHashingStats()));
+        }
+    }
+
+    /**
+     * Handles get replication status request.
+     *
+     * <p>Provides role of application, sequence numbers of applied changes and replication lag.
+     *
+     * @author Oleg Barmin
+     */
+    static class ReplicationStatusHandler extends AbstractRequestHandler {
+
+        private final ReplicationNode replicationNode;
+
+        /**
+         * Creates {@code ReplicationStatusHandler} instance.
+         *
+         * @param replicationNode node which status is provided
+         */
+        ReplicationStatusHandler(ReplicationNode replicationNode) {
+            this.replicationNode = checkNotNull(replicationNode);
+        }
+
+        /**
+         * Reads current status of replication.
+         *
+         * @param requestData data of received request
+         * @return response with replication status
+         */
+        @Override
+        HttpResponse process(RequestData requestData) {
+            return HttpResponse.ok(new ReplicationStatusPayload(replicationNode.getStatus()));
+        }
+    }
+
+    /**
+     * Handles promotion request.
+     *
+     * <p>Makes application which follows the leader a leader itself, e.g. after failure of the leader.
+     *
+     * @author Oleg Barmin
+     */
+    static class PromotionHandler extends AbstractRequestHandler {
+
+        private final ReplicationNode replicationNode;
+
+        /**
+         * Creates {@code PromotionHandler} instance.
+         *
+         * @param replicationNode node to promote
+         */
+        PromotionHandler(ReplicationNode replicationNode) {
+            this.replicationNode = checkNotNull(replicationNode);
+        }
+
+        /**
+         * Promotes node to leader, does nothing if it already leads.
+         *
+         * @param requestData data of received request
+         * @return response with replication status after promotion
+         */
+        @Override
+        HttpResponse process(RequestData requestData) {
+            replicationNode.promote();
+            return HttpResponse.ok(new ReplicationStatusPayload(replicationNode.getStatus()));
+        }
+    }
+}
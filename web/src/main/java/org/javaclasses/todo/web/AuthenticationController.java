@@ -6,11 +6,14 @@ import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.Password;
 import org.javaclasses.todo.model.entity.Token;
 import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.ratelimit.RateLimiter;
 
 import java.util.Base64;
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.javaclasses.todo.web.SecuredAbstractRequestHandler.getXTodoToken;
 
 /**
@@ -60,18 +63,30 @@ class AuthenticationController {
      * Handlers user authentication and provides user {@link Token} if given credentials are valid.
      *
      * <p>Authentication is based on <a href="https://bit.ly/2DV5cNC">Basis authentication scheme</a>.
+     *
+     * <p>Password is checked by threads of {@code Authentication}, request thread only waits for the result.
+     * If too many passwords wait to be checked, request is rejected with 503 status code right away.
+     *
+     * <p>Sign ins are limited per remote address and per username before password is checked.
      */
     static class AuthenticationHandler extends AbstractRequestHandler {
 
         private final Authentication authentication;
+        private final RateLimiter<String> addressRateLimiter;
+        private final RateLimiter<Username> usernameRateLimiter;
 
         /**
          * Creates {@code AuthenticationHandler} instance.
          *
-         * @param authentication authentication service to work with
+         * @param authentication      authentication service to work with
+         * @param addressRateLimiter  limiter of sign ins per remote address
+         * @param usernameRateLimiter limiter of sign ins per username
          */
-        AuthenticationHandler(Authentication authentication) {
+        AuthenticationHandler(Authentication authentication, RateLimiter<String> addressRateLimiter,
+                              RateLimiter<Username> usernameRateLimiter) {
             this.authentication = authentication;
+            this.addressRateLimiter = checkNotNull(addressRateLimiter);
+            this.usernameRateLimiter = checkNotNull(usernameRateLimiter);
         }
 
         /**
@@ -81,6 +96,8 @@ class AuthenticationController {
          * @return Responses:
          * - 401 if request has no {@code Authentication} header or given credentials invalid;
          * - 400 if {@code Authentication} header in invalid format
+         * - 429 if too many sign ins were made from the address or with the username
+         * - 503 if too many users sign in at once
          * - 200 with token if user was signed.
          */
         @SuppressWarnings("UnstableApiUsage") // splitToList should be used because of errorprompt advice
@@ -93,6 +110,11 @@ class AuthenticationController {
                 return HttpResponse.unauthorized();
             }
 
+            long addressWait = addressRateLimiter.tryAcquire(requestData.getRemoteAddress());
+            if (addressWait > 0) {
+                return HttpResponse.tooManyRequests(addressWait, NANOSECONDS);
+            }
+
             List<String> schemeAndCredentials = Splitter.on(' ')
                                                         .splitToList(authorizationHeader);
 
@@ -120,6 +142,11 @@ class AuthenticationController {
             Username username = new Username(usernameAndPassword.get(0));
             Password password = new Password(usernameAndPassword.get(1));
 
+            long usernameWait = usernameRateLimiter.tryAcquire(username);
+            if (usernameWait > 0) {
+                return HttpResponse.tooManyRequests(usernameWait, NANOSECONDS);
+            }
+
             Token token = authentication.signIn(username, password);
 
             return HttpResponse.ok(token);
@@ -142,8 +169,10 @@ class AuthenticationController {
          * Creates {@code SingOutHandler} instance.
          *
          * @param authentication authentication service to work with
+         * @param rateLimiter    limiter of requests per token
          */
-        SingOutHandler(Authentication authentication) {
+        SingOutHandler(Authentication authentication, RateLimiter<Token> rateLimiter) {
+            super(rateLimiter);
             this.authentication = authentication;
         }
 
@@ -0,0 +1,132 @@
+package org.javaclasses.todo.web;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.javaclasses.todo.model.entity.EntityId;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.UUID;
+
+/**
+ * Factory of adapters for {@link com.google.gson.GsonBuilder} for subclasses of {@link EntityId}
+ * which values are strings.
+ *
+ * <p>ID is serialized as {@code {"value": "..."}} and deserialized by constructor of its class,
+ * which accepts value of ID, so deserialized ID keeps UUID value as bits of UUID
+ * and equals to IDs created by application.
+ *
+ * <p>ID serialized by fields of {@link EntityId}, e.g. by Gson without this factory, keeps UUID value
+ * as {@code mostSignificantBits} and {@code leastSignificantBits} instead of {@code value},
+ * so such form is deserialized as well. ID without value is rejected with {@link JsonParseException}.
+ *
+ * @author Oleg Barmin
+ */
+class EntityIdTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final String VALUE = "value";
+    private static final String UUID_FLAG = "uuid";
+    private static final String MOST_SIGNIFICANT_BITS = "mostSignificantBits";
+    private static final String LEAST_SIGNIFICANT_BITS = "leastSignificantBits";
+
+    @Override
+    @Nullable
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (!EntityId.class.isAssignableFrom(rawType)) {
+            return null;
+        }
+
+        try {
+            Constructor<? super T> constructor = rawType.getConstructor(String.class);
+            return new EntityIdAdapter<>(constructor);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Adapter of ID created by given constructor.
+     *
+     * @param <T> type of ID
+     */
+    private static class EntityIdAdapter<T> extends TypeAdapter<T> {
+
+        private final Constructor<? super T> constructor;
+
+        private EntityIdAdapter(Constructor<? super T> constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public void write(JsonWriter out, @Nullable T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject()
+               .name(VALUE)
+               .value((String) ((EntityId<?>) value).getValue())
+               .endObject();
+        }
+
+        @Override
+        @Nullable
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            String value = null;
+            boolean uuid = false;
+            Long mostSignificantBits = null;
+            Long leastSignificantBits = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (VALUE.equals(name)) {
+                    value = in.nextString();
+                } else if (UUID_FLAG.equals(name)) {
+                    uuid = in.nextBoolean();
+                } else if (MOST_SIGNIFICANT_BITS.equals(name)) {
+                    mostSignificantBits = in.nextLong();
+                } else if (LEAST_SIGNIFICANT_BITS.equals(name)) {
+                    leastSignificantBits = in.nextLong();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (value == null && uuid && mostSignificantBits != null && leastSignificantBits != null) {
+                value = new UUID(mostSignificantBits, leastSignificantBits).toString();
+            }
+            if (value == null) {
+                throw new JsonParseException("ID of " + constructor.getDeclaringClass() + " has no value.");
+            }
+            return newId(value);
+        }
+
+        // constructor creates instance of ID class which adapter was created for.
+        @SuppressWarnings("unchecked")
+        private T newId(String value) {
+            try {
+                return (T) constructor.newInstance(value);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new JsonParseException("Failed to create ID of " + constructor.getDeclaringClass(), e);
+            }
+        }
+    }
+}
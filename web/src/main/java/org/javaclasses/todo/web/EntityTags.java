@@ -0,0 +1,94 @@
+package org.javaclasses.todo.web;
+
+import java.util.Optional;
+
+/**
+ * Entity tags of responses, which identify {@link org.javaclasses.todo.model.entity.Entity#getVersion() versions}
+ * of entities.
+ *
+ * <p>Client sends tag of entity it has read in {@value #IF_MATCH_HEADER} header of request to change it,
+ * so change is applied only if entity wasn't changed since it was read. Such tags are compared strongly,
+ * as required by RFC 7232, so weak tags are rejected.
+ *
+ * <p>Client sends tags of entity it has cached in {@value #IF_NONE_MATCH_HEADER} header of request to read it,
+ * so entity is not sent again if it wasn't changed. Such tags are compared weakly, so weak tags match as well.
+ *
+ * @author Oleg Barmin
+ */
+class EntityTags {
+
+    static final String ETAG_HEADER = "ETag";
+    static final String IF_MATCH_HEADER = "If-Match";
+    static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String TAGS_SEPARATOR = ",";
+
+    private EntityTags() {
+    }
+
+    /**
+     * Creates strong entity tag of given version of entity.
+     *
+     * @param version version of entity
+     * @return quoted version of entity
+     */
+    static String of(long version) {
+        return '"' + String.valueOf(version) + '"';
+    }
+
+    /**
+     * Parses version of entity expected by {@value #IF_MATCH_HEADER} header.
+     *
+     * @param ifMatch value of header
+     * @return Optional with expected version, empty if header matches any version
+     * @throws NumberFormatException if header contains weak tag or tag not created by {@link #of(long)}
+     */
+    static Optional<Long> versionOf(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (ANY.equals(tag)) {
+            return Optional.empty();
+        }
+        if (tag.startsWith(WEAK_PREFIX)) {
+            throw new NumberFormatException("Weak entity tag cannot be compared strongly: " + ifMatch);
+        }
+        return Optional.of(parse(tag));
+    }
+
+    /**
+     * Checks if {@value #IF_NONE_MATCH_HEADER} header matches given version of entity.
+     *
+     * <p>Tags are compared weakly, tags not created by {@link #of(long)} match no version.
+     *
+     * @param ifNoneMatch value of header
+     * @param version     current version of entity
+     * @return {@code true} if header contains any tag or tag of given version, {@code false} otherwise
+     */
+    static boolean matches(String ifNoneMatch, long version) {
+        if (ANY.equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        for (String tag : ifNoneMatch.split(TAGS_SEPARATOR)) {
+            String strongTag = tag.trim();
+            if (strongTag.startsWith(WEAK_PREFIX)) {
+                strongTag = strongTag.substring(WEAK_PREFIX.length());
+            }
+            try {
+                if (parse(strongTag) == version) {
+                    return true;
+                }
+            } catch (NumberFormatException ignored) {
+                // tag of other server matches no version.
+            }
+        }
+        return false;
+    }
+
+    private static long parse(String tag) {
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new NumberFormatException("Entity tag is not quoted: " + tag);
+        }
+        return Long.parseLong(tag.substring(1, tag.length() - 1));
+    }
+}
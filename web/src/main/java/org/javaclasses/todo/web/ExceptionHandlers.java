@@ -3,13 +3,16 @@ package org.javaclasses.todo.web;
 import com.google.gson.JsonSyntaxException;
 import org.javaclasses.todo.auth.EmptyCredentialsException;
 import org.javaclasses.todo.auth.InvalidCredentialsException;
+import org.javaclasses.todo.auth.PasswordHashingOverloadedException;
 import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.EmptyTaskDescriptionException;
 import org.javaclasses.todo.model.TaskAlreadyExistsException;
 import org.javaclasses.todo.model.TaskNotFoundException;
+import org.javaclasses.todo.model.TaskVersionMismatchException;
 import org.javaclasses.todo.model.TodoListAlreadyExistsException;
 import org.javaclasses.todo.model.TodoListNotFoundException;
 import org.javaclasses.todo.model.UpdateCompletedTaskException;
+import org.javaclasses.todo.storage.replication.ReadOnlyReplicaException;
 import spark.ExceptionHandler;
 import spark.Request;
 import spark.Response;
@@ -217,6 +220,30 @@ class ExceptionHandlers {
         }
     }
 
+    /**
+     * Handles {@link TaskVersionMismatchException}.
+     *
+     * <p>Occurs when {@code UpdateTaskHandler} received request to update task which was changed
+     * since version specified by {@value EntityTags#IF_MATCH_HEADER} header.
+     */
+    public static class TaskVersionMismatchHandler implements ExceptionHandler<TaskVersionMismatchException> {
+
+        /**
+         * Responses with status code 412 and tag of current version of task.
+         *
+         * @param exception occurred exception instance
+         * @param request   request which caused exception
+         * @param response  response to configure
+         */
+        @Override
+        public void handle(TaskVersionMismatchException exception, Request request, Response response) {
+            HttpResponse httpResponse = HttpResponse.preconditionFailed()
+                                                    .withHeader(EntityTags.ETAG_HEADER,
+                                                                EntityTags.of(exception.getCurrentVersion()));
+            httpResponse.writeTo(response);
+        }
+    }
+
     /**
      * Handles {@link JsonSyntaxException}.
      *
@@ -238,4 +265,50 @@ class ExceptionHandlers {
             httpResponse.writeTo(response);
         }
     }
+
+    /**
+     * Handles {@link ReadOnlyReplicaException}.
+     *
+     * <p>Occurs when application which follows the leader receives request to change entities.
+     */
+    public static class ReadOnlyReplicaHandler implements ExceptionHandler<ReadOnlyReplicaException> {
+
+        /**
+         * Responses with status code 503, so client retries the request on leader.
+         *
+         * @param exception occurred exception instance
+         * @param request   request which caused exception
+         * @param response  response to configure
+         */
+        @Override
+        public void handle(ReadOnlyReplicaException exception, Request request, Response response) {
+            HttpResponse httpResponse = HttpResponse.serviceUnavailable();
+            httpResponse.writeTo(response);
+        }
+    }
+
+    /**
+     * Handles thrown {@link PasswordHashingOverloadedException}.
+     *
+     * <p>Occurs when too many users sign in at once, so their passwords cannot be checked in reasonable time.
+     */
+    public static class PasswordHashingOverloadedHandler
+            implements ExceptionHandler<PasswordHashingOverloadedException> {
+
+        private static final String RETRY_AFTER_SECONDS = "1";
+
+        /**
+         * Responses with status code 503, so client retries the request a second later.
+         *
+         * @param exception occurred exception instance
+         * @param request   request which caused exception
+         * @param response  response to configure
+         */
+        @Override
+        public void handle(PasswordHashingOverloadedException exception, Request request, Response response) {
+            HttpResponse httpResponse = HttpResponse.serviceUnavailable()
+                                                    .withHeader("Retry-After", RETRY_AFTER_SECONDS);
+            httpResponse.writeTo(response);
+        }
+    }
 }
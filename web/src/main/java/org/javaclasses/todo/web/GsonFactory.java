@@ -23,6 +23,7 @@ class GsonFactory {
      */
     static Gson getGson() {
         return new GsonBuilder().registerTypeAdapter(Date.class, new DateToLongAdapter())
+                                .registerTypeAdapterFactory(new EntityIdTypeAdapterFactory())
                                 .create();
     }
 
@@ -1,15 +1,23 @@
 package org.javaclasses.todo.web;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.math.LongMath;
 import spark.Response;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.math.RoundingMode.CEILING;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_PRECON_FAILED;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 
 /**
  * Response to request.
@@ -18,8 +26,12 @@ import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
  */
 class HttpResponse<B> {
 
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final String RETRY_AFTER = "Retry-After";
+
     private final int code;
     private final ResponseBody<?> body;
+    private final Map<String, String> headers;
 
     /**
      * Creates {@code HttpResponse} instance with given status code and empty body.
@@ -29,6 +41,7 @@ class HttpResponse<B> {
     private HttpResponse(int code) {
         this.code = code;
         this.body = ResponseBody.empty();
+        this.headers = ImmutableMap.of();
     }
 
     /**
@@ -40,6 +53,20 @@ class HttpResponse<B> {
     private HttpResponse(int code, B body) {
         this.code = code;
         this.body = ResponseBody.of(body);
+        this.headers = ImmutableMap.of();
+    }
+
+    /**
+     * Creates {@code HttpResponse} instance with given status code, body and headers.
+     *
+     * @param code    status code of HttpResponse
+     * @param body    body of response
+     * @param headers headers of response
+     */
+    private HttpResponse(int code, ResponseBody<?> body, Map<String, String> headers) {
+        this.code = code;
+        this.body = body;
+        this.headers = ImmutableMap.copyOf(headers);
     }
 
     /**
@@ -63,6 +90,15 @@ class HttpResponse<B> {
         return new HttpResponse(HTTP_OK);
     }
 
+    /**
+     * Creates instance of {@code HttpResponse} with empty body and 304 status code.
+     *
+     * @return response with 304 status code and empty body
+     */
+    static HttpResponse notModified() {
+        return new HttpResponse(HTTP_NOT_MODIFIED);
+    }
+
     /**
      * Creates instance of {@code HttpResponse} with empty body and 401 status code.
      *
@@ -90,6 +126,15 @@ class HttpResponse<B> {
         return new HttpResponse(HTTP_FORBIDDEN);
     }
 
+    /**
+     * Creates instance of {@code HttpResponse} with empty body and 412 status code.
+     *
+     * @return response with 412 status code and empty body
+     */
+    static HttpResponse preconditionFailed() {
+        return new HttpResponse(HTTP_PRECON_FAILED);
+    }
+
     /**
      * Creates instance of {@code HttpResponse} with 500 status code.
      *
@@ -100,15 +145,64 @@ class HttpResponse<B> {
     }
 
     /**
-     * Writes status code and body of this {@code HttpResponse} into the given {@link Response}.
+     * Creates instance of {@code HttpResponse} with empty body and 503 status code.
+     *
+     * @return response with 503 status code and empty body
+     */
+    static HttpResponse serviceUnavailable() {
+        return new HttpResponse(HTTP_UNAVAILABLE);
+    }
+
+    /**
+     * Creates instance of {@code HttpResponse} with empty body, 429 status code and {@code Retry-After} header.
+     *
+     * @param retryAfter time after which request may be repeated, rounded up to seconds
+     * @param unit       unit of given time
+     * @return response with 429 status code and empty body
+     */
+    static HttpResponse tooManyRequests(long retryAfter, TimeUnit unit) {
+        long seconds = Math.max(1, LongMath.divide(unit.toNanos(retryAfter), TimeUnit.SECONDS.toNanos(1), CEILING));
+        return new HttpResponse(HTTP_TOO_MANY_REQUESTS).withHeader(RETRY_AFTER, String.valueOf(seconds));
+    }
+
+    /**
+     * Creates copy of this {@code HttpResponse} with given header added.
+     *
+     * @param name  name of header
+     * @param value value of header
+     * @return response with same status code and body and given header
+     */
+    HttpResponse<B> withHeader(String name, String value) {
+        checkNotNull(name);
+        checkNotNull(value);
+
+        Map<String, String> newHeaders = ImmutableMap.<String, String>builder()
+                .putAll(headers)
+                .put(name, value)
+                .build();
+        return new HttpResponse<>(code, body, newHeaders);
+    }
+
+    /**
+     * Writes status code, headers and body of this {@code HttpResponse} into the given {@link Response}.
      *
      * @param response response to write data into
      */
     void writeTo(Response response) {
         response.status(this.code);
+        writeHeadersTo(response);
         response.body(body.asJson());
     }
 
+    /**
+     * Writes headers of this {@code HttpResponse} into the given {@link Response}.
+     *
+     * @param response response to write headers into
+     */
+    void writeHeadersTo(Response response) {
+        headers.forEach(response::header);
+    }
+
     int getCode() {
         return code;
     }
@@ -117,9 +211,13 @@ class HttpResponse<B> {
         return body;
     }
 
+    Map<String, String> getHeaders() {
+        return headers;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(getCode(), getBody());
+        return Objects.hash(getCode(), getBody(), getHeaders());
     }
 
     @Override
@@ -132,6 +230,7 @@ class HttpResponse<B> {
         }
         HttpResponse httpResponse = (HttpResponse) o;
         return getCode() == httpResponse.getCode() &&
-                Objects.equals(getBody(), httpResponse.getBody());
+                Objects.equals(getBody(), httpResponse.getBody()) &&
+                Objects.equals(getHeaders(), httpResponse.getHeaders());
     }
 }
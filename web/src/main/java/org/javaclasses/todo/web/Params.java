@@ -1,7 +1,7 @@
 package org.javaclasses.todo.web;
 
 /**
- * URL parameters used in {@link TodoListApplication}.
+ * URL and query parameters used in {@link TodoListApplication}.
  *
  * @author Oleg Barmin
  */
@@ -9,6 +9,8 @@ public class Params {
 
     private static final String TODO_LIST_ID_PARAM = ":todolistid";
     private static final String TASK_ID_PARAM = ":taskid";
+    private static final String PAGE_SIZE_PARAM = "pageSize";
+    private static final String CONTINUATION_TOKEN_PARAM = "continuationToken";
 
     private Params() {
     }
@@ -30,4 +32,22 @@ public class Params {
     public static String getTaskIdParam() {
         return TASK_ID_PARAM;
     }
+
+    /**
+     * Query parameter for maximum number of items of requested page.
+     *
+     * @return name of page size query parameter
+     */
+    public static String getPageSizeParam() {
+        return PAGE_SIZE_PARAM;
+    }
+
+    /**
+     * Query parameter for continuation token of the previous page.
+     *
+     * @return name of continuation token query parameter
+     */
+    public static String getContinuationTokenParam() {
+        return CONTINUATION_TOKEN_PARAM;
+    }
 }
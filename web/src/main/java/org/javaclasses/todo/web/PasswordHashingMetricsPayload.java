@@ -0,0 +1,32 @@
+package org.javaclasses.todo.web;
+
+import org.javaclasses.todo.auth.PasswordHashingStats;
+
+/**
+ * Payload of response with metrics of hashing of passwords.
+ *
+ * <p>Latencies are reported in nanoseconds.
+ *
+ * @author Oleg Barmin
+ */
+/* Fields are read by Gson to serialize payload. */
+@SuppressWarnings({"FieldCanBeLocal", "unused"})
+class PasswordHashingMetricsPayload {
+
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long rejected;
+    private final StorageMetricsPayload.HistogramPayload latency;
+
+    /**
+     * Creates {@code PasswordHashingMetricsPayload} instance with given statistics.
+     *
+     * @param stats statistics of hashing of passwords
+     */
+    PasswordHashingMetricsPayload(PasswordHashingStats stats) {
+        this.queueDepth = stats.getQueueDepth();
+        this.queueCapacity = stats.getQueueCapacity();
+        this.rejected = stats.getRejectedCount();
+        this.latency = new StorageMetricsPayload.HistogramPayload(stats.getLatencyNanos());
+    }
+}
@@ -0,0 +1,34 @@
+package org.javaclasses.todo.web;
+
+import org.javaclasses.todo.storage.replication.ReplicationStatus;
+
+/**
+ * Payload of response with status of replication.
+ *
+ * @author Oleg Barmin
+ */
+/* Fields are read by Gson to serialize payload. */
+@SuppressWarnings({"FieldCanBeLocal", "unused"})
+class ReplicationStatusPayload {
+
+    private final ReplicationStatus.Role role;
+    private final boolean connected;
+    private final int followers;
+    private final long appliedSequence;
+    private final long leaderSequence;
+    private final long lagMillis;
+
+    /**
+     * Creates {@code ReplicationStatusPayload} instance.
+     *
+     * @param status status of replication
+     */
+    ReplicationStatusPayload(ReplicationStatus status) {
+        this.role = status.getRole();
+        this.connected = status.isConnected();
+        this.followers = status.getFollowerCount();
+        this.appliedSequence = status.getAppliedSequence();
+        this.leaderSequence = status.getLeaderSequence();
+        this.lagMillis = status.getLagMillis();
+    }
+}
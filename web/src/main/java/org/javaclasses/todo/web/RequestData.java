@@ -10,6 +10,7 @@ class RequestData {
     private final RequestBody requestBody;
     private final RequestParams requestParams;
     private final RequestHeaders requestHeaders;
+    private final String remoteAddress;
 
     /**
      * Creates {@code RequestData} instance.
@@ -17,11 +18,14 @@ class RequestData {
      * @param requestBody    body of request
      * @param requestParams  parameters of request
      * @param requestHeaders headers of request
+     * @param remoteAddress  address of client which sent request
      */
-    RequestData(RequestBody requestBody, RequestParams requestParams, RequestHeaders requestHeaders) {
+    RequestData(RequestBody requestBody, RequestParams requestParams, RequestHeaders requestHeaders,
+                String remoteAddress) {
         this.requestBody = requestBody;
         this.requestParams = requestParams;
         this.requestHeaders = requestHeaders;
+        this.remoteAddress = remoteAddress;
     }
 
     RequestBody getRequestBody() {
@@ -35,4 +39,8 @@ class RequestData {
     RequestHeaders getRequestHeaders() {
         return requestHeaders;
     }
+
+    String getRemoteAddress() {
+        return remoteAddress;
+    }
 }
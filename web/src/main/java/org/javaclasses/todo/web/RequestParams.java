@@ -2,23 +2,29 @@ package org.javaclasses.todo.web;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Parameters of request.
  *
+ * <p>Contains parameters of URL path declared by route and parameters of query string.
+ *
  * @author Oleg Barmin
  */
 class RequestParams {
 
     private final Map<String, String> paramsMap;
+    private final Map<String, String> queryParamsMap;
 
     /**
      * Creates {@code RequestParams} instance.
      *
-     * @param paramsMap map of parameters name and their values
+     * @param paramsMap      map of path parameters name and their values
+     * @param queryParamsMap map of query parameters name and their values
      */
-    RequestParams(Map<String, String> paramsMap) {
+    RequestParams(Map<String, String> paramsMap, Map<String, String> queryParamsMap) {
         this.paramsMap = new HashMap<>(paramsMap);
+        this.queryParamsMap = new HashMap<>(queryParamsMap);
     }
 
     /**
@@ -30,4 +36,14 @@ class RequestParams {
     String getParamValue(String paramName) {
         return paramsMap.get(paramName);
     }
+
+    /**
+     * Provides value of query parameter.
+     *
+     * @param paramName name of query parameter to find value of
+     * @return Optional with value of requested query parameter, empty if request has no such parameter
+     */
+    Optional<String> getQueryParamValue(String paramName) {
+        return Optional.ofNullable(queryParamsMap.get(paramName));
+    }
 }
@@ -12,6 +12,10 @@ public class Routes {
     private static final String TODO_LIST_ROUTE = format("/lists/%s", Params.getTodoListIdParam());
     private static final String TASK_ROUTE = format("/lists/%s/%s", Params.getTodoListIdParam(),
                                                     Params.getTaskIdParam());
+    private static final String STORAGE_METRICS_ROUTE = "/admin/metrics";
+    private static final String PASSWORD_HASHING_METRICS_ROUTE = STORAGE_METRICS_ROUTE + "/passwords";
+    private static final String REPLICATION_ROUTE = "/admin/replication";
+    private static final String PROMOTION_ROUTE = REPLICATION_ROUTE + "/promote";
 
     private Routes() {
     }
@@ -52,4 +56,40 @@ public class Routes {
         return TASK_ROUTE;
     }
 
+    /**
+     * Provides storage metrics route of admin port.
+     *
+     * @return storage metrics route.
+     */
+    public static String getStorageMetricsRoute() {
+        return STORAGE_METRICS_ROUTE;
+    }
+
+    /**
+     * Provides password hashing metrics route of admin port.
+     *
+     * @return password hashing metrics route.
+     */
+    public static String getPasswordHashingMetricsRoute() {
+        return PASSWORD_HASHING_METRICS_ROUTE;
+    }
+
+    /**
+     * Provides replication status route of admin port.
+     *
+     * @return replication status route.
+     */
+    public static String getReplicationRoute() {
+        return REPLICATION_ROUTE;
+    }
+
+    /**
+     * Provides route of admin port which promotes follower to leader.
+     *
+     * @return promotion route.
+     */
+    public static String getPromotionRoute() {
+        return PROMOTION_ROUTE;
+    }
+
 }
@@ -1,16 +1,34 @@
 package org.javaclasses.todo.web;
 
 import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.ratelimit.RateLimiter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Secured request handler, which verifies {@link Token} in header of Request.
  *
+ * <p>Requests are limited per token before they are handled, so requests over the limit
+ * are rejected with 429 status code without reaching storages.
+ *
  * @author Oleg Barmin
  */
 abstract class SecuredAbstractRequestHandler extends AbstractRequestHandler {
 
     private static final String X_TODO_TOKEN = "X-Todo-Token";
 
+    private final RateLimiter<Token> rateLimiter;
+
+    /**
+     * Creates {@code SecuredAbstractRequestHandler} instance.
+     *
+     * @param rateLimiter limiter of requests per token
+     */
+    SecuredAbstractRequestHandler(RateLimiter<Token> rateLimiter) {
+        this.rateLimiter = checkNotNull(rateLimiter);
+    }
+
     static String getXTodoToken() {
         return X_TODO_TOKEN;
     }
@@ -26,6 +44,11 @@ abstract class SecuredAbstractRequestHandler extends AbstractRequestHandler {
 
         Token token = new Token(headerValue);
 
+        long wait = rateLimiter.tryAcquire(token);
+        if (wait > 0) {
+            return HttpResponse.tooManyRequests(wait, NANOSECONDS);
+        }
+
         return process(requestData, token);
     }
 
@@ -0,0 +1,77 @@
+package org.javaclasses.todo.web;
+
+import org.javaclasses.todo.storage.metrics.HistogramSnapshot;
+import org.javaclasses.todo.storage.metrics.OperationStats;
+import org.javaclasses.todo.storage.metrics.StorageMetrics;
+import org.javaclasses.todo.storage.metrics.StorageOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Payload of response with metrics of storage.
+ *
+ * <p>Latencies are reported in nanoseconds.
+ *
+ * @author Oleg Barmin
+ */
+/* Fields are read by Gson to serialize payload. */
+@SuppressWarnings({"FieldCanBeLocal", "unused"})
+class StorageMetricsPayload {
+
+    private final String storage;
+    private final long entityCount;
+    private final HistogramPayload scanLengths;
+    private final Map<StorageOperation, OperationPayload> operations = new LinkedHashMap<>();
+
+    /**
+     * Creates {@code StorageMetricsPayload} instance with current values of given metrics.
+     *
+     * @param metrics metrics of storage
+     */
+    StorageMetricsPayload(StorageMetrics metrics) {
+        this.storage = metrics.getStorageName();
+        this.entityCount = metrics.getEntityCount();
+        this.scanLengths = new HistogramPayload(metrics.getScanLengths());
+
+        for (StorageOperation operation : StorageOperation.values()) {
+            operations.put(operation, new OperationPayload(metrics.getStats(operation)));
+        }
+    }
+
+    /**
+     * Counters and latencies of one operation.
+     */
+    private static class OperationPayload {
+
+        private final long count;
+        private final long failures;
+        private final HistogramPayload latency;
+
+        private OperationPayload(OperationStats stats) {
+            this.count = stats.getCount();
+            this.failures = stats.getFailureCount();
+            this.latency = new HistogramPayload(stats.getLatencyNanos());
+        }
+    }
+
+    /**
+     * Summary of distribution of recorded values.
+     */
+    static class HistogramPayload {
+
+        private final double mean;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        HistogramPayload(HistogramSnapshot snapshot) {
+            this.mean = snapshot.getMean();
+            this.p50 = snapshot.getValueAtPercentile(50);
+            this.p99 = snapshot.getValueAtPercentile(99);
+            this.p999 = snapshot.getValueAtPercentile(99.9);
+            this.max = snapshot.getMax();
+        }
+    }
+}
@@ -8,6 +8,10 @@ import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TaskId;
 import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.operation.UpdateTask;
+import org.javaclasses.todo.ratelimit.RateLimiter;
+
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -58,8 +62,10 @@ class TaskController {
          * Creates {@code GetTaskRequestHandler} instance.
          *
          * @param todoService service to work with
+         * @param rateLimiter limiter of requests per token
          */
-        GetTaskRequestHandler(TodoService todoService) {
+        GetTaskRequestHandler(TodoService todoService, RateLimiter<Token> rateLimiter) {
+            super(rateLimiter);
             this.todoService = checkNotNull(todoService);
         }
 
@@ -68,7 +74,10 @@ class TaskController {
          *
          * @param requestData data of get task request
          * @param token       token of user who sent request
-         * @return answer with status code 200 and requested task in body if request was handled successfully.
+         * @return answer with status code 200, requested task in body and tag of its version
+         * in {@value EntityTags#ETAG_HEADER} header if request was handled successfully,
+         * answer with status code 304 and tag of version if {@value EntityTags#IF_NONE_MATCH_HEADER} header
+         * matches current version of task
          * @throws TaskNotFoundException        if task with given ID was not found
          * @throws TodoListNotFoundException    if TodoList with specified ID was not found
          * @throws AuthorizationFailedException if user token expired or
@@ -82,7 +91,16 @@ class TaskController {
                                    .authorizedWith(token)
                                    .execute();
 
-            return HttpResponse.ok(task);
+            String tag = EntityTags.of(task.getVersion());
+            String ifNoneMatch = requestData.getRequestHeaders()
+                                            .getHeaderValue(EntityTags.IF_NONE_MATCH_HEADER);
+            if (ifNoneMatch != null && EntityTags.matches(ifNoneMatch, task.getVersion())) {
+                return HttpResponse.notModified()
+                                   .withHeader(EntityTags.ETAG_HEADER, tag);
+            }
+
+            return HttpResponse.ok(task)
+                               .withHeader(EntityTags.ETAG_HEADER, tag);
         }
     }
 
@@ -99,8 +117,10 @@ class TaskController {
          * Creates {@code CreateTaskRequestHandler} instance.
          *
          * @param todoService service to work with
+         * @param rateLimiter limiter of requests per token
          */
-        CreateTaskRequestHandler(TodoService todoService) {
+        CreateTaskRequestHandler(TodoService todoService, RateLimiter<Token> rateLimiter) {
+            super(rateLimiter);
             this.todoService = checkNotNull(todoService);
         }
 
@@ -153,17 +173,23 @@ class TaskController {
          * Creates {@code UpdateTaskRequestHandler} instance.
          *
          * @param todoService service to work with
+         * @param rateLimiter limiter of requests per token
          */
-        UpdateTaskRequestHandler(TodoService todoService) {
+        UpdateTaskRequestHandler(TodoService todoService, RateLimiter<Token> rateLimiter) {
+            super(rateLimiter);
             this.todoService = checkNotNull(todoService);
         }
 
         /**
          * Updates task with ID specified in URL parameters from to-do list wih ID specified in URL parameters.
          *
+         * <p>If request has {@value EntityTags#IF_MATCH_HEADER} header, task is updated only if
+         * its current version has given tag.
+         *
          * @param requestData data of task update request
          * @param token       token of user who sent request
-         * @return answer with status code 200 if task updating was performed successfully
+         * @return answer with status code 200 if task updating was performed successfully,
+         * answer with status code 412 if {@value EntityTags#IF_MATCH_HEADER} header contains malformed or weak tag
          * @throws TaskNotFoundException        if task with given ID was not found
          * @throws TodoListNotFoundException    if TodoList with specified ID was not found
          * @throws AuthorizationFailedException if user token expired or
@@ -184,11 +210,24 @@ class TaskController {
             String taskDescription = payload.getTaskDescription();
             boolean taskStatus = payload.isTaskStatus();
 
-            todoService.updateTask(taskId)
-                       .authorizedWith(token)
-                       .withDescription(taskDescription)
-                       .setStatus(taskStatus)
-                       .execute();
+            UpdateTask updateTask = todoService.updateTask(taskId)
+                                               .authorizedWith(token)
+                                               .withDescription(taskDescription)
+                                               .setStatus(taskStatus);
+
+            String ifMatch = requestData.getRequestHeaders()
+                                        .getHeaderValue(EntityTags.IF_MATCH_HEADER);
+            if (ifMatch != null) {
+                Optional<Long> expectedVersion;
+                try {
+                    expectedVersion = EntityTags.versionOf(ifMatch);
+                } catch (NumberFormatException e) {
+                    return HttpResponse.preconditionFailed();
+                }
+                expectedVersion.ifPresent(updateTask::ifVersion);
+            }
+
+            updateTask.execute();
 
             return HttpResponse.ok();
         }
@@ -205,8 +244,10 @@ class TaskController {
          * Creates {@code RemoveTaskRequestHandler} instance.
          *
          * @param todoService service to work with
+         * @param rateLimiter limiter of requests per token
          */
-        RemoveTaskRequestHandler(TodoService todoService) {
+        RemoveTaskRequestHandler(TodoService todoService, RateLimiter<Token> rateLimiter) {
+            super(rateLimiter);
             this.todoService = checkNotNull(todoService);
         }
 
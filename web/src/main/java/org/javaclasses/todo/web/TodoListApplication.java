@@ -6,19 +6,55 @@ import org.javaclasses.todo.ServiceFactory;
 import org.javaclasses.todo.auth.Authentication;
 import org.javaclasses.todo.auth.EmptyCredentialsException;
 import org.javaclasses.todo.auth.InvalidCredentialsException;
+import org.javaclasses.todo.auth.PasswordHashingOverloadedException;
+import org.javaclasses.todo.auth.SignedTokens;
+import org.javaclasses.todo.auth.UserAlreadyExistsException;
 import org.javaclasses.todo.model.AuthorizationFailedException;
 import org.javaclasses.todo.model.EmptyTaskDescriptionException;
 import org.javaclasses.todo.model.Password;
+import org.javaclasses.todo.model.StorageFactory;
 import org.javaclasses.todo.model.TaskAlreadyExistsException;
 import org.javaclasses.todo.model.TaskNotFoundException;
+import org.javaclasses.todo.model.TaskVersionMismatchException;
 import org.javaclasses.todo.model.TodoListAlreadyExistsException;
 import org.javaclasses.todo.model.TodoListNotFoundException;
 import org.javaclasses.todo.model.TodoService;
 import org.javaclasses.todo.model.UpdateCompletedTaskException;
+import org.javaclasses.todo.model.entity.Token;
 import org.javaclasses.todo.model.entity.Username;
+import org.javaclasses.todo.ratelimit.RateLimit;
+import org.javaclasses.todo.ratelimit.RateLimiter;
+import org.javaclasses.todo.ratelimit.RateLimits;
+import org.javaclasses.todo.storage.StorageEngineFactory;
+import org.javaclasses.todo.storage.cache.CacheOptions;
+import org.javaclasses.todo.storage.cache.CachingStorageEngine;
+import org.javaclasses.todo.storage.impl.ConcurrentStorageEngine;
+import org.javaclasses.todo.storage.jdbc.JdbcStorageEngine;
+import org.javaclasses.todo.storage.lsm.LsmStorageEngine;
+import org.javaclasses.todo.storage.replication.ReadOnlyReplicaException;
+import org.javaclasses.todo.storage.replication.ReplicationNode;
+import org.javaclasses.todo.storage.replication.ReplicationStatus;
+import org.javaclasses.todo.storage.sharded.ShardedStorageEngine;
+import org.javaclasses.todo.storage.tiered.TieredStorageEngine;
+import org.javaclasses.todo.storage.tiered.TieringOptions;
+import org.javaclasses.todo.storage.wal.DurableStorageEngine;
 import spark.Service;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.System.getProperty;
+import static org.javaclasses.todo.web.AdminController.PromotionHandler;
+import static org.javaclasses.todo.web.AdminController.ReplicationStatusHandler;
+import static org.javaclasses.todo.web.AdminController.PasswordHashingMetricsHandler;
+import static org.javaclasses.todo.web.AdminController.StorageMetricsHandler;
 import static org.javaclasses.todo.web.AuthenticationController.AuthenticationHandler;
 import static org.javaclasses.todo.web.AuthenticationController.SingOutHandler;
 import static org.javaclasses.todo.web.AuthenticationController.TokenValidationHandler;
@@ -28,12 +64,19 @@ import static org.javaclasses.todo.web.ExceptionHandlers.EmptyCredentialsHandler
 import static org.javaclasses.todo.web.ExceptionHandlers.EmptyTaskDescriptionHandler;
 import static org.javaclasses.todo.web.ExceptionHandlers.InvalidCredentialsHandler;
 import static org.javaclasses.todo.web.ExceptionHandlers.JsonSyntaxExceptionHandler;
+import static org.javaclasses.todo.web.ExceptionHandlers.PasswordHashingOverloadedHandler;
+import static org.javaclasses.todo.web.ExceptionHandlers.ReadOnlyReplicaHandler;
 import static org.javaclasses.todo.web.ExceptionHandlers.TaskAlreadyExistsHandler;
 import static org.javaclasses.todo.web.ExceptionHandlers.TaskNotFoundHandler;
+import static org.javaclasses.todo.web.ExceptionHandlers.TaskVersionMismatchHandler;
 import static org.javaclasses.todo.web.ExceptionHandlers.TodoListAlreadyExistsHandler;
 import static org.javaclasses.todo.web.ExceptionHandlers.TodoListNotFoundHandler;
 import static org.javaclasses.todo.web.ExceptionHandlers.UpdateCompletedTaskHandler;
 import static org.javaclasses.todo.web.Routes.getAuthenticationRoute;
+import static org.javaclasses.todo.web.Routes.getPasswordHashingMetricsRoute;
+import static org.javaclasses.todo.web.Routes.getPromotionRoute;
+import static org.javaclasses.todo.web.Routes.getReplicationRoute;
+import static org.javaclasses.todo.web.Routes.getStorageMetricsRoute;
 import static org.javaclasses.todo.web.Routes.getTaskRoute;
 import static org.javaclasses.todo.web.Routes.getTodoListRoute;
 import static org.javaclasses.todo.web.Routes.getUserListsRoute;
@@ -59,16 +102,37 @@ import static org.javaclasses.todo.web.TodoListController.ReadUserListsHandler;
  * - Update existing tasks;
  * - Remove existing tasks.
  *
+ * <p>Application may follow another application, which leads replication of storages. Follower serves reads
+ * with {@value #REPLICATION_LAG_HEADER} header and rejects changes with 503 status code.
+ *
+ * <p>Application issues signed tokens if {@code todo.auth.key} property holds base64-encoded key,
+ * which should be the same for all applications sharing storages.
+ *
+ * <p>Sign ins are limited per remote address and per username, other requests are limited per token.
+ * Requests over the limits are rejected with 429 status code and {@code Retry-After} header.
+ *
  * @author Oleg Barmin
  */
 @SuppressWarnings({"OverlyCoupledClass", // TodoListApplication is REST API, it needs to use many dependencies to work.
         "WeakerAccess"}) // TodoListApplication is public API, so its methods and static field must be public.
 public class TodoListApplication {
 
+    /**
+     * Header of responses to reads from follower, which contains replication lag in milliseconds.
+     */
+    public static final String REPLICATION_LAG_HEADER = "X-Replication-Lag";
+
     private final Service service = Service.ignite();
+    private final Service adminService;
 
+    private final ServiceFactory serviceFactory;
     private final Authentication authentication;
     private final TodoService todoService;
+    @Nullable
+    private final ReplicationNode replicationNode;
+    private final RateLimiter<String> addressRateLimiter;
+    private final RateLimiter<Username> usernameRateLimiter;
+    private final RateLimiter<Token> tokenRateLimiter;
 
     /**
      * Creates {@code TodoListApplication} instance.
@@ -76,36 +140,226 @@ public class TodoListApplication {
      * @param port port to start application on
      */
     public TodoListApplication(int port) {
-        ServiceFactory serviceFactory = new ServiceFactory();
+        this(port, new ServiceFactory());
+    }
+
+    /**
+     * Creates {@code TodoListApplication} instance which uses services of given factory.
+     *
+     * @param port           port to start application on
+     * @param serviceFactory factory of services to use
+     */
+    public TodoListApplication(int port, ServiceFactory serviceFactory) {
+        this(port, serviceFactory, null, null, RateLimits.defaults());
+    }
+
+    /**
+     * Creates {@code TodoListApplication} instance which uses services of given factory
+     * and limits requests by given limits.
+     *
+     * @param port           port to start application on
+     * @param serviceFactory factory of services to use
+     * @param rateLimits     limits of requests
+     */
+    public TodoListApplication(int port, ServiceFactory serviceFactory, RateLimits rateLimits) {
+        this(port, serviceFactory, null, null, rateLimits);
+    }
+
+    /**
+     * Creates {@code TodoListApplication} instance which uses services of given factory
+     * and serves metrics of its storages on separate admin port.
+     *
+     * @param port           port to start application on
+     * @param serviceFactory factory of services to use
+     * @param adminPort      port to serve admin endpoints on
+     */
+    public TodoListApplication(int port, ServiceFactory serviceFactory, int adminPort) {
+        this(port, serviceFactory, Integer.valueOf(adminPort), null, RateLimits.defaults());
+    }
+
+    /**
+     * Creates {@code TodoListApplication} instance which uses services of given factory
+     * and takes part in replication of its storages.
+     *
+     * <p>Storages of the factory should be created by factory {@link ReplicationNode#wrap wrapped} by the node.
+     *
+     * @param port            port to start application on
+     * @param serviceFactory  factory of services to use
+     * @param replicationNode node which replicates storages of the factory
+     */
+    public TodoListApplication(int port, ServiceFactory serviceFactory, ReplicationNode replicationNode) {
+        this(port, serviceFactory, null, replicationNode, RateLimits.defaults());
+    }
+
+    private TodoListApplication(int port, ServiceFactory serviceFactory, @Nullable Integer adminPort,
+                                @Nullable ReplicationNode replicationNode, RateLimits rateLimits) {
+        this.serviceFactory = serviceFactory;
+        this.replicationNode = replicationNode;
+        this.addressRateLimiter = new RateLimiter<>(rateLimits.getSignInsPerAddress());
+        this.usernameRateLimiter = new RateLimiter<>(rateLimits.getSignInsPerUsername());
+        this.tokenRateLimiter = new RateLimiter<>(rateLimits.getRequestsPerToken());
         this.authentication = serviceFactory.getAuthentication();
         this.todoService = serviceFactory.getTodoService();
         service.port(port);
+
+        adminService = adminPort == null ? null : Service.ignite()
+                                                         .port(adminPort);
     }
 
-    // reading from system props default user credentials and port.
+    // reading from system props default user credentials, ports, data directory, options of storage and rate limits.
     @SuppressWarnings("AccessOfSystemProperties")
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         int port = getDefaultPort();
 
         String usernameStr = getProperty("todo.username");
         String passwordStr = getProperty("todo.password");
         String portStr = getProperty("todo.port");
+        String adminPortStr = getProperty("todo.admin.port");
+        String dataDirStr = getProperty("todo.data.dir");
+        String engineStr = getProperty("todo.storage.engine", "wal");
+        String shardsStr = getProperty("todo.storage.shards");
+        String cacheSizeStr = getProperty("todo.storage.cache.size");
+        String cacheEvictionStr = getProperty("todo.storage.cache.eviction", "tinylfu");
+        String writeBehindStr = getProperty("todo.storage.cache.writeBehindMillis");
+        String spillIdleStr = getProperty("todo.storage.spill.idleMinutes");
+        String spillDirStr = getProperty("todo.storage.spill.dir",
+                                         Paths.get(getProperty("java.io.tmpdir"), "todo-spill")
+                                              .toString());
+        String replicationPortStr = getProperty("todo.replication.port");
+        String replicationLeaderStr = getProperty("todo.replication.leader");
+        String authKeyStr = getProperty("todo.auth.key");
+        String signInsPerUsernameStr = getProperty("todo.rateLimit.signInsPerMinute.username");
+        String signInsPerAddressStr = getProperty("todo.rateLimit.signInsPerMinute.address");
+        String requestsPerTokenStr = getProperty("todo.rateLimit.requestsPerSecond.token");
 
         if (portStr != null) {
             port = Integer.parseInt(portStr);
         }
 
-        TodoListApplication todoListApplication = new TodoListApplication(port);
+        // lsm and h2 engines keep entities on disk, so there are no in-memory entities to spill.
+        boolean diskEngine = dataDirStr != null && ("lsm".equals(engineStr) || "h2".equals(engineStr));
+        checkArgument(spillIdleStr == null || !diskEngine,
+                      "todo.storage.spill.idleMinutes applies only to in-memory and wal engines, "
+                              + "but todo.storage.engine is %s.", engineStr);
+
+        StorageFactory storageFactory = new StorageFactory();
+        ReplicationNode replicationNode = null;
+        if (replicationLeaderStr != null) {
+            int separator = replicationLeaderStr.lastIndexOf(':');
+            replicationNode = ReplicationNode.follower(
+                    new InetSocketAddress(replicationLeaderStr.substring(0, separator),
+                                          Integer.parseInt(replicationLeaderStr.substring(separator + 1))));
+        } else if (replicationPortStr != null) {
+            replicationNode = ReplicationNode.leader();
+        }
+
+        if (dataDirStr != null || shardsStr != null || cacheSizeStr != null || spillIdleStr != null
+                || replicationNode != null) {
+            IntFunction<StorageEngineFactory> shardFactories = shard -> {
+                StorageEngineFactory memoryFactory = ConcurrentStorageEngine.factory();
+                if (spillIdleStr != null) {
+                    Path spillDir = Paths.get(spillDirStr);
+                    TieringOptions tieringOptions =
+                            TieringOptions.newBuilder()
+                                          .setIdleThreshold(Long.parseLong(spillIdleStr), TimeUnit.MINUTES)
+                                          .build();
+                    memoryFactory = TieredStorageEngine.factory(
+                            shardsStr == null ? spillDir : spillDir.resolve("shard-" + shard), tieringOptions);
+                }
+
+                if (dataDirStr == null) {
+                    return memoryFactory;
+                }
+                Path dataDir = Paths.get(dataDirStr);
+                Path shardDir = shardsStr == null ? dataDir : dataDir.resolve("shard-" + shard);
+                if ("lsm".equals(engineStr)) {
+                    return LsmStorageEngine.factory(shardDir);
+                }
+                if ("h2".equals(engineStr)) {
+                    return JdbcStorageEngine.factory(shardDir);
+                }
+                return DurableStorageEngine.factory(shardDir, memoryFactory);
+            };
+
+            StorageEngineFactory engineFactory;
+            if (shardsStr == null) {
+                engineFactory = shardFactories.apply(0);
+            } else if ("auto".equals(shardsStr)) {
+                engineFactory = ShardedStorageEngine.factory(shardFactories);
+            } else {
+                engineFactory = ShardedStorageEngine.factory(Integer.parseInt(shardsStr), shardFactories);
+            }
+
+            if (cacheSizeStr != null) {
+                CacheOptions.Builder cacheOptions =
+                        CacheOptions.newBuilder()
+                                    .setMaximumSize(Integer.parseInt(cacheSizeStr))
+                                    .setEviction("lru".equals(cacheEvictionStr)
+                                                 ? CacheOptions.Eviction.LRU
+                                                 : CacheOptions.Eviction.W_TINY_LFU);
+                if (writeBehindStr != null) {
+                    cacheOptions.setWriteBehind(Long.parseLong(writeBehindStr), TimeUnit.MILLISECONDS);
+                }
+                engineFactory = CachingStorageEngine.factory(engineFactory, cacheOptions.build());
+            }
+            if (replicationNode != null) {
+                engineFactory = replicationNode.wrap(engineFactory);
+                if (replicationPortStr != null) {
+                    replicationNode.serve(Integer.parseInt(replicationPortStr));
+                }
+            }
+            storageFactory = new StorageFactory(engineFactory);
+        }
+
+        ServiceFactory serviceFactory = authKeyStr == null
+                                        ? new ServiceFactory(storageFactory)
+                                        : new ServiceFactory(storageFactory,
+                                                             SignedTokens.newBuilder()
+                                                                         .setKey(Base64.getDecoder()
+                                                                                       .decode(authKeyStr))
+                                                                         .build());
 
-        if (!(usernameStr == null || passwordStr == null)) {
-            todoListApplication.authentication.createUser(new Username(usernameStr), new Password(passwordStr));
+        RateLimits.Builder rateLimits = RateLimits.newBuilder();
+        if (signInsPerUsernameStr != null) {
+            rateLimits.setSignInsPerUsername(rateLimit(signInsPerUsernameStr, TimeUnit.MINUTES));
+        }
+        if (signInsPerAddressStr != null) {
+            rateLimits.setSignInsPerAddress(rateLimit(signInsPerAddressStr, TimeUnit.MINUTES));
+        }
+        if (requestsPerTokenStr != null) {
+            rateLimits.setRequestsPerToken(rateLimit(requestsPerTokenStr, TimeUnit.SECONDS));
+        }
+
+        TodoListApplication todoListApplication =
+                new TodoListApplication(port, serviceFactory,
+                                        adminPortStr == null ? null : Integer.valueOf(adminPortStr),
+                                        replicationNode, rateLimits.build());
+        Runtime.getRuntime()
+               .addShutdownHook(new Thread(todoListApplication::stop));
+
+        // follower receives users of leader
+        if (!(usernameStr == null || passwordStr == null || replicationLeaderStr != null)) {
+            try {
+                todoListApplication.authentication.createUser(new Username(usernameStr),
+                                                              new Password(passwordStr));
+            } catch (UserAlreadyExistsException ignored) {
+                // user was restored from data directory
+            }
         }
 
         todoListApplication.start();
     }
 
+    private static RateLimit rateLimit(String permits, TimeUnit unit) {
+        return RateLimit.newBuilder()
+                        .setRate(Integer.parseInt(permits), 1, unit)
+                        .build();
+    }
+
     /**
      * Starts {@code TodoListApplication} server on given port.
+     *
+     * <p>Returns when server accepts requests.
      */
     @SuppressWarnings("OverlyCoupledMethod") // start server method needs many dependencies to init all handlers.
     public void start() {
@@ -115,23 +369,26 @@ public class TodoListApplication {
         service.exception(AuthorizationFailedException.class, new AuthorizationFailedHandler());
         service.exception(JsonSyntaxException.class, new JsonSyntaxExceptionHandler());
         service.exception(EmptyCredentialsException.class, new EmptyCredentialsHandler());
+        service.exception(ReadOnlyReplicaException.class, new ReadOnlyReplicaHandler());
+        service.exception(PasswordHashingOverloadedException.class, new PasswordHashingOverloadedHandler());
 
         // authentication routes
         service.exception(InvalidCredentialsException.class, new InvalidCredentialsHandler());
 
         service.get(getAuthenticationRoute(), new TokenValidationHandler(authentication));
-        service.post(getAuthenticationRoute(), new AuthenticationHandler(authentication));
-        service.delete(getAuthenticationRoute(), new SingOutHandler(authentication));
+        service.post(getAuthenticationRoute(), new AuthenticationHandler(authentication, addressRateLimiter,
+                                                                            usernameRateLimiter));
+        service.delete(getAuthenticationRoute(), new SingOutHandler(authentication, tokenRateLimiter));
 
         // to-do list routes
         service.exception(TodoListAlreadyExistsException.class, new TodoListAlreadyExistsHandler());
         service.exception(TodoListNotFoundException.class, new TodoListNotFoundHandler());
 
-        service.post(getTodoListRoute(), new CreateTodoListRequestHandler(todoService));
-        service.get(getTodoListRoute(), new ReadTasksRequestHandler(todoService));
+        service.post(getTodoListRoute(), new CreateTodoListRequestHandler(todoService, tokenRateLimiter));
+        service.get(getTodoListRoute(), new ReadTasksRequestHandler(todoService, tokenRateLimiter));
 
         // user lists route
-        service.get(getUserListsRoute(), new ReadUserListsHandler(todoService));
+        service.get(getUserListsRoute(), new ReadUserListsHandler(todoService, tokenRateLimiter));
 
         // tasks routes
         service.exception(TaskAlreadyExistsException.class, new TaskAlreadyExistsHandler());
@@ -139,19 +396,49 @@ public class TodoListApplication {
 
         service.exception(EmptyTaskDescriptionException.class, new EmptyTaskDescriptionHandler());
         service.exception(UpdateCompletedTaskException.class, new UpdateCompletedTaskHandler());
+        service.exception(TaskVersionMismatchException.class, new TaskVersionMismatchHandler());
+
+        service.get(getTaskRoute(), new GetTaskRequestHandler(todoService, tokenRateLimiter));
+        service.post(getTaskRoute(), new CreateTaskRequestHandler(todoService, tokenRateLimiter));
+        service.put(getTaskRoute(), new UpdateTaskRequestHandler(todoService, tokenRateLimiter));
+        service.delete(getTaskRoute(), new RemoveTaskRequestHandler(todoService, tokenRateLimiter));
 
-        service.get(getTaskRoute(), new GetTaskRequestHandler(todoService));
-        service.post(getTaskRoute(), new CreateTaskRequestHandler(todoService));
-        service.put(getTaskRoute(), new UpdateTaskRequestHandler(todoService));
-        service.delete(getTaskRoute(), new RemoveTaskRequestHandler(todoService));
+        // replication
+        if (replicationNode != null) {
+            service.after((request, response) -> {
+                ReplicationStatus status = replicationNode.getStatus();
+                if ("GET".equals(request.requestMethod()) && status.getRole() == ReplicationStatus.Role.FOLLOWER) {
+                    response.header(REPLICATION_LAG_HEADER, String.valueOf(status.getLagMillis()));
+                }
+            });
+            replicationNode.start();
+        }
 
+        // admin routes
+        if (adminService != null) {
+            adminService.get(getStorageMetricsRoute(), new StorageMetricsHandler(serviceFactory));
+            adminService.get(getPasswordHashingMetricsRoute(), new PasswordHashingMetricsHandler(authentication));
+            if (replicationNode != null) {
+                adminService.get(getReplicationRoute(), new ReplicationStatusHandler(replicationNode));
+                adminService.post(getPromotionRoute(), new PromotionHandler(replicationNode));
+            }
+            adminService.awaitInitialization();
+        }
+        service.awaitInitialization();
     }
 
     /**
-     * Stops to-do list application.
+     * Stops to-do list application and closes its storages.
      */
     public void stop() {
         service.stop();
+        if (adminService != null) {
+            adminService.stop();
+        }
+        if (replicationNode != null) {
+            replicationNode.close();
+        }
+        serviceFactory.close();
     }
 
     @VisibleForTesting
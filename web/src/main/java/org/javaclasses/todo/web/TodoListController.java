@@ -7,10 +7,17 @@ import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TodoList;
 import org.javaclasses.todo.model.entity.TodoListId;
 import org.javaclasses.todo.model.entity.Token;
+import org.javaclasses.todo.model.operation.ReadTasks;
+import org.javaclasses.todo.ratelimit.RateLimiter;
+import org.javaclasses.todo.storage.ContinuationToken;
+import org.javaclasses.todo.storage.Page;
 
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.javaclasses.todo.web.Params.getContinuationTokenParam;
+import static org.javaclasses.todo.web.Params.getPageSizeParam;
 import static org.javaclasses.todo.web.Params.getTodoListIdParam;
 
 /**
@@ -38,8 +45,10 @@ class TodoListController {
          * Creates {@code ReadUserListsHandler} instance.
          *
          * @param todoService service to work with
+         * @param rateLimiter limiter of requests per token
          */
-        ReadUserListsHandler(TodoService todoService) {
+        ReadUserListsHandler(TodoService todoService, RateLimiter<Token> rateLimiter) {
+            super(rateLimiter);
             this.todoService = todoService;
         }
 
@@ -74,8 +83,10 @@ class TodoListController {
          * Creates {@code CreateTodoListRequestHandler} instance.
          *
          * @param todoService todoService to work with
+         * @param rateLimiter limiter of requests per token
          */
-        CreateTodoListRequestHandler(TodoService todoService) {
+        CreateTodoListRequestHandler(TodoService todoService, RateLimiter<Token> rateLimiter) {
+            super(rateLimiter);
             this.todoService = checkNotNull(todoService);
         }
 
@@ -108,40 +119,74 @@ class TodoListController {
      * @author Oleg Barmin
      */
     static class ReadTasksRequestHandler extends SecuredAbstractRequestHandler {
+
+        private static final String X_TODO_CONTINUATION_TOKEN = "X-Todo-Continuation-Token";
+        private static final int MAX_PAGE_SIZE = 1_000;
+
         private final TodoService todoService;
 
         /**
          * Creates {@code ReadTasksRequestHandler} instance.
          *
          * @param todoService todoService to work with.
+         * @param rateLimiter limiter of requests per token
          */
-        ReadTasksRequestHandler(TodoService todoService) {
+        ReadTasksRequestHandler(TodoService todoService, RateLimiter<Token> rateLimiter) {
+            super(rateLimiter);
             this.todoService = checkNotNull(todoService);
         }
 
+        static String getXTodoContinuationToken() {
+            return X_TODO_CONTINUATION_TOKEN;
+        }
+
         /**
-         * Reads all tasks from to-do list with ID specified in URL params.
+         * Reads page of tasks from to-do list with ID specified in URL params.
+         *
+         * <p>Size of page and continuation token of the previous page are taken from query parameters.
+         * Page size is limited, so response never holds more than {@value MAX_PAGE_SIZE} tasks.
+         * If to-do list has more tasks, token to read the next page is sent
+         * in {@value X_TODO_CONTINUATION_TOKEN} header of response.
          *
          * @param requestData data of read all tasks
          * @param token       token of user who sent request
-         * @return answer with status code 200 and requested to-do list tasks
-         * if reading of tasks was performed successfully
+         * @return answer with status code 200 and requested page of to-do list tasks
+         * if reading of tasks was performed successfully,
+         * answer with status code 400 if page size or continuation token is malformed
          * @throws TodoListNotFoundException    if to-do list with given ID was not found
          * @throws AuthorizationFailedException if user toke expired or
          *                                      user has no permission to read task from this list.
          */
         @Override
         HttpResponse process(RequestData requestData, Token token) {
-            String todoListIdParam = requestData.getRequestParams()
-                                                .getParamValue(getTodoListIdParam());
+            RequestParams params = requestData.getRequestParams();
+            String todoListIdParam = params.getParamValue(getTodoListIdParam());
 
             TodoListId todoListId = new TodoListId(todoListIdParam);
 
-            List<Task> tasks = todoService.readTasksFrom(todoListId)
-                                          .authorizedWith(token)
-                                          .execute();
-
-            return HttpResponse.ok(tasks);
+            ReadTasks readTasks = todoService.readTasksFrom(todoListId)
+                                             .authorizedWith(token);
+
+            Optional<String> pageSize = params.getQueryParamValue(getPageSizeParam());
+            Optional<String> continuationToken = params.getQueryParamValue(getContinuationTokenParam());
+
+            try {
+                if (pageSize.isPresent()) {
+                    readTasks.withPageSize(Math.min(Integer.parseInt(pageSize.get()), MAX_PAGE_SIZE));
+                }
+                if (continuationToken.isPresent()) {
+                    readTasks.continuingFrom(ContinuationToken.parse(continuationToken.get()));
+                }
+            } catch (IllegalArgumentException e) {
+                return HttpResponse.badRequest();
+            }
+
+            Page<Task> page = readTasks.executePage();
+            HttpResponse response = HttpResponse.ok(page.getItems());
+
+            return page.getContinuationToken()
+                       .map(next -> response.withHeader(X_TODO_CONTINUATION_TOKEN, next.toString()))
+                       .orElse(response);
         }
     }
 }
@@ -32,9 +32,22 @@ abstract class AbstractSecuredHandlerTest extends AbstractHandlerTest {
      * @return specification of given user
      */
     RequestSpecification getRequestSpecificationFor(SampleUser user) {
+        getTestApplicationEnv().registerUser(user);
+        return getSignedInSpecificationFor(user);
+    }
+
+    /**
+     * Creates {@code RequestSpecification} for new session of given registered {@code SampleUser}.
+     *
+     * <p>Specification keeps headers of requests sent with it, so separate specification is used
+     * to send request with conditional headers.
+     *
+     * @param user registered user to get specification of
+     * @return specification of given user
+     */
+    RequestSpecification getSignedInSpecificationFor(SampleUser user) {
         RequestSpecification specification = getNewSpecification();
 
-        getTestApplicationEnv().registerUser(user);
         Token token = getTestApplicationEnv().signInUser(user);
         specification.header(getXTodoToken(), token.getValue());
 
@@ -32,6 +32,8 @@ import static org.javaclasses.todo.web.given.UserSourceTestEnv.getBob;
 @DisplayName("AuthenticationHandler should")
 class AuthenticationHandlerTest extends AbstractHandlerTest {
 
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
     private final SampleUser bob = getBob();
     private final RequestSpecification specification = getNewSpecification();
 
@@ -99,6 +101,26 @@ class AuthenticationHandlerTest extends AbstractHandlerTest {
                      .statusCode(HTTP_UNAUTHORIZED);
     }
 
+    @Test
+    @DisplayName("reject sign ins over the limit of username with status 429 and Retry-After header.")
+    void testSignInRateLimit() {
+        Password invalidPassword = new Password("_invalidPassWord13_");
+        String headerValue = getAuthenticationHeaderValue(bob.getUsername(), invalidPassword);
+
+        for (int i = 0; i < 10; i++) {
+            getNewSpecification().header(headerName(), headerValue)
+                                 .post(getAuthenticationRoute())
+                                 .then()
+                                 .statusCode(HTTP_UNAUTHORIZED);
+        }
+
+        getNewSpecification().header(headerName(), headerValue)
+                             .post(getAuthenticationRoute())
+                             .then()
+                             .statusCode(HTTP_TOO_MANY_REQUESTS)
+                             .header("Retry-After", describedAs("be present, but it isn't.", notNullValue()));
+    }
+
     @Test
     @DisplayName("response with status 500 when try to authenticate with empty username or password.")
     void testEmptyCredentialsAuthentication() {
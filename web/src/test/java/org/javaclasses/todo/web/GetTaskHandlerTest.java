@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Iterator;
 
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.javaclasses.todo.web.given.IdGenerator.generateTaskId;
@@ -55,6 +56,22 @@ class GetTaskHandlerTest extends AbstractSecuredHandlerTest {
                         .body(notNullValue(Task.class));
     }
 
+    @Test
+    @DisplayName("return 304 status code when task has version of weak tag given in If-None-Match header.")
+    void testGetNotModifiedTask() {
+        TaskId taskId = generateTaskId();
+        addTask(taskId, bobTodoListId, bobDescriptionIterator.next(), bobSpecification);
+        String taskUrl = getTaskUrl(bobTodoListId, taskId);
+        String tag = bobSpecification.get(taskUrl)
+                                     .header(EntityTags.ETAG_HEADER);
+
+        getSignedInSpecificationFor(bob).header(EntityTags.IF_NONE_MATCH_HEADER, "W/" + tag)
+                                         .get(taskUrl)
+                                         .then()
+                                         .statusCode(HTTP_NOT_MODIFIED)
+                                         .header(EntityTags.ETAG_HEADER, tag);
+    }
+
     @Test
     @DisplayName("return 403 status code when read tasks from other user to-do list.")
     void testGetTaskFromOtherUserTodoList() {
@@ -0,0 +1,30 @@
+package org.javaclasses.todo.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.DescribedAs.describedAs;
+import static org.javaclasses.todo.web.Routes.getPasswordHashingMetricsRoute;
+import static org.javaclasses.todo.web.given.UserSourceTestEnv.getBob;
+
+@DisplayName("PasswordHashingMetricsHandler should")
+class PasswordHashingMetricsHandlerTest extends AbstractHandlerTest {
+
+    @Test
+    @DisplayName("provide queue depth and latency of password hashing on admin port.")
+    void testReadPasswordHashingMetrics() {
+        getTestApplicationEnv().registerUser(getBob());
+        getTestApplicationEnv().signInUser(getBob());
+
+        given().port(getTestApplicationEnv().getAdminPort())
+               .get(getPasswordHashingMetricsRoute())
+               .then()
+               .statusCode(HTTP_OK)
+               .body("queueDepth", describedAs("report empty queue, but it don't.", is(0)))
+               .body("latency.p99", describedAs("record latency of hashing, but it don't.", greaterThan(0)));
+    }
+}
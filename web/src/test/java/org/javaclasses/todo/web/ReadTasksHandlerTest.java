@@ -6,22 +6,29 @@ import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import org.javaclasses.todo.model.entity.Task;
 import org.javaclasses.todo.model.entity.TodoListId;
+import org.javaclasses.todo.web.TodoListController.ReadTasksRequestHandler;
 import org.javaclasses.todo.web.given.SampleTask;
 import org.javaclasses.todo.web.given.SampleUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 
+import static io.restassured.RestAssured.given;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static org.javaclasses.todo.web.Params.getContinuationTokenParam;
+import static org.javaclasses.todo.web.Params.getPageSizeParam;
 import static org.javaclasses.todo.web.given.IdGenerator.generateTodoListId;
 import static org.javaclasses.todo.web.given.TestRoutesProvider.getTaskUrl;
 import static org.javaclasses.todo.web.given.TestRoutesProvider.getTodoListUrl;
 import static org.javaclasses.todo.web.given.UserSourceTestEnv.getAlice;
 import static org.javaclasses.todo.web.given.UserSourceTestEnv.getBob;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -62,6 +69,52 @@ class ReadTasksHandlerTest extends AbstractSecuredHandlerTest {
                    "provide all tasks of to-do list, but it don't.");
     }
 
+    @Test
+    @DisplayName("read tasks from to-do list page by page following continuation tokens.")
+    void testReadTasksByPages() {
+        Collection<SampleTask> uploadedSampleTasks = addAllTasksOf(bob, bobTodoListId, bobSpecification);
+
+        Collection<SampleTask> receivedTasks = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            RequestSpecification pageSpecification = given().spec(bobSpecification)
+                                                            .queryParam(getPageSizeParam(), 2);
+            if (continuationToken != null) {
+                pageSpecification.queryParam(getContinuationTokenParam(), continuationToken);
+            }
+            Response response = pageSpecification.get(getTodoListUrl(bobTodoListId));
+
+            response.then()
+                    .statusCode(HTTP_OK);
+
+            Task[] page = gson.fromJson(response.body()
+                                                .asString(), Task[].class);
+            assertTrue(page.length <= 2, "provide no more tasks than page size, but it don't.");
+            receivedTasks.addAll(toSampleTasksCollection(page));
+
+            continuationToken = response.header(ReadTasksRequestHandler.getXTodoContinuationToken());
+        } while (continuationToken != null);
+
+        assertEquals(uploadedSampleTasks.size(), receivedTasks.size(), "provide each task once, but it don't.");
+        assertTrue(receivedTasks.containsAll(uploadedSampleTasks), "provide all tasks of to-do list, but it don't.");
+    }
+
+    @Test
+    @DisplayName("response with 400 status code when page size or continuation token is malformed.")
+    void testReadTasksWithMalformedPageRequest() {
+        given().spec(bobSpecification)
+               .queryParam(getPageSizeParam(), "many")
+               .get(getTodoListUrl(bobTodoListId))
+               .then()
+               .statusCode(HTTP_BAD_REQUEST);
+
+        given().spec(bobSpecification)
+               .queryParam(getContinuationTokenParam(), "not a token")
+               .get(getTodoListUrl(bobTodoListId))
+               .then()
+               .statusCode(HTTP_BAD_REQUEST);
+    }
+
     @Test
     @DisplayName("response with 403 status code when reading tasks from other user to-do list.")
     void testReadTasksOtherUserTodoList() {
@@ -2,6 +2,7 @@ package org.javaclasses.todo.web;
 
 import com.google.common.testing.EqualsTester;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 import org.javaclasses.todo.model.entity.User;
 import org.javaclasses.todo.model.entity.UserId;
@@ -79,4 +80,14 @@ class RequestBodyTest {
         assertThrows(JsonSyntaxException.class, () -> requestBody.as(Object.class));
     }
 
+    // in good case exception will be thrown, so return value cannot be received
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    @Test
+    @DisplayName("throw JsonParseException if stored ID has no value.")
+    void testThrowOnIdWithoutValue() {
+        RequestBody requestBody = RequestBody.of("{\"id\": {\"value\": null}}");
+
+        assertThrows(JsonParseException.class, () -> requestBody.as(User.class));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package org.javaclasses.todo.web;
+
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.DescribedAs.describedAs;
+import static org.javaclasses.todo.web.Routes.getStorageMetricsRoute;
+import static org.javaclasses.todo.web.given.UserSourceTestEnv.getBob;
+
+@DisplayName("StorageMetricsHandler should")
+class StorageMetricsHandlerTest extends AbstractHandlerTest {
+
+    private RequestSpecification getAdminSpecification() {
+        return given().port(getTestApplicationEnv().getAdminPort());
+    }
+
+    @Test
+    @DisplayName("provide counters and latencies of storage operations on admin port.")
+    void testReadStorageMetrics() {
+        getTestApplicationEnv().registerUser(getBob());
+        getTestApplicationEnv().signInUser(getBob());
+
+        getAdminSpecification().get(getStorageMetricsRoute())
+                               .then()
+                               .statusCode(HTTP_OK)
+                               .body("find { it.storage == 'users' }.entityCount",
+                                     describedAs("count registered users, but it don't.", is(1)))
+                               .body("find { it.storage == 'users' }.operations.WRITE.count",
+                                     describedAs("count writes of users, but it don't.", greaterThan(0)))
+                               .body("find { it.storage == 'auth-sessions' }.operations.WRITE.latency.p99",
+                                     describedAs("record latency of writes, but it don't.", greaterThan(0)));
+    }
+
+    @Test
+    @DisplayName("not be served on port of application.")
+    void testNotServedOnApplicationPort() {
+        getNewSpecification().get(getStorageMetricsRoute())
+                             .then()
+                             .statusCode(HTTP_NOT_FOUND);
+    }
+}
@@ -16,6 +16,7 @@ import java.util.Iterator;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_PRECON_FAILED;
 import static org.javaclasses.todo.web.given.IdGenerator.generateTaskId;
 import static org.javaclasses.todo.web.given.IdGenerator.generateTodoListId;
 import static org.javaclasses.todo.web.given.TestRoutesProvider.getTaskUrl;
@@ -60,6 +61,50 @@ class UpdateTaskHandlerTest extends AbstractPayloadHandlerTest {
         assertFalse(updatedTask.isCompleted(), "task status should remain uncompleted, but it don't.");
     }
 
+    @Test
+    @DisplayName("response with 412 status code when update task changed since version of given tag.")
+    void testUpdateChangedTask() {
+        SampleTask taskToUpdate = addAllTasksOf(bob, bobTodoListId, bobSpecification).iterator()
+                                                                                     .next();
+        String taskUrl = getTaskUrl(bobTodoListId, taskToUpdate.getTaskId());
+        String tag = bobSpecification.get(taskUrl)
+                                     .header(EntityTags.ETAG_HEADER);
+
+        getSignedInSpecificationFor(bob).header(EntityTags.IF_MATCH_HEADER, tag)
+                                         .body(new TaskUpdatePayload(false, "first update."))
+                                         .put(taskUrl)
+                                         .then()
+                                         .statusCode(HTTP_OK);
+
+        getSignedInSpecificationFor(bob).header(EntityTags.IF_MATCH_HEADER, tag)
+                                         .body(new TaskUpdatePayload(false, "lost update."))
+                                         .put(taskUrl)
+                                         .then()
+                                         .statusCode(HTTP_PRECON_FAILED);
+
+        Task updatedTask = readTask(bobTodoListId, taskToUpdate.getTaskId(), bobSpecification);
+        assertEquals("first update.", updatedTask.getDescription(), "the first update should be kept.");
+    }
+
+    @Test
+    @DisplayName("response with 412 status code when update task by weak tag.")
+    void testUpdateByWeakTag() {
+        SampleTask taskToUpdate = addAllTasksOf(bob, bobTodoListId, bobSpecification).iterator()
+                                                                                     .next();
+        String taskUrl = getTaskUrl(bobTodoListId, taskToUpdate.getTaskId());
+        String tag = bobSpecification.get(taskUrl)
+                                     .header(EntityTags.ETAG_HEADER);
+
+        getSignedInSpecificationFor(bob).header(EntityTags.IF_MATCH_HEADER, "W/" + tag)
+                                         .body(new TaskUpdatePayload(false, "weakly matched update."))
+                                         .put(taskUrl)
+                                         .then()
+                                         .statusCode(HTTP_PRECON_FAILED);
+
+        Task task = readTask(bobTodoListId, taskToUpdate.getTaskId(), bobSpecification);
+        assertEquals(taskToUpdate.getDescription(), task.getDescription(), "task should not be updated.");
+    }
+
     @Test
     @DisplayName("response with 500 status code when update tasks with empty description.")
     void testUpdateTaskWithEmptyDescription() {
@@ -14,13 +14,15 @@ public class TestApplicationEnv {
 
     private final TestTodoListApplication testTodoListApplication;
     private final int port;
+    private final int adminPort;
 
     /**
      * Creates {@code TestApplicationEnv} instance.
      */
     public TestApplicationEnv() {
         port = getAvailablePort();
-        testTodoListApplication = new TestTodoListApplication(port);
+        adminPort = getAvailablePort();
+        testTodoListApplication = new TestTodoListApplication(port, adminPort);
     }
 
     /**
@@ -32,6 +34,15 @@ public class TestApplicationEnv {
         return port;
     }
 
+    /**
+     * Returns admin port of {@link TestTodoListApplication}.
+     *
+     * @return admin port of {@code TestTodoListApplication}.
+     */
+    public int getAdminPort() {
+        return adminPort;
+    }
+
     /**
      * Starts server with {@link TestTodoListApplication}.
      */
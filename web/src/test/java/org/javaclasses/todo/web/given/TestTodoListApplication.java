@@ -1,5 +1,6 @@
 package org.javaclasses.todo.web.given;
 
+import org.javaclasses.todo.ServiceFactory;
 import org.javaclasses.todo.auth.Authentication;
 import org.javaclasses.todo.web.TodoListApplication;
 
@@ -9,12 +10,13 @@ import org.javaclasses.todo.web.TodoListApplication;
 class TestTodoListApplication extends TodoListApplication {
 
     /**
-     * Creates {@code TestTodoListApplication} instance with given PORT.
+     * Creates {@code TestTodoListApplication} instance with given ports.
      *
-     * @param port port to start application on
+     * @param port      port to start application on
+     * @param adminPort port to serve admin endpoints on
      */
-    TestTodoListApplication(int port) {
-        super(port);
+    TestTodoListApplication(int port, int adminPort) {
+        super(port, new ServiceFactory(), adminPort);
     }
 
     @Override